@@ -0,0 +1,95 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks;
+
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import io.zeebe.msgpack.spec.MsgPackWriter;
+
+/**
+ * Payloads which are used by the benchmarks.
+ */
+public final class BenchmarkPayloads
+{
+    /**
+     * An order document with nested objects:
+     *
+     * <pre>
+     * {"orderId": 31243, "orderStatus": "NEW", "totalPrice": 75,
+     *  "customer": {"name": "Jane Doe", "city": "Berlin"},
+     *  "paymentMethod": "creditcard"}
+     * </pre>
+     */
+    public static DirectBuffer order()
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024]);
+        final MsgPackWriter writer = new MsgPackWriter();
+        writer.wrap(buffer, 0);
+
+        writer.writeMapHeader(5);
+
+        writer.writeString(wrapString("orderId"));
+        writer.writeInteger(31243);
+
+        writer.writeString(wrapString("orderStatus"));
+        writer.writeString(wrapString("NEW"));
+
+        writer.writeString(wrapString("totalPrice"));
+        writer.writeInteger(75);
+
+        writer.writeString(wrapString("customer"));
+        writer.writeMapHeader(2);
+        writer.writeString(wrapString("name"));
+        writer.writeString(wrapString("Jane Doe"));
+        writer.writeString(wrapString("city"));
+        writer.writeString(wrapString("Berlin"));
+
+        writer.writeString(wrapString("paymentMethod"));
+        writer.writeString(wrapString("creditcard"));
+
+        buffer.wrap(buffer, 0, writer.getOffset());
+        return buffer;
+    }
+
+    /**
+     * The result of a task: <code>{"paymentId": 12, "paid": "yes"}</code>
+     */
+    public static DirectBuffer taskResult()
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[256]);
+        final MsgPackWriter writer = new MsgPackWriter();
+        writer.wrap(buffer, 0);
+
+        writer.writeMapHeader(2);
+
+        writer.writeString(wrapString("paymentId"));
+        writer.writeInteger(12);
+
+        writer.writeString(wrapString("paid"));
+        writer.writeString(wrapString("yes"));
+
+        buffer.wrap(buffer, 0, writer.getOffset());
+        return buffer;
+    }
+
+    private BenchmarkPayloads()
+    {
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks;
+
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+
+import io.zeebe.model.bpmn.Bpmn;
+import io.zeebe.model.bpmn.instance.Workflow;
+import io.zeebe.model.bpmn.instance.WorkflowDefinition;
+import org.agrona.DirectBuffer;
+
+/**
+ * Workflows which are used by the benchmarks.
+ */
+public final class BenchmarkWorkflows
+{
+    public static final String ORDER_PROCESS_ID = "order-process";
+    public static final String PAYMENT_TASK_ID = "payment";
+    public static final String CHEAP_ORDER_FLOW_ID = "cheap";
+    public static final String TASK_TYPE = "benchmark-task";
+
+    /**
+     * Decides on the total price of an {@link BenchmarkPayloads#order()} and
+     * creates a payment task with input and output mappings for orders up to
+     * 100.
+     */
+    public static WorkflowDefinition orderProcess()
+    {
+        return Bpmn.createExecutableWorkflow(ORDER_PROCESS_ID)
+                .startEvent()
+                .exclusiveGateway("split")
+                .sequenceFlow("expensive", s -> s.condition("$.totalPrice > 100"))
+                    .endEvent()
+                .sequenceFlow(CHEAP_ORDER_FLOW_ID, s -> s.condition("$.totalPrice <= 100"))
+                    .serviceTask(PAYMENT_TASK_ID, t -> t.taskType(TASK_TYPE)
+                                 .input("$.orderId", "$.orderId")
+                                 .input("$.totalPrice", "$.price")
+                                 .output("$.paymentId", "$.paymentId"))
+                    .endEvent()
+                    .done();
+    }
+
+    public static Workflow orderProcessWorkflow()
+    {
+        // the definition contains only this workflow
+        return orderProcess().getWorkflows().iterator().next();
+    }
+
+    public static DirectBuffer orderProcessAsXml()
+    {
+        return wrapString(Bpmn.convertToString(orderProcess()));
+    }
+
+    private BenchmarkWorkflows()
+    {
+    }
+}
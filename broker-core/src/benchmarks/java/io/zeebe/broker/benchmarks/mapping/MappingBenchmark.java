@@ -0,0 +1,56 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.mapping;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+public class MappingBenchmark
+{
+
+    @Benchmark
+    @Threads(1)
+    public int extractInputMappings(MappingContext ctx)
+    {
+        return ctx.getMappingProcessor().extract(ctx.getPayload(), ctx.getInputMappings());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int mergeOutputMappings(MappingContext ctx)
+    {
+        return ctx.getMappingProcessor().merge(ctx.getTaskResult(), ctx.getPayload(), ctx.getOutputMappings());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean evaluateCondition(MappingContext ctx)
+    {
+        return ctx.getConditionInterpreter().eval(ctx.getCondition(), ctx.getPayload());
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.mapping;
+
+import io.zeebe.broker.benchmarks.BenchmarkPayloads;
+import io.zeebe.broker.benchmarks.BenchmarkWorkflows;
+import io.zeebe.model.bpmn.instance.SequenceFlow;
+import io.zeebe.model.bpmn.instance.ServiceTask;
+import io.zeebe.model.bpmn.instance.Workflow;
+import io.zeebe.msgpack.el.JsonCondition;
+import io.zeebe.msgpack.el.JsonConditionInterpreter;
+import io.zeebe.msgpack.mapping.Mapping;
+import io.zeebe.msgpack.mapping.MappingProcessor;
+import io.zeebe.util.buffer.BufferUtil;
+import org.agrona.DirectBuffer;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The mappings and the condition of the {@link BenchmarkWorkflows#orderProcess()
+ * order process}, compiled by the BPMN model like on deployment.
+ */
+@State(Scope.Thread)
+public class MappingContext
+{
+    protected final MappingProcessor mappingProcessor = new MappingProcessor(4096);
+    protected final JsonConditionInterpreter conditionInterpreter = new JsonConditionInterpreter();
+
+    protected Mapping[] inputMappings;
+    protected Mapping[] outputMappings;
+    protected JsonCondition condition;
+
+    protected DirectBuffer payload;
+    protected DirectBuffer taskResult;
+
+    @Setup
+    public void setUp()
+    {
+        final Workflow workflow = BenchmarkWorkflows.orderProcessWorkflow();
+
+        final ServiceTask serviceTask = workflow.findFlowElementById(BufferUtil.wrapString(BenchmarkWorkflows.PAYMENT_TASK_ID));
+        inputMappings = serviceTask.getInputOutputMapping().getInputMappings();
+        outputMappings = serviceTask.getInputOutputMapping().getOutputMappings();
+
+        final SequenceFlow sequenceFlow = workflow.findFlowElementById(BufferUtil.wrapString(BenchmarkWorkflows.CHEAP_ORDER_FLOW_ID));
+        condition = sequenceFlow.getCondition().getCondition();
+
+        payload = BenchmarkPayloads.order();
+        taskResult = BenchmarkPayloads.taskResult();
+    }
+
+    public MappingProcessor getMappingProcessor()
+    {
+        return mappingProcessor;
+    }
+
+    public JsonConditionInterpreter getConditionInterpreter()
+    {
+        return conditionInterpreter;
+    }
+
+    public Mapping[] getInputMappings()
+    {
+        return inputMappings;
+    }
+
+    public Mapping[] getOutputMappings()
+    {
+        return outputMappings;
+    }
+
+    public JsonCondition getCondition()
+    {
+        return condition;
+    }
+
+    public DirectBuffer getPayload()
+    {
+        return payload;
+    }
+
+    public DirectBuffer getTaskResult()
+    {
+        return taskResult;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.processor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.zeebe.transport.ServerOutput;
+import io.zeebe.transport.ServerResponse;
+import io.zeebe.transport.TransportMessage;
+
+/**
+ * Discards all responses and pushed messages but counts them, so that a
+ * benchmark can wait until a command is processed.
+ */
+public class CountingServerOutput implements ServerOutput
+{
+    protected final AtomicLong responseCount = new AtomicLong();
+    protected final AtomicLong messageCount = new AtomicLong();
+
+    @Override
+    public boolean sendMessage(TransportMessage transportMessage)
+    {
+        messageCount.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean sendResponse(ServerResponse response)
+    {
+        responseCount.incrementAndGet();
+        return true;
+    }
+
+    public long getResponseCount()
+    {
+        return responseCount.get();
+    }
+
+    public long getMessageCount()
+    {
+        return messageCount.get();
+    }
+
+    public void awaitResponses(long count)
+    {
+        while (responseCount.get() < count)
+        {
+            Thread.yield();
+        }
+    }
+
+    public void awaitMessages(long count)
+    {
+        while (messageCount.get() < count)
+        {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.processor;
+
+import java.util.concurrent.TimeUnit;
+
+import io.zeebe.broker.task.data.TaskState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the handling of task incidents, from reading the task event until
+ * the incident processor has processed it. The incident commands which are
+ * written by the processor are processed concurrently to the next operation.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class IncidentProcessorBenchmark
+{
+
+    @Benchmark
+    @Threads(1)
+    public void createAndResolveTaskIncident(IncidentProcessorContext ctx)
+    {
+        final ProcessedPositionTracker incidentProcessor = ctx.getIncidentProcessor();
+        final long taskKey = ctx.nextTaskKey();
+
+        // a failed task without retries creates an incident
+        final long failedPosition = ctx.writeTaskEvent(taskKey, TaskState.FAILED, 0);
+        incidentProcessor.awaitProcessed(failedPosition);
+
+        // updating the retries deletes the incident again
+        final long retriesUpdatedPosition = ctx.writeTaskEvent(taskKey, TaskState.RETRIES_UPDATED, 1);
+        incidentProcessor.awaitProcessed(retriesUpdatedPosition);
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.processor;
+
+import io.zeebe.broker.incident.processor.IncidentStreamProcessor;
+import io.zeebe.broker.logstreams.processor.StreamProcessorIds;
+import io.zeebe.broker.task.data.TaskEvent;
+import io.zeebe.broker.task.data.TaskState;
+import io.zeebe.protocol.clientapi.EventType;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Runs the incident stream processor only. The task events are written
+ * directly, as if the task instance stream processor had written them.
+ */
+@State(Scope.Thread)
+public class IncidentProcessorContext
+{
+    protected final LogStreamEnvironment environment = new LogStreamEnvironment();
+
+    protected final TaskEvent taskEvent = new TaskEvent();
+
+    protected ProcessedPositionTracker incidentProcessor;
+
+    protected long nextTaskKey = 1L;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        environment.open();
+
+        incidentProcessor = environment.runStreamProcessor(
+                "incident",
+                StreamProcessorIds.INCIDENT_PROCESSOR_ID,
+                new IncidentStreamProcessor(),
+                IncidentStreamProcessor.eventFilter());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception
+    {
+        environment.close();
+    }
+
+    public long nextTaskKey()
+    {
+        final long taskKey = nextTaskKey;
+        nextTaskKey += 1;
+        return taskKey;
+    }
+
+    /**
+     * @return the position of the event
+     */
+    public long writeTaskEvent(long taskKey, TaskState state, int retries)
+    {
+        taskEvent.reset();
+        taskEvent
+            .setState(state)
+            .setType(TaskProcessorContext.TASK_TYPE)
+            .setRetries(retries);
+
+        return environment.writeEvent(taskKey, EventType.TASK_EVENT, taskEvent);
+    }
+
+    public ProcessedPositionTracker getIncidentProcessor()
+    {
+        return incidentProcessor;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.processor;
+
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import io.zeebe.broker.logstreams.processor.MetadataFilter;
+import io.zeebe.broker.logstreams.processor.StreamProcessorService.MetadataEventFilter;
+import io.zeebe.logstreams.LogStreams;
+import io.zeebe.logstreams.log.LogStream;
+import io.zeebe.logstreams.log.LogStreamWriter;
+import io.zeebe.logstreams.log.LogStreamWriterImpl;
+import io.zeebe.logstreams.processor.StreamProcessor;
+import io.zeebe.logstreams.processor.StreamProcessorController;
+import io.zeebe.logstreams.snapshot.TimeBasedSnapshotPolicy;
+import io.zeebe.logstreams.spi.SnapshotStorage;
+import io.zeebe.protocol.Protocol;
+import io.zeebe.protocol.clientapi.EventType;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+import io.zeebe.util.FileUtil;
+import io.zeebe.util.actor.ActorScheduler;
+import io.zeebe.util.actor.ActorSchedulerBuilder;
+import io.zeebe.util.buffer.BufferWriter;
+import org.agrona.DirectBuffer;
+
+/**
+ * A log stream with stream processors, like a partition of the broker but
+ * without transports and services. The log is stored in <code>/dev/shm</code>
+ * if available, so that the benchmarks measure the processing and not the
+ * disk.
+ */
+public class LogStreamEnvironment
+{
+    public static final int REQUEST_STREAM_ID = 1;
+
+    /**
+     * Key of a command which gets the position of the command as key, like a
+     * create command of the client API.
+     */
+    public static final long POSITION_AS_KEY = -1L;
+
+    protected static final DirectBuffer TOPIC_NAME = wrapString("benchmark-topic");
+    protected static final int PARTITION_ID = 0;
+
+    protected static final File SHARED_MEMORY_DIRECTORY = new File("/dev/shm");
+
+    protected final BrokerEventMetadata metadata = new BrokerEventMetadata();
+
+    protected final List<StreamProcessorController> controllers = new ArrayList<>();
+
+    protected File directory;
+    protected ActorScheduler actorScheduler;
+    protected LogStream logStream;
+    protected SnapshotStorage snapshotStorage;
+    protected LogStreamWriter logStreamWriter;
+
+    protected long requestId = 0;
+
+    public void open() throws IOException
+    {
+        final File parentDirectory = SHARED_MEMORY_DIRECTORY.isDirectory() && SHARED_MEMORY_DIRECTORY.canWrite()
+                ? SHARED_MEMORY_DIRECTORY
+                : new File(System.getProperty("java.io.tmpdir"));
+
+        directory = Files.createTempDirectory(parentDirectory.toPath(), "zeebe-benchmark-").toFile();
+        final String rootPath = directory.getAbsolutePath();
+
+        actorScheduler = ActorSchedulerBuilder.createDefaultScheduler("benchmark");
+
+        logStream = LogStreams.createFsLogStream(TOPIC_NAME, PARTITION_ID)
+            .logRootPath(rootPath)
+            .actorScheduler(actorScheduler)
+            .deleteOnClose(true)
+            .build();
+
+        logStream.open();
+        // all events are committed
+        logStream.setCommitPosition(Long.MAX_VALUE);
+
+        snapshotStorage = LogStreams.createFsSnapshotStore(rootPath).build();
+
+        logStreamWriter = new LogStreamWriterImpl(logStream);
+    }
+
+    public ProcessedPositionTracker runStreamProcessor(String name, int id, StreamProcessor streamProcessor, MetadataFilter eventFilter)
+    {
+        final ProcessedPositionTracker processor = new ProcessedPositionTracker(streamProcessor);
+
+        final StreamProcessorController controller = LogStreams.createStreamProcessor(name, id, processor)
+            .logStream(logStream)
+            .snapshotStorage(snapshotStorage)
+            .snapshotPolicy(new TimeBasedSnapshotPolicy(Duration.ofMinutes(15)))
+            .actorScheduler(actorScheduler)
+            .eventFilter(new MetadataEventFilter(eventFilter))
+            .build();
+
+        join(controller.openAsync());
+        controllers.add(controller);
+
+        return processor;
+    }
+
+    /**
+     * Writes a command like the client API does, i.e. with request metadata
+     * so that the processor responds to it.
+     *
+     * @return the position of the command
+     */
+    public long writeCommand(long key, EventType eventType, BufferWriter command)
+    {
+        requestId += 1;
+
+        metadata.reset();
+        metadata
+            .protocolVersion(Protocol.PROTOCOL_VERSION)
+            .eventType(eventType)
+            .requestStreamId(REQUEST_STREAM_ID)
+            .requestId(requestId);
+
+        return writeEvent(key, metadata, command);
+    }
+
+    /**
+     * Writes an event without request metadata, like a processor does.
+     *
+     * @return the position of the event
+     */
+    public long writeEvent(long key, EventType eventType, BufferWriter event)
+    {
+        metadata.reset();
+        metadata
+            .protocolVersion(Protocol.PROTOCOL_VERSION)
+            .eventType(eventType);
+
+        return writeEvent(key, metadata, event);
+    }
+
+    protected long writeEvent(long key, BrokerEventMetadata metadata, BufferWriter event)
+    {
+        long position;
+        do
+        {
+            if (key != POSITION_AS_KEY)
+            {
+                logStreamWriter.key(key);
+            }
+            else
+            {
+                logStreamWriter.positionAsKey();
+            }
+
+            position = logStreamWriter
+                    .metadataWriter(metadata)
+                    .valueWriter(event)
+                    .tryWrite();
+        }
+        while (position < 0);
+
+        return position;
+    }
+
+    public LogStream getLogStream()
+    {
+        return logStream;
+    }
+
+    public void close() throws IOException
+    {
+        for (int i = controllers.size() - 1; i >= 0; i--)
+        {
+            join(controllers.get(i).closeAsync());
+        }
+        controllers.clear();
+
+        logStream.close();
+        actorScheduler.close();
+
+        FileUtil.deleteFolder(directory.getAbsolutePath());
+    }
+
+    protected static <T> T join(Future<T> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.processor;
+
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.logstreams.processor.EventProcessor;
+import io.zeebe.logstreams.processor.StreamProcessor;
+import io.zeebe.logstreams.processor.StreamProcessorContext;
+import io.zeebe.logstreams.spi.SnapshotSupport;
+
+/**
+ * Delegates to the given stream processor and publishes the position of the
+ * last processed event, for processors which don't respond to a command.
+ */
+public class ProcessedPositionTracker implements StreamProcessor
+{
+    protected final StreamProcessor delegate;
+
+    protected long currentPosition = -1L;
+    protected volatile long processedPosition = -1L;
+
+    public ProcessedPositionTracker(StreamProcessor delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int getPriority(long now)
+    {
+        return delegate.getPriority(now);
+    }
+
+    @Override
+    public SnapshotSupport getStateResource()
+    {
+        return delegate.getStateResource();
+    }
+
+    @Override
+    public EventProcessor onEvent(LoggedEvent event)
+    {
+        currentPosition = event.getPosition();
+
+        final EventProcessor eventProcessor = delegate.onEvent(event);
+        if (eventProcessor == null)
+        {
+            processedPosition = currentPosition;
+        }
+        return eventProcessor;
+    }
+
+    @Override
+    public void onOpen(StreamProcessorContext context)
+    {
+        delegate.onOpen(context);
+    }
+
+    @Override
+    public void onClose()
+    {
+        delegate.onClose();
+    }
+
+    @Override
+    public boolean isSuspended()
+    {
+        return delegate.isSuspended();
+    }
+
+    @Override
+    public void afterEvent()
+    {
+        delegate.afterEvent();
+
+        processedPosition = currentPosition;
+    }
+
+    /**
+     * Waits until the event at the given position is processed. The event
+     * must pass the event filter of the processor.
+     */
+    public void awaitProcessed(long position)
+    {
+        while (processedPosition < position)
+        {
+            Thread.yield();
+        }
+    }
+}
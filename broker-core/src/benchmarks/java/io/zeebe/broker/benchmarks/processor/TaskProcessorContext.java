@@ -0,0 +1,145 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.processor;
+
+import static io.zeebe.broker.benchmarks.processor.LogStreamEnvironment.REQUEST_STREAM_ID;
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+
+import java.time.Duration;
+
+import io.zeebe.broker.benchmarks.BenchmarkPayloads;
+import io.zeebe.broker.benchmarks.BenchmarkWorkflows;
+import io.zeebe.broker.logstreams.processor.StreamProcessorIds;
+import io.zeebe.broker.task.data.TaskEvent;
+import io.zeebe.broker.task.data.TaskState;
+import io.zeebe.broker.task.processor.LockTaskStreamProcessor;
+import io.zeebe.broker.task.processor.TaskInstanceStreamProcessor;
+import io.zeebe.broker.task.processor.TaskSubscription;
+import io.zeebe.broker.transport.clientapi.CommandResponseWriter;
+import io.zeebe.broker.transport.clientapi.SubscribedEventWriter;
+import io.zeebe.protocol.clientapi.EventType;
+import org.agrona.DirectBuffer;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Runs the task instance and the lock task stream processor with one task
+ * subscription which has (practically) unlimited credits.
+ */
+@State(Scope.Thread)
+public class TaskProcessorContext
+{
+    public static final DirectBuffer TASK_TYPE = wrapString(BenchmarkWorkflows.TASK_TYPE);
+    public static final DirectBuffer LOCK_OWNER = wrapString("benchmark");
+
+    protected final LogStreamEnvironment environment = new LogStreamEnvironment();
+    protected final CountingServerOutput output = new CountingServerOutput();
+
+    protected final TaskEvent taskEvent = new TaskEvent();
+
+    protected DirectBuffer payload;
+    protected DirectBuffer result;
+
+    protected long nextTaskKey = 1L;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        environment.open();
+
+        final TaskInstanceStreamProcessor taskInstanceStreamProcessor = new TaskInstanceStreamProcessor(
+                new CommandResponseWriter(output),
+                new SubscribedEventWriter(output),
+                // only used if a locked task is rejected
+                null);
+
+        environment.runStreamProcessor(
+                "task-instance",
+                StreamProcessorIds.TASK_QUEUE_STREAM_PROCESSOR_ID,
+                taskInstanceStreamProcessor,
+                TaskInstanceStreamProcessor.eventFilter());
+
+        final LockTaskStreamProcessor lockTaskStreamProcessor = new LockTaskStreamProcessor();
+
+        environment.runStreamProcessor(
+                "task-lock",
+                StreamProcessorIds.TASK_LOCK_STREAM_PROCESSOR_ID,
+                lockTaskStreamProcessor,
+                LockTaskStreamProcessor.eventFilter());
+
+        final TaskSubscription subscription = new TaskSubscription(
+                environment.getLogStream().getPartitionId(),
+                TASK_TYPE,
+                Duration.ofHours(1).toMillis(),
+                LOCK_OWNER,
+                REQUEST_STREAM_ID);
+        subscription.setSubscriberKey(1L);
+        subscription.setCredits(Integer.MAX_VALUE);
+
+        LogStreamEnvironment.join(lockTaskStreamProcessor.addSubscription(subscription));
+
+        payload = BenchmarkPayloads.order();
+        result = BenchmarkPayloads.taskResult();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception
+    {
+        environment.close();
+    }
+
+    /**
+     * @return the key of the task
+     */
+    public long writeCreateTask()
+    {
+        final long taskKey = nextTaskKey;
+        nextTaskKey += 1;
+
+        taskEvent.reset();
+        taskEvent
+            .setState(TaskState.CREATE)
+            .setType(TASK_TYPE)
+            .setRetries(3)
+            .setPayload(payload);
+
+        environment.writeCommand(taskKey, EventType.TASK_EVENT, taskEvent);
+
+        return taskKey;
+    }
+
+    public void writeCompleteTask(long taskKey)
+    {
+        taskEvent.reset();
+        taskEvent
+            .setState(TaskState.COMPLETE)
+            .setType(TASK_TYPE)
+            .setLockOwner(LOCK_OWNER)
+            .setRetries(3)
+            .setPayload(result);
+
+        environment.writeCommand(taskKey, EventType.TASK_EVENT, taskEvent);
+    }
+
+    public CountingServerOutput getOutput()
+    {
+        return output;
+    }
+}
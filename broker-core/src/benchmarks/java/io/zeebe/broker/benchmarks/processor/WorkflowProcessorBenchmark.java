@@ -0,0 +1,69 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.processor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the creation of workflow instances. The created instances stay
+ * active since their tasks are not completed.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class WorkflowProcessorBenchmark
+{
+
+    @Benchmark
+    @Threads(1)
+    public void createWorkflowInstance(WorkflowProcessorContext ctx)
+    {
+        final CountingServerOutput output = ctx.getOutput();
+        final long responseCount = output.getResponseCount();
+
+        ctx.writeCreateWorkflowInstance();
+
+        output.awaitResponses(responseCount + 1);
+    }
+
+    /**
+     * Start event, exclusive gateway, input mapping and task creation until
+     * the task is locked.
+     */
+    @Benchmark
+    @Threads(1)
+    public void startWorkflowInstanceUntilTaskLocked(WorkflowProcessorContext ctx)
+    {
+        final CountingServerOutput output = ctx.getOutput();
+        final long messageCount = output.getMessageCount();
+
+        ctx.writeCreateWorkflowInstance();
+
+        output.awaitMessages(messageCount + 1);
+    }
+
+}
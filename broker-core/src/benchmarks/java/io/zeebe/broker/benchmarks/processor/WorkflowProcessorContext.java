@@ -0,0 +1,94 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.benchmarks.processor;
+
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+
+import io.zeebe.broker.benchmarks.BenchmarkWorkflows;
+import io.zeebe.broker.logstreams.processor.StreamProcessorIds;
+import io.zeebe.broker.system.deployment.handler.CreateWorkflowResponseSender;
+import io.zeebe.broker.transport.clientapi.CommandResponseWriter;
+import io.zeebe.broker.workflow.data.WorkflowEvent;
+import io.zeebe.broker.workflow.data.WorkflowInstanceEvent;
+import io.zeebe.broker.workflow.data.WorkflowInstanceState;
+import io.zeebe.broker.workflow.data.WorkflowState;
+import io.zeebe.broker.workflow.processor.WorkflowInstanceStreamProcessor;
+import io.zeebe.protocol.clientapi.EventType;
+import org.agrona.DirectBuffer;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Runs the workflow instance stream processor in addition to the task
+ * processors and deploys the {@link BenchmarkWorkflows#orderProcess() order
+ * process}.
+ */
+@State(Scope.Thread)
+public class WorkflowProcessorContext extends TaskProcessorContext
+{
+    protected static final long WORKFLOW_KEY = 1L;
+
+    protected static final DirectBuffer BPMN_PROCESS_ID = wrapString(BenchmarkWorkflows.ORDER_PROCESS_ID);
+
+    protected final WorkflowInstanceEvent workflowInstanceEvent = new WorkflowInstanceEvent();
+
+    /**
+     * Called after {@link TaskProcessorContext#setUp()}.
+     */
+    @Setup
+    public void deployWorkflow()
+    {
+        final WorkflowInstanceStreamProcessor workflowInstanceStreamProcessor = new WorkflowInstanceStreamProcessor(
+                new CommandResponseWriter(output),
+                new CreateWorkflowResponseSender(output),
+                32,
+                64,
+                64 * 1024 * 1024);
+
+        environment.runStreamProcessor(
+                "workflow-instance",
+                StreamProcessorIds.WORKFLOW_INSTANCE_PROCESSOR_ID,
+                workflowInstanceStreamProcessor,
+                WorkflowInstanceStreamProcessor.eventFilter());
+
+        final WorkflowEvent workflowEvent = new WorkflowEvent()
+                .setState(WorkflowState.CREATE)
+                .setBpmnProcessId(BPMN_PROCESS_ID)
+                .setVersion(1)
+                .setBpmnXml(BenchmarkWorkflows.orderProcessAsXml())
+                .setDeploymentKey(1L);
+
+        final long responseCount = output.getResponseCount();
+
+        environment.writeCommand(WORKFLOW_KEY, EventType.WORKFLOW_EVENT, workflowEvent);
+
+        output.awaitResponses(responseCount + 1);
+    }
+
+    public void writeCreateWorkflowInstance()
+    {
+        workflowInstanceEvent.reset();
+        workflowInstanceEvent
+            .setState(WorkflowInstanceState.CREATE_WORKFLOW_INSTANCE)
+            .setBpmnProcessId(BPMN_PROCESS_ID)
+            .setPayload(payload);
+
+        environment.writeCommand(LogStreamEnvironment.POSITION_AS_KEY, EventType.WORKFLOW_INSTANCE_EVENT, workflowInstanceEvent);
+    }
+}
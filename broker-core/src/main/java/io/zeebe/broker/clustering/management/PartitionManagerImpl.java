@@ -140,6 +140,18 @@ public class PartitionManagerImpl implements PartitionManager
         {
             return memberRaftComposite.getLeadingPartitions();
         }
+
+        @Override
+        public int getPartitionCount()
+        {
+            return memberRaftComposite.getPartitionCount();
+        }
+
+        @Override
+        public int getLeaderCount()
+        {
+            return memberRaftComposite.getLeaderCount();
+        }
     }
 
 }
@@ -64,7 +64,7 @@ public class ClusterManagerFragmentHandler implements ServerMessageHandler, Serv
                 }
                 case CreateWorkflowRequestEncoder.TEMPLATE_ID:
                 {
-                    return workflowRequestMessageHandler.onCreateWorkflowRequest(buffer, offset, length, remoteAddress, requestId);
+                    return workflowRequestMessageHandler.onCreateWorkflowRequest(buffer, offset, length, output, remoteAddress, requestId);
                 }
                 case CreatePartitionRequestDecoder.TEMPLATE_ID:
                 {
@@ -89,6 +89,24 @@ public class MemberRaftComposite
         return intArrayListIterator;
     }
 
+    public int getPartitionCount()
+    {
+        return rafts.size();
+    }
+
+    public int getLeaderCount()
+    {
+        int leaderCount = 0;
+        for (int i = 0; i < rafts.size(); i++)
+        {
+            if (rafts.get(i).getRaftState() == RaftState.LEADER)
+            {
+                leaderCount++;
+            }
+        }
+        return leaderCount;
+    }
+
     public Iterator<RaftStateComposite> getRaftIterator()
     {
         return rafts.iterator();
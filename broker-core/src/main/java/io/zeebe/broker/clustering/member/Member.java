@@ -26,4 +26,11 @@ public interface Member
     SocketAddress getManagementAddress();
 
     IntIterator getLeadingPartitions();
+
+    /**
+     * @return the number of partitions the member is leader or follower of
+     */
+    int getPartitionCount();
+
+    int getLeaderCount();
 }
@@ -141,7 +141,8 @@ public class SubscribeProcessor implements EventProcessor
                     event.getKey(),
                     resumePosition,
                     subscriptionName,
-                    subscriberEvent.getPrefetchCapacity());
+                    subscriberEvent.getPrefetchCapacity(),
+                    TopicSubscriptionFilter.of(subscriberEvent));
 
             awaitProcessorState.wrap(processorFuture);
             state = awaitProcessorState;
@@ -37,6 +37,13 @@ public class TopicSubscriberEvent extends UnpackedObject
     protected BooleanProperty forceStartProp = new BooleanProperty("forceStart", false);
     protected EnumProperty<TopicSubscriberState> stateProp = new EnumProperty<>("state", TopicSubscriberState.class);
 
+    // bit mask of the event types (by protocol value) which are pushed; -1 for all types
+    protected IntegerProperty eventTypesProp = new IntegerProperty("eventTypes", TopicSubscriptionFilter.ALL_EVENT_TYPES);
+    // if not empty, only events with this state are pushed
+    protected StringProperty eventStateProp = new StringProperty("eventState", "");
+    // if not negative, only events with this workflow key are pushed
+    protected LongProperty workflowKeyProp = new LongProperty("workflowKey", -1L);
+
     public TopicSubscriberEvent()
     {
         this
@@ -44,7 +51,10 @@ public class TopicSubscriberEvent extends UnpackedObject
             .declareProperty(startPositionProp)
             .declareProperty(nameProp)
             .declareProperty(prefetchCapacityProp)
-            .declareProperty(forceStartProp);
+            .declareProperty(forceStartProp)
+            .declareProperty(eventTypesProp)
+            .declareProperty(eventStateProp)
+            .declareProperty(workflowKeyProp);
     }
 
     public TopicSubscriberEvent setStartPosition(long startPosition)
@@ -91,6 +101,21 @@ public class TopicSubscriberEvent extends UnpackedObject
         return forceStartProp.getValue();
     }
 
+    public int getEventTypes()
+    {
+        return eventTypesProp.getValue();
+    }
+
+    public DirectBuffer getEventState()
+    {
+        return eventStateProp.getValue();
+    }
+
+    public long getWorkflowKey()
+    {
+        return workflowKeyProp.getValue();
+    }
+
     public TopicSubscriberState getState()
     {
         return stateProp.getValue();
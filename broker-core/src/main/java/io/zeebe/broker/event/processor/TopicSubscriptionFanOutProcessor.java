@@ -0,0 +1,184 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.event.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.zeebe.broker.logstreams.processor.NoopSnapshotSupport;
+import io.zeebe.logstreams.log.LogStreamReader;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.logstreams.processor.EventProcessor;
+import io.zeebe.logstreams.processor.StreamProcessor;
+import io.zeebe.logstreams.processor.StreamProcessorContext;
+import io.zeebe.logstreams.spi.SnapshotSupport;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+import io.zeebe.util.DeferredCommandContext;
+
+/**
+ * Reads the head of a partition once and pushes the events to all topic
+ * subscriptions which are shared, i.e. which have caught up with the head.
+ *
+ * <p>
+ * A subscription starts with a dedicated push processor. When it reaches the
+ * position of this processor, it hands over and is shared from then on (see
+ * {@link #shareAsync(TopicSubscriptionPushProcessor)}). When a shared
+ * subscription can't receive more events because its prefetch capacity is
+ * exhausted or the event can't be pushed to the client, it is detached and
+ * continues with a dedicated push processor, so that it doesn't block the
+ * other subscriptions.
+ */
+public class TopicSubscriptionFanOutProcessor implements StreamProcessor, EventProcessor
+{
+    protected final SnapshotSupport snapshotSupport = new NoopSnapshotSupport();
+    protected final BrokerEventMetadata metadata = new BrokerEventMetadata();
+
+    protected final TopicSubscriptionManagementProcessor manager;
+
+    protected final List<TopicSubscriptionPushProcessor> sharedSubscriptions = new ArrayList<>();
+
+    protected volatile DeferredCommandContext cmdQueue;
+    protected LoggedEvent event;
+
+    /*
+     * position of the last read event; written by the processor and read by the
+     * dedicated push processors to decide if they can hand over
+     */
+    protected volatile long position = -1L;
+
+    public TopicSubscriptionFanOutProcessor(TopicSubscriptionManagementProcessor manager)
+    {
+        this.manager = manager;
+    }
+
+    @Override
+    public void onOpen(StreamProcessorContext context)
+    {
+        this.cmdQueue = context.getStreamProcessorCmdQueue();
+
+        // start at the tail, like a new subscription without start position
+        final LogStreamReader logReader = context.getLogStreamReader();
+        logReader.seekToLastEvent();
+
+        if (logReader.hasNext())
+        {
+            position = logReader.next().getPosition();
+        }
+    }
+
+    @Override
+    public SnapshotSupport getStateResource()
+    {
+        return snapshotSupport;
+    }
+
+    public long getPosition()
+    {
+        return position;
+    }
+
+    @Override
+    public EventProcessor onEvent(LoggedEvent event)
+    {
+        position = event.getPosition();
+
+        if (sharedSubscriptions.isEmpty())
+        {
+            return null;
+        }
+
+        this.event = event;
+
+        metadata.reset();
+        event.readMetadata(metadata);
+
+        return this;
+    }
+
+    @Override
+    public void processEvent()
+    {
+    }
+
+    @Override
+    public boolean executeSideEffects()
+    {
+        int index = 0;
+        while (index < sharedSubscriptions.size())
+        {
+            final TopicSubscriptionPushProcessor subscription = sharedSubscriptions.get(index);
+
+            if (subscription.isClosed())
+            {
+                sharedSubscriptions.remove(index);
+            }
+            else if (subscription.isSaturated())
+            {
+                sharedSubscriptions.remove(index);
+                manager.onSubscriptionDetached(subscription);
+            }
+            else if (!subscription.dispatch(event, metadata))
+            {
+                // the dedicated push processor retries the event which is not pushed
+                sharedSubscriptions.remove(index);
+                manager.onSubscriptionDetached(subscription);
+            }
+            else
+            {
+                index += 1;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Shares the subscription if this processor has not read beyond the last
+     * event which is handled by the subscription's dedicated push processor.
+     * Otherwise, the dedicated push processor continues.
+     */
+    public void shareAsync(TopicSubscriptionPushProcessor subscription)
+    {
+        final DeferredCommandContext cmdQueue = this.cmdQueue;
+        if (cmdQueue == null)
+        {
+            // not open yet
+            subscription.resumeDedicated();
+            return;
+        }
+
+        cmdQueue.runAsync(() ->
+        {
+            if (subscription.isClosed())
+            {
+                return;
+            }
+
+            if (position <= subscription.getLastProcessedPosition())
+            {
+                sharedSubscriptions.add(subscription);
+                manager.onSubscriptionShared(subscription);
+            }
+            else
+            {
+                subscription.resumeDedicated();
+            }
+        });
+    }
+
+}
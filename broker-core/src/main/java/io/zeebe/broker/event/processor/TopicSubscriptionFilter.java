@@ -0,0 +1,125 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.event.processor;
+
+import static io.zeebe.util.buffer.BufferUtil.cloneBuffer;
+
+import io.zeebe.broker.logstreams.processor.MetadataFilter;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.msgpack.UnpackedObject;
+import io.zeebe.msgpack.property.LongProperty;
+import io.zeebe.msgpack.property.StringProperty;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+import io.zeebe.util.buffer.BufferUtil;
+import org.agrona.DirectBuffer;
+
+/**
+ * Decides which events are pushed to a topic subscriber. Events can be
+ * filtered by type, by state and by workflow key. The type is checked on the
+ * metadata only. The state and the workflow key are read from the top-level
+ * properties of the event value, if set.
+ */
+public class TopicSubscriptionFilter implements MetadataFilter
+{
+    public static final int ALL_EVENT_TYPES = -1;
+
+    protected final int eventTypes;
+    protected final DirectBuffer eventState;
+    protected final long workflowKey;
+
+    protected final boolean filtersValue;
+    protected final FilterProperties filterProperties = new FilterProperties();
+
+    public TopicSubscriptionFilter(int eventTypes, DirectBuffer eventState, long workflowKey)
+    {
+        this.eventTypes = eventTypes;
+        this.eventState = cloneBuffer(eventState);
+        this.workflowKey = workflowKey;
+
+        this.filtersValue = eventState.capacity() > 0 || workflowKey >= 0;
+    }
+
+    public static TopicSubscriptionFilter of(TopicSubscriberEvent subscriberEvent)
+    {
+        return new TopicSubscriptionFilter(
+                subscriberEvent.getEventTypes(),
+                subscriberEvent.getEventState(),
+                subscriberEvent.getWorkflowKey());
+    }
+
+    @Override
+    public boolean applies(BrokerEventMetadata metadata)
+    {
+        final int eventType = metadata.getEventType().value();
+
+        return eventTypes == ALL_EVENT_TYPES || (eventType < Integer.SIZE && (eventTypes & (1 << eventType)) != 0);
+    }
+
+    /**
+     * @return true if the event should be pushed to the subscriber
+     */
+    public boolean applies(LoggedEvent event, BrokerEventMetadata metadata)
+    {
+        boolean applies = applies(metadata);
+
+        if (applies && filtersValue)
+        {
+            filterProperties.reset();
+            event.readValue(filterProperties);
+
+            if (eventState.capacity() > 0)
+            {
+                applies = BufferUtil.contentsEqual(eventState, filterProperties.getState());
+            }
+
+            if (applies && workflowKey >= 0)
+            {
+                applies = workflowKey == filterProperties.getWorkflowKey();
+            }
+        }
+
+        return applies;
+    }
+
+    /**
+     * Reads only the properties which are used for filtering, independent of
+     * the event type.
+     */
+    protected static class FilterProperties extends UnpackedObject
+    {
+        protected final StringProperty stateProp = new StringProperty("state", "");
+        protected final LongProperty workflowKeyProp = new LongProperty("workflowKey", -1L);
+
+        public FilterProperties()
+        {
+            this
+                .declareProperty(stateProp)
+                .declareProperty(workflowKeyProp);
+        }
+
+        public DirectBuffer getState()
+        {
+            return stateProp.getValue();
+        }
+
+        public long getWorkflowKey()
+        {
+            return workflowKeyProp.getValue();
+        }
+    }
+}
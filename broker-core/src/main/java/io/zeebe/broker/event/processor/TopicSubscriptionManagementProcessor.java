@@ -17,6 +17,7 @@
  */
 package io.zeebe.broker.event.processor;
 
+import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE;
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE;
 import static io.zeebe.broker.system.SystemServiceNames.ACTOR_SCHEDULER_SERVICE;
 
@@ -71,7 +72,10 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
 
     protected DeferredCommandContext cmdContext;
 
+    protected volatile TopicSubscriptionFanOutProcessor fanOutProcessor;
+
     protected final AckProcessor ackProcessor = new AckProcessor();
+    protected final AcknowledgedProcessor acknowledgedProcessor = new AcknowledgedProcessor();
     protected final SubscribeProcessor subscribeProcessor = new SubscribeProcessor(MAXIMUM_SUBSCRIPTION_NAME_LENGTH, this);
     protected final SubscribedProcessor subscribedProcessor = new SubscribedProcessor();
 
@@ -105,6 +109,17 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
         this.logStreamPartitionId = logStream.getPartitionId();
 
         this.logStream = logStream;
+
+        openFanOutProcessor();
+    }
+
+    protected void openFanOutProcessor()
+    {
+        final TopicSubscriptionFanOutProcessor processor = new TopicSubscriptionFanOutProcessor(this);
+        final ServiceName<StreamProcessorController> serviceName = TopicSubscriptionServiceNames.subscriptionFanOutServiceName(streamServiceName.getName());
+
+        openPushServiceAsync(serviceName, processor)
+            .thenAccept((v) -> fanOutProcessor = processor);
     }
 
     @Override
@@ -175,6 +190,10 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
         {
             return ackProcessor;
         }
+        else if (subscriptionEvent.getState() == TopicSubscriptionState.ACKNOWLEDGED)
+        {
+            return acknowledgedProcessor;
+        }
         else
         {
             return null;
@@ -206,10 +225,18 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
 
     protected CompletableFuture<Void> closePushProcessor(TopicSubscriptionPushProcessor processor)
     {
-        final ServiceName<StreamProcessorController> subscriptionProcessorName =
-                TopicSubscriptionServiceNames.subscriptionPushServiceName(streamServiceName.getName(), processor.getNameAsString());
+        // a shared subscription is removed by the fan-out processor
+        processor.close();
 
-        return serviceContext.removeService(subscriptionProcessorName);
+        if (processor.hasDedicatedService)
+        {
+            processor.hasDedicatedService = false;
+            return serviceContext.removeService(pushServiceName(processor));
+        }
+        else
+        {
+            return CompletableFuture.completedFuture(null);
+        }
     }
 
 
@@ -239,7 +266,8 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
             long subscriberKey,
             long resumePosition,
             DirectBuffer subscriptionName,
-            int prefetchCapacity)
+            int prefetchCapacity,
+            TopicSubscriptionFilter filter)
     {
         final TopicSubscriptionPushProcessor processor = new TopicSubscriptionPushProcessor(
                 clientChannelId,
@@ -247,10 +275,23 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
                 resumePosition,
                 subscriptionName,
                 prefetchCapacity,
+                filter,
+                fanOutProcessor,
                 eventWriterFactory.get());
 
-        final ServiceName<StreamProcessorController> serviceName = TopicSubscriptionServiceNames.subscriptionPushServiceName(streamServiceName.getName(), processor.getNameAsString());
+        return openDedicatedServiceAsync(processor)
+            .thenApply((v) -> processor);
+    }
+
+    protected CompletableFuture<Void> openDedicatedServiceAsync(TopicSubscriptionPushProcessor processor)
+    {
+        processor.hasDedicatedService = true;
 
+        return openPushServiceAsync(pushServiceName(processor), processor);
+    }
+
+    protected CompletableFuture<Void> openPushServiceAsync(ServiceName<StreamProcessorController> serviceName, StreamProcessor processor)
+    {
         final StreamProcessorService streamProcessorService = new StreamProcessorService(
                 serviceName.getName(),
                 StreamProcessorIds.TOPIC_SUBSCRIPTION_PUSH_PROCESSOR_ID,
@@ -261,9 +302,49 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
         return serviceContext.createService(serviceName, streamProcessorService)
             .dependency(streamServiceName, streamProcessorService.getLogStreamInjector())
             .dependency(SNAPSHOT_STORAGE_SERVICE, streamProcessorService.getSnapshotStorageInjector())
+            .dependency(SNAPSHOT_POLICY_FACTORY_SERVICE, streamProcessorService.getSnapshotPolicyFactoryInjector())
             .dependency(ACTOR_SCHEDULER_SERVICE, streamProcessorService.getActorSchedulerInjector())
-            .install()
-            .thenApply((v) -> processor);
+            .install();
+    }
+
+    protected ServiceName<StreamProcessorController> pushServiceName(TopicSubscriptionPushProcessor processor)
+    {
+        return TopicSubscriptionServiceNames.subscriptionPushServiceName(streamServiceName.getName(), processor.getNameAsString());
+    }
+
+    /**
+     * Invoked by the fan-out processor when it has taken over the subscription.
+     */
+    public void onSubscriptionShared(TopicSubscriptionPushProcessor processor)
+    {
+        cmdContext.runAsync(() ->
+        {
+            if (!processor.isClosed() && processor.hasDedicatedService)
+            {
+                processor.hasDedicatedService = false;
+                processor.dedicatedServiceRemoval = serviceContext.removeService(pushServiceName(processor));
+            }
+        });
+    }
+
+    /**
+     * Invoked by the fan-out processor when the subscription has fallen behind.
+     */
+    public void onSubscriptionDetached(TopicSubscriptionPushProcessor processor)
+    {
+        processor.detach();
+
+        cmdContext.runAsync(() ->
+        {
+            // the service name can be reused when the previous service is removed
+            processor.dedicatedServiceRemoval.whenComplete((v, t) -> cmdContext.runAsync(() ->
+            {
+                if (!processor.isClosed())
+                {
+                    openDedicatedServiceAsync(processor);
+                }
+            }));
+        });
     }
 
     public boolean writeRequestResponseError(BrokerEventMetadata metadata, LoggedEvent event, String error)
@@ -305,11 +386,26 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
     }
 
 
+    /**
+     * Determines the acknowledged position, which can be extended to the events
+     * which are skipped by the subscription's filter. This depends on the state
+     * of the push processor, so the acknowledged position is written to the
+     * ACKNOWLEDGED event which updates the state (see
+     * {@link AcknowledgedProcessor}), in order to reprocess it in the same way.
+     */
     protected class AckProcessor implements EventProcessor
     {
         @Override
         public void processEvent()
         {
+            final TopicSubscriptionPushProcessor subscriptionProcessor = subscriptionRegistry.getProcessorByName(subscriptionEvent.getName());
+
+            if (subscriptionProcessor != null)
+            {
+                final long ackPosition = subscriptionProcessor.getAckablePosition(subscriptionEvent.getAckPosition());
+                subscriptionEvent.setAckPosition(ackPosition);
+            }
+
             subscriptionEvent.setState(TopicSubscriptionState.ACKNOWLEDGED);
         }
 
@@ -348,6 +444,14 @@ public class TopicSubscriptionManagementProcessor implements StreamProcessor
                 return true;
             }
         }
+    }
+
+    protected class AcknowledgedProcessor implements EventProcessor
+    {
+        @Override
+        public void processEvent()
+        {
+        }
 
         @Override
         public void updateState()
@@ -19,6 +19,7 @@ package io.zeebe.broker.event.processor;
 
 import static io.zeebe.util.buffer.BufferUtil.cloneBuffer;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.zeebe.broker.logstreams.processor.MetadataFilter;
@@ -53,20 +54,51 @@ public class TopicSubscriptionPushProcessor implements StreamProcessor, EventPro
 
     protected final SnapshotSupport snapshotSupport = new NoopSnapshotSupport();
     protected final SubscribedEventWriter channelWriter;
+    protected final TopicSubscriptionFilter filter;
+
+    /*
+     * written by the processor and read on acknowledgement; the last pushed position
+     * must be written before the last processed position
+     */
+    protected volatile long lastPushedPosition = -1L;
+    protected volatile long lastProcessedPosition = -1L;
 
     protected LongRingBuffer pendingEvents;
     protected LongRingBuffer pendingAcks;
     protected AtomicBoolean enabled;
 
+    /*
+     * A subscription is either pushed by its own (dedicated) processor or by the
+     * fan-out processor of the partition (shared). Only one of them handles the
+     * subscription at a time.
+     */
+    protected final TopicSubscriptionFanOutProcessor fanOutProcessor;
+    protected volatile boolean handingOver = false;
+    protected volatile boolean closed = false;
+
+    /*
+     * set when the subscription is detached from the fan-out processor; the
+     * new dedicated processor starts at the last processed event and skips it
+     */
+    protected volatile boolean resumeAfterLastProcessedEvent = false;
+
+    // only accessed by the management processor
+    protected boolean hasDedicatedService = false;
+    protected CompletableFuture<Void> dedicatedServiceRemoval = CompletableFuture.completedFuture(null);
+
     public TopicSubscriptionPushProcessor(
             int clientStreamId,
             long subscriberKey,
             long startPosition,
             DirectBuffer name,
             int prefetchCapacity,
+            TopicSubscriptionFilter filter,
+            TopicSubscriptionFanOutProcessor fanOutProcessor,
             SubscribedEventWriter channelWriter)
     {
         this.channelWriter = channelWriter;
+        this.filter = filter;
+        this.fanOutProcessor = fanOutProcessor;
         this.clientStreamId = clientStreamId;
         this.subscriberKey = subscriberKey;
         this.startPosition = startPosition;
@@ -91,6 +123,14 @@ public class TopicSubscriptionPushProcessor implements StreamProcessor, EventPro
         this.logStreamPartitionId = logStream.getPartitionId();
 
         setToStartPosition(logReader);
+
+        if (!resumeAfterLastProcessedEvent)
+        {
+            lastProcessedPosition = startPosition - 1;
+        }
+
+        resumeAfterLastProcessedEvent = false;
+        handingOver = false;
     }
 
     /**
@@ -130,7 +170,26 @@ public class TopicSubscriptionPushProcessor implements StreamProcessor, EventPro
     public EventProcessor onEvent(LoggedEvent event)
     {
         this.event = event;
-        return this;
+
+        if (event.getPosition() <= lastProcessedPosition)
+        {
+            // already pushed or skipped before the subscription was detached
+            return null;
+        }
+
+        metadata.reset();
+        event.readMetadata(metadata);
+
+        if (filter.applies(event, metadata))
+        {
+            return this;
+        }
+        else
+        {
+            // skipped events can be acknowledged together with the previously pushed event
+            lastProcessedPosition = event.getPosition();
+            return null;
+        }
     }
 
     @Override
@@ -141,8 +200,36 @@ public class TopicSubscriptionPushProcessor implements StreamProcessor, EventPro
     @Override
     public boolean executeSideEffects()
     {
-        event.readMetadata(metadata);
+        return pushEvent(event, metadata);
+    }
+
+    /**
+     * Pushes the event if it is not handled yet and passes the filter. Invoked
+     * by the fan-out processor while the subscription is shared.
+     *
+     * @return true if the event is pushed or skipped
+     */
+    public boolean dispatch(LoggedEvent event, BrokerEventMetadata metadata)
+    {
+        final long position = event.getPosition();
 
+        if (position <= lastProcessedPosition)
+        {
+            return true;
+        }
+        else if (filter.applies(event, metadata))
+        {
+            return pushEvent(event, metadata);
+        }
+        else
+        {
+            lastProcessedPosition = position;
+            return true;
+        }
+    }
+
+    protected boolean pushEvent(LoggedEvent event, BrokerEventMetadata metadata)
+    {
         final boolean success = channelWriter
             .partitionId(logStreamPartitionId)
             .eventType(metadata.getEventType())
@@ -162,17 +249,46 @@ public class TopicSubscriptionPushProcessor implements StreamProcessor, EventPro
             }
         }
 
+        if (success)
+        {
+            lastPushedPosition = event.getPosition();
+            lastProcessedPosition = event.getPosition();
+        }
+
         return success;
     }
 
     @Override
     public boolean isSuspended()
     {
-        if (!enabled.get())
+        if (!enabled.get() || handingOver)
+        {
+            return true;
+        }
+
+        if (isSaturated())
+        {
+            // don't hand over since the fan-out processor would detach the subscription again
+            return true;
+        }
+
+        if (fanOutProcessor != null && lastProcessedPosition >= fanOutProcessor.getPosition())
         {
+            // caught up with the head
+            handingOver = true;
+            fanOutProcessor.shareAsync(this);
             return true;
         }
 
+        return false;
+    }
+
+    /**
+     * @return true if the subscription can't receive more events until the
+     *         client acknowledges the pending events
+     */
+    public boolean isSaturated()
+    {
         if (recordsPendingEvents())
         {
             // first, process any ACKs if there are any pending
@@ -185,6 +301,50 @@ public class TopicSubscriptionPushProcessor implements StreamProcessor, EventPro
         }
     }
 
+    public long getLastProcessedPosition()
+    {
+        return lastProcessedPosition;
+    }
+
+    /**
+     * Continues with the dedicated processor after the fan-out processor has
+     * rejected to share the subscription.
+     */
+    public void resumeDedicated()
+    {
+        handingOver = false;
+    }
+
+    /**
+     * Prepares the subscription to be pushed by a new dedicated processor after
+     * it has been detached from the fan-out processor.
+     */
+    public void detach()
+    {
+        // log positions are not contiguous, so the next position is unknown
+        if (lastProcessedPosition >= 0)
+        {
+            startPosition = lastProcessedPosition;
+            resumeAfterLastProcessedEvent = true;
+        }
+        else
+        {
+            startPosition = 0;
+        }
+
+        handingOver = true;
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    public void close()
+    {
+        closed = true;
+    }
+
     public int getChannelId()
     {
         return clientStreamId;
@@ -213,6 +373,29 @@ public class TopicSubscriptionPushProcessor implements StreamProcessor, EventPro
         }
     }
 
+    /**
+     * Extends an acknowledgement of the last pushed event to the events which
+     * are skipped by the filter after it.
+     *
+     * @return the position which can be acknowledged
+     */
+    public long getAckablePosition(long ackPosition)
+    {
+        // read in reverse order of writing; if an event is pushed after the
+        // processed position then the pushed position is changed too
+        final long processedPosition = lastProcessedPosition;
+        final long pushedPosition = lastPushedPosition;
+
+        if (ackPosition == pushedPosition && processedPosition > ackPosition)
+        {
+            return processedPosition;
+        }
+        else
+        {
+            return ackPosition;
+        }
+    }
+
     /**
      * @return true if this subscription requires throttling
      */
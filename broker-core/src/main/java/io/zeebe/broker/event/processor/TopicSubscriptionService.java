@@ -17,6 +17,7 @@
  */
 package io.zeebe.broker.event.processor;
 
+import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE;
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE;
 import static io.zeebe.broker.system.SystemServiceNames.ACTOR_SCHEDULER_SERVICE;
 
@@ -154,6 +155,7 @@ public class TopicSubscriptionService implements Service<TopicSubscriptionServic
         return serviceContext.createService(processorName, streamProcessorService)
             .dependency(logStreamName, streamProcessorService.getLogStreamInjector())
             .dependency(SNAPSHOT_STORAGE_SERVICE, streamProcessorService.getSnapshotStorageInjector())
+            .dependency(SNAPSHOT_POLICY_FACTORY_SERVICE, streamProcessorService.getSnapshotPolicyFactoryInjector())
             .dependency(ACTOR_SCHEDULER_SERVICE, streamProcessorService.getActorSchedulerInjector())
             .install();
     }
@@ -22,8 +22,9 @@ import static org.agrona.BitUtil.SIZE_OF_SHORT;
 
 import java.nio.ByteOrder;
 
-import io.zeebe.logstreams.snapshot.ZbMapSnapshotSupport;
-import io.zeebe.map.Long2BytesZbMap;
+import io.zeebe.broker.logstreams.state.Long2BytesStore;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
 
 import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -47,21 +48,24 @@ public class IncidentMap
 
     private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[INDEX_VALUE_SIZE]);
 
-    private final Long2BytesZbMap map;
-    private final ZbMapSnapshotSupport<Long2BytesZbMap> snapshotSupport;
+    private final Long2BytesStore map;
 
     private long key;
     private boolean isRead = false;
 
     public IncidentMap()
     {
-        this.map = new Long2BytesZbMap(INDEX_VALUE_SIZE);
-        this.snapshotSupport = new ZbMapSnapshotSupport<>(map);
+        this(StateStoreFactory.inMemory());
     }
 
-    public ZbMapSnapshotSupport getSnapshotSupport()
+    public IncidentMap(StateStoreFactory stateStoreFactory)
     {
-        return snapshotSupport;
+        this.map = stateStoreFactory.createStore("incidents", INDEX_VALUE_SIZE);
+    }
+
+    public ComposableSnapshotSupport getSnapshotSupport()
+    {
+        return map.getSnapshotSupport();
     }
 
     public void reset()
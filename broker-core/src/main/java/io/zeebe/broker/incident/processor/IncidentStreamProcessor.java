@@ -21,10 +21,17 @@ import io.zeebe.broker.incident.data.ErrorType;
 import io.zeebe.broker.incident.data.IncidentEvent;
 import io.zeebe.broker.incident.data.IncidentState;
 import io.zeebe.broker.incident.index.IncidentMap;
+import io.zeebe.broker.logstreams.processor.EventStateFilter;
+import io.zeebe.broker.logstreams.processor.EventValueFilter;
 import io.zeebe.broker.logstreams.processor.MetadataFilter;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
 import io.zeebe.broker.task.data.TaskEvent;
 import io.zeebe.broker.task.data.TaskHeaders;
+import io.zeebe.broker.task.data.TaskState;
+import io.zeebe.broker.util.MsgPackProjection;
+import io.zeebe.broker.util.MsgPackProjection.EnumLookup;
 import io.zeebe.broker.workflow.data.WorkflowInstanceEvent;
+import io.zeebe.broker.workflow.data.WorkflowInstanceState;
 import io.zeebe.logstreams.log.BufferedLogStreamReader;
 import io.zeebe.logstreams.log.LogStreamReader;
 import io.zeebe.logstreams.log.LogStreamWriter;
@@ -51,6 +58,8 @@ public class IncidentStreamProcessor implements StreamProcessor
 
     private static final long NON_PERSISTENT_INCIDENT = -2L;
 
+    private static final int STATE_PROPERTY = 0;
+
     private final Long2LongZbMap activityInstanceMap;
     private final Long2LongZbMap failedTaskMap;
 
@@ -79,6 +88,10 @@ public class IncidentStreamProcessor implements StreamProcessor
     private final WorkflowInstanceEvent workflowInstanceEvent = new WorkflowInstanceEvent();
     private final TaskEvent taskEvent = new TaskEvent();
 
+    private final MsgPackProjection stateProjection = new MsgPackProjection("state");
+    private final EnumLookup<WorkflowInstanceState> workflowInstanceStates = new EnumLookup<>(WorkflowInstanceState.class);
+    private final EnumLookup<TaskState> taskStates = new EnumLookup<>(TaskState.class);
+
     private long eventKey;
     private long eventPosition;
     private long sourceEventPosition;
@@ -86,10 +99,15 @@ public class IncidentStreamProcessor implements StreamProcessor
     private LogStreamReader logStreamReader;
 
     public IncidentStreamProcessor()
+    {
+        this(StateStoreFactory.inMemory());
+    }
+
+    public IncidentStreamProcessor(StateStoreFactory stateStoreFactory)
     {
         this.activityInstanceMap = new Long2LongZbMap();
         this.failedTaskMap = new Long2LongZbMap();
-        this.incidentMap = new IncidentMap();
+        this.incidentMap = new IncidentMap(stateStoreFactory);
 
         this.indexSnapshot = new ComposedSnapshot(
             new ZbMapSnapshotSupport<>(activityInstanceMap),
@@ -127,6 +145,28 @@ public class IncidentStreamProcessor implements StreamProcessor
                 || event.getEventType() == EventType.TASK_EVENT;
     }
 
+    /**
+     * @return a filter which accepts the workflow instance and task events that
+     *         are handled by this processor
+     */
+    public static EventValueFilter stateFilter()
+    {
+        return new EventStateFilter()
+            .accept(EventType.WORKFLOW_INSTANCE_EVENT,
+                    WorkflowInstanceState.PAYLOAD_UPDATED,
+                    WorkflowInstanceState.ACTIVITY_TERMINATED,
+                    WorkflowInstanceState.ACTIVITY_READY,
+                    WorkflowInstanceState.GATEWAY_ACTIVATED,
+                    WorkflowInstanceState.ACTIVITY_COMPLETING,
+                    WorkflowInstanceState.ACTIVITY_ACTIVATED,
+                    WorkflowInstanceState.SEQUENCE_FLOW_TAKEN,
+                    WorkflowInstanceState.ACTIVITY_COMPLETED)
+            .accept(EventType.TASK_EVENT,
+                    TaskState.FAILED,
+                    TaskState.RETRIES_UPDATED,
+                    TaskState.CANCELED);
+    }
+
     @Override
     public EventProcessor onEvent(LoggedEvent event)
     {
@@ -188,45 +228,82 @@ public class IncidentStreamProcessor implements StreamProcessor
 
     private EventProcessor onWorkflowInstanceEvent(LoggedEvent event)
     {
-        workflowInstanceEvent.reset();
-        event.readValue(workflowInstanceEvent);
+        // most workflow instance events are not relevant - read the value only if the event is handled
+        event.readValue(stateProjection);
 
-        switch (workflowInstanceEvent.getState())
+        final WorkflowInstanceState state = stateProjection.getEnum(STATE_PROPERTY, workflowInstanceStates);
+        if (state == null)
+        {
+            return null;
+        }
+
+        EventProcessor eventProcessor = null;
+
+        switch (state)
         {
             case PAYLOAD_UPDATED:
-                return payloadUpdatedProcessor;
+                eventProcessor = payloadUpdatedProcessor;
+                break;
             case ACTIVITY_TERMINATED:
-                return activityTerminatedProcessor;
+                eventProcessor = activityTerminatedProcessor;
+                break;
             case ACTIVITY_READY:
             case GATEWAY_ACTIVATED:
             case ACTIVITY_COMPLETING:
-                return activityRewrittenProcessor;
+                eventProcessor = activityRewrittenProcessor;
+                break;
             case ACTIVITY_ACTIVATED:
             case SEQUENCE_FLOW_TAKEN:
             case ACTIVITY_COMPLETED:
-                return activityIncidentResolvedProcessor;
+                eventProcessor = activityIncidentResolvedProcessor;
+                break;
             default:
-                return null;
+                break;
         }
+
+        if (eventProcessor != null)
+        {
+            workflowInstanceEvent.reset();
+            event.readValue(workflowInstanceEvent);
+        }
+
+        return eventProcessor;
     }
 
     private EventProcessor onTaskEvent(LoggedEvent event)
     {
-        taskEvent.reset();
-        event.readValue(taskEvent);
+        event.readValue(stateProjection);
+
+        final TaskState state = stateProjection.getEnum(STATE_PROPERTY, taskStates);
+        if (state == null)
+        {
+            return null;
+        }
+
+        EventProcessor eventProcessor = null;
 
-        switch (taskEvent.getState())
+        switch (state)
         {
             case FAILED:
-                return taskFailedProcessor;
+                eventProcessor = taskFailedProcessor;
+                break;
 
             case RETRIES_UPDATED:
             case CANCELED:
-                return taskIncidentResolvedProcessor;
+                eventProcessor = taskIncidentResolvedProcessor;
+                break;
 
             default:
-                return null;
+                break;
         }
+
+        if (eventProcessor != null)
+        {
+            taskEvent.reset();
+            event.readValue(taskEvent);
+        }
+
+        return eventProcessor;
     }
 
     private long writeIncidentEvent(LogStreamWriter writer)
@@ -0,0 +1,263 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams;
+
+import java.io.File;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+import io.zeebe.util.time.ClockUtil;
+
+/**
+ * The configured log directories, e.g. one per disk. Places new partitions on
+ * the directory with the lowest load, based on the number of partitions, the
+ * usable space and the observed write rate of each directory.
+ *
+ * <p>
+ * The directories are sampled periodically (see {@link #sample()}) to update
+ * the write rates and the metrics. Placing and sampling can happen on different
+ * threads.
+ */
+public class LogDirectories implements AutoCloseable
+{
+    protected static final String SEGMENT_FILE_SUFFIX = ".data";
+
+    /**
+     * weight of the latest sample in the write rate
+     */
+    protected static final double WRITE_RATE_SMOOTHING = 0.3;
+
+    protected final LogDirectory[] directories;
+    protected final long minUsableSpace;
+
+    /**
+     * @param minUsableSpace the space (in bytes) a directory must have left to
+     *            be considered for new partitions, unless no directory has
+     */
+    public LogDirectories(String[] paths, long minUsableSpace, CountersManager countersManager)
+    {
+        this.minUsableSpace = minUsableSpace;
+        this.directories = new LogDirectory[paths.length];
+
+        for (int i = 0; i < paths.length; i++)
+        {
+            directories[i] = new LogDirectory(paths[i], String.format("logs.directory.%d", i), countersManager);
+        }
+    }
+
+    public int count()
+    {
+        return directories.length;
+    }
+
+    public String getPath(int directory)
+    {
+        return directories[directory].path;
+    }
+
+    /**
+     * Selects the directory for a new partition and counts the partition
+     * towards it.
+     *
+     * @return the index of the selected directory
+     */
+    public synchronized int placePartition()
+    {
+        long totalUsableSpace = 0;
+        double totalWriteRate = 0;
+        int totalPartitions = 0;
+        boolean hasDirectoryWithSpace = false;
+
+        for (int i = 0; i < directories.length; i++)
+        {
+            final LogDirectory directory = directories[i];
+            directory.usableSpace = directory.file.getUsableSpace();
+
+            totalUsableSpace += directory.usableSpace;
+            totalWriteRate += directory.writeRate;
+            totalPartitions += directory.partitionCount;
+            hasDirectoryWithSpace |= directory.usableSpace >= minUsableSpace;
+        }
+
+        int selectedDirectory = 0;
+        double selectedDirectoryLoad = Double.MAX_VALUE;
+
+        for (int i = 0; i < directories.length; i++)
+        {
+            final LogDirectory directory = directories[i];
+
+            if (hasDirectoryWithSpace && directory.usableSpace < minUsableSpace)
+            {
+                continue;
+            }
+
+            // each factor is the directory's share of the total, so they weigh equally
+            double load = share(directory.partitionCount, totalPartitions);
+            load += share(directory.writeRate, totalWriteRate);
+            load -= share(directory.usableSpace, totalUsableSpace);
+
+            if (load < selectedDirectoryLoad)
+            {
+                selectedDirectory = i;
+                selectedDirectoryLoad = load;
+            }
+        }
+
+        addPartition(selectedDirectory);
+
+        return selectedDirectory;
+    }
+
+    /**
+     * Counts an existing partition towards the directory which contains the
+     * given log directory, e.g. on recovery.
+     */
+    public synchronized void addPartition(String logDirectory)
+    {
+        final String absolutePath = new File(logDirectory).getAbsolutePath();
+
+        for (int i = 0; i < directories.length; i++)
+        {
+            if (absolutePath.startsWith(directories[i].file.getAbsolutePath() + File.separator))
+            {
+                addPartition(i);
+                return;
+            }
+        }
+    }
+
+    protected void addPartition(int directory)
+    {
+        final LogDirectory logDirectory = directories[directory];
+        logDirectory.partitionCount += 1;
+        logDirectory.partitionCountCounter.set(logDirectory.partitionCount);
+    }
+
+    /**
+     * Measures the segments of each directory and updates the write rates and
+     * the metrics.
+     */
+    public synchronized void sample()
+    {
+        final long now = ClockUtil.getCurrentTimeInMillis();
+
+        for (int i = 0; i < directories.length; i++)
+        {
+            directories[i].sample(now);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        for (int i = 0; i < directories.length; i++)
+        {
+            directories[i].close();
+        }
+    }
+
+    protected static double share(double value, double total)
+    {
+        return total > 0 ? value / total : 0;
+    }
+
+    protected static class LogDirectory implements AutoCloseable
+    {
+        protected final String path;
+        protected final File file;
+
+        protected int partitionCount;
+        protected long usableSpace;
+        /**
+         * bytes per second
+         */
+        protected double writeRate;
+
+        protected long lastSampleTime = -1;
+        protected long lastSegmentBytes;
+
+        protected final AtomicCounter partitionCountCounter;
+        protected final AtomicCounter segmentCountCounter;
+        protected final AtomicCounter segmentBytesCounter;
+        protected final AtomicCounter writeRateCounter;
+        protected final AtomicCounter usableSpaceCounter;
+
+        public LogDirectory(String path, String metricsName, CountersManager countersManager)
+        {
+            this.path = path;
+            this.file = new File(path);
+
+            this.partitionCountCounter = countersManager.newCounter(String.format("%s.partitions", metricsName));
+            this.segmentCountCounter = countersManager.newCounter(String.format("%s.segments", metricsName));
+            this.segmentBytesCounter = countersManager.newCounter(String.format("%s.segment.bytes", metricsName));
+            this.writeRateCounter = countersManager.newCounter(String.format("%s.write.rate", metricsName));
+            this.usableSpaceCounter = countersManager.newCounter(String.format("%s.usable.space", metricsName));
+        }
+
+        public void sample(long now)
+        {
+            int segmentCount = 0;
+            long segmentBytes = 0;
+
+            final File[] logs = file.listFiles(File::isDirectory);
+            if (logs != null)
+            {
+                for (File log : logs)
+                {
+                    final File[] segments = log.listFiles((dir, name) -> name.endsWith(SEGMENT_FILE_SUFFIX));
+                    if (segments != null)
+                    {
+                        for (File segment : segments)
+                        {
+                            segmentCount += 1;
+                            segmentBytes += segment.length();
+                        }
+                    }
+                }
+            }
+
+            if (lastSampleTime >= 0 && now > lastSampleTime)
+            {
+                final long writtenBytes = Math.max(0, segmentBytes - lastSegmentBytes);
+                final double currentWriteRate = writtenBytes * 1000.0 / (now - lastSampleTime);
+
+                writeRate = WRITE_RATE_SMOOTHING * currentWriteRate + (1 - WRITE_RATE_SMOOTHING) * writeRate;
+            }
+
+            lastSampleTime = now;
+            lastSegmentBytes = segmentBytes;
+            usableSpace = file.getUsableSpace();
+
+            segmentCountCounter.set(segmentCount);
+            segmentBytesCounter.set(segmentBytes);
+            writeRateCounter.set((long) writeRate);
+            usableSpaceCounter.set(usableSpace);
+        }
+
+        @Override
+        public void close()
+        {
+            partitionCountCounter.close();
+            segmentCountCounter.close();
+            segmentBytesCounter.close();
+            writeRateCounter.close();
+            usableSpaceCounter.close();
+        }
+    }
+}
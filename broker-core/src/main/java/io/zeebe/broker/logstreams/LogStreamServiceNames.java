@@ -17,6 +17,7 @@
  */
 package io.zeebe.broker.logstreams;
 
+import io.zeebe.broker.logstreams.processor.SnapshotPolicyFactory;
 import io.zeebe.logstreams.log.LogStream;
 import io.zeebe.logstreams.spi.SnapshotStorage;
 import io.zeebe.servicecontainer.ServiceName;
@@ -26,6 +27,7 @@ public class LogStreamServiceNames
 
     public static final ServiceName<LogStreamsManager> LOG_STREAMS_MANAGER_SERVICE = ServiceName.newServiceName("logstreams.manager", LogStreamsManager.class);
     public static final ServiceName<SnapshotStorage> SNAPSHOT_STORAGE_SERVICE = ServiceName.newServiceName("snapshot.storage", SnapshotStorage.class);
+    public static final ServiceName<SnapshotPolicyFactory> SNAPSHOT_POLICY_FACTORY_SERVICE = ServiceName.newServiceName("snapshot.policyFactory", SnapshotPolicyFactory.class);
 
     public static final ServiceName<LogStream> WORKFLOW_STREAM_GROUP = ServiceName.newServiceName("logstreams.worfklow", LogStream.class);
     public static final ServiceName<LogStream> SYSTEM_STREAM_GROUP = ServiceName.newServiceName("logstreams.system", LogStream.class);
@@ -18,8 +18,11 @@
 package io.zeebe.broker.logstreams;
 
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.LOG_STREAMS_MANAGER_SERVICE;
+import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE;
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE;
 import static io.zeebe.broker.system.SystemServiceNames.ACTOR_SCHEDULER_SERVICE;
+import static io.zeebe.broker.system.SystemServiceNames.COUNTERS_MANAGER_SERVICE;
+import static io.zeebe.broker.system.SystemServiceNames.EXECUTOR_SERVICE;
 
 import io.zeebe.broker.event.TopicSubscriptionServiceNames;
 import io.zeebe.broker.event.processor.TopicSubscriptionService;
@@ -36,12 +39,19 @@ public class LogStreamsComponent implements Component
         final LogStreamsManagerService streamsManager = new LogStreamsManagerService(context.getConfigurationManager());
         context.getServiceContainer().createService(LOG_STREAMS_MANAGER_SERVICE, streamsManager)
             .dependency(ACTOR_SCHEDULER_SERVICE, streamsManager.getActorSchedulerInjector())
+            .dependency(COUNTERS_MANAGER_SERVICE, streamsManager.getCountersInjector())
+            .dependency(EXECUTOR_SERVICE, streamsManager.getExecutorInjector())
             .install();
 
         final SnapshotStorageService snapshotStorageService = new SnapshotStorageService(context.getConfigurationManager());
         context.getServiceContainer().createService(SNAPSHOT_STORAGE_SERVICE, snapshotStorageService)
             .install();
 
+        final SnapshotPolicyFactoryService snapshotPolicyFactoryService = new SnapshotPolicyFactoryService(context.getConfigurationManager());
+        context.getServiceContainer().createService(SNAPSHOT_POLICY_FACTORY_SERVICE, snapshotPolicyFactoryService)
+            .dependency(COUNTERS_MANAGER_SERVICE, snapshotPolicyFactoryService.getCountersInjector())
+            .install();
+
         final TopicSubscriptionService topicSubscriptionService = new TopicSubscriptionService(context.getConfigurationManager());
         context.getServiceContainer()
             .createService(TopicSubscriptionServiceNames.TOPIC_SUBSCRIPTION_SERVICE, topicSubscriptionService)
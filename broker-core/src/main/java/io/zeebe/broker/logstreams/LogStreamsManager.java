@@ -22,7 +22,6 @@ import static io.zeebe.util.EnsureUtil.ensureLessThanOrEqual;
 import static io.zeebe.util.EnsureUtil.ensureNotNullOrEmpty;
 
 import java.io.File;
-import java.util.Random;
 import java.util.function.Consumer;
 
 import org.agrona.DirectBuffer;
@@ -39,12 +38,14 @@ public class LogStreamsManager
 {
     protected LogStreamsCfg logStreamsCfg;
     protected ActorScheduler actorScheduler;
+    protected LogDirectories logDirectories;
     protected Int2ObjectHashMap<LogStream> logStreams;
 
-    public LogStreamsManager(final LogStreamsCfg logStreamsCfg, final ActorScheduler actorScheduler)
+    public LogStreamsManager(final LogStreamsCfg logStreamsCfg, final ActorScheduler actorScheduler, final LogDirectories logDirectories)
     {
         this.logStreamsCfg = logStreamsCfg;
         this.actorScheduler = actorScheduler;
+        this.logDirectories = logDirectories;
         this.logStreams = new Int2ObjectHashMap<>();
     }
 
@@ -83,16 +84,13 @@ public class LogStreamsManager
         final String logDirectory;
         final boolean deleteOnExit = false;
 
-        int assignedLogDirectory = 0;
-        if (logStreamsCfg.directories.length == 0)
+        if (logDirectories.count() == 0)
         {
             throw new RuntimeException(String.format("Cannot start log %s, no log directory provided.", logName));
         }
-        else if (logStreamsCfg.directories.length > 1)
-        {
-            assignedLogDirectory = new Random().nextInt(logStreamsCfg.directories.length - 1);
-        }
-        logDirectory = logStreamsCfg.directories[assignedLogDirectory] + File.separator + logName;
+
+        final int assignedLogDirectory = logDirectories.placePartition();
+        logDirectory = logDirectories.getPath(assignedLogDirectory) + File.separator + logName;
 
 
         final int logSegmentSize = logStreamsCfg.defaultLogSegmentSize * 1024 * 1024;
@@ -112,6 +110,8 @@ public class LogStreamsManager
 
     public LogStream createLogStream(final DirectBuffer topicName, final int partitionId, final String logDirectory)
     {
+        logDirectories.addPartition(logDirectory);
+
         final LogStream logStream =
             LogStreams.createFsLogStream(topicName, partitionId)
                       .deleteOnClose(false)
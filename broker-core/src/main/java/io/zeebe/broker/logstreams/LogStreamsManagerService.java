@@ -17,8 +17,13 @@
  */
 package io.zeebe.broker.logstreams;
 
+import java.time.Duration;
+
 import io.zeebe.broker.logstreams.cfg.LogStreamsCfg;
+import io.zeebe.broker.services.Counters;
 import io.zeebe.broker.system.ConfigurationManager;
+import io.zeebe.broker.system.executor.ScheduledCommand;
+import io.zeebe.broker.system.executor.ScheduledExecutor;
 import io.zeebe.servicecontainer.Injector;
 import io.zeebe.servicecontainer.Service;
 import io.zeebe.servicecontainer.ServiceStartContext;
@@ -28,10 +33,17 @@ import io.zeebe.util.actor.ActorScheduler;
 public class LogStreamsManagerService implements Service<LogStreamsManager>
 {
 
+    protected static final Duration LOG_DIRECTORY_SAMPLE_INTERVAL = Duration.ofSeconds(5);
+
     protected final Injector<ActorScheduler> actorSchedulerInjector = new Injector<>();
+    protected final Injector<Counters> countersInjector = new Injector<>();
+    protected final Injector<ScheduledExecutor> executorInjector = new Injector<>();
 
     protected LogStreamsCfg logStreamsCfg;
 
+    protected LogDirectories logDirectories;
+    protected ScheduledCommand sampleLogDirectoriesCommand;
+
     protected LogStreamsManager service;
 
     public LogStreamsManagerService(ConfigurationManager configurationManager)
@@ -42,13 +54,19 @@ public class LogStreamsManagerService implements Service<LogStreamsManager>
     @Override
     public void start(ServiceStartContext serviceContext)
     {
-        service = new LogStreamsManager(logStreamsCfg, actorSchedulerInjector.getValue());
+        final long logSegmentSize = logStreamsCfg.defaultLogSegmentSize * 1024L * 1024L;
+        logDirectories = new LogDirectories(logStreamsCfg.directories, logSegmentSize, countersInjector.getValue().getCountersManager());
+
+        sampleLogDirectoriesCommand = executorInjector.getValue().scheduleAtFixedRate(logDirectories::sample, LOG_DIRECTORY_SAMPLE_INTERVAL);
+
+        service = new LogStreamsManager(logStreamsCfg, actorSchedulerInjector.getValue(), logDirectories);
     }
 
     @Override
     public void stop(ServiceStopContext stopContext)
     {
-        // nothing to do
+        sampleLogDirectoriesCommand.cancel();
+        logDirectories.close();
     }
 
     @Override
@@ -62,4 +80,14 @@ public class LogStreamsManagerService implements Service<LogStreamsManager>
         return actorSchedulerInjector;
     }
 
+    public Injector<Counters> getCountersInjector()
+    {
+        return countersInjector;
+    }
+
+    public Injector<ScheduledExecutor> getExecutorInjector()
+    {
+        return executorInjector;
+    }
+
 }
@@ -0,0 +1,48 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.cfg;
+
+/**
+ * Decides when a stream processor writes a snapshot. A snapshot is written as
+ * soon as one of the enabled limits is reached. A limit is disabled if it is
+ * not greater than zero.
+ */
+public class SnapshotPolicyCfg
+{
+    /**
+     * the max time (in seconds) between two snapshots
+     */
+    public int period = 15 * 60;
+
+    /**
+     * the max number of processed events between two snapshots
+     */
+    public long eventCount = 0;
+
+    /**
+     * the max volume (in MB) of the log between two snapshots
+     */
+    public int logVolume = 0;
+
+    /**
+     * adaptive limit: the max time (in seconds) which is needed to replay the
+     * events since the last snapshot on recovery, estimated from the
+     * processing time of the events
+     */
+    public int maxReplayTime = 0;
+}
@@ -17,10 +17,49 @@
  */
 package io.zeebe.broker.logstreams.cfg;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import io.zeebe.broker.system.DirectoryConfiguration;
 
 public class StreamProcessorCfg extends DirectoryConfiguration
 {
+    /**
+     * the snapshot policy of all stream processors which have no own policy
+     */
+    public SnapshotPolicyCfg snapshotPolicy = new SnapshotPolicyCfg();
+
+    /**
+     * the snapshot policies by stream processor type, e.g. "workflow-instance"
+     * (see {@link io.zeebe.broker.logstreams.processor.StreamProcessorIds#typeName(int)})
+     */
+    public Map<String, SnapshotPolicyCfg> snapshotPolicies = new HashMap<>();
+
+    /**
+     * if true then the stream processors of a partition which handle workflow
+     * instances and incidents, and the ones which handle tasks and lock
+     * expiration, each share one reader. Must not be changed for existing
+     * partitions, since the shared processors write one snapshot.
+     */
+    public boolean fuseProcessors = false;
+
+    /**
+     * where the stream processors keep the state of workflow instances,
+     * activity instances, tasks and incidents: "memory", or "mapped" to keep
+     * it in memory-mapped files in the directory of this component, so that it
+     * can exceed the available memory. The mapped store keeps a checkpoint of
+     * its files, so that a snapshot only contains the changed pages. The
+     * snapshot formats differ, so the recovery of existing partitions fails if
+     * this is changed.
+     */
+    public String stateStore = "memory";
+
+    public SnapshotPolicyCfg getSnapshotPolicy(String processorType)
+    {
+        final SnapshotPolicyCfg policy = snapshotPolicies.get(processorType);
+        return policy != null ? policy : snapshotPolicy;
+    }
+
     @Override
     protected String componentDirectoryName()
     {
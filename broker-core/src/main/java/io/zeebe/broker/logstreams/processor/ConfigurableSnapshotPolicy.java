@@ -0,0 +1,144 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import io.zeebe.broker.logstreams.cfg.SnapshotPolicyCfg;
+import io.zeebe.logstreams.spi.SnapshotPolicy;
+import io.zeebe.util.time.ClockUtil;
+
+/**
+ * Snapshot policy which is applied after each processed event and combines
+ * time, event count and log volume based limits. In adaptive mode, it
+ * estimates the time to replay the events since the last snapshot from the
+ * average time to process an event and update the state (see
+ * {@link #onEventProcessed(long)}), and writes a snapshot before the
+ * estimation exceeds the configured max replay time.
+ */
+public class ConfigurableSnapshotPolicy implements SnapshotPolicy
+{
+    // weight of the latest processing time in the moving average
+    protected static final double PROCESSING_TIME_SMOOTHING = 0.01;
+
+    protected final long periodMillis;
+    protected final long maxEventCount;
+    protected final long maxLogBytes;
+    protected final long maxReplayTimeMillis;
+
+    protected long lastSnapshotTime = -1L;
+    protected long eventCount = 0;
+    protected long logBytes = 0;
+
+    protected long lastPosition = -1L;
+    protected double averageProcessingTimeNanos = -1;
+
+    public ConfigurableSnapshotPolicy(SnapshotPolicyCfg cfg)
+    {
+        this.periodMillis = cfg.period * 1000L;
+        this.maxEventCount = cfg.eventCount;
+        this.maxLogBytes = cfg.logVolume * 1024L * 1024L;
+        this.maxReplayTimeMillis = cfg.maxReplayTime * 1000L;
+    }
+
+    @Override
+    public boolean apply(long logPosition)
+    {
+        final long now = ClockUtil.getCurrentTimeInMillis();
+
+        if (lastSnapshotTime < 0)
+        {
+            // the first event after recovery
+            lastSnapshotTime = now;
+        }
+
+        eventCount += 1;
+
+        if (lastPosition >= 0)
+        {
+            logBytes += logVolume(lastPosition, logPosition);
+        }
+        lastPosition = logPosition;
+
+        final boolean shouldSnapshot =
+                (periodMillis > 0 && now - lastSnapshotTime >= periodMillis)
+                || (maxEventCount > 0 && eventCount >= maxEventCount)
+                || (maxLogBytes > 0 && logBytes >= maxLogBytes)
+                || (maxReplayTimeMillis > 0 && getEstimatedReplayTimeMillis() >= maxReplayTimeMillis);
+
+        if (shouldSnapshot)
+        {
+            lastSnapshotTime = now;
+            eventCount = 0;
+            logBytes = 0;
+        }
+
+        return shouldSnapshot;
+    }
+
+    /**
+     * Must be called before the policy is applied to the event, on the same
+     * thread.
+     *
+     * @param processingTimeNanos
+     *            the time which is spent to process the event and update the
+     *            state, i.e. the work which is repeated when the event is
+     *            replayed
+     */
+    public void onEventProcessed(long processingTimeNanos)
+    {
+        if (averageProcessingTimeNanos < 0)
+        {
+            averageProcessingTimeNanos = processingTimeNanos;
+        }
+        else
+        {
+            averageProcessingTimeNanos += PROCESSING_TIME_SMOOTHING * (processingTimeNanos - averageProcessingTimeNanos);
+        }
+    }
+
+    public long getEstimatedReplayTimeMillis()
+    {
+        if (averageProcessingTimeNanos < 0)
+        {
+            return 0L;
+        }
+
+        return (long) (eventCount * averageProcessingTimeNanos / 1_000_000);
+    }
+
+    /**
+     * A position consists of the id of the log buffer partition (high bits)
+     * and the offset in this partition (low bits). If the partition changed
+     * then only the offset in the new partition is counted, since the size of
+     * the previous one is unknown here.
+     */
+    protected static long logVolume(long fromPosition, long toPosition)
+    {
+        final long fromPartition = fromPosition >>> 32;
+        final long toPartition = toPosition >>> 32;
+        final long toOffset = toPosition & 0xFFFF_FFFFL;
+
+        if (fromPartition == toPartition)
+        {
+            return Math.max(0, toOffset - (fromPosition & 0xFFFF_FFFFL));
+        }
+        else
+        {
+            return toOffset;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import java.util.EnumMap;
+
+import io.zeebe.broker.util.MsgPackProjection;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.protocol.clientapi.EventType;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+import io.zeebe.util.buffer.BufferUtil;
+import org.agrona.DirectBuffer;
+
+/**
+ * Accepts only events with the given states. The state is read from the value
+ * without decoding the other properties. Since the broker writes the state as
+ * the first property, this usually reads only the first entry of the value.
+ *
+ * <p>
+ * Events of a type for which no states are given are accepted.
+ */
+public class EventStateFilter implements EventValueFilter
+{
+    protected static final int STATE_PROPERTY = 0;
+
+    protected final MsgPackProjection stateProjection = new MsgPackProjection("state");
+
+    protected final EnumMap<EventType, DirectBuffer[]> acceptedStates = new EnumMap<>(EventType.class);
+
+    @SafeVarargs
+    public final <S extends Enum<S>> EventStateFilter accept(EventType eventType, S... states)
+    {
+        final DirectBuffer[] stateNames = new DirectBuffer[states.length];
+
+        for (int i = 0; i < states.length; i++)
+        {
+            stateNames[i] = BufferUtil.wrapString(states[i].name());
+        }
+
+        acceptedStates.put(eventType, stateNames);
+        return this;
+    }
+
+    @Override
+    public boolean applies(LoggedEvent event, BrokerEventMetadata metadata)
+    {
+        final DirectBuffer[] stateNames = acceptedStates.get(metadata.getEventType());
+
+        if (stateNames == null)
+        {
+            return true;
+        }
+
+        event.readValue(stateProjection);
+        final DirectBuffer state = stateProjection.getString(STATE_PROPERTY);
+
+        for (int i = 0; i < stateNames.length; i++)
+        {
+            if (BufferUtil.contentsEqual(stateNames[i], state))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
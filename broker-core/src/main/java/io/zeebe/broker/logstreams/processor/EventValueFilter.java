@@ -0,0 +1,37 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.logstreams.processor.StreamProcessor;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+
+/**
+ * Implement to control which events should be handled by a {@link StreamProcessor} based on
+ * the event's value. It is only called for events which pass the {@link MetadataFilter}.
+ */
+@FunctionalInterface
+public interface EventValueFilter
+{
+    /**
+     * @param event the event to be processed next
+     * @param metadata the already read metadata of the event
+     * @return true to mark the event for processing; false to skip it
+     */
+    boolean applies(LoggedEvent event, BrokerEventMetadata metadata);
+}
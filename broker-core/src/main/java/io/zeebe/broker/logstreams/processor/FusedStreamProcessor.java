@@ -0,0 +1,510 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.zeebe.logstreams.log.BufferedLogStreamReader;
+import io.zeebe.logstreams.log.LogStreamReader;
+import io.zeebe.logstreams.log.LogStreamWriter;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.logstreams.processor.EventProcessor;
+import io.zeebe.logstreams.processor.StreamProcessor;
+import io.zeebe.logstreams.processor.StreamProcessorContext;
+import io.zeebe.logstreams.spi.SnapshotSupport;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+import io.zeebe.util.actor.Actor;
+
+/**
+ * Runs multiple stream processors of a partition with one reader. Each event
+ * is read once, its metadata is decoded once and the event is dispatched to
+ * all processors whose filter applies. The event processors of an event run
+ * one after another in the order in which the processors are added.
+ *
+ * <p>
+ * Each processor is opened with an own reader, so that it can seek without
+ * moving the shared reader. Besides the reader, its context provides the id,
+ * the log stream, the writer and the command queue of the fused processor.
+ *
+ * <p>
+ * The processors share the position, the snapshot and the producer id of the
+ * fused processor. Therefore, a partition must not switch between the fused
+ * and the separated mode, since the processors could not recover from the
+ * snapshots and the events of the other mode.
+ */
+public class FusedStreamProcessor implements StreamProcessor, EventProcessor
+{
+    protected final List<StreamProcessor> processors = new ArrayList<>();
+    protected final List<MetadataFilter> filters = new ArrayList<>();
+    protected final List<EventValueFilter> valueFilters = new ArrayList<>();
+    protected final List<LogStreamReader> processorReaders = new ArrayList<>();
+
+    protected final BrokerEventMetadata metadata = new BrokerEventMetadata();
+    protected final FusedSnapshotSupport snapshotSupport = new FusedSnapshotSupport();
+
+    protected int streamProcessorId;
+    protected int logStreamPartitionId;
+
+    protected StreamProcessor[] dispatchedProcessors = new StreamProcessor[0];
+    protected int dispatchedProcessorCount;
+
+    protected EventProcessor[] eventProcessors = new EventProcessor[0];
+    protected int eventProcessorCount;
+
+    /*
+     * the controller retries side effects and writes until they succeed; the
+     * event processors which already succeeded are skipped on retry
+     */
+    protected int executedSideEffects;
+    protected int writtenEvents;
+    protected long lastWrittenEventPosition;
+
+    protected long eventPosition;
+
+    /**
+     * Adds a processor which handles the events that the given filter applies
+     * to. Must be called before the processor is opened.
+     */
+    public FusedStreamProcessor addProcessor(StreamProcessor processor, MetadataFilter filter)
+    {
+        return addProcessor(processor, filter, null);
+    }
+
+    /**
+     * Adds a processor which handles the events that both given filters apply
+     * to. Must be called before the processor is opened.
+     *
+     * @param valueFilter
+     *            is only applied to the events which pass the metadata filter;
+     *            can be <code>null</code>
+     */
+    public FusedStreamProcessor addProcessor(StreamProcessor processor, MetadataFilter filter, EventValueFilter valueFilter)
+    {
+        processors.add(processor);
+        filters.add(filter);
+        valueFilters.add(valueFilter);
+
+        dispatchedProcessors = new StreamProcessor[processors.size()];
+        eventProcessors = new EventProcessor[processors.size()];
+
+        return this;
+    }
+
+    /**
+     * @return a filter which applies to an event if the metadata filter of any
+     *         processor applies; the value filters are applied per processor
+     *         when the event is dispatched
+     */
+    public MetadataFilter eventFilter()
+    {
+        return (m) ->
+        {
+            for (int i = 0; i < filters.size(); i++)
+            {
+                if (filters.get(i).applies(m))
+                {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    @Override
+    public int getPriority(long now)
+    {
+        int priority = Actor.PRIORITY_LOW;
+
+        for (int i = 0; i < processors.size(); i++)
+        {
+            priority = Math.max(priority, processors.get(i).getPriority(now));
+        }
+
+        return priority;
+    }
+
+    @Override
+    public SnapshotSupport getStateResource()
+    {
+        return snapshotSupport;
+    }
+
+    @Override
+    public void onOpen(StreamProcessorContext context)
+    {
+        streamProcessorId = context.getId();
+        logStreamPartitionId = context.getLogStream().getPartitionId();
+
+        for (int i = 0; i < processors.size(); i++)
+        {
+            final LogStreamReader processorReader = new BufferedLogStreamReader(context.getLogStream());
+            processorReaders.add(processorReader);
+
+            final StreamProcessorContext processorContext = new StreamProcessorContext();
+            processorContext.setId(context.getId());
+            processorContext.setLogStream(context.getLogStream());
+            processorContext.setLogStreamReader(processorReader);
+            processorContext.setLogStreamWriter(context.getLogStreamWriter());
+            processorContext.setStreamProcessorCmdQueue(context.getStreamProcessorCmdQueue());
+
+            processors.get(i).onOpen(processorContext);
+        }
+    }
+
+    @Override
+    public void onClose()
+    {
+        for (int i = 0; i < processors.size(); i++)
+        {
+            processors.get(i).onClose();
+        }
+
+        for (int i = 0; i < processorReaders.size(); i++)
+        {
+            processorReaders.get(i).close();
+        }
+        processorReaders.clear();
+    }
+
+    @Override
+    public boolean isSuspended()
+    {
+        for (int i = 0; i < processors.size(); i++)
+        {
+            if (processors.get(i).isSuspended())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public EventProcessor onEvent(LoggedEvent event)
+    {
+        eventPosition = event.getPosition();
+
+        dispatchedProcessorCount = 0;
+        eventProcessorCount = 0;
+        executedSideEffects = 0;
+        writtenEvents = 0;
+        lastWrittenEventPosition = 0L;
+
+        metadata.reset();
+        event.readMetadata(metadata);
+
+        for (int i = 0; i < processors.size(); i++)
+        {
+            final EventValueFilter valueFilter = valueFilters.get(i);
+
+            if (filters.get(i).applies(metadata) && (valueFilter == null || valueFilter.applies(event, metadata)))
+            {
+                final StreamProcessor processor = processors.get(i);
+                dispatchedProcessors[dispatchedProcessorCount] = processor;
+                dispatchedProcessorCount += 1;
+
+                final EventProcessor eventProcessor = processor.onEvent(event);
+                if (eventProcessor != null)
+                {
+                    eventProcessors[eventProcessorCount] = eventProcessor;
+                    eventProcessorCount += 1;
+                }
+            }
+        }
+
+        return eventProcessorCount > 0 ? this : null;
+    }
+
+    @Override
+    public void processEvent()
+    {
+        for (int i = 0; i < eventProcessorCount; i++)
+        {
+            eventProcessors[i].processEvent();
+        }
+    }
+
+    @Override
+    public boolean executeSideEffects()
+    {
+        while (executedSideEffects < eventProcessorCount)
+        {
+            if (!eventProcessors[executedSideEffects].executeSideEffects())
+            {
+                return false;
+            }
+            executedSideEffects += 1;
+        }
+        return true;
+    }
+
+    @Override
+    public long writeEvent(LogStreamWriter writer)
+    {
+        while (writtenEvents < eventProcessorCount)
+        {
+            // the writer is reset after each write
+            writer
+                .producerId(streamProcessorId)
+                .sourceEvent(logStreamPartitionId, eventPosition);
+
+            final long position = eventProcessors[writtenEvents].writeEvent(writer);
+            if (position < 0)
+            {
+                return position;
+            }
+
+            lastWrittenEventPosition = Math.max(lastWrittenEventPosition, position);
+            writtenEvents += 1;
+        }
+        return lastWrittenEventPosition;
+    }
+
+    @Override
+    public void updateState()
+    {
+        for (int i = 0; i < eventProcessorCount; i++)
+        {
+            eventProcessors[i].updateState();
+        }
+    }
+
+    @Override
+    public void afterEvent()
+    {
+        for (int i = 0; i < dispatchedProcessorCount; i++)
+        {
+            dispatchedProcessors[i].afterEvent();
+        }
+
+        dispatchedProcessorCount = 0;
+        eventProcessorCount = 0;
+    }
+
+    /**
+     * Writes the snapshots of the processors one after another. Each snapshot
+     * is streamed in chunks which are prefixed by their length and terminated
+     * by an empty chunk, so that a processor can't read beyond its snapshot on
+     * recovery, without buffering the whole snapshot.
+     */
+    protected class FusedSnapshotSupport implements SnapshotSupport
+    {
+        protected static final int CHUNK_SIZE = 64 * 1024;
+
+        protected final byte[] chunk = new byte[CHUNK_SIZE];
+
+        @Override
+        public void writeSnapshot(OutputStream outputStream) throws Exception
+        {
+            final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+            final ChunkedOutputStream chunkedOutputStream = new ChunkedOutputStream(dataOutputStream, chunk);
+
+            for (int i = 0; i < processors.size(); i++)
+            {
+                processors.get(i).getStateResource().writeSnapshot(chunkedOutputStream);
+
+                chunkedOutputStream.finish();
+            }
+
+            dataOutputStream.flush();
+        }
+
+        @Override
+        public void recoverFromSnapshot(InputStream inputStream) throws Exception
+        {
+            final DataInputStream dataInputStream = new DataInputStream(inputStream);
+
+            for (int i = 0; i < processors.size(); i++)
+            {
+                final ChunkedInputStream chunkedInputStream = new ChunkedInputStream(dataInputStream);
+
+                processors.get(i).getStateResource().recoverFromSnapshot(chunkedInputStream);
+
+                chunkedInputStream.skipRemaining(chunk);
+            }
+        }
+
+        @Override
+        public void reset()
+        {
+            for (int i = 0; i < processors.size(); i++)
+            {
+                processors.get(i).getStateResource().reset();
+            }
+        }
+    }
+
+    protected static class ChunkedOutputStream extends OutputStream
+    {
+        protected final DataOutputStream outputStream;
+        protected final byte[] chunk;
+        protected int chunkLength = 0;
+
+        public ChunkedOutputStream(DataOutputStream outputStream, byte[] chunk)
+        {
+            this.outputStream = outputStream;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            if (chunkLength == chunk.length)
+            {
+                writeChunk();
+            }
+            chunk[chunkLength++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            while (len > 0)
+            {
+                if (chunkLength == chunk.length)
+                {
+                    writeChunk();
+                }
+
+                final int length = Math.min(len, chunk.length - chunkLength);
+                System.arraycopy(b, off, chunk, chunkLength, length);
+
+                chunkLength += length;
+                off += length;
+                len -= length;
+            }
+        }
+
+        /**
+         * Writes the pending chunk and the terminating empty chunk.
+         */
+        public void finish() throws IOException
+        {
+            if (chunkLength > 0)
+            {
+                writeChunk();
+            }
+            outputStream.writeInt(0);
+        }
+
+        @Override
+        public void close()
+        {
+            // the underlying stream is closed by the caller
+        }
+
+        protected void writeChunk() throws IOException
+        {
+            outputStream.writeInt(chunkLength);
+            outputStream.write(chunk, 0, chunkLength);
+            chunkLength = 0;
+        }
+    }
+
+    protected static class ChunkedInputStream extends InputStream
+    {
+        protected final DataInputStream inputStream;
+
+        protected int remainingChunkLength = 0;
+        protected boolean isEndOfStream = false;
+
+        public ChunkedInputStream(DataInputStream inputStream)
+        {
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (!hasRemaining())
+            {
+                return -1;
+            }
+
+            remainingChunkLength -= 1;
+            return inputStream.readUnsignedByte();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (len == 0)
+            {
+                return 0;
+            }
+            else if (!hasRemaining())
+            {
+                return -1;
+            }
+
+            final int length = Math.min(len, remainingChunkLength);
+            inputStream.readFully(b, off, length);
+            remainingChunkLength -= length;
+
+            return length;
+        }
+
+        @Override
+        public int available()
+        {
+            return remainingChunkLength;
+        }
+
+        @Override
+        public void close()
+        {
+            // the underlying stream is closed by the caller
+        }
+
+        /**
+         * Reads the rest of the snapshot if the processor didn't read it
+         * completely.
+         */
+        public void skipRemaining(byte[] buffer) throws IOException
+        {
+            while (read(buffer, 0, buffer.length) >= 0)
+            {
+                // skip
+            }
+        }
+
+        protected boolean hasRemaining() throws IOException
+        {
+            while (remainingChunkLength == 0 && !isEndOfStream)
+            {
+                final int chunkLength = inputStream.readInt();
+
+                if (chunkLength == 0)
+                {
+                    isEndOfStream = true;
+                }
+                else
+                {
+                    remainingChunkLength = chunkLength;
+                }
+            }
+            return remainingChunkLength > 0;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import io.zeebe.logstreams.log.LogStreamWriter;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.logstreams.processor.EventProcessor;
+import io.zeebe.logstreams.processor.StreamProcessor;
+import io.zeebe.logstreams.processor.StreamProcessorContext;
+import io.zeebe.logstreams.spi.SnapshotSupport;
+
+/**
+ * Delegates to the given stream processor and measures its snapshots. It also
+ * measures the time to process an event and update the state, which the
+ * snapshot policy uses to estimate the replay time.
+ */
+public class SnapshotMeasuringStreamProcessor implements StreamProcessor
+{
+    protected final StreamProcessor delegate;
+    protected final SnapshotMetrics snapshotMetrics;
+    protected final ConfigurableSnapshotPolicy snapshotPolicy;
+
+    protected final MeasuredEventProcessor measuredEventProcessor = new MeasuredEventProcessor();
+
+    protected SnapshotSupport measuredSnapshotSupport;
+
+    public SnapshotMeasuringStreamProcessor(StreamProcessor delegate, SnapshotMetrics snapshotMetrics, ConfigurableSnapshotPolicy snapshotPolicy)
+    {
+        this.delegate = delegate;
+        this.snapshotMetrics = snapshotMetrics;
+        this.snapshotPolicy = snapshotPolicy;
+    }
+
+    @Override
+    public int getPriority(long now)
+    {
+        return delegate.getPriority(now);
+    }
+
+    @Override
+    public SnapshotSupport getStateResource()
+    {
+        if (measuredSnapshotSupport == null)
+        {
+            measuredSnapshotSupport = snapshotMetrics.measure(delegate.getStateResource());
+        }
+        return measuredSnapshotSupport;
+    }
+
+    @Override
+    public EventProcessor onEvent(LoggedEvent event)
+    {
+        final EventProcessor eventProcessor = delegate.onEvent(event);
+
+        if (eventProcessor != null)
+        {
+            measuredEventProcessor.wrap(eventProcessor);
+            return measuredEventProcessor;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public void onOpen(StreamProcessorContext context)
+    {
+        delegate.onOpen(context);
+    }
+
+    @Override
+    public void onClose()
+    {
+        delegate.onClose();
+    }
+
+    @Override
+    public boolean isSuspended()
+    {
+        return delegate.isSuspended();
+    }
+
+    @Override
+    public void afterEvent()
+    {
+        delegate.afterEvent();
+    }
+
+    protected class MeasuredEventProcessor implements EventProcessor
+    {
+        protected EventProcessor delegate;
+        protected long processingTimeNanos;
+
+        public void wrap(EventProcessor delegate)
+        {
+            this.delegate = delegate;
+            this.processingTimeNanos = 0;
+        }
+
+        @Override
+        public void processEvent()
+        {
+            final long start = System.nanoTime();
+            delegate.processEvent();
+            processingTimeNanos += System.nanoTime() - start;
+        }
+
+        // side effects and written events are not repeated on replay
+
+        @Override
+        public boolean executeSideEffects()
+        {
+            return delegate.executeSideEffects();
+        }
+
+        @Override
+        public long writeEvent(LogStreamWriter writer)
+        {
+            return delegate.writeEvent(writer);
+        }
+
+        @Override
+        public void updateState()
+        {
+            final long start = System.nanoTime();
+            delegate.updateState();
+            processingTimeNanos += System.nanoTime() - start;
+
+            snapshotPolicy.onEventProcessed(processingTimeNanos);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+import io.zeebe.logstreams.spi.SnapshotSupport;
+
+/**
+ * Counters of the snapshots of one stream processor: the number of written
+ * snapshots, and the duration (in ms) and size (in bytes) of the last one.
+ */
+public class SnapshotMetrics implements AutoCloseable
+{
+    protected final AtomicCounter snapshotCount;
+    protected final AtomicCounter snapshotDuration;
+    protected final AtomicCounter snapshotSize;
+
+    public SnapshotMetrics(CountersManager countersManager, String processorName)
+    {
+        this.snapshotCount = countersManager.newCounter(String.format("%s.snapshot.count", processorName));
+        this.snapshotDuration = countersManager.newCounter(String.format("%s.snapshot.duration", processorName));
+        this.snapshotSize = countersManager.newCounter(String.format("%s.snapshot.size", processorName));
+    }
+
+    /**
+     * @return a snapshot support which updates the counters when the given one
+     *         writes a snapshot
+     */
+    public SnapshotSupport measure(SnapshotSupport snapshotSupport)
+    {
+        return new MeasuredSnapshotSupport(snapshotSupport);
+    }
+
+    protected void onSnapshotWritten(long durationNanos, long size)
+    {
+        snapshotCount.increment();
+        snapshotDuration.set(durationNanos / 1_000_000);
+        snapshotSize.set(size);
+    }
+
+    @Override
+    public void close()
+    {
+        snapshotCount.close();
+        snapshotDuration.close();
+        snapshotSize.close();
+    }
+
+    protected class MeasuredSnapshotSupport implements SnapshotSupport
+    {
+        protected final SnapshotSupport delegate;
+
+        public MeasuredSnapshotSupport(SnapshotSupport delegate)
+        {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void writeSnapshot(OutputStream outputStream) throws Exception
+        {
+            final long start = System.nanoTime();
+            final CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+
+            delegate.writeSnapshot(countingOutputStream);
+
+            onSnapshotWritten(System.nanoTime() - start, countingOutputStream.count);
+        }
+
+        @Override
+        public void recoverFromSnapshot(InputStream inputStream) throws Exception
+        {
+            delegate.recoverFromSnapshot(inputStream);
+        }
+
+        @Override
+        public void reset()
+        {
+            delegate.reset();
+        }
+    }
+
+    protected static class CountingOutputStream extends FilterOutputStream
+    {
+        protected long count = 0;
+
+        public CountingOutputStream(OutputStream out)
+        {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            out.write(b);
+            count += 1;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
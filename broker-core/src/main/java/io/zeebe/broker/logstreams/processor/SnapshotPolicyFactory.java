@@ -0,0 +1,49 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import org.agrona.concurrent.status.CountersManager;
+
+import io.zeebe.broker.logstreams.cfg.StreamProcessorCfg;
+
+/**
+ * Creates the snapshot policies and metrics of the stream processors as
+ * configured in the <code>processors</code> section.
+ */
+public class SnapshotPolicyFactory
+{
+    protected final StreamProcessorCfg cfg;
+    protected final CountersManager countersManager;
+
+    public SnapshotPolicyFactory(StreamProcessorCfg cfg, CountersManager countersManager)
+    {
+        this.cfg = cfg;
+        this.countersManager = countersManager;
+    }
+
+    public ConfigurableSnapshotPolicy createSnapshotPolicy(int processorId)
+    {
+        final String processorType = StreamProcessorIds.typeName(processorId);
+        return new ConfigurableSnapshotPolicy(cfg.getSnapshotPolicy(processorType));
+    }
+
+    public SnapshotMetrics createSnapshotMetrics(String processorName)
+    {
+        return new SnapshotMetrics(countersManager, processorName);
+    }
+}
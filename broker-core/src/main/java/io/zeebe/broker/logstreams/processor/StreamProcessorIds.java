@@ -39,4 +39,37 @@ public class StreamProcessorIds
 
     public static final int SYSTEM_CREATE_TOPIC_PROCESSOR_ID = 1000;
     public static final int SYSTEM_COLLECT_PARTITION_PROCESSOR_ID = 1001;
+
+    /**
+     * @return the name of the processor type, which is used to configure
+     *         processors of this type
+     */
+    public static String typeName(int processorId)
+    {
+        switch (processorId)
+        {
+            case TASK_QUEUE_STREAM_PROCESSOR_ID:
+                return "task-queue";
+            case TASK_LOCK_STREAM_PROCESSOR_ID:
+                return "task-lock";
+            case TASK_EXPIRE_LOCK_STREAM_PROCESSOR_ID:
+                return "task-expire-lock";
+            case TOPIC_SUBSCRIPTION_PUSH_PROCESSOR_ID:
+                return "topic-subscription-push";
+            case TOPIC_SUBSCRIPTION_MANAGEMENT_PROCESSOR_ID:
+                return "topic-subscription-management";
+            case DEPLOYMENT_PROCESSOR_ID:
+                return "deployment";
+            case WORKFLOW_INSTANCE_PROCESSOR_ID:
+                return "workflow-instance";
+            case INCIDENT_PROCESSOR_ID:
+                return "incident";
+            case SYSTEM_CREATE_TOPIC_PROCESSOR_ID:
+                return "system-create-topic";
+            case SYSTEM_COLLECT_PARTITION_PROCESSOR_ID:
+                return "system-collect-partition";
+            default:
+                return String.valueOf(processorId);
+        }
+    }
 }
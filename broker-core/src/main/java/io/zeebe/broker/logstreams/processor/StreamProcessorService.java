@@ -24,6 +24,7 @@ import io.zeebe.logstreams.log.LogStream;
 import io.zeebe.logstreams.log.LoggedEvent;
 import io.zeebe.logstreams.processor.*;
 import io.zeebe.logstreams.snapshot.TimeBasedSnapshotPolicy;
+import io.zeebe.logstreams.spi.SnapshotPolicy;
 import io.zeebe.logstreams.spi.SnapshotStorage;
 import io.zeebe.protocol.Protocol;
 import io.zeebe.protocol.impl.BrokerEventMetadata;
@@ -35,12 +36,14 @@ public class StreamProcessorService implements Service<StreamProcessorController
     private final Injector<LogStream> logStreamInjector = new Injector<>();
     private final Injector<SnapshotStorage> snapshotStorageInjector = new Injector<>();
     private final Injector<ActorScheduler> actorSchedulerInjector = new Injector<>();
+    private final Injector<SnapshotPolicyFactory> snapshotPolicyFactoryInjector = new Injector<>();
 
     private final String name;
     private final int id;
     private final StreamProcessor streamProcessor;
 
     protected MetadataFilter customEventFilter;
+    protected EventValueFilter customValueFilter;
     protected EventFilter customReprocessingEventFilter;
     protected boolean readOnly;
 
@@ -57,6 +60,7 @@ public class StreamProcessorService implements Service<StreamProcessorController
 
 
     private StreamProcessorController streamProcessorController;
+    private SnapshotMetrics snapshotMetrics;
 
     public StreamProcessorService(String name, int id, StreamProcessor streamProcessor)
     {
@@ -71,6 +75,16 @@ public class StreamProcessorService implements Service<StreamProcessorController
         return this;
     }
 
+    /**
+     * Filters the events which pass the event filter by their value, e.g. by
+     * their state. Not applied on reprocessing.
+     */
+    public StreamProcessorService valueFilter(EventValueFilter valueFilter)
+    {
+        this.customValueFilter = valueFilter;
+        return this;
+    }
+
     public StreamProcessorService reprocessingEventFilter(EventFilter reprocessingEventFilter)
     {
         this.customReprocessingEventFilter = reprocessingEventFilter;
@@ -97,7 +111,7 @@ public class StreamProcessorService implements Service<StreamProcessorController
         {
             metadataFilter = metadataFilter.and(customEventFilter);
         }
-        final EventFilter eventFilter = new MetadataEventFilter(metadataFilter);
+        final EventFilter eventFilter = new MetadataEventFilter(metadataFilter, customValueFilter);
 
         EventFilter reprocessingEventFilter = new MetadataEventFilter(versionFilter);
         if (customReprocessingEventFilter != null)
@@ -105,10 +119,28 @@ public class StreamProcessorService implements Service<StreamProcessorController
             reprocessingEventFilter = reprocessingEventFilter.and(customReprocessingEventFilter);
         }
 
-        streamProcessorController = LogStreams.createStreamProcessor(name, id, streamProcessor)
+        final SnapshotPolicyFactory snapshotPolicyFactory = snapshotPolicyFactoryInjector.getValue();
+
+        StreamProcessor processor = streamProcessor;
+        final SnapshotPolicy snapshotPolicy;
+
+        if (snapshotPolicyFactory != null)
+        {
+            final ConfigurableSnapshotPolicy configurableSnapshotPolicy = snapshotPolicyFactory.createSnapshotPolicy(id);
+            snapshotPolicy = configurableSnapshotPolicy;
+
+            snapshotMetrics = snapshotPolicyFactory.createSnapshotMetrics(name);
+            processor = new SnapshotMeasuringStreamProcessor(streamProcessor, snapshotMetrics, configurableSnapshotPolicy);
+        }
+        else
+        {
+            snapshotPolicy = new TimeBasedSnapshotPolicy(Duration.ofMinutes(15));
+        }
+
+        streamProcessorController = LogStreams.createStreamProcessor(name, id, processor)
             .logStream(logStream)
             .snapshotStorage(snapshotStorage)
-            .snapshotPolicy(new TimeBasedSnapshotPolicy(Duration.ofMinutes(15)))
+            .snapshotPolicy(snapshotPolicy)
             .actorScheduler(actorScheduler)
             .eventFilter(eventFilter)
             .reprocessingEventFilter(reprocessingEventFilter)
@@ -127,7 +159,13 @@ public class StreamProcessorService implements Service<StreamProcessorController
     @Override
     public void stop(ServiceStopContext ctx)
     {
-        ctx.async(streamProcessorController.closeAsync());
+        ctx.async(streamProcessorController.closeAsync().whenComplete((v, t) ->
+        {
+            if (snapshotMetrics != null)
+            {
+                snapshotMetrics.close();
+            }
+        }));
     }
 
     public Injector<SnapshotStorage> getSnapshotStorageInjector()
@@ -140,6 +178,11 @@ public class StreamProcessorService implements Service<StreamProcessorController
         return actorSchedulerInjector;
     }
 
+    public Injector<SnapshotPolicyFactory> getSnapshotPolicyFactoryInjector()
+    {
+        return snapshotPolicyFactoryInjector;
+    }
+
     public Injector<LogStream> getLogStreamInjector()
     {
         return logStreamInjector;
@@ -155,22 +198,29 @@ public class StreamProcessorService implements Service<StreamProcessorController
         return name;
     }
 
-    protected static class MetadataEventFilter implements EventFilter
+    public static class MetadataEventFilter implements EventFilter
     {
 
         protected final BrokerEventMetadata metadata = new BrokerEventMetadata();
         protected final MetadataFilter metadataFilter;
+        protected final EventValueFilter valueFilter;
 
         public MetadataEventFilter(MetadataFilter metadataFilter)
+        {
+            this(metadataFilter, null);
+        }
+
+        public MetadataEventFilter(MetadataFilter metadataFilter, EventValueFilter valueFilter)
         {
             this.metadataFilter = metadataFilter;
+            this.valueFilter = valueFilter;
         }
 
         @Override
         public boolean applies(LoggedEvent event)
         {
             event.readMetadata(metadata);
-            return metadataFilter.applies(metadata);
+            return metadataFilter.applies(metadata) && (valueFilter == null || valueFilter.applies(event, metadata));
         }
 
     }
@@ -0,0 +1,50 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.state;
+
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
+import org.agrona.DirectBuffer;
+
+/**
+ * State of a stream processor which maps a long key to a value of limited
+ * length. The state is part of the snapshot of the stream processor (see
+ * {@link #getSnapshotSupport()}).
+ */
+public interface Long2BytesStore extends AutoCloseable
+{
+    /**
+     * @return the value or <code>null</code> if the key is not present. The
+     *         returned buffer is only valid until the store is modified.
+     */
+    DirectBuffer get(long key);
+
+    /**
+     * Stores the value and replaces the previous value of the key.
+     *
+     * @throws IllegalArgumentException
+     *             if the value is longer than the max value length of the store
+     */
+    void put(long key, DirectBuffer value);
+
+    void remove(long key);
+
+    ComposableSnapshotSupport getSnapshotSupport();
+
+    @Override
+    void close();
+}
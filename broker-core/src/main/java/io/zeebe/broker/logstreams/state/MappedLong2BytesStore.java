@@ -0,0 +1,480 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.state;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.LongArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Keeps the values in memory-mapped segment files, so that the state can
+ * exceed the available memory. Only the index of the slots (16 bytes per key)
+ * is kept on the heap.
+ *
+ * <p>
+ * Each value is stored in a fixed-size slot which holds the length of the
+ * value followed by the value itself. Slots of removed keys are reused, and a
+ * segment is added when all slots are in use. The segment files are scratch
+ * space which is deleted when the store is closed.
+ *
+ * <p>
+ * The state of the segments at the time of a snapshot is kept in a
+ * {@link StateCheckpoint}. A snapshot contains the index of the slots and the
+ * pages of the segments which changed since the checkpoint. Only the first
+ * snapshot after the store was opened or reset contains all pages, and these
+ * are written to the checkpoint.
+ *
+ * <p>
+ * The store is not notified when a snapshot is committed. So the checkpoint is
+ * not moved forward by the following snapshots, since each of them can fail.
+ * All of them are based on the checkpoint and recover from it, no matter which
+ * one is the latest committed snapshot. On recovery, the pages of the snapshot
+ * are applied to the checkpoint and the segments are restored from it.
+ */
+public class MappedLong2BytesStore implements Long2BytesStore, ComposableSnapshotSupport
+{
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * "ZBMAPST1" - identifies snapshots of this store
+     */
+    public static final long SNAPSHOT_FORMAT = 0x5a424d4150535431L;
+
+    private static final String SEGMENT_FILE_NAME_PATTERN = "%s.%d.state";
+
+    private static final long NO_SLOT = -1L;
+
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final File directory;
+    private final String name;
+
+    private final int maxValueLength;
+    private final int slotSize;
+    private final int slotsPerSegment;
+    private final int segmentLength;
+
+    private final List<MappedByteBuffer> mappedSegments = new ArrayList<>();
+    private final List<UnsafeBuffer> segments = new ArrayList<>();
+
+    /**
+     * key -> slot
+     */
+    private final Long2LongHashMap slots = new Long2LongHashMap(NO_SLOT);
+    private final LongArrayList freeSlots = new LongArrayList();
+
+    /*
+     * the slots from this one on have never been used since the last reset
+     */
+    private long nextSlot = 0;
+
+    private final UnsafeBuffer valueView = new UnsafeBuffer(0, 0);
+
+    private final StateCheckpoint checkpoint;
+
+    /**
+     * the pages which changed since the last snapshot
+     */
+    private final BitSet dirtyPages = new BitSet();
+
+    /*
+     * false if the segments do not derive from the checkpoint, so that the
+     * next snapshot must contain all pages
+     */
+    private boolean isCheckpointBased = false;
+
+    /*
+     * the generation of the latest written or recovered snapshot
+     */
+    private long lastGeneration;
+
+    private final byte[] pageBytes = new byte[StateCheckpoint.PAGE_SIZE];
+
+    public MappedLong2BytesStore(File directory, String name, int maxValueLength)
+    {
+        this(directory, name, maxValueLength, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public MappedLong2BytesStore(File directory, String name, int maxValueLength, int segmentSize)
+    {
+        this.directory = directory;
+        this.name = name;
+        this.maxValueLength = maxValueLength;
+        this.slotSize = BitUtil.align(SIZE_OF_INT + maxValueLength, SIZE_OF_LONG);
+        this.slotsPerSegment = Math.max(1, segmentSize / slotSize);
+        this.segmentLength = slotsPerSegment * slotSize;
+
+        directory.mkdirs();
+
+        this.checkpoint = new StateCheckpoint(directory, name, segmentLength);
+        this.lastGeneration = Math.max(checkpoint.getGeneration(), checkpoint.getApplyingGeneration());
+    }
+
+    @Override
+    public DirectBuffer get(long key)
+    {
+        final long slot = slots.get(key);
+
+        if (slot != NO_SLOT)
+        {
+            final UnsafeBuffer segment = segments.get(segmentIndex(slot));
+            final int offset = segmentOffset(slot);
+            final int length = segment.getInt(offset, BYTE_ORDER);
+
+            valueView.wrap(segment, offset + SIZE_OF_INT, length);
+            return valueView;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(long key, DirectBuffer value)
+    {
+        final int length = value.capacity();
+        if (length > maxValueLength)
+        {
+            throw new IllegalArgumentException(String.format("Value length exceeds max value length. Value length = %d, max value length = %d", length, maxValueLength));
+        }
+
+        long slot = slots.get(key);
+        if (slot == NO_SLOT)
+        {
+            slot = allocateSlot();
+            slots.put(key, slot);
+        }
+
+        final int segmentIndex = segmentIndex(slot);
+        final UnsafeBuffer segment = segments.get(segmentIndex);
+        final int offset = segmentOffset(slot);
+
+        // the value can be a view on the slot itself
+        segment.putBytes(offset + SIZE_OF_INT, value, 0, length);
+        segment.putInt(offset, length, BYTE_ORDER);
+
+        final int firstPage = segmentIndex * checkpoint.getPagesPerSegment() + offset / StateCheckpoint.PAGE_SIZE;
+        final int lastPage = segmentIndex * checkpoint.getPagesPerSegment() + (offset + SIZE_OF_INT + length - 1) / StateCheckpoint.PAGE_SIZE;
+        dirtyPages.set(firstPage, lastPage + 1);
+    }
+
+    @Override
+    public void remove(long key)
+    {
+        final long slot = slots.remove(key);
+
+        if (slot != NO_SLOT)
+        {
+            freeSlots.addLong(slot);
+        }
+    }
+
+    private long allocateSlot()
+    {
+        if (!freeSlots.isEmpty())
+        {
+            return freeSlots.fastUnorderedRemove(freeSlots.size() - 1);
+        }
+
+        ensureSegments(segmentIndex(nextSlot) + 1);
+
+        final long slot = nextSlot;
+        nextSlot += 1;
+
+        return slot;
+    }
+
+    private void ensureSegments(int count)
+    {
+        while (segments.size() < count)
+        {
+            final int segmentIndex = segments.size();
+            final File segmentFile = new File(directory, String.format(SEGMENT_FILE_NAME_PATTERN, name, segmentIndex));
+
+            IoUtil.deleteIfExists(segmentFile);
+
+            final MappedByteBuffer mappedSegment = IoUtil.mapNewFile(segmentFile, segmentLength);
+            mappedSegments.add(mappedSegment);
+            segments.add(new UnsafeBuffer(mappedSegment));
+        }
+    }
+
+    private int segmentIndex(long slot)
+    {
+        return (int) (slot / slotsPerSegment);
+    }
+
+    private int segmentOffset(long slot)
+    {
+        return (int) (slot % slotsPerSegment) * slotSize;
+    }
+
+    @Override
+    public ComposableSnapshotSupport getSnapshotSupport()
+    {
+        return this;
+    }
+
+    /**
+     * @return the pages which must be part of the next snapshot - all pages
+     *         which changed since the checkpoint
+     */
+    private BitSet snapshotPages()
+    {
+        if (isCheckpointBased)
+        {
+            return dirtyPages;
+        }
+        else
+        {
+            // all pages which contain used slots
+            final BitSet pages = new BitSet();
+            long remainingSlots = nextSlot;
+
+            for (int segmentIndex = 0; remainingSlots > 0; segmentIndex++)
+            {
+                final long usedSlots = Math.min(remainingSlots, slotsPerSegment);
+                final int usedPages = (int) ((usedSlots * slotSize + StateCheckpoint.PAGE_SIZE - 1) / StateCheckpoint.PAGE_SIZE);
+                final int firstPage = segmentIndex * checkpoint.getPagesPerSegment();
+
+                pages.set(firstPage, firstPage + usedPages);
+
+                remainingSlots -= usedSlots;
+            }
+            return pages;
+        }
+    }
+
+    @Override
+    public long snapshotSize()
+    {
+        long size = SIZE_OF_LONG * 4 + SIZE_OF_INT + (long) slots.size() * (SIZE_OF_LONG + SIZE_OF_LONG) + SIZE_OF_INT;
+
+        final BitSet pages = snapshotPages();
+        for (int page = pages.nextSetBit(0); page >= 0; page = pages.nextSetBit(page + 1))
+        {
+            size += SIZE_OF_INT + checkpoint.pageLength(page);
+        }
+        return size;
+    }
+
+    @Override
+    public void writeSnapshot(OutputStream outputStream) throws Exception
+    {
+        final BitSet pages = snapshotPages();
+
+        final long baseGeneration = isCheckpointBased ? checkpoint.getGeneration() : StateCheckpoint.NO_GENERATION;
+        final long generation = lastGeneration + 1;
+
+        final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+
+        dataOutputStream.writeLong(SNAPSHOT_FORMAT);
+        dataOutputStream.writeLong(generation);
+        dataOutputStream.writeLong(baseGeneration);
+        dataOutputStream.writeLong(nextSlot);
+
+        dataOutputStream.writeInt(slots.size());
+
+        final Long2LongHashMap.KeyIterator keys = slots.keySet().iterator();
+        while (keys.hasNext())
+        {
+            final long key = keys.nextValue();
+
+            dataOutputStream.writeLong(key);
+            dataOutputStream.writeLong(slots.get(key));
+        }
+
+        dataOutputStream.writeInt(pages.cardinality());
+
+        // a full snapshot doesn't depend on the checkpoint, so that it becomes the new checkpoint
+        final boolean isFullSnapshot = !isCheckpointBased;
+        if (isFullSnapshot)
+        {
+            checkpoint.beginApply(generation);
+        }
+
+        for (int page = pages.nextSetBit(0); page >= 0; page = pages.nextSetBit(page + 1))
+        {
+            final int length = checkpoint.pageLength(page);
+
+            segments.get(checkpoint.segmentIndex(page)).getBytes(checkpoint.segmentOffset(page), pageBytes, 0, length);
+
+            dataOutputStream.writeInt(page);
+            dataOutputStream.write(pageBytes, 0, length);
+
+            if (isFullSnapshot)
+            {
+                checkpoint.writePage(page, ByteBuffer.wrap(pageBytes, 0, length));
+            }
+        }
+
+        dataOutputStream.flush();
+
+        if (isFullSnapshot)
+        {
+            checkpoint.commitApply();
+
+            dirtyPages.clear();
+            isCheckpointBased = true;
+        }
+
+        lastGeneration = generation;
+    }
+
+    @Override
+    public void recoverFromSnapshot(InputStream inputStream) throws Exception
+    {
+        reset();
+
+        final DataInputStream dataInputStream = new DataInputStream(inputStream);
+
+        final long format = dataInputStream.readLong();
+        if (format != SNAPSHOT_FORMAT)
+        {
+            throw new IllegalStateException(String.format("Cannot recover state store '%s': the snapshot was not written by a mapped state store. " +
+                    "The state store of a partition must not be changed once it has data.", name));
+        }
+
+        final long generation = dataInputStream.readLong();
+        final long baseGeneration = dataInputStream.readLong();
+
+        ensureCheckpointMatches(generation, baseGeneration);
+
+        lastGeneration = Math.max(lastGeneration, generation);
+
+        nextSlot = dataInputStream.readLong();
+
+        final BitSet usedSlots = new BitSet();
+
+        final int count = dataInputStream.readInt();
+        for (int i = 0; i < count; i++)
+        {
+            final long key = dataInputStream.readLong();
+            final long slot = dataInputStream.readLong();
+
+            slots.put(key, slot);
+            usedSlots.set((int) slot);
+        }
+
+        final int pageCount = dataInputStream.readInt();
+
+        checkpoint.beginApply(generation);
+
+        for (int i = 0; i < pageCount; i++)
+        {
+            final int page = dataInputStream.readInt();
+            final int length = checkpoint.pageLength(page);
+
+            dataInputStream.readFully(pageBytes, 0, length);
+
+            checkpoint.writePage(page, ByteBuffer.wrap(pageBytes, 0, length));
+        }
+
+        checkpoint.commitApply();
+
+        final int segmentCount = nextSlot > 0 ? segmentIndex(nextSlot - 1) + 1 : 0;
+        ensureSegments(segmentCount);
+
+        for (int i = 0; i < segmentCount; i++)
+        {
+            checkpoint.readSegment(i, mappedSegments.get(i).duplicate());
+        }
+
+        for (long slot = 0; slot < nextSlot; slot++)
+        {
+            if (!usedSlots.get((int) slot))
+            {
+                freeSlots.addLong(slot);
+            }
+        }
+
+        isCheckpointBased = true;
+    }
+
+    private void ensureCheckpointMatches(long generation, long baseGeneration)
+    {
+        final boolean isFullSnapshot = baseGeneration == StateCheckpoint.NO_GENERATION;
+
+        final boolean matches;
+        if (checkpoint.getApplyingGeneration() != StateCheckpoint.NO_GENERATION)
+        {
+            // the pages of this snapshot were applied partially
+            matches = isFullSnapshot || generation == checkpoint.getApplyingGeneration();
+        }
+        else
+        {
+            matches = isFullSnapshot || generation == checkpoint.getGeneration() || baseGeneration == checkpoint.getGeneration();
+        }
+
+        if (!matches)
+        {
+            throw new IllegalStateException(String.format("Cannot recover state store '%s' from snapshot %d: the checkpoint in '%s' belongs to snapshot %d. " +
+                    "Delete the snapshots and the checkpoint to rebuild the state from the log.",
+                    name, generation, directory, Math.max(checkpoint.getGeneration(), checkpoint.getApplyingGeneration())));
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        slots.clear();
+
+        freeSlots.clear();
+        nextSlot = 0;
+
+        dirtyPages.clear();
+        isCheckpointBased = false;
+    }
+
+    @Override
+    public void close()
+    {
+        for (int i = 0; i < mappedSegments.size(); i++)
+        {
+            IoUtil.unmap(mappedSegments.get(i));
+            IoUtil.deleteIfExists(new File(directory, String.format(SEGMENT_FILE_NAME_PATTERN, name, i)));
+        }
+
+        mappedSegments.clear();
+        segments.clear();
+
+        reset();
+
+        checkpoint.close();
+    }
+}
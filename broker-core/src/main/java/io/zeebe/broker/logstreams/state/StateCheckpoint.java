@@ -0,0 +1,286 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.state;
+
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.agrona.LangUtil;
+
+/**
+ * The files of a {@link MappedLong2BytesStore} which hold the state of its
+ * segments at the time of a snapshot, so that a snapshot only has to contain
+ * the pages which changed since the checkpoint.
+ *
+ * <p>
+ * The checkpoint is written by a full snapshot and by the recovery from a
+ * snapshot, but never by an incremental snapshot which is not known to be
+ * committed.
+ *
+ * <p>
+ * A header file records the generation of the snapshot the checkpoint
+ * matches, and the generation which is currently being applied, so that a
+ * checkpoint which does not match a snapshot is detected on recovery.
+ */
+public class StateCheckpoint implements AutoCloseable
+{
+    public static final int PAGE_SIZE = 4 * 1024;
+
+    public static final long NO_GENERATION = -1L;
+
+    private static final String HEADER_FILE_NAME_PATTERN = "%s.checkpoint";
+    private static final String SEGMENT_FILE_NAME_PATTERN = "%s.%d.checkpoint";
+
+    private static final int HEADER_LENGTH = 2 * SIZE_OF_LONG;
+
+    private final File directory;
+    private final String name;
+
+    private final int segmentLength;
+    private final int pagesPerSegment;
+
+    private final FileChannel headerChannel;
+    private final ByteBuffer headerBuffer = ByteBuffer.allocate(HEADER_LENGTH);
+
+    private final List<FileChannel> segmentChannels = new ArrayList<>();
+
+    private long generation = NO_GENERATION;
+    private long applyingGeneration = NO_GENERATION;
+
+    public StateCheckpoint(File directory, String name, int segmentLength)
+    {
+        this.directory = directory;
+        this.name = name;
+        this.segmentLength = segmentLength;
+        this.pagesPerSegment = (segmentLength + PAGE_SIZE - 1) / PAGE_SIZE;
+
+        headerChannel = openChannel(new File(directory, String.format(HEADER_FILE_NAME_PATTERN, name)));
+        readHeader();
+    }
+
+    /**
+     * @return the generation of the snapshot which the checkpoint matches, or
+     *         {@link #NO_GENERATION}
+     */
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * @return the generation of the snapshot which was applied partially to
+     *         the checkpoint, or {@link #NO_GENERATION}
+     */
+    public long getApplyingGeneration()
+    {
+        return applyingGeneration;
+    }
+
+    public int getPagesPerSegment()
+    {
+        return pagesPerSegment;
+    }
+
+    public int pageLength(int page)
+    {
+        return Math.min(PAGE_SIZE, segmentLength - segmentOffset(page));
+    }
+
+    public int segmentIndex(int page)
+    {
+        return page / pagesPerSegment;
+    }
+
+    public int segmentOffset(int page)
+    {
+        return (page % pagesPerSegment) * PAGE_SIZE;
+    }
+
+    public void beginApply(long generation)
+    {
+        applyingGeneration = generation;
+        writeHeader();
+    }
+
+    public void writePage(int page, ByteBuffer bytes)
+    {
+        try
+        {
+            final FileChannel channel = segmentChannel(segmentIndex(page));
+            long position = segmentOffset(page);
+
+            while (bytes.hasRemaining())
+            {
+                position += channel.write(bytes, position);
+            }
+        }
+        catch (IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    public void commitApply()
+    {
+        try
+        {
+            for (int i = 0; i < segmentChannels.size(); i++)
+            {
+                segmentChannels.get(i).force(false);
+            }
+        }
+        catch (IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+
+        generation = applyingGeneration;
+        applyingGeneration = NO_GENERATION;
+        writeHeader();
+    }
+
+    /**
+     * Copies the checkpoint of the segment into the given buffer. Parts which
+     * were never checkpointed are left unchanged.
+     */
+    public void readSegment(int segmentIndex, ByteBuffer target)
+    {
+        try
+        {
+            final FileChannel channel = segmentChannel(segmentIndex);
+            long position = 0;
+
+            while (target.hasRemaining())
+            {
+                final int bytesRead = channel.read(target, position);
+                if (bytesRead < 0)
+                {
+                    break;
+                }
+                position += bytesRead;
+            }
+        }
+        catch (IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private FileChannel segmentChannel(int segmentIndex)
+    {
+        while (segmentChannels.size() <= segmentIndex)
+        {
+            final File segmentFile = new File(directory, String.format(SEGMENT_FILE_NAME_PATTERN, name, segmentChannels.size()));
+            segmentChannels.add(openChannel(segmentFile));
+        }
+        return segmentChannels.get(segmentIndex);
+    }
+
+    private void readHeader()
+    {
+        try
+        {
+            headerBuffer.clear();
+
+            long position = 0;
+            while (headerBuffer.hasRemaining())
+            {
+                final int bytesRead = headerChannel.read(headerBuffer, position);
+                if (bytesRead < 0)
+                {
+                    // no checkpoint yet
+                    return;
+                }
+                position += bytesRead;
+            }
+
+            generation = headerBuffer.getLong(0);
+            applyingGeneration = headerBuffer.getLong(SIZE_OF_LONG);
+        }
+        catch (IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private void writeHeader()
+    {
+        try
+        {
+            headerBuffer.clear();
+            headerBuffer.putLong(0, generation);
+            headerBuffer.putLong(SIZE_OF_LONG, applyingGeneration);
+
+            long position = 0;
+            while (headerBuffer.hasRemaining())
+            {
+                position += headerChannel.write(headerBuffer, position);
+            }
+
+            headerChannel.force(false);
+        }
+        catch (IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    private static FileChannel openChannel(File file)
+    {
+        try
+        {
+            return new RandomAccessFile(file, "rw").getChannel();
+        }
+        catch (IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+            return null;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        for (int i = 0; i < segmentChannels.size(); i++)
+        {
+            closeChannel(segmentChannels.get(i));
+        }
+        segmentChannels.clear();
+
+        closeChannel(headerChannel);
+    }
+
+    private static void closeChannel(FileChannel channel)
+    {
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.state;
+
+import java.io.File;
+
+import io.zeebe.broker.logstreams.cfg.StreamProcessorCfg;
+
+/**
+ * Creates the state stores of the stream processors of one log stream, either
+ * in memory or in memory-mapped files (see {@link StreamProcessorCfg#stateStore}).
+ */
+public class StateStoreFactory
+{
+    public static final String STATE_STORE_MEMORY = "memory";
+    public static final String STATE_STORE_MAPPED = "mapped";
+
+    protected final File directory;
+
+    protected StateStoreFactory(File directory)
+    {
+        this.directory = directory;
+    }
+
+    public static StateStoreFactory inMemory()
+    {
+        return new StateStoreFactory(null);
+    }
+
+    public static StateStoreFactory mapped(File directory)
+    {
+        return new StateStoreFactory(directory);
+    }
+
+    public static StateStoreFactory forLogStream(StreamProcessorCfg cfg, String logName)
+    {
+        if (STATE_STORE_MAPPED.equalsIgnoreCase(cfg.stateStore))
+        {
+            return mapped(new File(cfg.getDirectory(), logName));
+        }
+        else
+        {
+            return inMemory();
+        }
+    }
+
+    /**
+     * @param name
+     *            the name of the store; must be unique per log stream
+     */
+    public Long2BytesStore createStore(String name, int maxValueLength)
+    {
+        if (directory != null)
+        {
+            return new MappedLong2BytesStore(directory, name, maxValueLength);
+        }
+        else
+        {
+            return new ZbMapLong2BytesStore(maxValueLength);
+        }
+    }
+}
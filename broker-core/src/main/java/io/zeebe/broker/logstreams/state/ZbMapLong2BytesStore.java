@@ -0,0 +1,137 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.state;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.ByteBuffer;
+
+import io.zeebe.logstreams.snapshot.ZbMapSnapshotSupport;
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
+import io.zeebe.map.Long2BytesZbMap;
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+
+/**
+ * Keeps the state in memory. The snapshot contains the whole map.
+ */
+public class ZbMapLong2BytesStore implements Long2BytesStore
+{
+    protected final Long2BytesZbMap map;
+    protected final ZbMapSnapshotSupport<Long2BytesZbMap> mapSnapshotSupport;
+    protected final ComposableSnapshotSupport snapshotSupport;
+
+    public ZbMapLong2BytesStore(int maxValueLength)
+    {
+        this.map = new Long2BytesZbMap(maxValueLength);
+        this.mapSnapshotSupport = new ZbMapSnapshotSupport<>(map);
+        this.snapshotSupport = new SnapshotSupport();
+    }
+
+    @Override
+    public DirectBuffer get(long key)
+    {
+        return map.get(key);
+    }
+
+    @Override
+    public void put(long key, DirectBuffer value)
+    {
+        map.put(key, value);
+    }
+
+    @Override
+    public void remove(long key)
+    {
+        map.remove(key);
+    }
+
+    @Override
+    public ComposableSnapshotSupport getSnapshotSupport()
+    {
+        return snapshotSupport;
+    }
+
+    @Override
+    public void close()
+    {
+        map.close();
+    }
+
+    /**
+     * Writes the snapshot of the map and rejects the snapshots of a
+     * {@link MappedLong2BytesStore} on recovery.
+     */
+    protected class SnapshotSupport implements ComposableSnapshotSupport
+    {
+        @Override
+        public long snapshotSize()
+        {
+            return mapSnapshotSupport.snapshotSize();
+        }
+
+        @Override
+        public void writeSnapshot(OutputStream outputStream) throws Exception
+        {
+            mapSnapshotSupport.writeSnapshot(outputStream);
+        }
+
+        @Override
+        public void recoverFromSnapshot(InputStream inputStream) throws Exception
+        {
+            final PushbackInputStream pushbackInputStream = new PushbackInputStream(inputStream, BitUtil.SIZE_OF_LONG);
+
+            if (startsWithMappedSnapshotFormat(pushbackInputStream))
+            {
+                throw new IllegalStateException("Cannot recover in-memory state store: the snapshot was written by a mapped state store. " +
+                        "The state store of a partition must not be changed once it has data.");
+            }
+
+            mapSnapshotSupport.recoverFromSnapshot(pushbackInputStream);
+        }
+
+        @Override
+        public void reset()
+        {
+            mapSnapshotSupport.reset();
+        }
+    }
+
+    protected static boolean startsWithMappedSnapshotFormat(PushbackInputStream inputStream) throws IOException
+    {
+        final byte[] bytes = new byte[BitUtil.SIZE_OF_LONG];
+
+        int length = 0;
+        int bytesRead = 0;
+        while (length < bytes.length && bytesRead >= 0)
+        {
+            bytesRead = inputStream.read(bytes, length, bytes.length - length);
+            if (bytesRead > 0)
+            {
+                length += bytesRead;
+            }
+        }
+
+        inputStream.unread(bytes, 0, length);
+
+        return length == bytes.length
+                && ByteBuffer.wrap(bytes).getLong() == MappedLong2BytesStore.SNAPSHOT_FORMAT;
+    }
+}
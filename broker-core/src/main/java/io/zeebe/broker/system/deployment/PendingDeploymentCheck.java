@@ -17,7 +17,9 @@
  */
 package io.zeebe.broker.system.deployment;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 
 import io.zeebe.broker.Loggers;
@@ -29,14 +31,17 @@ import io.zeebe.broker.system.deployment.data.PendingWorkflows;
 import io.zeebe.broker.system.deployment.data.PendingWorkflows.PendingWorkflow;
 import io.zeebe.broker.system.deployment.data.PendingWorkflows.PendingWorkflowIterator;
 import io.zeebe.broker.system.deployment.handler.WorkflowRequestMessageSender;
+import io.zeebe.broker.system.deployment.handler.WorkflowRequestMessageSender.PendingCreateRequest;
 import io.zeebe.broker.system.deployment.message.CreateWorkflowResponse;
 import io.zeebe.broker.workflow.data.DeploymentEvent;
 import io.zeebe.broker.workflow.data.DeploymentState;
+import io.zeebe.clustering.management.CreateWorkflowStatus;
 import io.zeebe.protocol.impl.BrokerEventMetadata;
 import io.zeebe.transport.ClientRequest;
 import io.zeebe.util.CloseableSilently;
 import io.zeebe.util.time.ClockUtil;
 import org.agrona.DirectBuffer;
+import org.agrona.collections.IntArrayList;
 import org.agrona.collections.LongArrayList;
 import org.slf4j.Logger;
 
@@ -54,6 +59,9 @@ public class PendingDeploymentCheck implements Runnable, CloseableSilently
 
     private final CreateWorkflowResponse response = new CreateWorkflowResponse();
 
+    private final List<PendingCreateRequest> partiallyAnsweredRequests = new ArrayList<>();
+    private final IntArrayList missingPartitionIds = new IntArrayList();
+
     private final LongArrayList pendingDeploymentKeys = new LongArrayList();
     private final LongArrayList distributedDeploymentKeys = new LongArrayList();
     private final LongArrayList timedOutDeploymentKeys = new LongArrayList();
@@ -91,12 +99,15 @@ public class PendingDeploymentCheck implements Runnable, CloseableSilently
 
     private void checkPendingRequests()
     {
+        partiallyAnsweredRequests.clear();
+
         // it's okay to work on the pending request because
         // the command runs in the context of the stream processor which creates new requests
-        final Iterator<ClientRequest> iterator = workflowRequestSender.getPendingRequests().iterator();
+        final Iterator<PendingCreateRequest> iterator = workflowRequestSender.getPendingRequests().iterator();
         while (iterator.hasNext())
         {
-            final ClientRequest pendingRequest = iterator.next();
+            final PendingCreateRequest pendingCreateRequest = iterator.next();
+            final ClientRequest pendingRequest = pendingCreateRequest.getRequest();
 
             if (pendingRequest.isDone())
             {
@@ -110,14 +121,32 @@ public class PendingDeploymentCheck implements Runnable, CloseableSilently
                     response.wrap(responseBuffer, 0, responseBuffer.capacity());
 
                     final long workflowKey = response.getWorkflowKey();
-                    final int partitionId = response.getPartitionId();
                     final long deploymentKey = response.getDeploymentKey();
 
-                    final PendingWorkflow pendingWorkflow = pendingWorkflows.get(workflowKey, partitionId);
-                    if (pendingWorkflow != null && pendingWorkflow.getState() == PendingWorkflows.STATE_CREATE)
+                    final IntArrayList partitionIds = response.getPartitionIds();
+                    for (int i = 0; i < partitionIds.size(); i++)
+                    {
+                        final int partitionId = partitionIds.getInt(i);
+
+                        final PendingWorkflow pendingWorkflow = pendingWorkflows.get(workflowKey, partitionId);
+                        if (pendingWorkflow != null && pendingWorkflow.getState() == PendingWorkflows.STATE_CREATE)
+                        {
+                            // ignore response if pending workflow or deployment is already processed
+                            pendingWorkflows.put(workflowKey, partitionId, PendingWorkflows.STATE_CREATED, deploymentKey);
+                        }
+                    }
+
+                    final CreateWorkflowStatus status = response.getStatus();
+                    if (status == CreateWorkflowStatus.NOT_LEADER)
+                    {
+                        LOG.debug("Create workflow request with id '{}' was sent to a broker which doesn't lead the partitions {}.",
+                                  pendingRequest.getRequestId(), pendingCreateRequest.getPartitionIds());
+                    }
+
+                    // a rejected request is not sent again - the deployment times out
+                    if (status != CreateWorkflowStatus.REJECTED)
                     {
-                        // ignore response if pending workflow or deployment is already processed
-                        pendingWorkflows.put(workflowKey, partitionId, PendingWorkflows.STATE_CREATED, deploymentKey);
+                        partiallyAnsweredRequests.add(pendingCreateRequest);
                     }
                 }
 
@@ -126,6 +155,45 @@ public class PendingDeploymentCheck implements Runnable, CloseableSilently
                 iterator.remove();
             }
         }
+
+        for (int i = 0; i < partiallyAnsweredRequests.size(); i++)
+        {
+            requestMissingPartitions(partiallyAnsweredRequests.get(i));
+        }
+    }
+
+    /**
+     * A response contains the partitions the workflow is created on so far.
+     * The remaining ones are requested again, from the brokers which lead
+     * them now.
+     */
+    private void requestMissingPartitions(PendingCreateRequest request)
+    {
+        final long workflowKey = request.getWorkflowKey();
+        final IntArrayList partitionIds = request.getPartitionIds();
+
+        missingPartitionIds.clear();
+
+        for (int i = 0; i < partitionIds.size(); i++)
+        {
+            final int partitionId = partitionIds.getInt(i);
+
+            final PendingWorkflow pendingWorkflow = pendingWorkflows.get(workflowKey, partitionId);
+            if (pendingWorkflow != null && pendingWorkflow.getState() == PendingWorkflows.STATE_CREATE)
+            {
+                missingPartitionIds.addInt(partitionId);
+            }
+        }
+
+        if (!missingPartitionIds.isEmpty())
+        {
+            LOG.debug("Request the creation of workflow with key '{}' again for partitions {}", workflowKey, missingPartitionIds);
+
+            if (!workflowRequestSender.resendCreateWorkflowRequest(request, missingPartitionIds))
+            {
+                LOG.info("Failed to request the creation of workflow with key '{}' again.", workflowKey);
+            }
+        }
     }
 
     private void checkPendingWorkflows()
@@ -18,8 +18,12 @@
 package io.zeebe.broker.system.deployment.handler;
 
 import io.zeebe.broker.Loggers;
+import io.zeebe.broker.system.deployment.handler.PendingCreateWorkflowRequests.PendingRequest;
+import io.zeebe.broker.system.deployment.handler.PendingCreateWorkflowRequests.PendingWorkflow;
 import io.zeebe.broker.system.deployment.message.CreateWorkflowResponse;
+import io.zeebe.clustering.management.CreateWorkflowStatus;
 import io.zeebe.transport.*;
+import org.agrona.collections.IntArrayList;
 import org.slf4j.Logger;
 
 public class CreateWorkflowResponseSender
@@ -32,9 +36,23 @@ public class CreateWorkflowResponseSender
 
     private final ServerOutput output;
 
-    public CreateWorkflowResponseSender(ServerTransport managementServer)
+    private final PendingCreateWorkflowRequests pendingRequests;
+    private final IntArrayList createdPartitionIds = new IntArrayList();
+
+    public CreateWorkflowResponseSender(ServerTransport managementServer, PendingCreateWorkflowRequests pendingRequests)
+    {
+        this(managementServer.getOutput(), pendingRequests);
+    }
+
+    public CreateWorkflowResponseSender(ServerOutput output)
     {
-        this.output = managementServer.getOutput();
+        this(output, new PendingCreateWorkflowRequests());
+    }
+
+    public CreateWorkflowResponseSender(ServerOutput output, PendingCreateWorkflowRequests pendingRequests)
+    {
+        this.output = output;
+        this.pendingRequests = pendingRequests;
     }
 
     public boolean sendCreateWorkflowResponse(
@@ -44,13 +62,44 @@ public class CreateWorkflowResponseSender
             long requestId,
             int requestStreamId)
     {
-        LOG.debug("Respond to create workflow request with id '{}'. Deployment-Key: {}, Workflow-Key: {}",
-                  requestId, deploymentKey, workflowKey);
+        final PendingWorkflow workflow = pendingRequests.onWorkflowCreated(workflowKey, partitionId);
+
+        if (workflow == null)
+        {
+            // e.g. the request timed out - answer for this partition only
+            createdPartitionIds.clear();
+            createdPartitionIds.addInt(partitionId);
+
+            return sendResponse(requestStreamId, requestId, workflowKey, deploymentKey);
+        }
+
+        // the request which waits for the workflow can be a later one than the request of the event
+        final PendingRequest request = pendingRequests.collectCreatedPartitions(workflow, createdPartitionIds);
+
+        if (request == null)
+        {
+            // no request waits for this partition - it is reported when the system partition requests it again
+            return true;
+        }
+
+        final boolean success = sendResponse(request.getRequestStreamId(), request.getRequestId(), workflowKey, deploymentKey);
+        if (success)
+        {
+            pendingRequests.markAnswered(request);
+        }
+        return success;
+    }
+
+    private boolean sendResponse(int requestStreamId, long requestId, long workflowKey, long deploymentKey)
+    {
+        LOG.debug("Respond to create workflow request with id '{}'. Deployment-Key: {}, Workflow-Key: {}, Partitions: {}",
+                  requestId, deploymentKey, workflowKey, createdPartitionIds);
 
         response
-            .partitionId(partitionId)
+            .partitionIds(createdPartitionIds)
             .workflowKey(workflowKey)
-            .deploymentKey(deploymentKey);
+            .deploymentKey(deploymentKey)
+            .status(CreateWorkflowStatus.CREATED);
 
         serverResponse.reset()
                 .requestId(requestId)
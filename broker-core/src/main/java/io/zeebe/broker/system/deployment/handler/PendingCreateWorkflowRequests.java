@@ -0,0 +1,244 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.system.deployment.handler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import io.zeebe.util.time.ClockUtil;
+import org.agrona.collections.IntArrayList;
+
+/**
+ * The workflows which a broker creates on the partitions it leads, on behalf
+ * of the create workflow requests of the system partition. A request contains
+ * all partitions of the topic which are led by the broker.
+ *
+ * <p>
+ * A request is answered as soon as the workflow is created on one of its
+ * partitions, with all of its partitions the workflow is created on at this
+ * time, so that a lagging partition does not withhold the others. The system
+ * partition requests the remaining partitions again. Such a request is
+ * answered right away if the workflow was created on further partitions in the
+ * meantime, and the partitions which are already written are not written
+ * again.
+ *
+ * <p>
+ * The requests are registered by the management API handler and the workflows
+ * are created by the workflow stream processors of the partitions, so the
+ * methods are synchronized.
+ */
+public class PendingCreateWorkflowRequests
+{
+    /**
+     * workflows which are not updated within this time are dropped, e.g. when
+     * the broker lost the leadership of a partition in the meantime
+     */
+    public static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+
+    private final List<PendingWorkflow> workflows = new ArrayList<>();
+
+    /**
+     * Registers the request as the one which waits for the workflow. A request
+     * which is handled again keeps its state.
+     */
+    public synchronized PendingWorkflow register(long workflowKey, int requestStreamId, long requestId)
+    {
+        PendingWorkflow workflow = find(workflowKey);
+
+        if (workflow == null)
+        {
+            removeTimedOutWorkflows();
+
+            workflow = new PendingWorkflow(workflowKey);
+            workflows.add(workflow);
+        }
+
+        final PendingRequest request = workflow.request;
+        if (request == null || request.requestStreamId != requestStreamId || request.requestId != requestId)
+        {
+            workflow.request = new PendingRequest(requestStreamId, requestId);
+        }
+
+        workflow.lastUpdateTime = ClockUtil.getCurrentTimeInMillis();
+
+        return workflow;
+    }
+
+    /**
+     * Marks the partition as expected by the request, i.e. before the create
+     * event is written to it.
+     */
+    public synchronized void expectPartition(PendingWorkflow workflow, int partitionId)
+    {
+        final IntArrayList expectedPartitions = workflow.request.expectedPartitions;
+
+        if (!expectedPartitions.containsInt(partitionId))
+        {
+            expectedPartitions.addInt(partitionId);
+        }
+    }
+
+    public synchronized boolean hasExpectedPartitions(PendingWorkflow workflow)
+    {
+        return !workflow.request.expectedPartitions.isEmpty();
+    }
+
+    public synchronized boolean isWritten(PendingWorkflow workflow, int partitionId)
+    {
+        return workflow.writtenPartitions.containsInt(partitionId);
+    }
+
+    public synchronized void markWritten(PendingWorkflow workflow, int partitionId)
+    {
+        workflow.writtenPartitions.addInt(partitionId);
+    }
+
+    /**
+     * Records that the workflow is created on the partition.
+     *
+     * @return the workflow, or <code>null</code> if it is unknown, e.g. because
+     *         it timed out
+     */
+    public synchronized PendingWorkflow onWorkflowCreated(long workflowKey, int partitionId)
+    {
+        final PendingWorkflow workflow = find(workflowKey);
+
+        if (workflow != null)
+        {
+            if (!workflow.createdPartitions.containsInt(partitionId))
+            {
+                workflow.createdPartitions.addInt(partitionId);
+            }
+            workflow.lastUpdateTime = ClockUtil.getCurrentTimeInMillis();
+        }
+
+        return workflow;
+    }
+
+    /**
+     * @param createdPartitions
+     *            is filled with the partitions of the request the workflow is
+     *            created on
+     * @return the request if it is not answered yet and the workflow is
+     *         created on at least one of its partitions, otherwise
+     *         <code>null</code>
+     */
+    public synchronized PendingRequest collectCreatedPartitions(PendingWorkflow workflow, IntArrayList createdPartitions)
+    {
+        createdPartitions.clear();
+
+        final PendingRequest request = workflow.request;
+
+        if (request == null || request.isAnswered)
+        {
+            return null;
+        }
+
+        final IntArrayList expectedPartitions = request.expectedPartitions;
+        for (int i = 0; i < expectedPartitions.size(); i++)
+        {
+            final int partitionId = expectedPartitions.getInt(i);
+
+            if (workflow.createdPartitions.containsInt(partitionId))
+            {
+                createdPartitions.addInt(partitionId);
+            }
+        }
+
+        return createdPartitions.isEmpty() ? null : request;
+    }
+
+    public synchronized void markAnswered(PendingRequest request)
+    {
+        request.isAnswered = true;
+    }
+
+    private PendingWorkflow find(long workflowKey)
+    {
+        for (int i = 0; i < workflows.size(); i++)
+        {
+            final PendingWorkflow workflow = workflows.get(i);
+
+            if (workflow.workflowKey == workflowKey)
+            {
+                return workflow;
+            }
+        }
+        return null;
+    }
+
+    private void removeTimedOutWorkflows()
+    {
+        final long timeout = ClockUtil.getCurrentTimeInMillis() - REQUEST_TIMEOUT.toMillis();
+
+        final Iterator<PendingWorkflow> iterator = workflows.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().lastUpdateTime < timeout)
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    public static class PendingWorkflow
+    {
+        private final long workflowKey;
+        private long lastUpdateTime;
+
+        private final IntArrayList writtenPartitions = new IntArrayList();
+        private final IntArrayList createdPartitions = new IntArrayList();
+
+        /**
+         * the request which waits for the workflow
+         */
+        private PendingRequest request;
+
+        PendingWorkflow(long workflowKey)
+        {
+            this.workflowKey = workflowKey;
+        }
+    }
+
+    public static class PendingRequest
+    {
+        private final int requestStreamId;
+        private final long requestId;
+
+        private final IntArrayList expectedPartitions = new IntArrayList();
+        private boolean isAnswered = false;
+
+        PendingRequest(int requestStreamId, long requestId)
+        {
+            this.requestStreamId = requestStreamId;
+            this.requestId = requestId;
+        }
+
+        public int getRequestStreamId()
+        {
+            return requestStreamId;
+        }
+
+        public long getRequestId()
+        {
+            return requestId;
+        }
+    }
+}
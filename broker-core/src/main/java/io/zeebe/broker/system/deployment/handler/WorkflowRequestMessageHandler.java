@@ -17,21 +17,33 @@
  */
 package io.zeebe.broker.system.deployment.handler;
 
+import io.zeebe.broker.Loggers;
+import io.zeebe.broker.system.deployment.handler.PendingCreateWorkflowRequests.PendingRequest;
+import io.zeebe.broker.system.deployment.handler.PendingCreateWorkflowRequests.PendingWorkflow;
+import io.zeebe.broker.system.deployment.message.BpmnXmlCompression;
 import io.zeebe.broker.system.deployment.message.CreateWorkflowRequest;
+import io.zeebe.broker.system.deployment.message.CreateWorkflowResponse;
 import io.zeebe.broker.system.deployment.message.DeleteWorkflowMessage;
 import io.zeebe.broker.workflow.data.WorkflowEvent;
 import io.zeebe.broker.workflow.data.WorkflowState;
+import io.zeebe.clustering.management.CreateWorkflowStatus;
 import io.zeebe.logstreams.log.*;
 import io.zeebe.protocol.Protocol;
 import io.zeebe.protocol.clientapi.EventType;
 import io.zeebe.protocol.impl.BrokerEventMetadata;
 import io.zeebe.transport.RemoteAddress;
+import io.zeebe.transport.ServerOutput;
+import io.zeebe.transport.ServerResponse;
 import io.zeebe.util.DeferredCommandContext;
 import org.agrona.DirectBuffer;
 import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.IntArrayList;
+import org.slf4j.Logger;
 
 public class WorkflowRequestMessageHandler
 {
+    private static final Logger LOG = Loggers.SYSTEM_LOGGER;
+
     private final CreateWorkflowRequest createRequest = new CreateWorkflowRequest();
     private final DeleteWorkflowMessage deleteMessage = new DeleteWorkflowMessage();
 
@@ -44,10 +56,40 @@ public class WorkflowRequestMessageHandler
 
     private final LogStreamWriter logStreamWriter = new LogStreamWriterImpl();
 
+    private final BpmnXmlCompression bpmnXmlCompression = new BpmnXmlCompression();
+    private final PendingCreateWorkflowRequests pendingCreateRequests = new PendingCreateWorkflowRequests();
+
+    private final CreateWorkflowResponse createResponse = new CreateWorkflowResponse();
+    private final ServerResponse serverResponse = new ServerResponse();
+    private final IntArrayList createdPartitionIds = new IntArrayList();
+
+    /**
+     * Writes the workflow to all partitions of the request which are led by
+     * this broker and not written yet. The request is answered right away if
+     * the workflow is already created on some of the partitions, otherwise by
+     * the stream processors of the partitions, see
+     * {@link CreateWorkflowResponseSender}. A request with a corrupt BPMN XML
+     * is rejected. A request for partitions which are not led by this broker
+     * is answered with {@link CreateWorkflowStatus#NOT_LEADER}, so that the
+     * system partition sends it to the current leaders.
+     *
+     * <p>
+     * The request contains the deflated BPMN XML, not a binary form of the
+     * parsed workflow, since the model has no serialization format. The XML is
+     * validated by the system partition when it is deployed and is not
+     * validated again. Each partition parses it once when the workflow is
+     * created (see {@link io.zeebe.broker.workflow.map.WorkflowDeploymentCache}).
+     *
+     * @return <code>false</code> if the request could not be answered or the
+     *         workflow could not be written to all partitions; the partitions
+     *         which are already written are skipped when the request is
+     *         handled again
+     */
     public boolean onCreateWorkflowRequest(
             DirectBuffer buffer,
             int offset,
             int length,
+            ServerOutput output,
             RemoteAddress remoteAddress,
             long requestId)
     {
@@ -59,23 +101,112 @@ public class WorkflowRequestMessageHandler
 
         createRequest.wrap(buffer, offset, length);
 
-        final LogStream logStream = getLogStream(createRequest.getPartitionId());
-        if (logStream != null)
+        final long workflowKey = createRequest.getWorkflowKey();
+        final PendingWorkflow pendingWorkflow = pendingCreateRequests.register(workflowKey, remoteAddress.getStreamId(), requestId);
+
+        // all partitions are expected before the first one is written, so that the request can't be answered early
+        final IntArrayList partitionIds = createRequest.getPartitionIds();
+        for (int i = 0; i < partitionIds.size(); i++)
         {
-            workflowEvent.reset();
-            workflowEvent
-                .setState(WorkflowState.CREATE)
-                .setDeploymentKey(createRequest.getDeploymentKey())
-                .setBpmnProcessId(createRequest.getBpmnProcessId())
-                .setVersion(createRequest.getVersion())
-                .setBpmnXml(createRequest.getBpmnXml());
+            final int partitionId = partitionIds.getInt(i);
 
-            return writeWorkflowEvent(createRequest.getWorkflowKey(), logStream);
+            if (getLogStream(partitionId) != null)
+            {
+                pendingCreateRequests.expectPartition(pendingWorkflow, partitionId);
+            }
         }
-        else
+
+        if (!pendingCreateRequests.hasExpectedPartitions(pendingWorkflow))
+        {
+            LOG.debug("Reject create workflow request with id '{}'. Not leader of partitions {}", requestId, partitionIds);
+
+            createdPartitionIds.clear();
+            return sendCreateWorkflowResponse(output, remoteAddress.getStreamId(), requestId, CreateWorkflowStatus.NOT_LEADER);
+        }
+
+        // report the partitions which are created since the previous request right away
+        final PendingRequest createdRequest = pendingCreateRequests.collectCreatedPartitions(pendingWorkflow, createdPartitionIds);
+        if (createdRequest != null)
+        {
+            if (sendCreateWorkflowResponse(output, createdRequest.getRequestStreamId(), createdRequest.getRequestId(), CreateWorkflowStatus.CREATED))
+            {
+                pendingCreateRequests.markAnswered(createdRequest);
+            }
+            else
+            {
+                return false;
+            }
+        }
+
+        boolean isWritten = true;
+        for (int i = 0; i < partitionIds.size() && isWritten; i++)
+        {
+            final int partitionId = partitionIds.getInt(i);
+            isWritten = getLogStream(partitionId) == null || pendingCreateRequests.isWritten(pendingWorkflow, partitionId);
+        }
+
+        if (isWritten)
         {
             return true;
         }
+
+        final DirectBuffer bpmnXml;
+        try
+        {
+            bpmnXml = bpmnXmlCompression.decompress(createRequest.getCompressedBpmnXml());
+        }
+        catch (IllegalArgumentException e)
+        {
+            LOG.error("Reject create workflow request with id '{}'. Workflow-Key: {}", requestId, workflowKey, e);
+
+            // the system partition doesn't send a rejected request again
+            createdPartitionIds.clear();
+            return sendCreateWorkflowResponse(output, remoteAddress.getStreamId(), requestId, CreateWorkflowStatus.REJECTED);
+        }
+
+        workflowEvent.reset();
+        workflowEvent
+            .setState(WorkflowState.CREATE)
+            .setDeploymentKey(createRequest.getDeploymentKey())
+            .setBpmnProcessId(createRequest.getBpmnProcessId())
+            .setVersion(createRequest.getVersion())
+            .setBpmnXml(bpmnXml);
+
+        boolean success = true;
+
+        for (int i = 0; i < partitionIds.size() && success; i++)
+        {
+            final int partitionId = partitionIds.getInt(i);
+            final LogStream logStream = getLogStream(partitionId);
+
+            if (logStream != null && !pendingCreateRequests.isWritten(pendingWorkflow, partitionId))
+            {
+                success = writeWorkflowEvent(workflowKey, logStream);
+
+                if (success)
+                {
+                    pendingCreateRequests.markWritten(pendingWorkflow, partitionId);
+                }
+            }
+        }
+
+        return success;
+    }
+
+    private boolean sendCreateWorkflowResponse(ServerOutput output, int requestStreamId, long requestId, CreateWorkflowStatus status)
+    {
+        createResponse
+            .partitionIds(createdPartitionIds)
+            .workflowKey(createRequest.getWorkflowKey())
+            .deploymentKey(createRequest.getDeploymentKey())
+            .status(status);
+
+        serverResponse.reset()
+            .requestId(requestId)
+            .remoteStreamId(requestStreamId)
+            .writer(createResponse);
+
+        return output.sendResponse(serverResponse);
     }
 
     public boolean onDeleteWorkflowMessage(
@@ -129,6 +260,11 @@ public class WorkflowRequestMessageHandler
         return eventPosition > 0;
     }
 
+    public PendingCreateWorkflowRequests getPendingCreateRequests()
+    {
+        return pendingCreateRequests;
+    }
+
     public void addStream(final LogStream logStream)
     {
         deferredContext.runAsync(() -> logStreams.put(logStream.getPartitionId(), logStream));
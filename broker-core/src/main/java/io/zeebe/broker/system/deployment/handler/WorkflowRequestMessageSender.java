@@ -23,13 +23,16 @@ import java.util.function.IntConsumer;
 import io.zeebe.broker.Loggers;
 import io.zeebe.broker.clustering.management.PartitionManager;
 import io.zeebe.broker.clustering.member.Member;
+import io.zeebe.broker.system.deployment.message.BpmnXmlCompression;
 import io.zeebe.broker.system.deployment.message.CreateWorkflowRequest;
 import io.zeebe.broker.system.deployment.message.DeleteWorkflowMessage;
 import io.zeebe.broker.workflow.data.WorkflowEvent;
 import io.zeebe.transport.*;
 import io.zeebe.util.buffer.BufferWriter;
 import io.zeebe.util.collection.IntIterator;
+import org.agrona.DirectBuffer;
 import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 
 public class WorkflowRequestMessageSender
@@ -37,12 +40,14 @@ public class WorkflowRequestMessageSender
     private static final Logger LOG = Loggers.SYSTEM_LOGGER;
 
     private final CreateWorkflowRequest createRequest = new CreateWorkflowRequest();
+    private final BpmnXmlCompression bpmnXmlCompression = new BpmnXmlCompression();
+    private final IntArrayList memberPartitionIds = new IntArrayList();
 
     private final DeleteWorkflowMessage deleteMessage = new DeleteWorkflowMessage();
 
     private final TransportMessage transportMessage = new TransportMessage();
 
-    private final Queue<ClientRequest> pendingRequests = new ArrayDeque<>();
+    private final Queue<PendingCreateRequest> pendingRequests = new ArrayDeque<>();
 
     private final PartitionManager partitionManager;
     private final ClientTransport managementClient;
@@ -55,6 +60,10 @@ public class WorkflowRequestMessageSender
         this.output = managementClient.getOutput();
     }
 
+    /**
+     * Sends one request per broker which contains all partitions led by this
+     * broker. The BPMN XML is compressed only once for all requests.
+     */
     public boolean sendCreateWorkflowRequest(
             IntArrayList partitionIds,
             long workflowKey,
@@ -65,17 +74,73 @@ public class WorkflowRequestMessageSender
             .deploymentKey(event.getDeploymentKey())
             .version(event.getVersion())
             .bpmnProcessId(event.getBpmnProcessId())
-            .bpmnXml(event.getBpmnXml());
+            .compressedBpmnXml(bpmnXmlCompression.compress(event.getBpmnXml()));
+
+        return sendCreateWorkflowRequest(partitionIds);
+    }
+
+    /**
+     * Sends the request again for the given partitions, e.g. the ones which
+     * are not part of the response.
+     */
+    public boolean resendCreateWorkflowRequest(PendingCreateRequest request, IntArrayList partitionIds)
+    {
+        final DirectBuffer requestBuffer = request.getRequestBuffer();
+        createRequest.wrap(requestBuffer, 0, requestBuffer.capacity());
+
+        return sendCreateWorkflowRequest(partitionIds);
+    }
+
+    private boolean sendCreateWorkflowRequest(IntArrayList partitionIds)
+    {
+        final long workflowKey = createRequest.getWorkflowKey();
+
+        boolean success = true;
+
+        final Iterator<Member> members = partitionManager.getKnownMembers();
 
-        return forEachPartition(partitionIds, createRequest::partitionId, addr ->
+        while (members.hasNext() && success)
         {
-            final long requestId = sendRequest(createRequest, addr);
+            final Member member = members.next();
 
-            LOG.debug("Send create workflow request to '{}'. Request-Id: {}, Deployment-Key: {}, Workflow-Key: {}",
-                      addr, requestId, event.getDeploymentKey(), workflowKey);
+            memberPartitionIds.clear();
 
-            return requestId >= 0;
-        });
+            final IntIterator leadingPartitions = member.getLeadingPartitions();
+            while (leadingPartitions.hasNext())
+            {
+                final int partitionId = leadingPartitions.nextInt();
+
+                if (partitionIds.containsInt(partitionId))
+                {
+                    memberPartitionIds.addInt(partitionId);
+                }
+            }
+
+            if (!memberPartitionIds.isEmpty())
+            {
+                final SocketAddress addr = member.getManagementAddress();
+
+                createRequest.partitionIds(memberPartitionIds);
+
+                final ClientRequest request = sendRequest(createRequest, addr);
+
+                if (request != null)
+                {
+                    // keep the request to send it again for the partitions which are not part of the response
+                    final UnsafeBuffer requestBuffer = new UnsafeBuffer(new byte[createRequest.getLength()]);
+                    createRequest.write(requestBuffer, 0);
+
+                    pendingRequests.add(new PendingCreateRequest(request, workflowKey, memberPartitionIds, requestBuffer));
+
+                    LOG.debug("Send create workflow request to '{}'. Request-Id: {}, Deployment-Key: {}, Workflow-Key: {}, Partitions: {}",
+                              addr, request.getRequestId(), createRequest.getDeploymentKey(), workflowKey, memberPartitionIds);
+                }
+
+                success = request != null;
+            }
+        }
+
+        return success;
     }
 
     public boolean sendDeleteWorkflowMessage(
@@ -126,22 +191,11 @@ public class WorkflowRequestMessageSender
         return success;
     }
 
-    private long sendRequest(final BufferWriter request, final SocketAddress addr)
+    private ClientRequest sendRequest(final BufferWriter request, final SocketAddress addr)
     {
         final RemoteAddress remoteAddress = managementClient.registerRemoteAddress(addr);
 
-        final ClientRequest clientRequest = output.sendRequestWithRetry(remoteAddress, request);
-
-        if (clientRequest != null)
-        {
-            pendingRequests.add(clientRequest);
-
-            return clientRequest.getRequestId();
-        }
-        else
-        {
-            return -1L;
-        }
+        return output.sendRequestWithRetry(remoteAddress, request);
     }
 
     private boolean sendMessage(final BufferWriter message, final SocketAddress addr)
@@ -153,11 +207,50 @@ public class WorkflowRequestMessageSender
         return output.sendMessage(transportMessage);
     }
 
-    public Collection<ClientRequest> getPendingRequests()
+    public Collection<PendingCreateRequest> getPendingRequests()
     {
         return pendingRequests;
     }
 
+    public static class PendingCreateRequest
+    {
+        private final ClientRequest request;
+        private final long workflowKey;
+        private final IntArrayList partitionIds = new IntArrayList();
+        private final DirectBuffer requestBuffer;
+
+        PendingCreateRequest(ClientRequest request, long workflowKey, IntArrayList partitionIds, DirectBuffer requestBuffer)
+        {
+            this.request = request;
+            this.workflowKey = workflowKey;
+            this.partitionIds.addAll(partitionIds);
+            this.requestBuffer = requestBuffer;
+        }
+
+        public ClientRequest getRequest()
+        {
+            return request;
+        }
+
+        public long getWorkflowKey()
+        {
+            return workflowKey;
+        }
+
+        /**
+         * @return the partitions the request was sent for
+         */
+        public IntArrayList getPartitionIds()
+        {
+            return partitionIds;
+        }
+
+        public DirectBuffer getRequestBuffer()
+        {
+            return requestBuffer;
+        }
+    }
+
     @FunctionalInterface
     private interface BooleanConsumer<T>
     {
@@ -0,0 +1,107 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.system.deployment.message;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Deflates the BPMN XML of a workflow before it is distributed to the
+ * partitions of the topic. The XML is compressed once per workflow on the
+ * system partition and inflated once per request on the receiving broker.
+ */
+public class BpmnXmlCompression
+{
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final Inflater inflater = new Inflater();
+
+    private final byte[] chunk = new byte[4 * 1024];
+
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    private final UnsafeBuffer compressedBuffer = new UnsafeBuffer(0, 0);
+
+    private final MutableDirectBuffer decompressed = new ExpandableArrayBuffer();
+    private final UnsafeBuffer decompressedBuffer = new UnsafeBuffer(0, 0);
+
+    /**
+     * @return the deflated XML; valid until the next invocation
+     */
+    public DirectBuffer compress(DirectBuffer bpmnXml)
+    {
+        final byte[] input = new byte[bpmnXml.capacity()];
+        bpmnXml.getBytes(0, input);
+
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+
+        compressed.reset();
+        while (!deflater.finished())
+        {
+            final int length = deflater.deflate(chunk);
+            compressed.write(chunk, 0, length);
+        }
+
+        compressedBuffer.wrap(compressed.toByteArray());
+        return compressedBuffer;
+    }
+
+    /**
+     * @return the inflated XML; valid until the next invocation
+     */
+    public DirectBuffer decompress(DirectBuffer compressedBpmnXml)
+    {
+        final byte[] input = new byte[compressedBpmnXml.capacity()];
+        compressedBpmnXml.getBytes(0, input);
+
+        inflater.reset();
+        inflater.setInput(input);
+
+        int length = 0;
+        try
+        {
+            while (!inflater.finished())
+            {
+                final int inflated = inflater.inflate(chunk);
+
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    throw new IllegalArgumentException("Compressed BPMN XML is truncated");
+                }
+
+                decompressed.putBytes(length, chunk, 0, inflated);
+                length += inflated;
+            }
+        }
+        catch (DataFormatException e)
+        {
+            throw new IllegalArgumentException("Compressed BPMN XML is corrupt", e);
+        }
+
+        decompressedBuffer.wrap(decompressed, 0, length);
+        return decompressedBuffer;
+    }
+
+}
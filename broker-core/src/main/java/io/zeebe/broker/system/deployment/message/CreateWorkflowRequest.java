@@ -17,11 +17,17 @@
  */
 package io.zeebe.broker.system.deployment.message;
 
+import static io.zeebe.clustering.management.CreateWorkflowRequestEncoder.bpmnProcessIdHeaderLength;
+import static io.zeebe.clustering.management.CreateWorkflowRequestEncoder.compressedBpmnXmlHeaderLength;
+
 import io.zeebe.clustering.management.*;
+import io.zeebe.clustering.management.CreateWorkflowRequestDecoder.PartitionsDecoder;
+import io.zeebe.clustering.management.CreateWorkflowRequestEncoder.PartitionsEncoder;
 import io.zeebe.util.buffer.BufferReader;
 import io.zeebe.util.buffer.BufferWriter;
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.IntArrayList;
 import org.agrona.concurrent.UnsafeBuffer;
 
 public class CreateWorkflowRequest implements BufferReader, BufferWriter
@@ -33,28 +39,31 @@ public class CreateWorkflowRequest implements BufferReader, BufferWriter
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final CreateWorkflowRequestDecoder bodyDecoder = new CreateWorkflowRequestDecoder();
 
-    private int partitionId = CreateWorkflowRequestEncoder.partitionIdNullValue();
+    private final IntArrayList partitionIds = new IntArrayList();
     private long workflowKey = CreateWorkflowRequestEncoder.workflowKeyNullValue();
     private long deploymentKey = CreateWorkflowRequestEncoder.deploymentKeyNullValue();
     private int version = CreateWorkflowRequestEncoder.versionNullValue();
 
     private final DirectBuffer bpmnProcessId = new UnsafeBuffer(0, 0);
-    private final DirectBuffer bpmnXml = new UnsafeBuffer(0, 0);
+    private final DirectBuffer compressedBpmnXml = new UnsafeBuffer(0, 0);
 
     @Override
     public int getLength()
     {
         return headerEncoder.encodedLength() +
                 bodyEncoder.sbeBlockLength() +
-                CreateWorkflowRequestEncoder.bpmnProcessIdHeaderLength() +
+                PartitionsEncoder.sbeHeaderSize() +
+                PartitionsEncoder.sbeBlockLength() * partitionIds.size() +
+                bpmnProcessIdHeaderLength() +
                 bpmnProcessId.capacity() +
-                CreateWorkflowRequestEncoder.bpmnXmlHeaderLength() +
-                bpmnXml.capacity();
+                compressedBpmnXmlHeaderLength() +
+                compressedBpmnXml.capacity();
     }
 
-    public CreateWorkflowRequest partitionId(int partitionId)
+    public CreateWorkflowRequest partitionIds(IntArrayList partitionIds)
     {
-        this.partitionId = partitionId;
+        this.partitionIds.clear();
+        this.partitionIds.addAll(partitionIds);
         return this;
     }
 
@@ -82,9 +91,12 @@ public class CreateWorkflowRequest implements BufferReader, BufferWriter
         return this;
     }
 
-    public CreateWorkflowRequest bpmnXml(DirectBuffer bpmnXml)
+    /**
+     * @param compressedBpmnXml the deflated BPMN XML, see {@link BpmnXmlCompression}
+     */
+    public CreateWorkflowRequest compressedBpmnXml(DirectBuffer compressedBpmnXml)
     {
-        this.bpmnXml.wrap(bpmnXml);
+        this.compressedBpmnXml.wrap(compressedBpmnXml);
         return this;
     }
 
@@ -97,13 +109,23 @@ public class CreateWorkflowRequest implements BufferReader, BufferWriter
             .schemaId(bodyEncoder.sbeSchemaId())
             .version(bodyEncoder.sbeSchemaVersion());
 
-        bodyEncoder.wrap(buffer, offset + headerEncoder.encodedLength())
-            .partitionId(partitionId)
+        final int partitionCount = partitionIds.size();
+
+        final PartitionsEncoder partitionsEncoder = bodyEncoder.wrap(buffer, offset + headerEncoder.encodedLength())
             .workflowKey(workflowKey)
             .deploymentKey(deploymentKey)
             .version(version)
+            .partitionsCount(partitionCount);
+
+        for (int i = 0; i < partitionCount; i++)
+        {
+            partitionsEncoder.next()
+                .partitionId(partitionIds.getInt(i));
+        }
+
+        bodyEncoder
             .putBpmnProcessId(bpmnProcessId, 0, bpmnProcessId.capacity())
-            .putBpmnXml(bpmnXml, 0, bpmnXml.capacity());
+            .putCompressedBpmnXml(compressedBpmnXml, 0, compressedBpmnXml.capacity());
     }
 
     @Override
@@ -118,30 +140,33 @@ public class CreateWorkflowRequest implements BufferReader, BufferWriter
                 headerDecoder.blockLength(),
                 headerDecoder.version());
 
-        partitionId = bodyDecoder.partitionId();
         workflowKey = bodyDecoder.workflowKey();
         deploymentKey = bodyDecoder.deploymentKey();
         version = bodyDecoder.version();
 
-        offset += headerDecoder.blockLength();
+        partitionIds.clear();
 
-        final int bpmnProcessIdLength = bodyDecoder.bpmnProcessIdLength();
-        offset += CreateWorkflowRequestEncoder.bpmnProcessIdHeaderLength();
+        for (PartitionsDecoder partitionsDecoder : bodyDecoder.partitions())
+        {
+            partitionIds.addInt(partitionsDecoder.partitionId());
+        }
 
-        bpmnProcessId.wrap(buffer, offset, bpmnProcessIdLength);
+        final int bpmnProcessIdLength = bodyDecoder.bpmnProcessIdLength();
+        final int bpmnProcessIdOffset = bodyDecoder.limit() + bpmnProcessIdHeaderLength();
 
-        offset += bpmnProcessIdLength;
-        bodyDecoder.limit(offset);
+        bpmnProcessId.wrap(buffer, bpmnProcessIdOffset, bpmnProcessIdLength);
+        bodyDecoder.limit(bpmnProcessIdOffset + bpmnProcessIdLength);
 
-        final int bpmnXmlLength = bodyDecoder.bpmnXmlLength();
-        offset += CreateWorkflowRequestEncoder.bpmnXmlHeaderLength();
+        final int compressedBpmnXmlLength = bodyDecoder.compressedBpmnXmlLength();
+        final int compressedBpmnXmlOffset = bodyDecoder.limit() + compressedBpmnXmlHeaderLength();
 
-        bpmnXml.wrap(buffer, offset, bpmnXmlLength);
+        compressedBpmnXml.wrap(buffer, compressedBpmnXmlOffset, compressedBpmnXmlLength);
+        bodyDecoder.limit(compressedBpmnXmlOffset + compressedBpmnXmlLength);
     }
 
-    public int getPartitionId()
+    public IntArrayList getPartitionIds()
     {
-        return partitionId;
+        return partitionIds;
     }
 
     public long getWorkflowKey()
@@ -164,9 +189,9 @@ public class CreateWorkflowRequest implements BufferReader, BufferWriter
         return bpmnProcessId;
     }
 
-    public DirectBuffer getBpmnXml()
+    public DirectBuffer getCompressedBpmnXml()
     {
-        return bpmnXml;
+        return compressedBpmnXml;
     }
 
 }
@@ -18,10 +18,13 @@
 package io.zeebe.broker.system.deployment.message;
 
 import io.zeebe.clustering.management.*;
+import io.zeebe.clustering.management.CreateWorkflowResponseDecoder.PartitionsDecoder;
+import io.zeebe.clustering.management.CreateWorkflowResponseEncoder.PartitionsEncoder;
 import io.zeebe.util.buffer.BufferReader;
 import io.zeebe.util.buffer.BufferWriter;
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.IntArrayList;
 
 public class CreateWorkflowResponse implements BufferReader, BufferWriter
 {
@@ -32,20 +35,24 @@ public class CreateWorkflowResponse implements BufferReader, BufferWriter
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final CreateWorkflowResponseDecoder bodyDecoder = new CreateWorkflowResponseDecoder();
 
-    private int partitionId = CreateWorkflowResponseEncoder.partitionIdNullValue();
+    private final IntArrayList partitionIds = new IntArrayList();
     private long workflowKey = CreateWorkflowResponseEncoder.workflowKeyNullValue();
     private long deploymentKey = CreateWorkflowResponseEncoder.deploymentKeyNullValue();
+    private CreateWorkflowStatus status = CreateWorkflowStatus.CREATED;
 
     @Override
     public int getLength()
     {
         return headerEncoder.encodedLength() +
-                bodyEncoder.sbeBlockLength();
+                bodyEncoder.sbeBlockLength() +
+                PartitionsEncoder.sbeHeaderSize() +
+                PartitionsEncoder.sbeBlockLength() * partitionIds.size();
     }
 
-    public CreateWorkflowResponse partitionId(int partitionId)
+    public CreateWorkflowResponse partitionIds(IntArrayList partitionIds)
     {
-        this.partitionId = partitionId;
+        this.partitionIds.clear();
+        this.partitionIds.addAll(partitionIds);
         return this;
     }
 
@@ -61,6 +68,12 @@ public class CreateWorkflowResponse implements BufferReader, BufferWriter
         return this;
     }
 
+    public CreateWorkflowResponse status(CreateWorkflowStatus status)
+    {
+        this.status = status;
+        return this;
+    }
+
     @Override
     public void write(MutableDirectBuffer buffer, int offset)
     {
@@ -70,10 +83,19 @@ public class CreateWorkflowResponse implements BufferReader, BufferWriter
             .schemaId(bodyEncoder.sbeSchemaId())
             .version(bodyEncoder.sbeSchemaVersion());
 
-        bodyEncoder.wrap(buffer, offset + headerEncoder.encodedLength())
-            .partitionId(partitionId)
+        final int partitionCount = partitionIds.size();
+
+        final PartitionsEncoder partitionsEncoder = bodyEncoder.wrap(buffer, offset + headerEncoder.encodedLength())
             .workflowKey(workflowKey)
-            .deploymentKey(deploymentKey);
+            .deploymentKey(deploymentKey)
+            .status(status)
+            .partitionsCount(partitionCount);
+
+        for (int i = 0; i < partitionCount; i++)
+        {
+            partitionsEncoder.next()
+                .partitionId(partitionIds.getInt(i));
+        }
     }
 
     @Override
@@ -88,14 +110,21 @@ public class CreateWorkflowResponse implements BufferReader, BufferWriter
                 headerDecoder.blockLength(),
                 headerDecoder.version());
 
-        partitionId = bodyDecoder.partitionId();
         workflowKey = bodyDecoder.workflowKey();
         deploymentKey = bodyDecoder.deploymentKey();
+        status = bodyDecoder.status();
+
+        partitionIds.clear();
+
+        for (PartitionsDecoder partitionsDecoder : bodyDecoder.partitions())
+        {
+            partitionIds.addInt(partitionsDecoder.partitionId());
+        }
     }
 
-    public int getPartitionId()
+    public IntArrayList getPartitionIds()
     {
-        return partitionId;
+        return partitionIds;
     }
 
     public long getWorkflowKey()
@@ -108,4 +137,9 @@ public class CreateWorkflowResponse implements BufferReader, BufferWriter
         return deploymentKey;
     }
 
+    public CreateWorkflowStatus getStatus()
+    {
+        return status;
+    }
+
 }
@@ -120,6 +120,7 @@ public class DeploymentManager implements Service<DeploymentManager>
         serviceContext.createService(SystemServiceNames.DEPLOYMENT_PROCESSOR, streamProcessorService)
              .dependency(serviceName, streamProcessorService.getLogStreamInjector())
              .dependency(LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE, streamProcessorService.getSnapshotStorageInjector())
+             .dependency(LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE, streamProcessorService.getSnapshotPolicyFactoryInjector())
              .dependency(SystemServiceNames.ACTOR_SCHEDULER_SERVICE, streamProcessorService.getActorSchedulerInjector())
              .install()
              .thenRun(() ->
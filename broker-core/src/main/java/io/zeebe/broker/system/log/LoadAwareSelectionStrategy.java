@@ -0,0 +1,252 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.system.log;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import io.zeebe.broker.clustering.management.PartitionManager;
+import io.zeebe.broker.clustering.member.Member;
+import io.zeebe.transport.SocketAddress;
+import io.zeebe.util.time.ClockUtil;
+import org.agrona.collections.LongArrayList;
+
+/**
+ * Selects the least loaded broker for a new partition. The load of a broker is
+ * the number of partitions it participates in plus the number of partitions it
+ * leads, as known from the gossiped raft states. Brokers with equal load are
+ * selected round-robin.
+ *
+ * <p>
+ * Since the gossip state is updated only after a partition is created, the
+ * strategy counts the partitions it has assigned to a broker until they show
+ * up in the broker's partition count. Otherwise, all partitions of a topic
+ * would be assigned to the same broker. An assignment is dropped when the
+ * creation of its partition expires, since the partition is then assigned
+ * anew, and when the broker leaves the cluster.
+ */
+public class LoadAwareSelectionStrategy implements PartitionCreatorSelectionStrategy
+{
+    /**
+     * the broker which creates a partition becomes its leader
+     */
+    protected static final int NEW_PARTITION_LOAD = 2;
+
+    protected final PartitionManager partitionManager;
+    protected final SocketAddress selectedBroker = new SocketAddress();
+    protected final SocketAddress lastSelectedBroker = new SocketAddress();
+
+    protected final Map<SocketAddress, PendingAssignments> pendingAssignments = new HashMap<>();
+    protected final long assignmentTimeoutMillis;
+
+    /*
+     * incremented on every selection to detect the brokers which left
+     */
+    protected long selectionRound = 0;
+
+    /**
+     * @param assignmentTimeout
+     *            the time after which the creation of an assigned partition
+     *            expires
+     */
+    public LoadAwareSelectionStrategy(PartitionManager partitionManager, Duration assignmentTimeout)
+    {
+        this.partitionManager = partitionManager;
+        this.assignmentTimeoutMillis = assignmentTimeout.toMillis();
+    }
+
+    @Override
+    public SocketAddress selectBrokerForNewPartition()
+    {
+        final Iterator<Member> knownMembers = partitionManager.getKnownMembers();
+
+        boolean hasSelectedBroker = false;
+        int selectedBrokerLoad = Integer.MAX_VALUE;
+        boolean isSelectedBrokerAfterLast = false;
+
+        boolean isAfterLastSelectedBroker = false;
+
+        selectionRound += 1;
+        final long now = ClockUtil.getCurrentTimeInMillis();
+
+        while (knownMembers.hasNext())
+        {
+            final Member candidate = knownMembers.next();
+            final SocketAddress candidateAddress = candidate.getManagementAddress();
+
+            if (candidateAddress == null)
+            {
+                continue;
+            }
+
+            final int load = loadOf(candidate, now);
+
+            // on equal load, the first broker after the last selected one is preferred
+            if (load < selectedBrokerLoad || (load == selectedBrokerLoad && isAfterLastSelectedBroker && !isSelectedBrokerAfterLast))
+            {
+                // the members are flyweights, so the address is copied right away
+                selectedBroker.wrap(candidateAddress);
+                hasSelectedBroker = true;
+                selectedBrokerLoad = load;
+                isSelectedBrokerAfterLast = isAfterLastSelectedBroker;
+            }
+
+            if (lastSelectedBroker.equals(candidateAddress))
+            {
+                isAfterLastSelectedBroker = true;
+            }
+        }
+
+        removeDepartedBrokers();
+
+        if (hasSelectedBroker)
+        {
+            lastSelectedBroker.wrap(selectedBroker);
+            addPendingAssignment(lastSelectedBroker, now);
+            return lastSelectedBroker;
+        }
+        else
+        {
+            lastSelectedBroker.reset();
+            return null;
+        }
+    }
+
+    protected int loadOf(Member member, long now)
+    {
+        final int partitionCount = member.getPartitionCount();
+        final int pendingPartitionCount = updatePendingAssignments(member.getManagementAddress(), partitionCount, now);
+
+        return partitionCount + member.getLeaderCount() + pendingPartitionCount * NEW_PARTITION_LOAD;
+    }
+
+    /**
+     * @return the number of assigned partitions which are not yet part of the partition count
+     */
+    protected int updatePendingAssignments(SocketAddress broker, int partitionCount, long now)
+    {
+        final PendingAssignments assignments = pendingAssignments.get(broker);
+
+        if (assignments == null)
+        {
+            return 0;
+        }
+
+        assignments.selectionRound = selectionRound;
+
+        final LongArrayList expirationTimes = assignments.expirationTimes;
+
+        // the oldest assignments are the ones which are created first
+        int createdPartitions = partitionCount - assignments.partitionCount;
+        while (createdPartitions > 0 && !expirationTimes.isEmpty())
+        {
+            expirationTimes.fastUnorderedRemove(indexOfOldest(expirationTimes));
+            createdPartitions -= 1;
+        }
+        assignments.partitionCount = partitionCount;
+
+        for (int i = expirationTimes.size() - 1; i >= 0; i--)
+        {
+            if (expirationTimes.getLong(i) <= now)
+            {
+                expirationTimes.fastUnorderedRemove(i);
+            }
+        }
+
+        return expirationTimes.size();
+    }
+
+    protected static int indexOfOldest(LongArrayList expirationTimes)
+    {
+        int oldest = 0;
+        for (int i = 1; i < expirationTimes.size(); i++)
+        {
+            if (expirationTimes.getLong(i) < expirationTimes.getLong(oldest))
+            {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    protected void removeDepartedBrokers()
+    {
+        final Iterator<PendingAssignments> assignments = pendingAssignments.values().iterator();
+
+        while (assignments.hasNext())
+        {
+            final PendingAssignments pending = assignments.next();
+
+            if (pending.selectionRound != selectionRound || pending.expirationTimes.isEmpty())
+            {
+                assignments.remove();
+            }
+        }
+    }
+
+    protected void addPendingAssignment(SocketAddress broker, long now)
+    {
+        PendingAssignments assignments = pendingAssignments.get(broker);
+
+        if (assignments == null)
+        {
+            assignments = new PendingAssignments();
+            assignments.partitionCount = currentPartitionCount(broker);
+            assignments.selectionRound = selectionRound;
+            pendingAssignments.put(new SocketAddress(broker), assignments);
+        }
+
+        assignments.expirationTimes.addLong(now + assignmentTimeoutMillis);
+    }
+
+    protected int currentPartitionCount(SocketAddress broker)
+    {
+        final Iterator<Member> knownMembers = partitionManager.getKnownMembers();
+
+        while (knownMembers.hasNext())
+        {
+            final Member member = knownMembers.next();
+            if (broker.equals(member.getManagementAddress()))
+            {
+                return member.getPartitionCount();
+            }
+        }
+
+        return 0;
+    }
+
+    protected static class PendingAssignments
+    {
+        /**
+         * the partition count of the broker when the assignments were last updated
+         */
+        protected int partitionCount;
+
+        /**
+         * the times when the creation of the assigned partitions expires
+         */
+        protected final LongArrayList expirationTimes = new LongArrayList();
+
+        /**
+         * the last selection in which the broker was a known member
+         */
+        protected long selectionRound;
+    }
+}
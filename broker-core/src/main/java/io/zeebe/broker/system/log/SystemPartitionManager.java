@@ -94,6 +94,7 @@ public class SystemPartitionManager implements Service<SystemPartitionManager>
         serviceContext.createService(SystemServiceNames.systemProcessorName(streamProcessorService.getName()), streamProcessorService)
             .dependency(logStreamName, streamProcessorService.getLogStreamInjector())
             .dependency(LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE, streamProcessorService.getSnapshotStorageInjector())
+            .dependency(LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE, streamProcessorService.getSnapshotPolicyFactoryInjector())
             .dependency(SystemServiceNames.ACTOR_SCHEDULER_SERVICE, streamProcessorService.getActorSchedulerInjector())
             .install();
 
@@ -132,6 +133,7 @@ public class SystemPartitionManager implements Service<SystemPartitionManager>
         serviceContext.createService(SystemServiceNames.systemProcessorName(streamProcessorService.getName()), streamProcessorService)
             .dependency(logStreamName, streamProcessorService.getLogStreamInjector())
             .dependency(LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE, streamProcessorService.getSnapshotStorageInjector())
+            .dependency(LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE, streamProcessorService.getSnapshotPolicyFactoryInjector())
             .dependency(SystemServiceNames.ACTOR_SCHEDULER_SERVICE, streamProcessorService.getActorSchedulerInjector())
             .install();
     }
@@ -149,7 +151,7 @@ public class SystemPartitionManager implements Service<SystemPartitionManager>
             Duration creationExpiration)
     {
         final PartitionIdGenerator idGenerator = new PartitionIdGenerator();
-        final PartitionCreatorSelectionStrategy creationStrategy = new RoundRobinSelectionStrategy(partitionManager);
+        final PartitionCreatorSelectionStrategy creationStrategy = new LoadAwareSelectionStrategy(partitionManager, creationExpiration);
 
         return streamEnvironment.newStreamProcessor()
             .onEvent(EventType.TOPIC_EVENT, TopicState.CREATE, new CreateTopicProcessor(topicsIndex, idGenerator, creationStrategy))
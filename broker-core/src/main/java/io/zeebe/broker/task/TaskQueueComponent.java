@@ -44,12 +44,13 @@ public class TaskQueueComponent implements Component
             .groupReference(WORKFLOW_STREAM_GROUP, taskSubscriptionManagerService.getLogStreamsGroupReference())
             .install();
 
-        final TaskQueueManagerService taskQueueManagerService = new TaskQueueManagerService();
+        final TaskQueueManagerService taskQueueManagerService = new TaskQueueManagerService(context.getConfigurationManager());
         serviceContainer.createService(TASK_QUEUE_MANAGER, taskQueueManagerService)
             .dependency(TransportServiceNames.serverTransport(CLIENT_API_SERVER_NAME), taskQueueManagerService.getClientApiTransportInjector())
             .dependency(EXECUTOR_SERVICE, taskQueueManagerService.getExecutorInjector())
             .dependency(TASK_QUEUE_SUBSCRIPTION_MANAGER, taskQueueManagerService.getTaskSubscriptionManagerInjector())
             .dependency(ACTOR_SCHEDULER_SERVICE, taskQueueManagerService.getActorSchedulerInjector())
+            .dependency(TransportServiceNames.CLIENT_API_MESSAGE_HANDLER, taskQueueManagerService.getClientApiMessageHandlerInjector())
             .groupReference(WORKFLOW_STREAM_GROUP, taskQueueManagerService.getLogStreamsGroupReference())
             .install();
 
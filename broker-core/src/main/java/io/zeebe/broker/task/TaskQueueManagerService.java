@@ -17,6 +17,7 @@
  */
 package io.zeebe.broker.task;
 
+import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE;
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE;
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.logStreamServiceName;
 import static io.zeebe.broker.logstreams.processor.StreamProcessorIds.TASK_EXPIRE_LOCK_STREAM_PROCESSOR_ID;
@@ -28,17 +29,24 @@ import static io.zeebe.broker.task.TaskQueueServiceNames.taskQueueInstanceStream
 
 import java.time.Duration;
 
+import io.zeebe.broker.logstreams.cfg.StreamProcessorCfg;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
+import io.zeebe.broker.logstreams.processor.FusedStreamProcessor;
 import io.zeebe.broker.logstreams.processor.StreamProcessorService;
+import io.zeebe.broker.system.ConfigurationManager;
 import io.zeebe.broker.system.executor.ScheduledCommand;
 import io.zeebe.broker.system.executor.ScheduledExecutor;
 import io.zeebe.broker.task.processor.TaskExpireLockStreamProcessor;
 import io.zeebe.broker.task.processor.TaskInstanceStreamProcessor;
+import io.zeebe.broker.transport.clientapi.ClientApiMessageHandler;
 import io.zeebe.broker.transport.clientapi.CommandResponseWriter;
+import io.zeebe.broker.transport.clientapi.PendingBatchRequests;
 import io.zeebe.broker.transport.clientapi.SubscribedEventWriter;
 import io.zeebe.logstreams.log.LogStream;
 import io.zeebe.logstreams.processor.StreamProcessorController;
 import io.zeebe.servicecontainer.Injector;
 import io.zeebe.servicecontainer.Service;
+import io.zeebe.servicecontainer.ServiceBuilder;
 import io.zeebe.servicecontainer.ServiceGroupReference;
 import io.zeebe.servicecontainer.ServiceName;
 import io.zeebe.servicecontainer.ServiceStartContext;
@@ -52,12 +60,12 @@ import io.zeebe.util.actor.ActorScheduler;
 public class TaskQueueManagerService implements Service<TaskQueueManager>, TaskQueueManager, Actor
 {
     protected static final String NAME = "task.queue.manager";
-    public static final int LOCK_EXPIRATION_INTERVAL = 30; // in seconds
 
     protected final Injector<ServerTransport> clientApiTransportInjector = new Injector<>();
     protected final Injector<ScheduledExecutor> executorInjector = new Injector<>();
     protected final Injector<TaskSubscriptionManager> taskSubscriptionManagerInjector = new Injector<>();
     protected final Injector<ActorScheduler> actorSchedulerInjector = new Injector<>();
+    protected final Injector<ClientApiMessageHandler> clientApiMessageHandlerInjector = new Injector<>();
 
     protected final ServiceGroupReference<LogStream> logStreamsGroupReference = ServiceGroupReference.<LogStream>create()
             .onAdd((name, stream) -> addStream(stream, name))
@@ -70,6 +78,15 @@ public class TaskQueueManagerService implements Service<TaskQueueManager>, TaskQ
 
     protected ScheduledCommand scheduledCheckExpirationCmd;
 
+    protected final TaskQueueCfg taskQueueCfg;
+    protected final StreamProcessorCfg streamProcessorCfg;
+
+    public TaskQueueManagerService(final ConfigurationManager configurationManager)
+    {
+        taskQueueCfg = configurationManager.readEntry("tasks", TaskQueueCfg.class);
+        streamProcessorCfg = configurationManager.readEntry("processors", StreamProcessorCfg.class);
+    }
+
     @Override
     public void startTaskQueue(final String logName)
     {
@@ -78,37 +95,32 @@ public class TaskQueueManagerService implements Service<TaskQueueManager>, TaskQ
             throw new RuntimeException("Cannot start task queue: Mandatory configuration property 'logName' is not set.");
         }
 
-        final ServiceName<StreamProcessorController> streamProcessorServiceName = taskQueueInstanceStreamProcessorServiceName(logName);
-        final String streamProcessorName = streamProcessorServiceName.getName();
-
-        final ServerTransport serverTransport = clientApiTransportInjector.getValue();
-
-        final CommandResponseWriter responseWriter = new CommandResponseWriter(serverTransport.getOutput());
-        final SubscribedEventWriter subscribedEventWriter = new SubscribedEventWriter(serverTransport.getOutput());
         final ServiceName<LogStream> logStreamServiceName = logStreamServiceName(logName);
-        final TaskSubscriptionManager taskSubscriptionManager = taskSubscriptionManagerInjector.getValue();
 
-        final TaskInstanceStreamProcessor taskInstanceStreamProcessor = new TaskInstanceStreamProcessor(responseWriter, subscribedEventWriter, taskSubscriptionManager);
-        final StreamProcessorService taskInstanceStreamProcessorService = new StreamProcessorService(
-                streamProcessorName,
-                TASK_QUEUE_STREAM_PROCESSOR_ID,
-                taskInstanceStreamProcessor)
-                .eventFilter(TaskInstanceStreamProcessor.eventFilter());
+        if (streamProcessorCfg.fuseProcessors)
+        {
+            startFusedTaskQueue(logName, logStreamServiceName);
+        }
+        else
+        {
+            final ServiceName<StreamProcessorController> streamProcessorServiceName = taskQueueInstanceStreamProcessorServiceName(logName);
+
+            final StreamProcessorService taskInstanceStreamProcessorService = new StreamProcessorService(
+                    streamProcessorServiceName.getName(),
+                    TASK_QUEUE_STREAM_PROCESSOR_ID,
+                    createTaskInstanceStreamProcessor(logName))
+                    .eventFilter(TaskInstanceStreamProcessor.eventFilter());
 
-        serviceContext.createService(streamProcessorServiceName, taskInstanceStreamProcessorService)
-              .group(TASK_QUEUE_STREAM_PROCESSOR_SERVICE_GROUP_NAME)
-              .dependency(logStreamServiceName, taskInstanceStreamProcessorService.getLogStreamInjector())
-              .dependency(SNAPSHOT_STORAGE_SERVICE, taskInstanceStreamProcessorService.getSnapshotStorageInjector())
-              .dependency(ACTOR_SCHEDULER_SERVICE, taskInstanceStreamProcessorService.getActorSchedulerInjector())
-              .install();
+            installStreamProcessorService(streamProcessorServiceName, taskInstanceStreamProcessorService, logStreamServiceName)
+                .group(TASK_QUEUE_STREAM_PROCESSOR_SERVICE_GROUP_NAME)
+                .install();
 
-        startExpireLockService(logName, logStreamServiceName);
+            startExpireLockService(logName, logStreamServiceName);
+        }
     }
 
     protected void startExpireLockService(String logStreamName, ServiceName<LogStream> logStreamServiceName)
     {
-        final ScheduledExecutor executor = executorInjector.getValue();
-
         final ServiceName<StreamProcessorController> expireLockStreamProcessorServiceName = taskQueueExpireLockStreamProcessorServiceName(logStreamName);
         final TaskExpireLockStreamProcessor expireLockStreamProcessor = new TaskExpireLockStreamProcessor();
 
@@ -116,17 +128,70 @@ public class TaskQueueManagerService implements Service<TaskQueueManager>, TaskQ
                 expireLockStreamProcessorServiceName.getName(),
                 TASK_EXPIRE_LOCK_STREAM_PROCESSOR_ID,
                 expireLockStreamProcessor)
-                .eventFilter(TaskExpireLockStreamProcessor.eventFilter());
+                .eventFilter(TaskExpireLockStreamProcessor.eventFilter())
+                .valueFilter(TaskExpireLockStreamProcessor.stateFilter());
 
-        serviceContext.createService(expireLockStreamProcessorServiceName, expireLockStreamProcessorService)
-            .dependency(logStreamServiceName, expireLockStreamProcessorService.getLogStreamInjector())
-            .dependency(SNAPSHOT_STORAGE_SERVICE, expireLockStreamProcessorService.getSnapshotStorageInjector())
-            .dependency(ACTOR_SCHEDULER_SERVICE, expireLockStreamProcessorService.getActorSchedulerInjector())
+        installStreamProcessorService(expireLockStreamProcessorServiceName, expireLockStreamProcessorService, logStreamServiceName)
             .install()
-            .thenRun(() ->
-            {
-                scheduledCheckExpirationCmd = executor.scheduleAtFixedRate(expireLockStreamProcessor::checkLockExpirationAsync, Duration.ofSeconds(LOCK_EXPIRATION_INTERVAL));
-            });
+            .thenRun(() -> scheduleLockExpirationCheck(expireLockStreamProcessor));
+    }
+
+    /**
+     * Installs one stream processor for task instances and lock expiration. It
+     * takes over the name and the id of the task instance stream processor.
+     */
+    protected void startFusedTaskQueue(String logStreamName, ServiceName<LogStream> logStreamServiceName)
+    {
+        final ServiceName<StreamProcessorController> streamProcessorServiceName = taskQueueInstanceStreamProcessorServiceName(logStreamName);
+        final TaskExpireLockStreamProcessor expireLockStreamProcessor = new TaskExpireLockStreamProcessor();
+
+        final FusedStreamProcessor fusedStreamProcessor = new FusedStreamProcessor()
+                .addProcessor(createTaskInstanceStreamProcessor(logStreamName), TaskInstanceStreamProcessor.eventFilter())
+                .addProcessor(expireLockStreamProcessor, TaskExpireLockStreamProcessor.eventFilter(), TaskExpireLockStreamProcessor.stateFilter());
+
+        final StreamProcessorService fusedStreamProcessorService = new StreamProcessorService(
+                streamProcessorServiceName.getName(),
+                TASK_QUEUE_STREAM_PROCESSOR_ID,
+                fusedStreamProcessor)
+                .eventFilter(fusedStreamProcessor.eventFilter());
+
+        installStreamProcessorService(streamProcessorServiceName, fusedStreamProcessorService, logStreamServiceName)
+            .group(TASK_QUEUE_STREAM_PROCESSOR_SERVICE_GROUP_NAME)
+            .install()
+            .thenRun(() -> scheduleLockExpirationCheck(expireLockStreamProcessor));
+    }
+
+    protected TaskInstanceStreamProcessor createTaskInstanceStreamProcessor(String logStreamName)
+    {
+        final ServerTransport serverTransport = clientApiTransportInjector.getValue();
+
+        final CommandResponseWriter responseWriter = new CommandResponseWriter(serverTransport.getOutput());
+        final SubscribedEventWriter subscribedEventWriter = new SubscribedEventWriter(serverTransport.getOutput());
+        final TaskSubscriptionManager taskSubscriptionManager = taskSubscriptionManagerInjector.getValue();
+
+        final StateStoreFactory stateStoreFactory = StateStoreFactory.forLogStream(streamProcessorCfg, logStreamName);
+
+        final PendingBatchRequests pendingBatchRequests = clientApiMessageHandlerInjector.getValue().getPendingBatchRequests();
+
+        return new TaskInstanceStreamProcessor(responseWriter, subscribedEventWriter, taskSubscriptionManager, stateStoreFactory, pendingBatchRequests);
+    }
+
+    protected ServiceBuilder<StreamProcessorController> installStreamProcessorService(
+            ServiceName<StreamProcessorController> streamProcessorServiceName,
+            StreamProcessorService streamProcessorService,
+            ServiceName<LogStream> logStreamServiceName)
+    {
+        return serviceContext.createService(streamProcessorServiceName, streamProcessorService)
+            .dependency(logStreamServiceName, streamProcessorService.getLogStreamInjector())
+            .dependency(SNAPSHOT_STORAGE_SERVICE, streamProcessorService.getSnapshotStorageInjector())
+            .dependency(SNAPSHOT_POLICY_FACTORY_SERVICE, streamProcessorService.getSnapshotPolicyFactoryInjector())
+            .dependency(ACTOR_SCHEDULER_SERVICE, streamProcessorService.getActorSchedulerInjector());
+    }
+
+    protected void scheduleLockExpirationCheck(TaskExpireLockStreamProcessor expireLockStreamProcessor)
+    {
+        final ScheduledExecutor executor = executorInjector.getValue();
+        scheduledCheckExpirationCmd = executor.scheduleAtFixedRate(expireLockStreamProcessor::checkLockExpirationAsync, Duration.ofMillis(taskQueueCfg.lockExpirationToleranceMillis));
     }
 
     @Override
@@ -185,6 +250,11 @@ public class TaskQueueManagerService implements Service<TaskQueueManager>, TaskQ
         return actorSchedulerInjector;
     }
 
+    public Injector<ClientApiMessageHandler> getClientApiMessageHandlerInjector()
+    {
+        return clientApiMessageHandlerInjector;
+    }
+
     public void addStream(LogStream logStream, ServiceName<LogStream> logStreamServiceName)
     {
         asyncContext.runAsync((r) ->
@@ -17,22 +17,19 @@
  */
 package io.zeebe.broker.task;
 
+import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE;
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE;
 import static io.zeebe.broker.logstreams.processor.StreamProcessorIds.TASK_LOCK_STREAM_PROCESSOR_ID;
 import static io.zeebe.broker.system.SystemServiceNames.ACTOR_SCHEDULER_SERVICE;
 import static io.zeebe.broker.task.TaskQueueServiceNames.taskQueueLockStreamProcessorServiceName;
 import static io.zeebe.util.EnsureUtil.ensureNotNull;
-import static io.zeebe.util.buffer.BufferUtil.bufferAsString;
-import static io.zeebe.util.buffer.BufferUtil.cloneBuffer;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.agrona.DirectBuffer;
 import org.agrona.collections.Int2ObjectHashMap;
@@ -50,7 +47,6 @@ import io.zeebe.transport.TransportListener;
 import io.zeebe.util.DeferredCommandContext;
 import io.zeebe.util.actor.Actor;
 import io.zeebe.util.allocation.HeapBufferAllocator;
-import io.zeebe.util.buffer.BufferUtil;
 import io.zeebe.util.collection.CompactList;
 
 public class TaskSubscriptionManager implements Actor, TransportListener
@@ -59,7 +55,7 @@ public class TaskSubscriptionManager implements Actor, TransportListener
     public static final int NUM_CONCURRENT_REQUESTS = 1_024;
 
     protected final ServiceStartContext serviceContext;
-    protected final Function<DirectBuffer, LockTaskStreamProcessor> streamProcessorSupplier;
+    protected final Supplier<LockTaskStreamProcessor> streamProcessorSupplier;
 
     protected final Int2ObjectHashMap<LogStreamBucket> logStreamBuckets = new Int2ObjectHashMap<>();
     protected final Long2ObjectHashMap<LockTaskStreamProcessor> streamProcessorBySubscriptionId = new Long2ObjectHashMap<>();
@@ -87,12 +83,12 @@ public class TaskSubscriptionManager implements Actor, TransportListener
 
     public TaskSubscriptionManager(ServiceStartContext serviceContext)
     {
-        this(serviceContext, taskType -> new LockTaskStreamProcessor(taskType));
+        this(serviceContext, LockTaskStreamProcessor::new);
     }
 
     public TaskSubscriptionManager(
             ServiceStartContext serviceContext,
-            Function<DirectBuffer, LockTaskStreamProcessor> streamProcessorBuilder)
+            Supplier<LockTaskStreamProcessor> streamProcessorBuilder)
     {
         this.serviceContext = serviceContext;
         this.streamProcessorSupplier = streamProcessorBuilder;
@@ -158,7 +154,7 @@ public class TaskSubscriptionManager implements Actor, TransportListener
             final long subscriptionId = nextSubscriptionId++;
             subscription.setSubscriberKey(subscriptionId);
 
-            final LockTaskStreamProcessor streamProcessor = logStreamBucket.getStreamProcessorByTaskType(taskType);
+            final LockTaskStreamProcessor streamProcessor = logStreamBucket.getStreamProcessor();
             if (streamProcessor != null)
             {
                 streamProcessorBySubscriptionId.put(subscriptionId, streamProcessor);
@@ -169,13 +165,18 @@ public class TaskSubscriptionManager implements Actor, TransportListener
             }
             else
             {
-                createStreamProcessorService(logStreamBucket, taskType)
+                // the stream processor may be already in creation for a subscription of another task type
+                CompletableFuture<LockTaskStreamProcessor> streamProcessorFuture = logStreamBucket.getStreamProcessorInCreation();
+                if (streamProcessorFuture == null)
+                {
+                    streamProcessorFuture = createStreamProcessorService(logStreamBucket);
+                }
+
+                streamProcessorFuture
                     .thenCompose(processor ->
                     {
                         streamProcessorBySubscriptionId.put(subscriptionId, processor);
 
-                        logStreamBucket.addStreamProcessor(processor);
-
                         return processor.addSubscription(subscription);
                     })
                     .handle((r, t) -> t == null ? future.complete(null) : future.completeExceptionally(t));
@@ -183,33 +184,47 @@ public class TaskSubscriptionManager implements Actor, TransportListener
         });
     }
 
-    protected CompletableFuture<LockTaskStreamProcessor> createStreamProcessorService(final LogStreamBucket logStreamBucket, final DirectBuffer taskType)
+    protected CompletableFuture<LockTaskStreamProcessor> createStreamProcessorService(final LogStreamBucket logStreamBucket)
     {
         final CompletableFuture<LockTaskStreamProcessor> future = new CompletableFuture<>();
+        logStreamBucket.setStreamProcessorInCreation(future);
 
         final ServiceName<LogStream> logStreamServiceName = logStreamBucket.getLogServiceName();
 
         final String logName = logStreamBucket.getLogStream().getLogName();
-        final ServiceName<StreamProcessorController> streamProcessorServiceName = taskQueueLockStreamProcessorServiceName(logName, bufferAsString(taskType));
+        final ServiceName<StreamProcessorController> streamProcessorServiceName = taskQueueLockStreamProcessorServiceName(logName);
         final String streamProcessorName = streamProcessorServiceName.getName();
 
-        // need to copy the type buffer because it is not durable
-        final DirectBuffer newTaskTypeBuffer = cloneBuffer(taskType);
-
-        final LockTaskStreamProcessor streamProcessor = streamProcessorSupplier.apply(newTaskTypeBuffer);
+        final LockTaskStreamProcessor streamProcessor = streamProcessorSupplier.get();
         final StreamProcessorService streamProcessorService = new StreamProcessorService(
                 streamProcessorName,
                 TASK_LOCK_STREAM_PROCESSOR_ID,
                 streamProcessor)
             .eventFilter(LockTaskStreamProcessor.eventFilter())
-            .reprocessingEventFilter(LockTaskStreamProcessor.reprocessingEventFilter(newTaskTypeBuffer));
+            .valueFilter(LockTaskStreamProcessor.stateFilter())
+            .reprocessingEventFilter(LockTaskStreamProcessor.reprocessingEventFilter());
 
         serviceContext.createService(streamProcessorServiceName, streamProcessorService)
             .dependency(logStreamServiceName, streamProcessorService.getLogStreamInjector())
             .dependency(SNAPSHOT_STORAGE_SERVICE, streamProcessorService.getSnapshotStorageInjector())
+            .dependency(SNAPSHOT_POLICY_FACTORY_SERVICE, streamProcessorService.getSnapshotPolicyFactoryInjector())
             .dependency(ACTOR_SCHEDULER_SERVICE, streamProcessorService.getActorSchedulerInjector())
             .install()
-            .handle((r, t) -> t == null ? future.complete(streamProcessor) : future.completeExceptionally(t));
+            .whenComplete((r, t) -> asyncContext.runAsync(() ->
+            {
+                // the bucket is accessed on the thread of the manager only
+                logStreamBucket.setStreamProcessorInCreation(null);
+
+                if (t == null)
+                {
+                    logStreamBucket.setStreamProcessor(streamProcessor);
+                    future.complete(streamProcessor);
+                }
+                else
+                {
+                    future.completeExceptionally(t);
+                }
+            }));
 
         return future;
     }
@@ -233,17 +248,30 @@ public class TaskSubscriptionManager implements Actor, TransportListener
         });
     }
 
+    /**
+     * Is called back by the stream processor, so the bucket is accessed on the thread of the manager.
+     */
     protected CompletionStage<Void> removeStreamProcessorService(final LockTaskStreamProcessor streamProcessor)
     {
-        final LogStreamBucket logStreamBucket = logStreamBuckets.get(streamProcessor.getLogStreamPartitionId());
+        return asyncContext.runAsync(future ->
+        {
+            final LogStreamBucket logStreamBucket = logStreamBuckets.get(streamProcessor.getLogStreamPartitionId());
 
-        logStreamBucket.removeStreamProcessor(streamProcessor);
+            if (logStreamBucket != null && logStreamBucket.getStreamProcessor() == streamProcessor)
+            {
+                logStreamBucket.setStreamProcessor(null);
 
-        final String logName = logStreamBucket.getLogStream().getLogName();
-        final String taskType = bufferAsString(streamProcessor.getSubscriptedTaskType());
-        final ServiceName<StreamProcessorController> streamProcessorServiceName = taskQueueLockStreamProcessorServiceName(logName, taskType);
+                final String logName = logStreamBucket.getLogStream().getLogName();
+                final ServiceName<StreamProcessorController> streamProcessorServiceName = taskQueueLockStreamProcessorServiceName(logName);
 
-        return serviceContext.removeService(streamProcessorServiceName);
+                serviceContext.removeService(streamProcessorServiceName)
+                    .handle((r, t) -> t == null ? future.complete(null) : future.completeExceptionally(t));
+            }
+            else
+            {
+                future.complete(null);
+            }
+        });
     }
 
     public boolean increaseSubscriptionCreditsAsync(CreditsRequest request)
@@ -332,13 +360,16 @@ public class TaskSubscriptionManager implements Actor, TransportListener
     {
         asyncContext.runAsync(() ->
         {
-            final Iterator<LockTaskStreamProcessor> processorIt = streamProcessorBySubscriptionId.values().iterator();
-            while (processorIt.hasNext())
+            final Iterator<LogStreamBucket> bucketIt = logStreamBuckets.values().iterator();
+            while (bucketIt.hasNext())
             {
-                final LockTaskStreamProcessor processor = processorIt.next();
-                processor
-                    .onClientChannelCloseAsync(channelId)
-                    .thenCompose(hasSubscriptions -> !hasSubscriptions ? removeStreamProcessorService(processor) : CompletableFuture.completedFuture(null));
+                final LockTaskStreamProcessor processor = bucketIt.next().getStreamProcessor();
+                if (processor != null)
+                {
+                    processor
+                        .onClientChannelCloseAsync(channelId)
+                        .thenCompose(hasSubscriptions -> !hasSubscriptions ? removeStreamProcessorService(processor) : CompletableFuture.completedFuture(null));
+                }
             }
         });
     }
@@ -353,7 +384,8 @@ public class TaskSubscriptionManager implements Actor, TransportListener
         protected final LogStream logStream;
         protected final ServiceName<LogStream> logStreamServiceName;
 
-        protected List<LockTaskStreamProcessor> streamProcessors = new ArrayList<>();
+        protected LockTaskStreamProcessor streamProcessor;
+        protected CompletableFuture<LockTaskStreamProcessor> streamProcessorInCreation;
 
         LogStreamBucket(LogStream logStream, ServiceName<LogStream> logStreamServiceName)
         {
@@ -371,36 +403,28 @@ public class TaskSubscriptionManager implements Actor, TransportListener
             return logStreamServiceName;
         }
 
-        public LockTaskStreamProcessor getStreamProcessorByTaskType(DirectBuffer taskType)
+        /**
+         * @return the stream processor which locks the tasks of all types on this log stream
+         *         or null if there is no subscription on this log stream
+         */
+        public LockTaskStreamProcessor getStreamProcessor()
         {
-            LockTaskStreamProcessor streamProcessorForType = null;
-
-            final int size = streamProcessors.size();
-            int current = 0;
-
-            while (current < size && streamProcessorForType == null)
-            {
-                final LockTaskStreamProcessor streamProcessor = streamProcessors.get(current);
-
-                if (BufferUtil.equals(taskType, streamProcessor.getSubscriptedTaskType()))
-                {
-                    streamProcessorForType = streamProcessor;
-                }
-
-                current += 1;
-            }
+            return streamProcessor;
+        }
 
-            return streamProcessorForType;
+        public void setStreamProcessor(LockTaskStreamProcessor streamProcessor)
+        {
+            this.streamProcessor = streamProcessor;
         }
 
-        public void addStreamProcessor(LockTaskStreamProcessor streamProcessor)
+        public CompletableFuture<LockTaskStreamProcessor> getStreamProcessorInCreation()
         {
-            streamProcessors.add(streamProcessor);
+            return streamProcessorInCreation;
         }
 
-        public void removeStreamProcessor(LockTaskStreamProcessor streamProcessor)
+        public void setStreamProcessorInCreation(CompletableFuture<LockTaskStreamProcessor> streamProcessorInCreation)
         {
-            streamProcessors.remove(streamProcessor);
+            this.streamProcessorInCreation = streamProcessorInCreation;
         }
     }
 
@@ -0,0 +1,209 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.task.map;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
+import org.agrona.BitUtil;
+
+/**
+ * Min-heap of <b>(lock time, task key)</b> pairs, ordered by lock time.
+ *
+ * <p>Entries are not removed when a task is unlocked. Instead, the caller
+ * has to check if a polled entry is still valid (lazy deletion). The heap is
+ * part of the snapshot, so that it doesn't need to be rebuilt on recovery.
+ */
+public class LockExpirationQueue implements ComposableSnapshotSupport
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] lockTimes = new long[INITIAL_CAPACITY];
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public void add(long key, long lockTime)
+    {
+        if (size == keys.length)
+        {
+            grow(keys.length * 2);
+        }
+
+        int index = size;
+        size += 1;
+
+        // sift up
+        while (index > 0)
+        {
+            final int parent = (index - 1) >>> 1;
+            if (lockTimes[parent] <= lockTime)
+            {
+                break;
+            }
+
+            lockTimes[index] = lockTimes[parent];
+            keys[index] = keys[parent];
+            index = parent;
+        }
+
+        lockTimes[index] = lockTime;
+        keys[index] = key;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return the earliest lock time; must not be called if the queue is empty
+     */
+    public long peekLockTime()
+    {
+        return lockTimes[0];
+    }
+
+    /**
+     * @return the key of the entry with the earliest lock time; must not be called if the queue is empty
+     */
+    public long peekKey()
+    {
+        return keys[0];
+    }
+
+    /**
+     * Removes the entry with the earliest lock time.
+     */
+    public void poll()
+    {
+        size -= 1;
+
+        if (size > 0)
+        {
+            final long lastLockTime = lockTimes[size];
+            final long lastKey = keys[size];
+
+            int index = 0;
+
+            // sift down
+            while (true)
+            {
+                int child = (index << 1) + 1;
+                if (child >= size)
+                {
+                    break;
+                }
+
+                final int rightChild = child + 1;
+                if (rightChild < size && lockTimes[rightChild] < lockTimes[child])
+                {
+                    child = rightChild;
+                }
+
+                if (lastLockTime <= lockTimes[child])
+                {
+                    break;
+                }
+
+                lockTimes[index] = lockTimes[child];
+                keys[index] = keys[child];
+                index = child;
+            }
+
+            lockTimes[index] = lastLockTime;
+            keys[index] = lastKey;
+        }
+    }
+
+    public void clear()
+    {
+        size = 0;
+    }
+
+    private void grow(int capacity)
+    {
+        final long[] newLockTimes = new long[capacity];
+        final long[] newKeys = new long[capacity];
+
+        System.arraycopy(lockTimes, 0, newLockTimes, 0, size);
+        System.arraycopy(keys, 0, newKeys, 0, size);
+
+        lockTimes = newLockTimes;
+        keys = newKeys;
+    }
+
+    @Override
+    public long snapshotSize()
+    {
+        return BitUtil.SIZE_OF_INT + (long) size * 2 * BitUtil.SIZE_OF_LONG;
+    }
+
+    @Override
+    public void writeSnapshot(OutputStream outputStream) throws Exception
+    {
+        final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+
+        dataOutputStream.writeInt(size);
+
+        for (int i = 0; i < size; i++)
+        {
+            dataOutputStream.writeLong(lockTimes[i]);
+            dataOutputStream.writeLong(keys[i]);
+        }
+
+        dataOutputStream.flush();
+    }
+
+    @Override
+    public void recoverFromSnapshot(InputStream inputStream) throws Exception
+    {
+        final DataInputStream dataInputStream = new DataInputStream(inputStream);
+
+        final int snapshotSize = dataInputStream.readInt();
+
+        if (snapshotSize > keys.length)
+        {
+            lockTimes = new long[snapshotSize];
+            keys = new long[snapshotSize];
+        }
+
+        // the entries are written in heap order
+        for (int i = 0; i < snapshotSize; i++)
+        {
+            lockTimes[i] = dataInputStream.readLong();
+            keys[i] = dataInputStream.readLong();
+        }
+
+        size = snapshotSize;
+    }
+
+    @Override
+    public void reset()
+    {
+        clear();
+    }
+
+}
@@ -21,9 +21,10 @@ import static org.agrona.BitUtil.*;
 
 import java.nio.ByteOrder;
 
+import io.zeebe.broker.logstreams.state.Long2BytesStore;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
 import io.zeebe.broker.task.processor.TaskSubscription;
-import io.zeebe.logstreams.snapshot.ZbMapSnapshotSupport;
-import io.zeebe.map.Long2BytesZbMap;
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
 import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 
@@ -47,21 +48,24 @@ public class TaskInstanceMap
     private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[MAP_VALUE_SIZE]);
     private final UnsafeBuffer lockOwnerBuffer = new UnsafeBuffer(0, 0);
 
-    private final Long2BytesZbMap map;
-    private final ZbMapSnapshotSupport<Long2BytesZbMap> snapshotSupport;
+    private final Long2BytesStore map;
 
     private long key;
     private boolean isRead = false;
 
     public TaskInstanceMap()
     {
-        this.map = new Long2BytesZbMap(MAP_VALUE_SIZE);
-        this.snapshotSupport = new ZbMapSnapshotSupport<>(map);
+        this(StateStoreFactory.inMemory());
     }
 
-    public ZbMapSnapshotSupport<Long2BytesZbMap> getSnapshotSupport()
+    public TaskInstanceMap(StateStoreFactory stateStoreFactory)
     {
-        return snapshotSupport;
+        this.map = stateStoreFactory.createStore("task-instances", MAP_VALUE_SIZE);
+    }
+
+    public ComposableSnapshotSupport getSnapshotSupport()
+    {
+        return map.getSnapshotSupport();
     }
 
     public void reset()
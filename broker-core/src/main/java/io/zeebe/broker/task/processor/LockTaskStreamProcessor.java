@@ -22,10 +22,17 @@ import static io.zeebe.util.EnsureUtil.ensureGreaterThan;
 import static io.zeebe.util.EnsureUtil.ensureLessThanOrEqual;
 import static io.zeebe.util.EnsureUtil.ensureNotNull;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
 
+import io.zeebe.broker.logstreams.processor.EventStateFilter;
+import io.zeebe.broker.logstreams.processor.EventValueFilter;
 import io.zeebe.broker.logstreams.processor.MetadataFilter;
 import io.zeebe.broker.logstreams.processor.NoopSnapshotSupport;
 import io.zeebe.broker.task.CreditsRequest;
@@ -35,6 +42,7 @@ import io.zeebe.broker.task.data.TaskEvent;
 import io.zeebe.broker.task.data.TaskState;
 import io.zeebe.broker.task.processor.TaskSubscriptions.SubscriptionIterator;
 import io.zeebe.logstreams.log.LogStream;
+import io.zeebe.logstreams.log.LogStreamReader;
 import io.zeebe.logstreams.log.LogStreamWriter;
 import io.zeebe.logstreams.log.LoggedEvent;
 import io.zeebe.logstreams.processor.EventFilter;
@@ -49,26 +57,51 @@ import io.zeebe.util.DeferredCommandContext;
 import io.zeebe.util.buffer.BufferUtil;
 import io.zeebe.util.time.ClockUtil;
 
+/**
+ * Locks tasks of all task types of one partition. Each task event is read and decoded once
+ * and routed by its type to the subscriptions of this type.
+ *
+ * <p>A lockable task which cannot be locked when it is read (i.e. no subscription of its type
+ * has credits) is remembered as pending and locked as soon as credits are available. Pending tasks
+ * are only tracked for the task types which have subscriptions. When a type gets its first
+ * subscription, the log is scanned for the tasks of this type which are not locked yet. Hence, the
+ * processor has no state which must be rebuilt by reprocessing the log.
+ */
 public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
 {
+    /**
+     * the max number of events which are read by one run of the scan
+     */
+    protected static final int SCAN_BATCH_SIZE = 1_000;
+
     protected final BrokerEventMetadata targetEventMetadata = new BrokerEventMetadata();
 
     protected final NoopSnapshotSupport noopSnapshotSupport = new NoopSnapshotSupport();
     protected DeferredCommandContext cmdQueue;
     protected CreditsRequestBuffer creditsBuffer = new CreditsRequestBuffer(TaskSubscriptionManager.NUM_CONCURRENT_REQUESTS, this::increaseSubscriptionCredits);
 
-    protected final TaskSubscriptions subscriptions = new TaskSubscriptions(8);
-    protected final SubscriptionIterator taskDistributionIterator;
-    protected final SubscriptionIterator managementIterator;
+    protected final Map<DirectBuffer, TaskTypeSubscriptions> subscriptionsByTaskType = new HashMap<>();
+    protected final Long2ObjectHashMap<TaskTypeSubscriptions> subscriptionsBySubscriberKey = new Long2ObjectHashMap<>();
+    protected final UnsafeBuffer taskTypeView = new UnsafeBuffer(0, 0);
 
-    protected final DirectBuffer subscribedTaskType;
+    protected final EventProcessor pendingTaskEventProcessor = new PendingTaskEventProcessor();
+    protected final EventProcessor unlockableTaskEventProcessor = new UnlockableTaskEventProcessor();
+    protected final Runnable lockPendingTasksCmd = new LockPendingTasksCmd();
+    protected boolean isLockPendingTasksScheduled = false;
+    protected final Runnable scanPendingTasksCmd = new ScanPendingTasksCmd();
+    protected boolean isScanPendingTasksScheduled = false;
 
     protected int logStreamPartitionId;
+    protected int streamProcessorId;
 
     protected LogStream targetStream;
+    protected LogStreamReader logStreamReader;
+    protected LogStreamWriter logStreamWriter;
 
     protected final TaskEvent taskEvent = new TaskEvent();
     protected long eventKey = 0;
+    protected long eventPosition = 0;
+    protected TaskTypeSubscriptions eventTypeSubscriptions;
 
     protected boolean hasLockedTask;
     protected TaskSubscription lockSubscription;
@@ -76,13 +109,6 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
     // activate the processor while adding the first subscription
     protected boolean isSuspended = true;
 
-    public LockTaskStreamProcessor(DirectBuffer taskType)
-    {
-        this.subscribedTaskType = taskType;
-        this.taskDistributionIterator = subscriptions.iterator();
-        this.managementIterator = subscriptions.iterator();
-    }
-
     @Override
     public SnapshotSupport getStateResource()
     {
@@ -98,11 +124,6 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
         return isSuspended;
     }
 
-    public DirectBuffer getSubscriptedTaskType()
-    {
-        return subscribedTaskType;
-    }
-
     public int getLogStreamPartitionId()
     {
         return logStreamPartitionId;
@@ -112,6 +133,9 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
     public void onOpen(StreamProcessorContext context)
     {
         cmdQueue = context.getStreamProcessorCmdQueue();
+        streamProcessorId = context.getId();
+        logStreamReader = context.getLogStreamReader();
+        logStreamWriter = context.getLogStreamWriter();
 
         final LogStream logStream = context.getLogStream();
         logStreamPartitionId = logStream.getPartitionId();
@@ -129,18 +153,25 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
         ensureGreaterThan("lock duration", subscription.getLockDuration(), 0);
         ensureGreaterThan("subscription credits", subscription.getCredits(), 0);
 
-        if (!BufferUtil.equals(subscription.getLockTaskType(), subscribedTaskType))
-        {
-            final String errorMessage = String.format("Subscription task type is not equal to '%s'.", BufferUtil.bufferAsString(subscribedTaskType));
-            throw new RuntimeException(errorMessage);
-        }
-
         return cmdQueue.runAsync(future ->
         {
-            subscriptions.addSubscription(subscription);
+            final TaskTypeSubscriptions typeSubscriptions = getOrCreateTypeSubscriptions(subscription.getLockTaskType());
+
+            typeSubscriptions.addSubscription(subscription);
+            subscriptionsBySubscriberKey.put(subscription.getSubscriberKey(), typeSubscriptions);
 
             isSuspended = false;
 
+            if (typeSubscriptions.isScanned())
+            {
+                scheduleLockPendingTasks(typeSubscriptions);
+            }
+            else if (!isScanPendingTasksScheduled)
+            {
+                // scan the first batch immediately - the following batches are scheduled by the scan
+                scanPendingTasksCmd.run();
+            }
+
             future.complete(null);
         });
     }
@@ -149,8 +180,19 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
     {
         return cmdQueue.runAsync(future ->
         {
-            subscriptions.removeSubscription(subscriberKey);
-            isSuspended = subscriptions.isEmpty();
+            final TaskTypeSubscriptions typeSubscriptions = subscriptionsBySubscriberKey.remove(subscriberKey);
+            if (typeSubscriptions != null)
+            {
+                typeSubscriptions.removeSubscription(subscriberKey);
+
+                if (!typeSubscriptions.hasSubscriptions())
+                {
+                    // drop the pending tasks, they are scanned again for the next subscription
+                    subscriptionsByTaskType.remove(typeSubscriptions.getTaskType());
+                }
+            }
+
+            isSuspended = subscriptionsBySubscriberKey.isEmpty();
 
             future.complete(!isSuspended);
         });
@@ -160,18 +202,29 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
     {
         return cmdQueue.runAsync(future ->
         {
-            managementIterator.reset();
-
-            while (managementIterator.hasNext())
+            final Iterator<TaskTypeSubscriptions> typeIterator = subscriptionsByTaskType.values().iterator();
+            while (typeIterator.hasNext())
             {
-                final TaskSubscription subscription = managementIterator.next();
-                if (subscription.getStreamId() == channelId)
+                final TaskTypeSubscriptions typeSubscriptions = typeIterator.next();
+                final SubscriptionIterator managementIterator = typeSubscriptions.managementIterator();
+
+                while (managementIterator.hasNext())
+                {
+                    final TaskSubscription subscription = managementIterator.next();
+                    if (subscription.getStreamId() == channelId)
+                    {
+                        subscriptionsBySubscriberKey.remove(subscription.getSubscriberKey());
+                        managementIterator.remove();
+                    }
+                }
+
+                if (!typeSubscriptions.hasSubscriptions())
                 {
-                    managementIterator.remove();
+                    typeIterator.remove();
                 }
             }
 
-            isSuspended = subscriptions.isEmpty();
+            isSuspended = subscriptionsBySubscriberKey.isEmpty();
 
             future.complete(!isSuspended);
         });
@@ -187,37 +240,77 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
         final long subscriberKey = request.getSubscriberKey();
         final int credits = request.getCredits();
 
-        subscriptions.addCredits(subscriberKey, credits);
-        isSuspended = false;
+        final TaskTypeSubscriptions typeSubscriptions = subscriptionsBySubscriberKey.get(subscriberKey);
+        if (typeSubscriptions != null)
+        {
+            typeSubscriptions.addCredits(subscriberKey, credits);
+
+            scheduleLockPendingTasks(typeSubscriptions);
+        }
     }
 
-    protected TaskSubscription getNextAvailableSubscription()
+    protected TaskTypeSubscriptions getOrCreateTypeSubscriptions(DirectBuffer taskType)
     {
-        TaskSubscription nextSubscription = null;
+        taskTypeView.wrap(taskType);
 
-        if (subscriptions.getTotalCredits() > 0)
+        TaskTypeSubscriptions typeSubscriptions = subscriptionsByTaskType.get(taskTypeView);
+        if (typeSubscriptions == null)
         {
+            // need to copy the type buffer because it is not durable
+            final UnsafeBuffer taskTypeBuffer = new UnsafeBuffer(new byte[taskType.capacity()]);
+            taskTypeBuffer.putBytes(0, taskType, 0, taskType.capacity());
 
-            final int subscriptionSize = subscriptions.size();
-            int seenSubscriptions = 0;
+            typeSubscriptions = new TaskTypeSubscriptions(taskTypeBuffer);
+            subscriptionsByTaskType.put(taskTypeBuffer, typeSubscriptions);
+        }
 
-            while (seenSubscriptions < subscriptionSize && nextSubscription == null)
-            {
-                if (!taskDistributionIterator.hasNext())
-                {
-                    taskDistributionIterator.reset();
-                }
+        return typeSubscriptions;
+    }
 
-                final TaskSubscription subscription = taskDistributionIterator.next();
-                if (subscription.getCredits() > 0)
-                {
-                    nextSubscription = subscription;
-                }
+    protected TaskTypeSubscriptions getTypeSubscriptions(DirectBuffer taskType)
+    {
+        taskTypeView.wrap(taskType);
+
+        return subscriptionsByTaskType.get(taskTypeView);
+    }
+
+    protected void scheduleLockPendingTasks(TaskTypeSubscriptions typeSubscriptions)
+    {
+        if (!isLockPendingTasksScheduled && typeSubscriptions.isScanned() && typeSubscriptions.hasPendingTasks() && typeSubscriptions.hasCredits())
+        {
+            isLockPendingTasksScheduled = true;
+            cmdQueue.runAsync(lockPendingTasksCmd);
+        }
+    }
+
+    protected void scheduleScanPendingTasks()
+    {
+        if (!isScanPendingTasksScheduled && findTypeSubscriptionsToScan() != null)
+        {
+            isScanPendingTasksScheduled = true;
+            cmdQueue.runAsync(scanPendingTasksCmd);
+        }
+    }
 
-                seenSubscriptions += 1;
+    protected TaskTypeSubscriptions findTypeSubscriptionsToScan()
+    {
+        for (TaskTypeSubscriptions typeSubscriptions : subscriptionsByTaskType.values())
+        {
+            if (!typeSubscriptions.isScanned())
+            {
+                return typeSubscriptions;
             }
         }
-        return nextSubscription;
+        return null;
+    }
+
+    /**
+     * @return true if the task event must be applied to the pending tasks of its type, i.e. the
+     *         type has subscriptions and the event is not read by the scan
+     */
+    protected boolean isTracked(TaskTypeSubscriptions typeSubscriptions, long position)
+    {
+        return typeSubscriptions != null && typeSubscriptions.isScanned() && !typeSubscriptions.isReadByScan(position);
     }
 
     public static MetadataFilter eventFilter()
@@ -225,43 +318,74 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
         return m -> m.getEventType() == EventType.TASK_EVENT;
     }
 
-    public static final EventFilter reprocessingEventFilter(final DirectBuffer taskType)
+    /**
+     * @return a filter which skips all events on reprocessing, since the pending tasks are
+     *         collected by the scan when a task type gets its first subscription
+     */
+    public static EventFilter reprocessingEventFilter()
     {
-        final TaskEvent taskEvent = new TaskEvent();
-
-        return event ->
-        {
-            taskEvent.reset();
-            event.readValue(taskEvent);
+        return event -> false;
+    }
 
-            return BufferUtil.equals(taskEvent.getType(), taskType);
-        };
+    /**
+     * @return a filter which accepts the task events that are handled by this processor
+     */
+    public static EventValueFilter stateFilter()
+    {
+        return new EventStateFilter()
+            .accept(EventType.TASK_EVENT,
+                    TaskState.CREATED,
+                    TaskState.LOCK_EXPIRED,
+                    TaskState.FAILED,
+                    TaskState.RETRIES_UPDATED,
+                    TaskState.LOCKED,
+                    TaskState.CANCELED);
     }
 
     @Override
     public EventProcessor onEvent(LoggedEvent event)
     {
         eventKey = event.getKey();
+        eventPosition = event.getPosition();
 
         taskEvent.reset();
         event.readValue(taskEvent);
 
         EventProcessor eventProcessor = null;
 
-        if (BufferUtil.equals(taskEvent.getType(), subscribedTaskType))
+        switch (taskEvent.getState())
         {
-            switch (taskEvent.getState())
-            {
-                case CREATED:
-                case LOCK_EXPIRED:
-                case FAILED:
-                case RETRIES_UPDATED:
-                    eventProcessor = this;
-                    break;
+            case CREATED:
+            case LOCK_EXPIRED:
+            case FAILED:
+            case RETRIES_UPDATED:
+                eventTypeSubscriptions = getTypeSubscriptions(taskEvent.getType());
 
-                default:
-                    break;
-            }
+                if (taskEvent.getRetries() > 0 && isTracked(eventTypeSubscriptions, eventPosition))
+                {
+                    if (eventTypeSubscriptions.hasCredits() && !eventTypeSubscriptions.hasPendingTasks())
+                    {
+                        eventProcessor = this;
+                    }
+                    else
+                    {
+                        eventProcessor = pendingTaskEventProcessor;
+                    }
+                }
+                break;
+
+            case LOCKED:
+            case CANCELED:
+                eventTypeSubscriptions = getTypeSubscriptions(taskEvent.getType());
+
+                if (isTracked(eventTypeSubscriptions, eventPosition) && eventTypeSubscriptions.hasPendingTasks())
+                {
+                    eventProcessor = unlockableTaskEventProcessor;
+                }
+                break;
+
+            default:
+                break;
         }
         return eventProcessor;
     }
@@ -271,23 +395,36 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
     {
         hasLockedTask = false;
 
-        if (taskEvent.getRetries() > 0)
+        lockSubscription = eventTypeSubscriptions.getNextAvailableSubscription();
+        if (lockSubscription != null)
         {
-            lockSubscription = getNextAvailableSubscription();
-            if (lockSubscription != null)
-            {
-                final long lockTimeout = ClockUtil.getCurrentTimeInMillis() + lockSubscription.getLockDuration();
-
-                taskEvent
-                    .setState(TaskState.LOCK)
-                    .setLockTime(lockTimeout)
-                    .setLockOwner(lockSubscription.getLockOwner());
+            setLocked(taskEvent, lockSubscription);
 
-                hasLockedTask = true;
-            }
+            hasLockedTask = true;
         }
     }
 
+    protected void setLocked(TaskEvent event, TaskSubscription subscription)
+    {
+        final long lockTimeout = ClockUtil.getCurrentTimeInMillis() + subscription.getLockDuration();
+
+        event
+            .setState(TaskState.LOCK)
+            .setLockTime(lockTimeout)
+            .setLockOwner(subscription.getLockOwner());
+    }
+
+    protected void setLockMetadata(TaskSubscription subscription)
+    {
+        targetEventMetadata.reset();
+
+        targetEventMetadata
+            .requestStreamId(subscription.getStreamId())
+            .subscriberKey(subscription.getSubscriberKey())
+            .protocolVersion(Protocol.PROTOCOL_VERSION)
+            .eventType(TASK_EVENT);
+    }
+
     @Override
     public long writeEvent(LogStreamWriter writer)
     {
@@ -295,13 +432,7 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
 
         if (hasLockedTask)
         {
-            targetEventMetadata.reset();
-
-            targetEventMetadata
-                .requestStreamId(lockSubscription.getStreamId())
-                .subscriberKey(lockSubscription.getSubscriberKey())
-                .protocolVersion(Protocol.PROTOCOL_VERSION)
-                .eventType(TASK_EVENT);
+            setLockMetadata(lockSubscription);
 
             position = writer.key(eventKey)
                     .metadataWriter(targetEventMetadata)
@@ -316,11 +447,236 @@ public class LockTaskStreamProcessor implements StreamProcessor, EventProcessor
     {
         if (hasLockedTask)
         {
-            subscriptions.addCredits(lockSubscription.getSubscriberKey(), -1);
+            eventTypeSubscriptions.addCredits(lockSubscription.getSubscriberKey(), -1);
+        }
+        else
+        {
+            // no subscription with credits - lock the task later
+            eventTypeSubscriptions.addPendingTask(eventKey, eventPosition);
+        }
+    }
+
+    class PendingTaskEventProcessor implements EventProcessor
+    {
+        @Override
+        public void processEvent()
+        {
+            // just add the task to the pending ones
+        }
+
+        @Override
+        public void updateState()
+        {
+            eventTypeSubscriptions.addPendingTask(eventKey, eventPosition);
+
+            scheduleLockPendingTasks(eventTypeSubscriptions);
+        }
+    }
+
+    class UnlockableTaskEventProcessor implements EventProcessor
+    {
+        @Override
+        public void processEvent()
+        {
+            // just remove the task from the pending ones
+        }
+
+        @Override
+        public void updateState()
+        {
+            eventTypeSubscriptions.removePendingTask(eventKey);
+        }
+    }
+
+    /**
+     * Locks the pending tasks of all task types which have subscriptions with credits.
+     * Reschedules itself if the log stream writer is back-pressured.
+     */
+    class LockPendingTasksCmd implements Runnable
+    {
+        protected final TaskEvent pendingTaskEvent = new TaskEvent();
+
+        @Override
+        public void run()
+        {
+            isLockPendingTasksScheduled = false;
+
+            boolean isBackpressured = false;
+
+            final Iterator<TaskTypeSubscriptions> iterator = subscriptionsByTaskType.values().iterator();
+            while (iterator.hasNext() && !isBackpressured)
+            {
+                final TaskTypeSubscriptions typeSubscriptions = iterator.next();
+
+                isBackpressured = !lockPendingTasks(typeSubscriptions);
+            }
+
+            if (isBackpressured)
+            {
+                isLockPendingTasksScheduled = true;
+                cmdQueue.runAsync(this);
+            }
+        }
+
+        /**
+         * @return false if a lock event could not be written
+         */
+        protected boolean lockPendingTasks(TaskTypeSubscriptions typeSubscriptions)
+        {
+            while (typeSubscriptions.isScanned() && typeSubscriptions.hasPendingTasks() && typeSubscriptions.hasCredits())
+            {
+                final long taskKey = typeSubscriptions.peekPendingTaskKey();
+                final long taskPosition = typeSubscriptions.getPendingTaskPosition(taskKey);
+                final TaskSubscription subscription = typeSubscriptions.getNextAvailableSubscription();
+
+                final LoggedEvent pendingEvent = findEvent(taskPosition);
+
+                pendingTaskEvent.reset();
+                pendingEvent.readValue(pendingTaskEvent);
+
+                setLocked(pendingTaskEvent, subscription);
+                setLockMetadata(subscription);
+
+                final long position = logStreamWriter
+                        .producerId(streamProcessorId)
+                        .sourceEvent(logStreamPartitionId, taskPosition)
+                        .key(taskKey)
+                        .metadataWriter(targetEventMetadata)
+                        .valueWriter(pendingTaskEvent)
+                        .tryWrite();
+
+                if (position >= 0)
+                {
+                    typeSubscriptions.removePendingTask(taskKey);
+                    typeSubscriptions.addCredits(subscription.getSubscriberKey(), -1);
+                }
+                else
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        protected LoggedEvent findEvent(long position)
+        {
+            final boolean found = logStreamReader.seek(position);
+
+            if (found && logStreamReader.hasNext())
+            {
+                return logStreamReader.next();
+            }
+            else
+            {
+                throw new IllegalStateException("Failed to lock pending task. Indexed task event not found in log stream.");
+            }
+        }
+    }
+
+    /**
+     * Collects the pending tasks of a task type which got its first subscription by reading the
+     * log from the beginning. Reads a limited number of events per run and reschedules itself, so
+     * that the processing of the other task types is not blocked. The pending tasks of the type
+     * are locked when the scan reached the end of the log.
+     */
+    class ScanPendingTasksCmd implements Runnable
+    {
+        protected final BrokerEventMetadata scanEventMetadata = new BrokerEventMetadata();
+        protected final TaskEvent scanTaskEvent = new TaskEvent();
+
+        @Override
+        public void run()
+        {
+            isScanPendingTasksScheduled = false;
 
-            if (subscriptions.getTotalCredits() <= 0)
+            final TaskTypeSubscriptions typeSubscriptions = findTypeSubscriptionsToScan();
+            if (typeSubscriptions == null)
             {
-                isSuspended = true;
+                return;
+            }
+
+            seekToScanPosition(typeSubscriptions);
+
+            int scannedEvents = 0;
+            while (scannedEvents < SCAN_BATCH_SIZE && logStreamReader.hasNext())
+            {
+                final LoggedEvent event = logStreamReader.next();
+
+                scanEvent(typeSubscriptions, event);
+                typeSubscriptions.setScanPosition(event.getPosition());
+
+                scannedEvents += 1;
+            }
+
+            if (scannedEvents < SCAN_BATCH_SIZE)
+            {
+                typeSubscriptions.setScanned();
+
+                scheduleLockPendingTasks(typeSubscriptions);
+            }
+
+            // continue the scan or scan the next task type
+            scheduleScanPendingTasks();
+        }
+
+        protected void seekToScanPosition(TaskTypeSubscriptions typeSubscriptions)
+        {
+            final long scanPosition = typeSubscriptions.getScanPosition();
+
+            if (scanPosition == TaskTypeSubscriptions.NO_POSITION)
+            {
+                logStreamReader.seekToFirstEvent();
+            }
+            else if (logStreamReader.seek(scanPosition) && logStreamReader.hasNext())
+            {
+                // skip the event which is already scanned
+                logStreamReader.next();
+            }
+            else
+            {
+                throw new IllegalStateException("Failed to scan pending tasks. Scanned task event not found in log stream.");
+            }
+        }
+
+        protected void scanEvent(TaskTypeSubscriptions typeSubscriptions, LoggedEvent event)
+        {
+            scanEventMetadata.reset();
+            event.readMetadata(scanEventMetadata);
+
+            if (scanEventMetadata.getEventType() != TASK_EVENT)
+            {
+                return;
+            }
+
+            scanTaskEvent.reset();
+            event.readValue(scanTaskEvent);
+
+            if (!BufferUtil.equals(scanTaskEvent.getType(), typeSubscriptions.getTaskType()))
+            {
+                return;
+            }
+
+            switch (scanTaskEvent.getState())
+            {
+                case CREATED:
+                case LOCK_EXPIRED:
+                case FAILED:
+                case RETRIES_UPDATED:
+                    if (scanTaskEvent.getRetries() > 0)
+                    {
+                        typeSubscriptions.addPendingTask(event.getKey(), event.getPosition());
+                    }
+                    break;
+
+                case LOCK:
+                case LOCKED:
+                case CANCELED:
+                    typeSubscriptions.removePendingTask(event.getKey());
+                    break;
+
+                default:
+                    break;
             }
         }
     }
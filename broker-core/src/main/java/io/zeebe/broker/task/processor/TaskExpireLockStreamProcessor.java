@@ -20,11 +20,14 @@ package io.zeebe.broker.task.processor;
 import static io.zeebe.protocol.clientapi.EventType.TASK_EVENT;
 import static org.agrona.BitUtil.SIZE_OF_LONG;
 
-import java.util.Iterator;
-
+import io.zeebe.broker.logstreams.processor.EventStateFilter;
+import io.zeebe.broker.logstreams.processor.EventValueFilter;
 import io.zeebe.broker.logstreams.processor.MetadataFilter;
 import io.zeebe.broker.task.data.TaskEvent;
 import io.zeebe.broker.task.data.TaskState;
+import io.zeebe.broker.task.map.LockExpirationQueue;
+import io.zeebe.broker.util.MsgPackProjection;
+import io.zeebe.broker.util.MsgPackProjection.EnumLookup;
 import io.zeebe.logstreams.log.LogStream;
 import io.zeebe.logstreams.log.LogStreamReader;
 import io.zeebe.logstreams.log.LogStreamWriter;
@@ -32,23 +35,25 @@ import io.zeebe.logstreams.log.LoggedEvent;
 import io.zeebe.logstreams.processor.EventProcessor;
 import io.zeebe.logstreams.processor.StreamProcessor;
 import io.zeebe.logstreams.processor.StreamProcessorContext;
+import io.zeebe.logstreams.snapshot.ComposedSnapshot;
 import io.zeebe.logstreams.snapshot.ZbMapSnapshotSupport;
 import io.zeebe.logstreams.spi.SnapshotSupport;
 import io.zeebe.map.Long2BytesZbMap;
-import io.zeebe.map.iterator.Long2BytesZbMapEntry;
 import io.zeebe.protocol.Protocol;
 import io.zeebe.protocol.clientapi.EventType;
 import io.zeebe.protocol.impl.BrokerEventMetadata;
 import io.zeebe.util.DeferredCommandContext;
 import io.zeebe.util.time.ClockUtil;
 import org.agrona.DirectBuffer;
-import org.agrona.ExpandableArrayBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 
 public class TaskExpireLockStreamProcessor implements StreamProcessor
 {
     protected static final int MAP_VALUE_MAX_LENGTH = SIZE_OF_LONG + SIZE_OF_LONG;
 
+    protected static final int STATE_PROPERTY = 0;
+    protected static final int LOCK_TIME_PROPERTY = 1;
+
     protected final EventProcessor lockedEventProcessor = new LockedEventProcessor();
     protected final EventProcessor unlockEventProcessor = new UnlockEventProcessor();
     protected final EventProcessor expireLockEventProcessor = new ExpireLockEventProcessor();
@@ -58,6 +63,12 @@ public class TaskExpireLockStreamProcessor implements StreamProcessor
     protected Long2BytesZbMap expirationMap = new Long2BytesZbMap(MAP_VALUE_MAX_LENGTH);
     protected ZbMapSnapshotSupport<Long2BytesZbMap> mapSnapshotSupport = new ZbMapSnapshotSupport<>(expirationMap);
 
+    /**
+     * task keys ordered by lock time, so that a check only touches the expired locks
+     */
+    protected final LockExpirationQueue expirationQueue = new LockExpirationQueue();
+    protected final SnapshotSupport snapshotSupport = new ComposedSnapshot(mapSnapshotSupport, expirationQueue);
+
     protected DeferredCommandContext cmdQueue;
 
     protected LogStreamReader logStreamReader;
@@ -69,15 +80,18 @@ public class TaskExpireLockStreamProcessor implements StreamProcessor
 
     protected final BrokerEventMetadata targetEventMetadata = new BrokerEventMetadata();
     protected final TaskEvent taskEvent = new TaskEvent();
+    protected final MsgPackProjection taskEventProjection = new MsgPackProjection("state", "lockTime");
+    protected final EnumLookup<TaskState> taskStates = new EnumLookup<>(TaskState.class);
     protected long eventKey = 0;
     protected long eventPosition = 0;
+    protected long lockTime = 0;
 
     protected long lastWrittenEventPosition = 0;
 
     @Override
     public SnapshotSupport getStateResource()
     {
-        return mapSnapshotSupport;
+        return snapshotSupport;
     }
 
     @Override
@@ -106,18 +120,40 @@ public class TaskExpireLockStreamProcessor implements StreamProcessor
         return (m) -> m.getEventType() == EventType.TASK_EVENT;
     }
 
+    /**
+     * @return a filter which accepts the task events that are handled by this processor
+     */
+    public static EventValueFilter stateFilter()
+    {
+        return new EventStateFilter()
+            .accept(EventType.TASK_EVENT,
+                    TaskState.LOCKED,
+                    TaskState.EXPIRE_LOCK,
+                    TaskState.LOCK_EXPIRED,
+                    TaskState.COMPLETED,
+                    TaskState.FAILED);
+    }
+
     @Override
     public EventProcessor onEvent(LoggedEvent event)
     {
         eventKey = event.getKey();
         eventPosition = event.getPosition();
 
-        taskEvent.reset();
-        event.readValue(taskEvent);
+        // the processor only needs the state and the lock time, not the payload
+        event.readValue(taskEventProjection);
+
+        final TaskState state = taskEventProjection.getEnum(STATE_PROPERTY, taskStates);
+        lockTime = taskEventProjection.getLong(LOCK_TIME_PROPERTY, Protocol.INSTANT_NULL_VALUE);
+
+        if (state == null)
+        {
+            return null;
+        }
 
         EventProcessor eventProcessor = null;
 
-        switch (taskEvent.getState())
+        switch (state)
         {
             case LOCKED:
                 eventProcessor = lockedEventProcessor;
@@ -151,9 +187,10 @@ public class TaskExpireLockStreamProcessor implements StreamProcessor
         public void updateState()
         {
             buffer.putLong(0, eventPosition);
-            buffer.putLong(SIZE_OF_LONG, taskEvent.getLockTime());
+            buffer.putLong(SIZE_OF_LONG, lockTime);
 
             expirationMap.put(eventKey, buffer);
+            expirationQueue.add(eventKey, lockTime);
         }
 
     }
@@ -170,6 +207,7 @@ public class TaskExpireLockStreamProcessor implements StreamProcessor
         @Override
         public void updateState()
         {
+            // the entry of the expiration queue is skipped when it is polled
             expirationMap.remove(eventKey);
         }
 
@@ -201,53 +239,49 @@ public class TaskExpireLockStreamProcessor implements StreamProcessor
     class CheckLockExpirationCmd implements Runnable
     {
         private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
-        private final ExpandableArrayBuffer toRemoveEntries = new ExpandableArrayBuffer(1024 * SIZE_OF_LONG);
-
-        private int entryIndex = 0;
 
         @Override
         public void run()
         {
-            final Iterator<Long2BytesZbMapEntry> iterator = expirationMap.iterator();
+            boolean isBackpressured = false;
 
-            while (iterator.hasNext())
+            while (!expirationQueue.isEmpty() && lockExpired(expirationQueue.peekLockTime()) && !isBackpressured)
             {
-                final Long2BytesZbMapEntry entry = iterator.next();
+                final long eventKey = expirationQueue.peekKey();
+                final long lockTime = expirationQueue.peekLockTime();
 
-                final long eventKey = entry.getKey();
-                final DirectBuffer value = entry.getValue();
-                buffer.wrap(value);
+                final DirectBuffer value = expirationMap.get(eventKey);
+                if (value != null)
+                {
+                    buffer.wrap(value);
 
-                final long eventPosition = buffer.getLong(0);
-                final long lockExpirationTime = buffer.getLong(SIZE_OF_LONG);
+                    final long eventPosition = buffer.getLong(0);
+                    final long lockExpirationTime = buffer.getLong(SIZE_OF_LONG);
 
-                if (lockExpired(lockExpirationTime))
-                {
-                    final LoggedEvent taskLockedEvent = findEvent(eventPosition);
-                    final long position = writeLockExpireEvent(eventKey, taskLockedEvent);
-                    final boolean successfulWritten = position >= 0;
-                    if (successfulWritten)
+                    // otherwise, the task is unlocked or locked again in the meantime
+                    if (lockExpirationTime == lockTime)
                     {
-                        lastWrittenEventPosition = position;
-                        // add to remove entries
-                        toRemoveEntries.putLong(entryIndex * SIZE_OF_LONG, eventKey);
-                        entryIndex++;
+                        final LoggedEvent taskLockedEvent = findEvent(eventPosition);
+                        final long position = writeLockExpireEvent(eventKey, taskLockedEvent);
+                        final boolean successfulWritten = position >= 0;
+                        if (successfulWritten)
+                        {
+                            lastWrittenEventPosition = position;
+                            expirationMap.remove(eventKey);
+                        }
+                        else
+                        {
+                            // retry on next check
+                            isBackpressured = true;
+                        }
                     }
                 }
-            }
 
-            // iterate over the entries which should be removed
-            for (int i = 0; i < entryIndex; i++)
-            {
-                final long eventKey = toRemoveEntries.getLong(i * SIZE_OF_LONG);
-                if (eventKey > 0)
+                if (!isBackpressured)
                 {
-                    expirationMap.remove(eventKey);
+                    expirationQueue.poll();
                 }
             }
-
-            // reset
-            entryIndex = 0;
         }
 
         protected boolean lockExpired(long lockExpirationTime)
@@ -26,12 +26,15 @@ import org.agrona.DirectBuffer;
 
 import io.zeebe.protocol.impl.BrokerEventMetadata;
 import io.zeebe.broker.logstreams.processor.MetadataFilter;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
 import io.zeebe.broker.task.CreditsRequest;
 import io.zeebe.broker.task.TaskSubscriptionManager;
 import io.zeebe.broker.task.data.TaskEvent;
 import io.zeebe.broker.task.data.TaskState;
 import io.zeebe.broker.task.map.TaskInstanceMap;
+import io.zeebe.broker.transport.clientapi.BatchResponseSender;
 import io.zeebe.broker.transport.clientapi.CommandResponseWriter;
+import io.zeebe.broker.transport.clientapi.PendingBatchRequests;
 import io.zeebe.broker.transport.clientapi.SubscribedEventWriter;
 import io.zeebe.logstreams.log.LogStream;
 import io.zeebe.logstreams.log.LogStreamWriter;
@@ -56,6 +59,7 @@ public class TaskInstanceStreamProcessor implements StreamProcessor
     protected final BrokerEventMetadata targetEventMetadata = new BrokerEventMetadata();
 
     protected final CommandResponseWriter responseWriter;
+    protected final BatchResponseSender batchResponseSender;
     protected final SubscribedEventWriter subscribedEventWriter;
     protected final TaskSubscriptionManager taskSubscriptionManager;
 
@@ -81,12 +85,32 @@ public class TaskInstanceStreamProcessor implements StreamProcessor
     protected long eventPosition = 0;
 
     public TaskInstanceStreamProcessor(CommandResponseWriter responseWriter, SubscribedEventWriter subscribedEventWriter, TaskSubscriptionManager taskSubscriptionManager)
+    {
+        this(responseWriter, subscribedEventWriter, taskSubscriptionManager, StateStoreFactory.inMemory());
+    }
+
+    public TaskInstanceStreamProcessor(
+            CommandResponseWriter responseWriter,
+            SubscribedEventWriter subscribedEventWriter,
+            TaskSubscriptionManager taskSubscriptionManager,
+            StateStoreFactory stateStoreFactory)
+    {
+        this(responseWriter, subscribedEventWriter, taskSubscriptionManager, stateStoreFactory, new PendingBatchRequests());
+    }
+
+    public TaskInstanceStreamProcessor(
+            CommandResponseWriter responseWriter,
+            SubscribedEventWriter subscribedEventWriter,
+            TaskSubscriptionManager taskSubscriptionManager,
+            StateStoreFactory stateStoreFactory,
+            PendingBatchRequests pendingBatchRequests)
     {
         this.responseWriter = responseWriter;
+        this.batchResponseSender = new BatchResponseSender(responseWriter, pendingBatchRequests);
         this.subscribedEventWriter = subscribedEventWriter;
         this.taskSubscriptionManager = taskSubscriptionManager;
 
-        this.taskIndex = new TaskInstanceMap();
+        this.taskIndex = new TaskInstanceMap(stateStoreFactory);
     }
 
     @Override
@@ -176,6 +200,11 @@ public class TaskInstanceStreamProcessor implements StreamProcessor
 
     protected boolean writeResponse()
     {
+        if (batchResponseSender.isBatchCommand(sourceEventMetadata))
+        {
+            return batchResponseSender.onCommandProcessed(logStreamPartitionId, sourceEventMetadata, eventPosition, eventKey, taskEvent.getState().name());
+        }
+
         return responseWriter
             .partitionId(logStreamPartitionId)
             .position(eventPosition)
@@ -0,0 +1,246 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.task.processor;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Long2LongHashMap;
+
+import io.zeebe.broker.task.processor.TaskSubscriptions.SubscriptionIterator;
+
+/**
+ * The subscriptions of one task type on a partition, together with the tasks of this type
+ * which could not be locked yet because no subscription had credits when the task event was read.
+ * Pending tasks are kept in FIFO order and referenced by their log position, so that they can be
+ * locked later without reading the log from the beginning.
+ *
+ * <p>Pending tasks are only tracked while the type has subscriptions. The tasks which are created
+ * before the first subscription are collected by reading the log up to the scan position; the task
+ * events until this position are ignored by the processor.
+ */
+public class TaskTypeSubscriptions
+{
+    protected static final long NO_POSITION = -1L;
+
+    protected final DirectBuffer taskType;
+
+    protected final TaskSubscriptions subscriptions = new TaskSubscriptions(8);
+    protected final SubscriptionIterator distributionIterator = subscriptions.iterator();
+
+    /**
+     * task key -> position of the latest lockable task event
+     */
+    protected final Long2LongHashMap pendingTaskPositions = new Long2LongHashMap(NO_POSITION);
+
+    /*
+     * FIFO of pending task keys; a key may be contained more than once or may already be removed from
+     * the position index - such entries are skipped on poll
+     */
+    protected long[] pendingTaskKeys = new long[16];
+    protected int pendingHead = 0;
+    protected int pendingTail = 0;
+
+    /**
+     * position of the last task event which is read by the scan
+     */
+    protected long scanPosition = NO_POSITION;
+    protected boolean isScanned = false;
+
+    public TaskTypeSubscriptions(DirectBuffer taskType)
+    {
+        this.taskType = taskType;
+    }
+
+    public DirectBuffer getTaskType()
+    {
+        return taskType;
+    }
+
+    public void addSubscription(TaskSubscription subscription)
+    {
+        subscriptions.addSubscription(subscription);
+    }
+
+    public void removeSubscription(long subscriberKey)
+    {
+        subscriptions.removeSubscription(subscriberKey);
+    }
+
+    public void addCredits(long subscriberKey, int credits)
+    {
+        subscriptions.addCredits(subscriberKey, credits);
+    }
+
+    public boolean hasSubscriptions()
+    {
+        return !subscriptions.isEmpty();
+    }
+
+    public boolean hasCredits()
+    {
+        return subscriptions.getTotalCredits() > 0;
+    }
+
+    public SubscriptionIterator managementIterator()
+    {
+        return subscriptions.iterator();
+    }
+
+    public TaskSubscription getNextAvailableSubscription()
+    {
+        TaskSubscription nextSubscription = null;
+
+        if (subscriptions.getTotalCredits() > 0)
+        {
+            final int subscriptionSize = subscriptions.size();
+            int seenSubscriptions = 0;
+
+            while (seenSubscriptions < subscriptionSize && nextSubscription == null)
+            {
+                if (!distributionIterator.hasNext())
+                {
+                    distributionIterator.reset();
+                }
+
+                final TaskSubscription subscription = distributionIterator.next();
+                if (subscription.getCredits() > 0)
+                {
+                    nextSubscription = subscription;
+                }
+
+                seenSubscriptions += 1;
+            }
+        }
+        return nextSubscription;
+    }
+
+    public boolean isScanned()
+    {
+        return isScanned;
+    }
+
+    public void setScanned()
+    {
+        this.isScanned = true;
+    }
+
+    public long getScanPosition()
+    {
+        return scanPosition;
+    }
+
+    public void setScanPosition(long scanPosition)
+    {
+        this.scanPosition = scanPosition;
+    }
+
+    /**
+     * @return true if the event is read by the scan, i.e. it is already applied to the pending tasks
+     */
+    public boolean isReadByScan(long position)
+    {
+        return position <= scanPosition;
+    }
+
+    public boolean hasPendingTasks()
+    {
+        return !pendingTaskPositions.isEmpty();
+    }
+
+    public int pendingTaskCount()
+    {
+        return pendingTaskPositions.size();
+    }
+
+    public void addPendingTask(long taskKey, long position)
+    {
+        final long previousPosition = pendingTaskPositions.put(taskKey, position);
+
+        if (previousPosition == NO_POSITION)
+        {
+            if (pendingTail == pendingTaskKeys.length)
+            {
+                compactOrGrow();
+            }
+
+            pendingTaskKeys[pendingTail] = taskKey;
+            pendingTail += 1;
+        }
+    }
+
+    public void removePendingTask(long taskKey)
+    {
+        pendingTaskPositions.remove(taskKey);
+
+        if (pendingTaskPositions.isEmpty())
+        {
+            pendingHead = 0;
+            pendingTail = 0;
+        }
+    }
+
+    /**
+     * @return the key of the oldest pending task or -1 if there is no pending task
+     */
+    public long peekPendingTaskKey()
+    {
+        while (pendingHead < pendingTail)
+        {
+            final long taskKey = pendingTaskKeys[pendingHead];
+
+            if (pendingTaskPositions.get(taskKey) != NO_POSITION)
+            {
+                return taskKey;
+            }
+            else
+            {
+                // removed in the meantime
+                pendingHead += 1;
+            }
+        }
+
+        pendingHead = 0;
+        pendingTail = 0;
+
+        return -1L;
+    }
+
+    public long getPendingTaskPosition(long taskKey)
+    {
+        return pendingTaskPositions.get(taskKey);
+    }
+
+    protected void compactOrGrow()
+    {
+        final int size = pendingTail - pendingHead;
+
+        if (size <= pendingTaskKeys.length / 2)
+        {
+            System.arraycopy(pendingTaskKeys, pendingHead, pendingTaskKeys, 0, size);
+        }
+        else
+        {
+            final long[] newPendingTaskKeys = new long[pendingTaskKeys.length * 2];
+            System.arraycopy(pendingTaskKeys, pendingHead, newPendingTaskKeys, 0, size);
+            pendingTaskKeys = newPendingTaskKeys;
+        }
+
+        pendingHead = 0;
+        pendingTail = size;
+    }
+
+}
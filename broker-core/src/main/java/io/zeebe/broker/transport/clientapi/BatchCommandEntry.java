@@ -0,0 +1,52 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.transport.clientapi;
+
+import org.agrona.DirectBuffer;
+
+import io.zeebe.msgpack.UnpackedObject;
+import io.zeebe.msgpack.property.LongProperty;
+import io.zeebe.msgpack.property.PackedProperty;
+
+/**
+ * One command of a batch request. The command is kept as packed msgpack, so
+ * that it can be appended to the log without re-encoding.
+ */
+public class BatchCommandEntry extends UnpackedObject
+{
+    public static final long NO_KEY = -1L;
+
+    private final LongProperty keyProp = new LongProperty("key", NO_KEY);
+    private final PackedProperty commandProp = new PackedProperty("command");
+
+    public BatchCommandEntry()
+    {
+        this.declareProperty(keyProp)
+            .declareProperty(commandProp);
+    }
+
+    public long getKey()
+    {
+        return keyProp.getValue();
+    }
+
+    public DirectBuffer getCommand()
+    {
+        return commandProp.getValue();
+    }
+}
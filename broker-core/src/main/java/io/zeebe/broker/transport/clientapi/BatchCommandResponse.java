@@ -0,0 +1,90 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.transport.clientapi;
+
+import org.agrona.DirectBuffer;
+
+import io.zeebe.msgpack.UnpackedObject;
+import io.zeebe.msgpack.property.ArrayProperty;
+import io.zeebe.msgpack.property.LongProperty;
+import io.zeebe.msgpack.property.StringProperty;
+import io.zeebe.msgpack.value.ValueArray;
+
+/**
+ * Response to a batch request which is sent when all commands of the batch
+ * are processed. Contains one result per command, in the order of the
+ * request.
+ */
+public class BatchCommandResponse extends UnpackedObject
+{
+    public static final String STATE_PROCESSED = "PROCESSED";
+
+    private final StringProperty stateProp = new StringProperty("state", STATE_PROCESSED);
+    private final ArrayProperty<Result> resultsProp = new ArrayProperty<>("results", new Result());
+
+    public BatchCommandResponse()
+    {
+        this.declareProperty(stateProp)
+            .declareProperty(resultsProp);
+    }
+
+    public ValueArray<Result> results()
+    {
+        return resultsProp;
+    }
+
+    public static class Result extends UnpackedObject
+    {
+        private final LongProperty keyProp = new LongProperty("key", BatchCommandEntry.NO_KEY);
+        private final StringProperty stateProp = new StringProperty("state");
+
+        public Result()
+        {
+            this.declareProperty(keyProp)
+                .declareProperty(stateProp);
+        }
+
+        public long getKey()
+        {
+            return keyProp.getValue();
+        }
+
+        public Result setKey(long key)
+        {
+            this.keyProp.setValue(key);
+            return this;
+        }
+
+        public DirectBuffer getState()
+        {
+            return stateProp.getValue();
+        }
+
+        /**
+         * @param state
+         *            the state of the event which is written as result of the
+         *            command, e.g. <code>COMPLETED</code> or
+         *            <code>COMPLETE_REJECTED</code>
+         */
+        public Result setState(String state)
+        {
+            this.stateProp.setValue(state);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.transport.clientapi;
+
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+
+/**
+ * Used by the stream processors to answer the commands of a batch request,
+ * see {@link PendingBatchRequests}.
+ */
+public class BatchResponseSender
+{
+    private final BatchCommandResponse response = new BatchCommandResponse();
+
+    private final CommandResponseWriter responseWriter;
+    private final PendingBatchRequests pendingRequests;
+
+    public BatchResponseSender(CommandResponseWriter responseWriter, PendingBatchRequests pendingRequests)
+    {
+        this.responseWriter = responseWriter;
+        this.pendingRequests = pendingRequests;
+    }
+
+    /**
+     * @return <code>true</code> if the command is part of a batch request
+     *         which is not answered yet
+     */
+    public boolean isBatchCommand(BrokerEventMetadata commandMetadata)
+    {
+        return commandMetadata.hasRequestMetadata() &&
+                pendingRequests.isBatchRequest(commandMetadata.getRequestStreamId(), commandMetadata.getRequestId());
+    }
+
+    /**
+     * Records the result of the command and answers the batch request if it
+     * is the last command of the batch.
+     *
+     * @return <code>false</code> if the response could not be written, so that
+     *         the processor retries it. The batch is kept until the response
+     *         is written.
+     */
+    public boolean onCommandProcessed(int partitionId, BrokerEventMetadata commandMetadata, long commandPosition, long key, String state)
+    {
+        final int requestStreamId = commandMetadata.getRequestStreamId();
+        final long requestId = commandMetadata.getRequestId();
+
+        final boolean isComplete = pendingRequests.onCommandProcessed(requestStreamId, requestId, commandPosition, key, state, response);
+
+        boolean success = true;
+
+        if (isComplete)
+        {
+            success = responseWriter
+                .partitionId(partitionId)
+                .position(commandPosition)
+                .eventWriter(response)
+                .tryWriteResponse(requestStreamId, requestId);
+
+            if (success)
+            {
+                pendingRequests.remove(requestStreamId, requestId);
+            }
+        }
+
+        return success;
+    }
+}
@@ -35,9 +35,15 @@ import io.zeebe.broker.workflow.data.WorkflowInstanceEvent;
 import io.zeebe.dispatcher.ClaimedFragment;
 import io.zeebe.dispatcher.Dispatcher;
 import io.zeebe.logstreams.log.LogStream;
+import io.zeebe.logstreams.log.LogStreamBatchWriter;
+import io.zeebe.logstreams.log.LogStreamBatchWriter.LogEntryBuilder;
+import io.zeebe.logstreams.log.LogStreamBatchWriterImpl;
 import io.zeebe.logstreams.log.LogStreamWriter;
 import io.zeebe.logstreams.log.LogStreamWriterImpl;
 import io.zeebe.msgpack.UnpackedObject;
+import io.zeebe.msgpack.spec.MsgPackFormat;
+import io.zeebe.msgpack.spec.MsgPackReader;
+import io.zeebe.msgpack.spec.MsgPackType;
 import io.zeebe.protocol.Protocol;
 import io.zeebe.protocol.clientapi.ControlMessageRequestDecoder;
 import io.zeebe.protocol.clientapi.ErrorCode;
@@ -53,6 +59,11 @@ import io.zeebe.transport.ServerRequestHandler;
 
 public class ClientApiMessageHandler implements ServerMessageHandler, ServerRequestHandler
 {
+    /**
+     * upper bound of the length of the log entry header, the frame header and
+     * the alignment of a command in a batch
+     */
+    private static final int BATCH_ENTRY_OVERHEAD = 128;
 
     protected final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     protected final ExecuteCommandRequestDecoder executeCommandRequestDecoder = new ExecuteCommandRequestDecoder();
@@ -65,6 +76,12 @@ public class ClientApiMessageHandler implements ServerMessageHandler, ServerRequ
     protected final BrokerEventMetadata eventMetadata = new BrokerEventMetadata();
     protected final LogStreamWriter logStreamWriter = new LogStreamWriterImpl();
 
+    protected final Int2ObjectHashMap<LogStreamBatchWriter> batchWriters = new Int2ObjectHashMap<>();
+    protected final BrokerEventMetadata batchEventMetadata = new BrokerEventMetadata();
+    protected final BatchCommandEntry batchEntry = new BatchCommandEntry();
+    protected final PendingBatchRequests pendingBatchRequests = new PendingBatchRequests();
+    protected final MsgPackReader batchReader = new MsgPackReader();
+
     protected final ErrorResponseWriter errorResponseWriter = new ErrorResponseWriter();
     protected final Dispatcher controlMessageDispatcher;
     protected final ClaimedFragment claimedControlMessageFragment = new ClaimedFragment();
@@ -128,6 +145,23 @@ public class ClientApiMessageHandler implements ServerMessageHandler, ServerRequ
         final int eventOffset = executeCommandRequestDecoder.limit() + ExecuteCommandRequestDecoder.commandHeaderLength();
         final int eventLength = executeCommandRequestDecoder.commandLength();
 
+        if (isBatch(buffer, eventOffset, eventLength))
+        {
+            return handleBatchCommandRequest(
+                    output,
+                    requestAddress,
+                    requestId,
+                    eventMetadata,
+                    logStream,
+                    eventType,
+                    event,
+                    buffer,
+                    messageOffset,
+                    messageLength,
+                    eventOffset,
+                    eventLength);
+        }
+
         event.reset();
 
         try
@@ -165,6 +199,152 @@ public class ClientApiMessageHandler implements ServerMessageHandler, ServerRequ
         return eventPosition >= 0;
     }
 
+    private boolean isBatch(final DirectBuffer buffer, final int eventOffset, final int eventLength)
+    {
+        return eventLength > 0 && MsgPackFormat.valueOf(buffer.getByte(eventOffset)).getType() == MsgPackType.ARRAY;
+    }
+
+    /**
+     * A batch is a command request whose command is an array of entries,
+     * each with the key and the command (see {@link BatchCommandEntry}). All
+     * commands must have the event type of the request. They are validated
+     * first and then written to the log in one append, so that either all or
+     * none of them are written. The commands carry the request metadata of
+     * the batch and the processors record their results, so that the batch is
+     * answered by a single response when all commands are processed (see
+     * {@link PendingBatchRequests}). A batch which exceeds the maximum frame
+     * length of the log is rejected.
+     */
+    private boolean handleBatchCommandRequest(
+            final ServerOutput output,
+            final RemoteAddress requestAddress,
+            final long requestId,
+            final BrokerEventMetadata eventMetadata,
+            final LogStream logStream,
+            final EventType eventType,
+            final UnpackedObject event,
+            final DirectBuffer buffer,
+            final int messageOffset,
+            final int messageLength,
+            final int eventOffset,
+            final int eventLength)
+    {
+        if (eventType != EventType.TASK_EVENT && eventType != EventType.WORKFLOW_INSTANCE_EVENT)
+        {
+            return errorResponseWriter
+                    .errorCode(ErrorCode.MESSAGE_NOT_SUPPORTED)
+                    .errorMessage("Cannot execute batch. Batches of event type '%s' are not supported.", eventType.name())
+                    .failedRequest(buffer, messageOffset, messageLength)
+                    .tryWriteResponseOrLogFailure(output, requestAddress.getStreamId(), requestId);
+        }
+
+        batchEventMetadata.reset();
+        batchEventMetadata
+            .requestStreamId(requestAddress.getStreamId())
+            .requestId(requestId)
+            .protocolVersion(eventMetadata.getProtocolVersion())
+            .eventType(eventType);
+
+        int commandCount = 0;
+        long batchLength = 0;
+
+        try
+        {
+            // verify that all commands are valid before anything is written
+            batchReader.wrap(buffer, eventOffset, eventLength);
+            commandCount = batchReader.readArrayHeader();
+
+            for (int i = 0; i < commandCount; i++)
+            {
+                readBatchEntry(buffer);
+
+                final DirectBuffer command = batchEntry.getCommand();
+                batchLength += BATCH_ENTRY_OVERHEAD + batchEventMetadata.getLength() + command.capacity();
+
+                event.reset();
+                event.wrap(command, 0, command.capacity());
+            }
+        }
+        catch (Throwable t)
+        {
+            return errorResponseWriter
+                    .errorCode(ErrorCode.INVALID_MESSAGE)
+                    .errorMessage("Cannot deserialize batch: '%s'.", concatErrorMessages(t))
+                    .failedRequest(buffer, messageOffset, messageLength)
+                    .tryWriteResponseOrLogFailure(output, requestAddress.getStreamId(), requestId);
+        }
+
+        if (commandCount == 0)
+        {
+            return errorResponseWriter
+                    .errorCode(ErrorCode.INVALID_MESSAGE)
+                    .errorMessage("Cannot execute batch. The batch contains no commands.")
+                    .failedRequest(buffer, messageOffset, messageLength)
+                    .tryWriteResponseOrLogFailure(output, requestAddress.getStreamId(), requestId);
+        }
+
+        // a batch which doesn't fit into the log buffer would be retried forever
+        final int maxBatchLength = logStream.getWriteBuffer().getMaxFrameLength();
+        if (batchLength > maxBatchLength)
+        {
+            return errorResponseWriter
+                    .errorCode(ErrorCode.INVALID_MESSAGE)
+                    .errorMessage("Cannot execute batch. The batch of %d commands exceeds the maximum length of %d bytes.", commandCount, maxBatchLength)
+                    .failedRequest(buffer, messageOffset, messageLength)
+                    .tryWriteResponseOrLogFailure(output, requestAddress.getStreamId(), requestId);
+        }
+
+        final LogStreamBatchWriter batchWriter = batchWriters.get(logStream.getPartitionId());
+
+        batchReader.wrap(buffer, eventOffset, eventLength);
+        batchReader.readArrayHeader();
+
+        for (int i = 0; i < commandCount; i++)
+        {
+            readBatchEntry(buffer);
+
+            final long key = batchEntry.getKey();
+            final LogEntryBuilder entryBuilder = batchWriter.event();
+
+            if (key >= 0)
+            {
+                entryBuilder.key(key);
+            }
+            else
+            {
+                entryBuilder.positionAsKey();
+            }
+
+            entryBuilder
+                .metadataWriter(batchEventMetadata)
+                .value(batchEntry.getCommand())
+                .done();
+        }
+
+        // register before writing since the processors may process the commands immediately
+        pendingBatchRequests.register(requestAddress.getStreamId(), requestId, commandCount);
+
+        final long batchPosition = batchWriter.tryWrite();
+
+        if (batchPosition < 0)
+        {
+            pendingBatchRequests.remove(requestAddress.getStreamId(), requestId);
+        }
+
+        // the request is answered by the stream processors when all commands are processed
+        return batchPosition >= 0;
+    }
+
+    private void readBatchEntry(final DirectBuffer buffer)
+    {
+        final int entryOffset = batchReader.getOffset();
+        batchReader.skipValue();
+        final int entryLength = batchReader.getOffset() - entryOffset;
+
+        batchEntry.reset();
+        batchEntry.wrap(buffer, entryOffset, entryLength);
+    }
+
     private String concatErrorMessages(Throwable t)
     {
         final StringBuilder sb = new StringBuilder();
@@ -219,14 +399,27 @@ public class ClientApiMessageHandler implements ServerMessageHandler, ServerRequ
         return isHandled;
     }
 
+    public PendingBatchRequests getPendingBatchRequests()
+    {
+        return pendingBatchRequests;
+    }
+
     public void addStream(final LogStream logStream)
     {
-        cmdQueue.add(() -> logStreams.put(logStream.getPartitionId(), logStream));
+        cmdQueue.add(() ->
+        {
+            logStreams.put(logStream.getPartitionId(), logStream);
+            batchWriters.put(logStream.getPartitionId(), new LogStreamBatchWriterImpl(logStream));
+        });
     }
 
     public void removeStream(final LogStream logStream)
     {
-        cmdQueue.add(() -> logStreams.remove(logStream.getPartitionId()));
+        cmdQueue.add(() ->
+        {
+            logStreams.remove(logStream.getPartitionId());
+            batchWriters.remove(logStream.getPartitionId());
+        });
     }
 
     @Override
@@ -0,0 +1,232 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.transport.clientapi;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import io.zeebe.util.time.ClockUtil;
+
+/**
+ * The batch requests which are written to the log but not answered yet. The
+ * commands of a batch are written with the request metadata of the batch. The
+ * processors record the result of each command and the batch is answered
+ * once the results of all its commands are recorded.
+ *
+ * <p>
+ * A complete batch is kept until its response is written, see
+ * {@link #remove(int, long)}, so that a processor which retries the response
+ * finds the results again.
+ *
+ * <p>
+ * The requests are registered by the client API handler and completed by the
+ * stream processors, so the methods are synchronized.
+ */
+public class PendingBatchRequests
+{
+    /**
+     * requests which are not completed within this time are dropped, e.g. if
+     * a command is not processed by a processor which records its result
+     */
+    public static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(1);
+
+    private final List<PendingBatch> batches = new ArrayList<>();
+
+    /**
+     * to skip the lookup for the (usual) requests which are not a batch
+     */
+    private volatile int batchCount = 0;
+
+    public synchronized void register(int requestStreamId, long requestId, int commandCount)
+    {
+        removeTimedOutRequests();
+
+        final PendingBatch existingBatch = find(requestStreamId, requestId);
+        if (existingBatch != null)
+        {
+            batches.remove(existingBatch);
+        }
+
+        batches.add(new PendingBatch(requestStreamId, requestId, commandCount, ClockUtil.getCurrentTimeInMillis()));
+        batchCount = batches.size();
+    }
+
+    public synchronized void remove(int requestStreamId, long requestId)
+    {
+        final PendingBatch batch = find(requestStreamId, requestId);
+        if (batch != null)
+        {
+            batches.remove(batch);
+            batchCount = batches.size();
+        }
+    }
+
+    public boolean isBatchRequest(int requestStreamId, long requestId)
+    {
+        if (batchCount == 0)
+        {
+            return false;
+        }
+
+        synchronized (this)
+        {
+            return find(requestStreamId, requestId) != null;
+        }
+    }
+
+    /**
+     * Records the result of a command of the batch.
+     *
+     * @param commandPosition
+     *            the position of the command; the results are ordered by it
+     *            since the commands are written in the order of the batch
+     * @param response
+     *            is filled with the results of all commands if this is the
+     *            last result of the batch
+     * @return <code>true</code> if the results of all commands of the batch
+     *         are recorded, <code>false</code> if the batch is not complete
+     *         yet or unknown (e.g. because it timed out)
+     */
+    public synchronized boolean onCommandProcessed(
+            int requestStreamId,
+            long requestId,
+            long commandPosition,
+            long key,
+            String state,
+            BatchCommandResponse response)
+    {
+        final PendingBatch batch = find(requestStreamId, requestId);
+
+        if (batch == null)
+        {
+            return false;
+        }
+
+        batch.addResult(commandPosition, key, state);
+
+        if (batch.isComplete())
+        {
+            batch.writeResults(response);
+            return true;
+        }
+        else
+        {
+            return false;
+        }
+    }
+
+    private PendingBatch find(int requestStreamId, long requestId)
+    {
+        for (int i = 0; i < batches.size(); i++)
+        {
+            final PendingBatch batch = batches.get(i);
+
+            if (batch.requestStreamId == requestStreamId && batch.requestId == requestId)
+            {
+                return batch;
+            }
+        }
+        return null;
+    }
+
+    private void removeTimedOutRequests()
+    {
+        final long timeout = ClockUtil.getCurrentTimeInMillis() - REQUEST_TIMEOUT.toMillis();
+
+        final Iterator<PendingBatch> iterator = batches.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().registrationTime < timeout)
+            {
+                iterator.remove();
+            }
+        }
+
+        batchCount = batches.size();
+    }
+
+    private static class PendingBatch
+    {
+        private final int requestStreamId;
+        private final long requestId;
+        private final long registrationTime;
+
+        private final long[] commandPositions;
+        private final long[] keys;
+        private final String[] states;
+        private int resultCount = 0;
+
+        PendingBatch(int requestStreamId, long requestId, int commandCount, long registrationTime)
+        {
+            this.requestStreamId = requestStreamId;
+            this.requestId = requestId;
+            this.registrationTime = registrationTime;
+
+            this.commandPositions = new long[commandCount];
+            this.keys = new long[commandCount];
+            this.states = new String[commandCount];
+        }
+
+        void addResult(long commandPosition, long key, String state)
+        {
+            // insertion sort by position, a retried result replaces the previous one
+            int index = resultCount;
+            while (index > 0 && commandPositions[index - 1] >= commandPosition)
+            {
+                index -= 1;
+            }
+
+            if (index < resultCount && commandPositions[index] == commandPosition)
+            {
+                keys[index] = key;
+                states[index] = state;
+            }
+            else if (resultCount < commandPositions.length)
+            {
+                final int moved = resultCount - index;
+                System.arraycopy(commandPositions, index, commandPositions, index + 1, moved);
+                System.arraycopy(keys, index, keys, index + 1, moved);
+                System.arraycopy(states, index, states, index + 1, moved);
+
+                commandPositions[index] = commandPosition;
+                keys[index] = key;
+                states[index] = state;
+                resultCount += 1;
+            }
+        }
+
+        boolean isComplete()
+        {
+            return resultCount == commandPositions.length;
+        }
+
+        void writeResults(BatchCommandResponse response)
+        {
+            response.reset();
+
+            for (int i = 0; i < resultCount; i++)
+            {
+                response.results().add()
+                    .setKey(keys[i])
+                    .setState(states[i]);
+            }
+        }
+    }
+}
@@ -49,4 +49,15 @@ public interface ControlMessageHandler
      *         completely
      */
     CompletableFuture<Void> handle(int partitionId, DirectBuffer buffer, BrokerEventMetadata metadata);
+
+    /**
+     * Returns <code>true</code> if the handler doesn't block, i.e. the
+     * returned future is usually completed already. Such control messages are
+     * handled immediately and are not queued behind other messages of the same
+     * type.
+     */
+    default boolean isNonBlocking()
+    {
+        return false;
+    }
 }
@@ -19,7 +19,8 @@ package io.zeebe.broker.transport.controlmessage;
 
 import static io.zeebe.broker.services.DispatcherSubscriptionNames.TRANSPORT_CONTROL_MESSAGE_HANDLER_SUBSCRIPTION;
 
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -32,6 +33,7 @@ import org.slf4j.Logger;
 
 import io.zeebe.broker.Loggers;
 import io.zeebe.broker.transport.clientapi.ErrorResponseWriter;
+import io.zeebe.broker.transport.controlmessage.ControlMessageHandlerMetrics.HandlerCounters;
 import io.zeebe.dispatcher.Dispatcher;
 import io.zeebe.dispatcher.FragmentHandler;
 import io.zeebe.dispatcher.Subscription;
@@ -41,7 +43,6 @@ import io.zeebe.protocol.clientapi.ErrorCode;
 import io.zeebe.protocol.clientapi.MessageHeaderDecoder;
 import io.zeebe.protocol.impl.BrokerEventMetadata;
 import io.zeebe.transport.ServerOutput;
-import io.zeebe.transport.ServerResponse;
 import io.zeebe.util.actor.Actor;
 import io.zeebe.util.actor.ActorReference;
 import io.zeebe.util.actor.ActorScheduler;
@@ -53,32 +54,43 @@ import io.zeebe.util.state.TransitionState;
 import io.zeebe.util.state.WaitState;
 import io.zeebe.util.time.ClockUtil;
 
+/**
+ * Polls the control messages and hands them over to the handlers.
+ *
+ * <p>
+ * Messages of different types are handled concurrently. Each handler handles
+ * one message at a time, further messages of its type are queued in order. Messages of non-blocking handlers (see
+ * {@link ControlMessageHandler#isNonBlocking()}) are handled immediately and
+ * never queued. If the number of in-flight and queued messages reaches the
+ * limit then no more messages are polled until a message is handled.
+ */
 public class ControlMessageHandlerManager implements Actor
 {
     public static final Logger LOG = Loggers.TRANSPORT_LOGGER;
 
+    /*
+     * the handlers keep the state of the request which they handle, so they
+     * must not handle the next one before the response is written
+     */
+    protected static final int MAX_IN_FLIGHT_REQUESTS_PER_HANDLER = 1;
+
     protected static final String NAME = "control.message.handler";
 
+    protected static final int MAX_PENDING_REQUESTS = 128;
+    protected static final int INITIAL_REQUEST_BUFFER_CAPACITY = 1024;
+
     protected static final int TRANSITION_DEFAULT = 0;
     protected static final int TRANSITION_OPEN = 1;
     protected static final int TRANSITION_CLOSE = 2;
-    protected static final int TRANSITION_PROCESS = 3;
-    protected static final int TRANSITION_FAILED = 4;
 
     protected final State<Context> openingState = new OpeningState();
     protected final State<Context> openedState = new OpenedState();
-    protected final State<Context> processingState = new ProcessingState();
-    protected final State<Context> processingFailedState = new ProcessingFailedState();
     protected final State<Context> closedState = new ClosedState();
 
     protected final StateMachineAgent<Context> stateMachineAgent = new StateMachineAgent<>(StateMachine.<Context> builder(s -> new Context(s))
             .initialState(closedState)
             .from(openingState).take(TRANSITION_DEFAULT).to(openedState)
-            .from(openedState).take(TRANSITION_PROCESS).to(processingState)
-            .from(openedState).take(TRANSITION_FAILED).to(processingFailedState)
             .from(openedState).take(TRANSITION_CLOSE).to(closedState)
-            .from(processingState).take(TRANSITION_DEFAULT).to(openedState)
-            .from(processingFailedState).take(TRANSITION_DEFAULT).to(openedState)
             .from(closedState).take(TRANSITION_OPEN).to(openingState)
             .build());
 
@@ -90,16 +102,19 @@ public class ControlMessageHandlerManager implements Actor
     protected final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     protected final ControlMessageRequestDecoder requestDecoder = new ControlMessageRequestDecoder();
 
-    protected final UnsafeBuffer requestBuffer = new UnsafeBuffer(new byte[1024 * 32]);
-
     protected final Dispatcher controlMessageDispatcher;
     protected Subscription subscription;
 
-    protected final Int2ObjectHashMap<ControlMessageHandler> handlersByTypeId = new Int2ObjectHashMap<>();
+    protected final Int2ObjectHashMap<HandlerQueue> handlersByTypeId = new Int2ObjectHashMap<>();
+    protected final List<HandlerQueue> handlerQueues = new ArrayList<>();
+
+    /*
+     * requests are reused since each one owns a copy of the message
+     */
+    protected final ArrayDeque<ControlMessageRequest> freeRequests = new ArrayDeque<>();
+    protected int pendingRequestCount = 0;
 
     protected final ErrorResponseWriter errorResponseWriter;
-    protected final BrokerEventMetadata eventMetada = new BrokerEventMetadata();
-    protected final ServerResponse response = new ServerResponse();
 
     protected final long requestTimeoutInMillis;
 
@@ -108,6 +123,7 @@ public class ControlMessageHandlerManager implements Actor
             Dispatcher controlMessageDispatcher,
             long requestTimeoutInMillis,
             ActorScheduler actorScheduler,
+            ControlMessageHandlerMetrics metrics,
             List<ControlMessageHandler> handlers)
     {
         this.actorScheduler = actorScheduler;
@@ -118,7 +134,10 @@ public class ControlMessageHandlerManager implements Actor
         for (ControlMessageHandler handler : handlers)
         {
             final ControlMessageType messageType = handler.getMessageType();
-            handlersByTypeId.put(messageType.value(), handler);
+            final HandlerQueue handlerQueue = new HandlerQueue(handler, metrics.newHandlerCounters(messageType));
+
+            handlersByTypeId.put(messageType.value(), handlerQueue);
+            handlerQueues.add(handlerQueue);
         }
     }
 
@@ -172,8 +191,13 @@ public class ControlMessageHandlerManager implements Actor
 
         stateMachineAgent.addCommand(context ->
         {
-            final boolean closing = context.tryTake(TRANSITION_CLOSE);
-            if (closing)
+            if (stateMachineAgent.getCurrentState() == openedState && hasInFlightRequests())
+            {
+                // stop polling and close when the in-flight requests are handled
+                context.setOpenCloseFuture(future);
+                context.setCloseRequested(true);
+            }
+            else if (context.tryTake(TRANSITION_CLOSE))
             {
                 context.setOpenCloseFuture(future);
             }
@@ -188,9 +212,7 @@ public class ControlMessageHandlerManager implements Actor
 
     public boolean isOpen()
     {
-        return stateMachineAgent.getCurrentState() == openedState
-                || stateMachineAgent.getCurrentState() == processingState
-                || stateMachineAgent.getCurrentState() == processingFailedState;
+        return stateMachineAgent.getCurrentState() == openedState;
     }
 
     public boolean isClosed()
@@ -198,6 +220,44 @@ public class ControlMessageHandlerManager implements Actor
         return stateMachineAgent.getCurrentState() == closedState;
     }
 
+    protected boolean hasInFlightRequests()
+    {
+        for (int i = 0; i < handlerQueues.size(); i++)
+        {
+            if (handlerQueues.get(i).hasInFlightRequests())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected boolean hasRequestCapacity()
+    {
+        return pendingRequestCount < MAX_PENDING_REQUESTS;
+    }
+
+    protected ControlMessageRequest acquireRequest()
+    {
+        ControlMessageRequest request = freeRequests.poll();
+        if (request == null)
+        {
+            request = new ControlMessageRequest();
+        }
+
+        request.reset();
+        pendingRequestCount += 1;
+
+        return request;
+    }
+
+    protected void releaseRequest(ControlMessageRequest request)
+    {
+        freeRequests.add(request);
+
+        pendingRequestCount -= 1;
+    }
+
     class OpeningState implements TransitionState<Context>
     {
         @Override
@@ -205,6 +265,7 @@ public class ControlMessageHandlerManager implements Actor
         {
             subscription = controlMessageDispatcher.getSubscriptionByName(TRANSPORT_CONTROL_MESSAGE_HANDLER_SUBSCRIPTION);
 
+            context.setCloseRequested(false);
             context.take(TRANSITION_DEFAULT);
             context.completeOpenCloseFuture();
         }
@@ -212,20 +273,26 @@ public class ControlMessageHandlerManager implements Actor
 
     class OpenedState implements State<Context>, FragmentHandler
     {
-        private Context context;
-
         @Override
         public int doWork(Context context) throws Exception
         {
-            this.context = context;
-
             int workCount = 0;
 
-            final int result = subscription.poll(this, 1);
-            if (result > 0)
+            for (int i = 0; i < handlerQueues.size(); i++)
             {
-                workCount += 1;
-                // the next transition is taken while handle the fragment
+                workCount += handlerQueues.get(i).doWork();
+            }
+
+            if (context.isCloseRequested())
+            {
+                if (!hasInFlightRequests())
+                {
+                    context.take(TRANSITION_CLOSE);
+                }
+            }
+            else if (hasRequestCapacity())
+            {
+                workCount += subscription.poll(this, 1);
             }
 
             return workCount;
@@ -234,92 +301,207 @@ public class ControlMessageHandlerManager implements Actor
         @Override
         public int onFragment(DirectBuffer buffer, int offset, int length, int streamId, boolean isMarkedFailed)
         {
-            requestHeaderDescriptor.wrap(buffer, offset);
+            final ControlMessageRequest request = acquireRequest();
 
-            eventMetada.reset();
+            requestHeaderDescriptor.wrap(buffer, offset);
 
-            eventMetada
+            request.metadata
                 .requestId(requestHeaderDescriptor.requestId())
                 .requestStreamId(requestHeaderDescriptor.streamId());
 
             offset += ControlMessageRequestHeaderDescriptor.headerLength();
 
-            messageHeaderDecoder.wrap(requestBuffer, 0);
+            messageHeaderDecoder.wrap(buffer, offset);
             offset += messageHeaderDecoder.encodedLength();
 
             requestDecoder.wrap(buffer, offset, requestDecoder.sbeBlockLength(), requestDecoder.sbeSchemaVersion());
 
-            final ControlMessageType messageType = requestDecoder.messageType();
-            context.lastRequestMessageType(messageType);
-
-            final int partitionId = requestDecoder.partitionId();
+            request.messageType = requestDecoder.messageType();
+            request.partitionId = requestDecoder.partitionId();
 
-            ensureBufferCapacity(requestDecoder.dataLength());
-            requestDecoder.getData(requestBuffer, 0, requestDecoder.dataLength());
+            final int dataLength = requestDecoder.dataLength();
+            request.ensureCapacity(dataLength);
+            requestDecoder.getData(request.data, 0, dataLength);
 
-            final ControlMessageHandler handler = handlersByTypeId.get(messageType.value());
-            if (handler != null)
+            final HandlerQueue handlerQueue = handlersByTypeId.get(request.messageType.value());
+            if (handlerQueue != null)
             {
-                final CompletableFuture<Void> future = handler.handle(partitionId, requestBuffer, eventMetada);
-                final long startTime = ClockUtil.getCurrentTimeInMillis();
-
-                context.scheduledProcessing(future, startTime);
-
-                context.take(TRANSITION_PROCESS);
+                handlerQueue.offer(request);
             }
             else
             {
-                context.take(TRANSITION_FAILED);
+                final boolean success = errorResponseWriter
+                    .errorCode(ErrorCode.MESSAGE_NOT_SUPPORTED)
+                    .errorMessage("Cannot handle control message with type '%s'.", request.messageType.name())
+                    .failedRequest(request.data, 0, request.data.capacity())
+                    .tryWriteResponseOrLogFailure(request.metadata.getRequestStreamId(), request.metadata.getRequestId());
+                // TODO: proper backpressure
+
+                releaseRequest(request);
             }
 
             return FragmentHandler.CONSUME_FRAGMENT_RESULT;
         }
+    }
 
-        protected void ensureBufferCapacity(int length)
+    class ClosedState implements WaitState<Context>
+    {
+        @Override
+        public void work(Context context) throws Exception
         {
-            byte[] raw = requestBuffer.byteArray();
+            if (isRunning.compareAndSet(true, false))
+            {
+                for (int i = 0; i < handlerQueues.size(); i++)
+                {
+                    handlerQueues.get(i).clear();
+                }
 
-            if (length <= raw.length)
+                context.completeOpenCloseFuture();
+
+                actorRef.close();
+            }
+        }
+    }
+
+    /**
+     * The in-flight and queued requests of one handler.
+     */
+    class HandlerQueue
+    {
+        protected final ControlMessageHandler handler;
+        protected final HandlerCounters counters;
+
+        protected final List<ControlMessageRequest> inFlightRequests = new ArrayList<>();
+        protected final ArrayDeque<ControlMessageRequest> queuedRequests = new ArrayDeque<>();
+
+        HandlerQueue(ControlMessageHandler handler, HandlerCounters counters)
+        {
+            this.handler = handler;
+            this.counters = counters;
+        }
+
+        public void offer(ControlMessageRequest request)
+        {
+            if (handler.isNonBlocking())
             {
-                Arrays.fill(raw, (byte) 0);
+                handle(request);
+            }
+            else if (queuedRequests.isEmpty() && inFlightRequests.size() < MAX_IN_FLIGHT_REQUESTS_PER_HANDLER)
+            {
+                handle(request);
             }
             else
             {
-                raw = new byte[length];
+                queuedRequests.add(request);
+                counters.setQueueDepth(queuedRequests.size());
             }
-
-            requestBuffer.wrap(raw, 0, length);
         }
-    }
 
-    class ProcessingState implements WaitState<Context>
-    {
-        @Override
-        public void work(Context context) throws Exception
+        public int doWork()
         {
-            final CompletableFuture<Void> future = context.getProcessingFuture();
-            final long startTime = context.getProcessingStartTime();
+            int workCount = 0;
 
-            if (future.isDone())
+            int index = 0;
+            while (index < inFlightRequests.size())
             {
-                logExceptionIfAny(future);
+                final ControlMessageRequest request = inFlightRequests.get(index);
+
+                if (request.future.isDone())
+                {
+                    onHandled(request);
+                    inFlightRequests.remove(index);
 
-                context.take(TRANSITION_DEFAULT);
+                    workCount += 1;
+                }
+                else if (hasTimeout(request))
+                {
+                    writeTimeoutResponse(request);
+                    releaseRequest(request);
+                    inFlightRequests.remove(index);
+
+                    workCount += 1;
+                }
+                else
+                {
+                    index += 1;
+                }
             }
-            else if (hasTimeout(startTime))
+
+            while (!queuedRequests.isEmpty() && inFlightRequests.size() < MAX_IN_FLIGHT_REQUESTS_PER_HANDLER)
             {
-                final boolean success = errorResponseWriter
-                    .errorCode(ErrorCode.REQUEST_TIMEOUT)
-                    .errorMessage("Timeout while handle control message.")
-                    .failedRequest(requestBuffer, 0, requestBuffer.capacity())
-                    .tryWriteResponseOrLogFailure(eventMetada.getRequestStreamId(), eventMetada.getRequestId());
-                // TODO: proper backpressure
+                handle(queuedRequests.poll());
+
+                workCount += 1;
+            }
+
+            counters.setQueueDepth(queuedRequests.size());
+            counters.setInFlight(inFlightRequests.size());
+
+            return workCount;
+        }
+
+        public boolean hasInFlightRequests()
+        {
+            return !inFlightRequests.isEmpty();
+        }
 
-                context.take(TRANSITION_DEFAULT);
+        public void clear()
+        {
+            while (!queuedRequests.isEmpty())
+            {
+                releaseRequest(queuedRequests.poll());
             }
+
+            for (int i = 0; i < inFlightRequests.size(); i++)
+            {
+                releaseRequest(inFlightRequests.get(i));
+            }
+            inFlightRequests.clear();
+
+            counters.setQueueDepth(0);
+            counters.setInFlight(0);
+        }
+
+        protected void handle(ControlMessageRequest request)
+        {
+            request.startTime = ClockUtil.getCurrentTimeInMillis();
+            request.future = handler.handle(request.partitionId, request.data, request.metadata);
+
+            if (request.future.isDone())
+            {
+                onHandled(request);
+            }
+            else
+            {
+                inFlightRequests.add(request);
+            }
+        }
+
+        protected void onHandled(ControlMessageRequest request)
+        {
+            logExceptionIfAny(request.future);
+
+            counters.onHandled(ClockUtil.getCurrentTimeInMillis() - request.startTime);
+
+            releaseRequest(request);
+        }
+
+        protected boolean hasTimeout(ControlMessageRequest request)
+        {
+            return ClockUtil.getCurrentTimeInMillis() >= request.startTime + requestTimeoutInMillis;
+        }
+
+        protected void writeTimeoutResponse(ControlMessageRequest request)
+        {
+            final boolean success = errorResponseWriter
+                .errorCode(ErrorCode.REQUEST_TIMEOUT)
+                .errorMessage("Timeout while handle control message.")
+                .failedRequest(request.data, 0, request.data.capacity())
+                .tryWriteResponseOrLogFailure(request.metadata.getRequestStreamId(), request.metadata.getRequestId());
+            // TODO: proper backpressure
         }
 
-        private void logExceptionIfAny(final CompletableFuture<Void> future) throws InterruptedException
+        protected void logExceptionIfAny(CompletableFuture<Void> future)
         {
             if (future.isCompletedExceptionally())
             {
@@ -332,78 +514,61 @@ public class ControlMessageHandlerManager implements Actor
                     LOG.error("Could not process control message request successfully. A response may not be sent.",
                             e.getCause());
                 }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
             }
         }
-
-        protected boolean hasTimeout(long startTime)
-        {
-            return ClockUtil.getCurrentTimeInMillis() >= startTime + requestTimeoutInMillis;
-        }
     }
 
-    class ProcessingFailedState implements TransitionState<Context>
+    /**
+     * A polled control message with a copy of its data, so that it can be
+     * handled after the fragment is consumed.
+     */
+    static class ControlMessageRequest
     {
-        @Override
-        public void work(Context context) throws Exception
-        {
-            final boolean success = errorResponseWriter
-                .errorCode(ErrorCode.MESSAGE_NOT_SUPPORTED)
-                .errorMessage("Cannot handle control message with type '%s'.", context.getLastRequestMessageType().name())
-                .failedRequest(requestBuffer, 0, requestBuffer.capacity())
-                .tryWriteResponseOrLogFailure(eventMetada.getRequestStreamId(), eventMetada.getRequestId());
-            // TODO: proper backpressure
+        protected final UnsafeBuffer data = new UnsafeBuffer(new byte[INITIAL_REQUEST_BUFFER_CAPACITY]);
+        protected final BrokerEventMetadata metadata = new BrokerEventMetadata();
 
-            context.take(TRANSITION_DEFAULT);
-        }
-    }
+        protected ControlMessageType messageType;
+        protected int partitionId;
 
-    class ClosedState implements WaitState<Context>
-    {
-        @Override
-        public void work(Context context) throws Exception
+        protected CompletableFuture<Void> future;
+        protected long startTime;
+
+        public void ensureCapacity(int length)
         {
-            if (isRunning.compareAndSet(true, false))
-            {
-                context.completeOpenCloseFuture();
+            byte[] raw = data.byteArray();
 
-                actorRef.close();
+            if (length > raw.length)
+            {
+                raw = new byte[length];
             }
+
+            data.wrap(raw, 0, length);
+        }
+
+        public void reset()
+        {
+            metadata.reset();
+            messageType = null;
+            partitionId = -1;
+            future = null;
+            startTime = -1L;
         }
     }
 
     static class Context extends SimpleStateMachineContext
     {
         private CompletableFuture<Void> openClosefuture;
-        private CompletableFuture<Void> processingFuture;
-        private long processingStartTime = -1;
-        private ControlMessageType lastRequestMessageType;
+        private boolean closeRequested;
 
         Context(StateMachine<Context> stateMachine)
         {
             super(stateMachine);
         }
 
-        public void lastRequestMessageType(ControlMessageType messageType)
-        {
-            this.lastRequestMessageType = messageType;
-        }
-
-        public void scheduledProcessing(CompletableFuture<Void> future, long startTime)
-        {
-            this.processingFuture = future;
-            this.processingStartTime = startTime;
-        }
-
-        public CompletableFuture<Void> getProcessingFuture()
-        {
-            return processingFuture;
-        }
-
-        public long getProcessingStartTime()
-        {
-            return processingStartTime;
-        }
-
         public void setOpenCloseFuture(CompletableFuture<Void> future)
         {
             this.openClosefuture = future;
@@ -418,9 +583,14 @@ public class ControlMessageHandlerManager implements Actor
             }
         }
 
-        public ControlMessageType getLastRequestMessageType()
+        public boolean isCloseRequested()
+        {
+            return closeRequested;
+        }
+
+        public void setCloseRequested(boolean closeRequested)
         {
-            return lastRequestMessageType;
+            this.closeRequested = closeRequested;
         }
     }
 
@@ -24,6 +24,7 @@ import io.zeebe.broker.clustering.handler.RequestTopologyHandler;
 import io.zeebe.broker.clustering.management.ClusterManager;
 import io.zeebe.broker.event.handler.RemoveTopicSubscriptionHandler;
 import io.zeebe.broker.event.processor.TopicSubscriptionService;
+import io.zeebe.broker.services.Counters;
 import io.zeebe.broker.system.log.RequestPartitionsMessageHandler;
 import io.zeebe.broker.system.log.SystemPartitionManager;
 import io.zeebe.broker.task.TaskSubscriptionManager;
@@ -45,10 +46,12 @@ public class ControlMessageHandlerManagerService implements Service<ControlMessa
     protected final Injector<TopicSubscriptionService> topicSubscriptionServiceInjector = new Injector<>();
     protected final Injector<SystemPartitionManager> systemPartitionManagerInjector = new Injector<>();
     private final Injector<ClusterManager> clusterManagerInjector = new Injector<>();
+    protected final Injector<Counters> countersInjector = new Injector<>();
 
     protected final long controlMessageRequestTimeoutInMillis;
 
     protected ControlMessageHandlerManager service;
+    protected ControlMessageHandlerMetrics metrics;
 
     public ControlMessageHandlerManagerService(long controlMessageRequestTimeoutInMillis)
     {
@@ -78,11 +81,14 @@ public class ControlMessageHandlerManagerService implements Service<ControlMessa
             new RequestPartitionsMessageHandler(output, systemPartitionManager)
         );
 
+        metrics = new ControlMessageHandlerMetrics(countersInjector.getValue().getCountersManager());
+
         service = new ControlMessageHandlerManager(
                 transport.getOutput(),
                 controlMessageBuffer,
                 controlMessageRequestTimeoutInMillis,
                 actorScheduler,
+                metrics,
                 controlMessageHandlers);
 
         context.async(service.openAsync());
@@ -91,7 +97,7 @@ public class ControlMessageHandlerManagerService implements Service<ControlMessa
     @Override
     public void stop(ServiceStopContext context)
     {
-        context.async(service.closeAsync());
+        context.async(service.closeAsync().whenComplete((v, t) -> metrics.close()));
     }
 
     @Override
@@ -134,4 +140,9 @@ public class ControlMessageHandlerManagerService implements Service<ControlMessa
     {
         return clusterManagerInjector;
     }
+
+    public Injector<Counters> getCountersInjector()
+    {
+        return countersInjector;
+    }
 }
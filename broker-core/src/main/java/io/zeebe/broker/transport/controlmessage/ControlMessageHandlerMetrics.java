@@ -0,0 +1,100 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.transport.controlmessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+
+import io.zeebe.protocol.clientapi.ControlMessageType;
+
+/**
+ * Counters of the control message handlers: per message type, the number of
+ * queued and in-flight requests, the number of handled requests and the
+ * duration (in ms) of the last handled request.
+ */
+public class ControlMessageHandlerMetrics implements AutoCloseable
+{
+    protected final CountersManager countersManager;
+    protected final List<HandlerCounters> handlerCounters = new ArrayList<>();
+
+    public ControlMessageHandlerMetrics(CountersManager countersManager)
+    {
+        this.countersManager = countersManager;
+    }
+
+    public HandlerCounters newHandlerCounters(ControlMessageType messageType)
+    {
+        final HandlerCounters counters = new HandlerCounters(messageType.name().toLowerCase());
+        handlerCounters.add(counters);
+
+        return counters;
+    }
+
+    @Override
+    public void close()
+    {
+        for (HandlerCounters counters : handlerCounters)
+        {
+            counters.close();
+        }
+        handlerCounters.clear();
+    }
+
+    public class HandlerCounters
+    {
+        protected final AtomicCounter queueDepth;
+        protected final AtomicCounter inFlight;
+        protected final AtomicCounter handledCount;
+        protected final AtomicCounter latency;
+
+        protected HandlerCounters(String messageType)
+        {
+            this.queueDepth = countersManager.newCounter(String.format("control.message.%s.queue.depth", messageType));
+            this.inFlight = countersManager.newCounter(String.format("control.message.%s.in.flight", messageType));
+            this.handledCount = countersManager.newCounter(String.format("control.message.%s.count", messageType));
+            this.latency = countersManager.newCounter(String.format("control.message.%s.latency", messageType));
+        }
+
+        public void setQueueDepth(int depth)
+        {
+            queueDepth.set(depth);
+        }
+
+        public void setInFlight(int count)
+        {
+            inFlight.set(count);
+        }
+
+        public void onHandled(long durationInMillis)
+        {
+            handledCount.increment();
+            latency.set(durationInMillis);
+        }
+
+        protected void close()
+        {
+            queueDepth.close();
+            inFlight.close();
+            handledCount.close();
+            latency.close();
+        }
+    }
+}
@@ -56,6 +56,12 @@ public class IncreaseTaskSubscriptionCreditsHandler implements ControlMessageHan
         return ControlMessageType.INCREASE_TASK_SUBSCRIPTION_CREDITS;
     }
 
+    @Override
+    public boolean isNonBlocking()
+    {
+        return true;
+    }
+
     @Override
     public CompletableFuture<Void> handle(int partitionId, DirectBuffer buffer, BrokerEventMetadata eventMetadata)
     {
@@ -0,0 +1,177 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.util;
+
+/**
+ * A fixed capacity cache of long keys to objects which evicts the least
+ * recently used entry when a new entry is put into the full cache.
+ *
+ * <p>
+ * In contrast to {@link org.agrona.collections.LongLruCache}, a value is put
+ * into the cache explicitly and a lookup of a missing key returns
+ * <code>null</code> instead of creating the value.
+ */
+public class LongLruCache<V>
+{
+    protected final long[] keys;
+    protected final Object[] values;
+    protected final EvictionHandler<V> evictionHandler;
+
+    protected int size = 0;
+
+    /**
+     * @param capacity the max number of entries
+     * @param evictionHandler called with an entry which is evicted because the cache is full
+     */
+    public LongLruCache(int capacity, EvictionHandler<V> evictionHandler)
+    {
+        if (capacity <= 0)
+        {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.evictionHandler = evictionHandler;
+    }
+
+    /**
+     * @return the value of the given key or <code>null</code> if the cache
+     *         doesn't contain the key
+     */
+    @SuppressWarnings("unchecked")
+    public V lookup(long key)
+    {
+        final int index = indexOf(key);
+        if (index >= 0)
+        {
+            final V value = (V) values[index];
+            moveToFront(index, key, value);
+
+            return value;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Puts the given value into the cache. If the cache already contains the
+     * key then the value is replaced. If the cache is full then the least
+     * recently used entry is evicted.
+     */
+    @SuppressWarnings("unchecked")
+    public void put(long key, V value)
+    {
+        int index = indexOf(key);
+
+        if (index < 0)
+        {
+            if (size < keys.length)
+            {
+                index = size;
+                size += 1;
+            }
+            else
+            {
+                // evict the least recently used entry
+                index = size - 1;
+                evictionHandler.onEvict(keys[index], (V) values[index]);
+            }
+        }
+
+        moveToFront(index, key, value);
+    }
+
+    /**
+     * Removes the given key from the cache.
+     *
+     * @return the removed value or <code>null</code> if the cache doesn't
+     *         contain the key
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key)
+    {
+        final int index = indexOf(key);
+        if (index >= 0)
+        {
+            final V value = (V) values[index];
+
+            final int movedEntries = size - index - 1;
+            System.arraycopy(keys, index + 1, keys, index, movedEntries);
+            System.arraycopy(values, index + 1, values, index, movedEntries);
+
+            size -= 1;
+            values[size] = null;
+
+            return value;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public int capacity()
+    {
+        return keys.length;
+    }
+
+    public void clear()
+    {
+        for (int i = 0; i < size; i++)
+        {
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    protected int indexOf(long key)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (keys[i] == key)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    protected void moveToFront(int index, long key, V value)
+    {
+        System.arraycopy(keys, 0, keys, 1, index);
+        System.arraycopy(values, 0, values, 1, index);
+
+        keys[0] = key;
+        values[0] = value;
+    }
+
+    @FunctionalInterface
+    public interface EvictionHandler<V>
+    {
+        void onEvict(long key, V value);
+    }
+
+}
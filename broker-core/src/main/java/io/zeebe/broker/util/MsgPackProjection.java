@@ -0,0 +1,224 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.util;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import io.zeebe.msgpack.spec.MsgPackFormat;
+import io.zeebe.msgpack.spec.MsgPackReader;
+import io.zeebe.msgpack.spec.MsgPackType;
+import io.zeebe.util.buffer.BufferReader;
+import io.zeebe.util.buffer.BufferUtil;
+
+/**
+ * Reads only the given top-level properties of a msgpack map, e.g. the state
+ * of an event value. The values of the other properties are skipped without
+ * decoding them, and reading stops as soon as all properties are found. This is
+ * meant for routing events; the full value should only be read if an event is
+ * handled.
+ *
+ * <p>
+ * The properties are addressed by their index in the constructor. The read
+ * values are views on the wrapped buffer.
+ */
+public class MsgPackProjection implements BufferReader
+{
+    protected static final int NOT_FOUND = -1;
+
+    protected final MsgPackReader reader = new MsgPackReader();
+
+    protected final DirectBuffer[] propertyNames;
+    protected final int[] valueOffsets;
+    protected final int[] valueLengths;
+    protected final UnsafeBuffer[] stringViews;
+
+    protected DirectBuffer buffer;
+
+    public MsgPackProjection(String... propertyNames)
+    {
+        final int propertyCount = propertyNames.length;
+
+        this.propertyNames = new DirectBuffer[propertyCount];
+        this.valueOffsets = new int[propertyCount];
+        this.valueLengths = new int[propertyCount];
+        this.stringViews = new UnsafeBuffer[propertyCount];
+
+        for (int i = 0; i < propertyCount; i++)
+        {
+            this.propertyNames[i] = BufferUtil.wrapString(propertyNames[i]);
+            this.stringViews[i] = new UnsafeBuffer(0, 0);
+        }
+    }
+
+    @Override
+    public void wrap(DirectBuffer buffer, int offset, int length)
+    {
+        this.buffer = buffer;
+
+        for (int i = 0; i < valueOffsets.length; i++)
+        {
+            valueOffsets[i] = NOT_FOUND;
+        }
+
+        reader.wrap(buffer, offset, length);
+
+        final int size = reader.readMapHeader();
+        int foundProperties = 0;
+
+        for (int i = 0; i < size && foundProperties < propertyNames.length; i++)
+        {
+            final int keyLength = reader.readStringLength();
+            final int keyOffset = reader.getOffset();
+            reader.skipBytes(keyLength);
+
+            final int valueOffset = reader.getOffset();
+            reader.skipValue();
+
+            final int property = indexOf(keyOffset, keyLength);
+            if (property != NOT_FOUND && valueOffsets[property] == NOT_FOUND)
+            {
+                valueOffsets[property] = valueOffset;
+                valueLengths[property] = reader.getOffset() - valueOffset;
+                foundProperties += 1;
+            }
+        }
+    }
+
+    protected int indexOf(int keyOffset, int keyLength)
+    {
+        for (int i = 0; i < propertyNames.length; i++)
+        {
+            if (equalsKey(propertyNames[i], keyOffset, keyLength))
+            {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    protected boolean equalsKey(DirectBuffer propertyName, int keyOffset, int keyLength)
+    {
+        if (propertyName.capacity() != keyLength)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < keyLength; i++)
+        {
+            if (propertyName.getByte(i) != buffer.getByte(keyOffset + i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasValue(int property)
+    {
+        return valueOffsets[property] != NOT_FOUND;
+    }
+
+    /**
+     * @return the value or the default value if the property is not set or is
+     *         not an integer
+     */
+    public long getLong(int property, long defaultValue)
+    {
+        if (isOfType(property, MsgPackType.INTEGER))
+        {
+            reader.wrap(buffer, valueOffsets[property], valueLengths[property]);
+            return reader.readInteger();
+        }
+        else
+        {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @return a view on the value or an empty buffer if the property is not set
+     *         or is not a string
+     */
+    public DirectBuffer getString(int property)
+    {
+        final UnsafeBuffer view = stringViews[property];
+
+        if (isOfType(property, MsgPackType.STRING))
+        {
+            reader.wrap(buffer, valueOffsets[property], valueLengths[property]);
+            final int length = reader.readStringLength();
+
+            view.wrap(buffer, reader.getOffset(), length);
+        }
+        else
+        {
+            view.wrap(0, 0);
+        }
+
+        return view;
+    }
+
+    /**
+     * @return the constant with the name of the value or <code>null</code> if
+     *         the property is not set or doesn't name a constant
+     */
+    public <E extends Enum<E>> E getEnum(int property, EnumLookup<E> lookup)
+    {
+        return lookup.lookup(getString(property));
+    }
+
+    protected boolean isOfType(int property, MsgPackType type)
+    {
+        final int offset = valueOffsets[property];
+        return offset != NOT_FOUND && MsgPackFormat.valueOf(buffer.getByte(offset)).getType() == type;
+    }
+
+    /**
+     * Resolves the constants of an enum by their name, without creating a
+     * string.
+     */
+    public static class EnumLookup<E extends Enum<E>>
+    {
+        protected final E[] constants;
+        protected final DirectBuffer[] names;
+
+        public EnumLookup(Class<E> enumClass)
+        {
+            constants = enumClass.getEnumConstants();
+            names = new DirectBuffer[constants.length];
+
+            for (int i = 0; i < constants.length; i++)
+            {
+                names[i] = BufferUtil.wrapString(constants[i].name());
+            }
+        }
+
+        public E lookup(DirectBuffer name)
+        {
+            for (int i = 0; i < constants.length; i++)
+            {
+                if (BufferUtil.contentsEqual(names[i], name))
+                {
+                    return constants[i];
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -24,4 +24,10 @@ public class WorkflowCfg extends ComponentConfiguration
     public int deploymentCacheSize = 32;
 
     public int payloadCacheSize = 64;
+
+    /**
+     * the memory budget (in MB) of the off-heap payload store per partition;
+     * payloads beyond it are read from the log stream
+     */
+    public int payloadStoreSize = 64;
 }
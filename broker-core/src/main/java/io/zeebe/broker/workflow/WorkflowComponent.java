@@ -19,6 +19,7 @@ package io.zeebe.broker.workflow;
 
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.WORKFLOW_STREAM_GROUP;
 import static io.zeebe.broker.system.SystemServiceNames.ACTOR_SCHEDULER_SERVICE;
+import static io.zeebe.broker.system.SystemServiceNames.WORKFLOW_REQUEST_MESSAGE_HANDLER_SERVICE;
 import static io.zeebe.broker.workflow.WorkflowQueueServiceNames.WORKFLOW_QUEUE_MANAGER;
 
 import io.zeebe.broker.system.*;
@@ -39,6 +40,8 @@ public class WorkflowComponent implements Component
             .dependency(TransportServiceNames.serverTransport(TransportServiceNames.CLIENT_API_SERVER_NAME), workflowQueueManagerService.getClientApiTransportInjector())
             .dependency(ACTOR_SCHEDULER_SERVICE, workflowQueueManagerService.getActorSchedulerInjector())
             .dependency(TransportServiceNames.bufferingServerTransport(TransportServiceNames.MANAGEMENT_API_SERVER_NAME), workflowQueueManagerService.getManagementServerInjector())
+            .dependency(WORKFLOW_REQUEST_MESSAGE_HANDLER_SERVICE, workflowQueueManagerService.getWorkflowRequestMessageHandlerInjector())
+            .dependency(TransportServiceNames.CLIENT_API_MESSAGE_HANDLER, workflowQueueManagerService.getClientApiMessageHandlerInjector())
             .groupReference(WORKFLOW_STREAM_GROUP, workflowQueueManagerService.getLogStreamsGroupReference())
             .install();
     }
@@ -17,6 +17,7 @@
  */
 package io.zeebe.broker.workflow;
 
+import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_POLICY_FACTORY_SERVICE;
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.SNAPSHOT_STORAGE_SERVICE;
 import static io.zeebe.broker.logstreams.LogStreamServiceNames.logStreamServiceName;
 import static io.zeebe.broker.logstreams.processor.StreamProcessorIds.INCIDENT_PROCESSOR_ID;
@@ -25,11 +26,17 @@ import static io.zeebe.broker.workflow.WorkflowQueueServiceNames.incidentStreamP
 import static io.zeebe.broker.workflow.WorkflowQueueServiceNames.workflowInstanceStreamProcessorServiceName;
 
 import io.zeebe.broker.incident.processor.IncidentStreamProcessor;
+import io.zeebe.broker.logstreams.cfg.StreamProcessorCfg;
+import io.zeebe.broker.logstreams.processor.FusedStreamProcessor;
 import io.zeebe.broker.logstreams.processor.StreamProcessorIds;
 import io.zeebe.broker.logstreams.processor.StreamProcessorService;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
 import io.zeebe.broker.system.ConfigurationManager;
 import io.zeebe.broker.system.deployment.handler.CreateWorkflowResponseSender;
+import io.zeebe.broker.system.deployment.handler.WorkflowRequestMessageHandler;
+import io.zeebe.broker.transport.clientapi.ClientApiMessageHandler;
 import io.zeebe.broker.transport.clientapi.CommandResponseWriter;
+import io.zeebe.broker.transport.clientapi.PendingBatchRequests;
 import io.zeebe.broker.workflow.processor.WorkflowInstanceStreamProcessor;
 import io.zeebe.logstreams.log.LogStream;
 import io.zeebe.logstreams.processor.StreamProcessorController;
@@ -46,6 +53,8 @@ public class WorkflowQueueManagerService implements Service<WorkflowQueueManager
     protected final Injector<ServerTransport> clientApiTransportInjector = new Injector<>();
     private final Injector<ServerTransport> managementServerInjector = new Injector<>();
     protected final Injector<ActorScheduler> actorSchedulerInjector = new Injector<>();
+    private final Injector<WorkflowRequestMessageHandler> workflowRequestMessageHandlerInjector = new Injector<>();
+    private final Injector<ClientApiMessageHandler> clientApiMessageHandlerInjector = new Injector<>();
 
     protected final ServiceGroupReference<LogStream> logStreamsGroupReference = ServiceGroupReference.<LogStream>create()
             .onAdd((name, stream) -> addStream(stream, name))
@@ -54,12 +63,14 @@ public class WorkflowQueueManagerService implements Service<WorkflowQueueManager
     protected ServiceStartContext serviceContext;
     protected DeferredCommandContext asyncContext;
     protected WorkflowCfg workflowCfg;
+    protected StreamProcessorCfg streamProcessorCfg;
 
     protected ActorReference actorRef;
 
     public WorkflowQueueManagerService(final ConfigurationManager configurationManager)
     {
         workflowCfg = configurationManager.readEntry("workflow", WorkflowCfg.class);
+        streamProcessorCfg = configurationManager.readEntry("processors", StreamProcessorCfg.class);
     }
 
     @Override
@@ -67,60 +78,106 @@ public class WorkflowQueueManagerService implements Service<WorkflowQueueManager
     {
         EnsureUtil.ensureNotNull("logStream", logStream);
 
-        installWorkflowStreamProcessor(logStream);
-        installIncidentStreamProcessor(logStream);
+        if (streamProcessorCfg.fuseProcessors)
+        {
+            installFusedStreamProcessor(logStream);
+        }
+        else
+        {
+            installWorkflowStreamProcessor(logStream);
+            installIncidentStreamProcessor(logStream);
+        }
     }
 
     private void installWorkflowStreamProcessor(final LogStream logStream)
     {
         final ServiceName<StreamProcessorController> streamProcessorServiceName = workflowInstanceStreamProcessorServiceName(logStream.getLogName());
-        final String streamProcessorName = streamProcessorServiceName.getName();
 
+        final StreamProcessorService workflowStreamProcessorService = new StreamProcessorService(
+                streamProcessorServiceName.getName(),
+                StreamProcessorIds.WORKFLOW_INSTANCE_PROCESSOR_ID,
+                createWorkflowInstanceStreamProcessor(logStream.getLogName()))
+                .eventFilter(WorkflowInstanceStreamProcessor.eventFilter())
+                .valueFilter(WorkflowInstanceStreamProcessor.stateFilter());
+
+        installStreamProcessorService(logStream, streamProcessorServiceName, workflowStreamProcessorService);
+    }
+
+    private void installIncidentStreamProcessor(final LogStream logStream)
+    {
+        final ServiceName<StreamProcessorController> streamProcessorServiceName = incidentStreamProcessorServiceName(logStream.getLogName());
+
+        final StreamProcessorService incidentStreamProcessorService = new StreamProcessorService(
+                streamProcessorServiceName.getName(),
+                INCIDENT_PROCESSOR_ID,
+                new IncidentStreamProcessor(StateStoreFactory.forLogStream(streamProcessorCfg, logStream.getLogName())))
+                .eventFilter(IncidentStreamProcessor.eventFilter())
+                .valueFilter(IncidentStreamProcessor.stateFilter());
+
+        installStreamProcessorService(logStream, streamProcessorServiceName, incidentStreamProcessorService);
+    }
+
+    /**
+     * Installs one stream processor for workflow instances and incidents. It
+     * takes over the name and the id of the workflow instance stream processor.
+     */
+    private void installFusedStreamProcessor(final LogStream logStream)
+    {
+        final ServiceName<StreamProcessorController> streamProcessorServiceName = workflowInstanceStreamProcessorServiceName(logStream.getLogName());
+
+        final FusedStreamProcessor fusedStreamProcessor = new FusedStreamProcessor()
+                .addProcessor(
+                        createWorkflowInstanceStreamProcessor(logStream.getLogName()),
+                        WorkflowInstanceStreamProcessor.eventFilter(),
+                        WorkflowInstanceStreamProcessor.stateFilter())
+                .addProcessor(
+                        new IncidentStreamProcessor(StateStoreFactory.forLogStream(streamProcessorCfg, logStream.getLogName())),
+                        IncidentStreamProcessor.eventFilter(),
+                        IncidentStreamProcessor.stateFilter());
+
+        final StreamProcessorService fusedStreamProcessorService = new StreamProcessorService(
+                streamProcessorServiceName.getName(),
+                StreamProcessorIds.WORKFLOW_INSTANCE_PROCESSOR_ID,
+                fusedStreamProcessor)
+                .eventFilter(fusedStreamProcessor.eventFilter());
+
+        installStreamProcessorService(logStream, streamProcessorServiceName, fusedStreamProcessorService);
+    }
+
+    private WorkflowInstanceStreamProcessor createWorkflowInstanceStreamProcessor(String logStreamName)
+    {
         final ServerTransport transport = clientApiTransportInjector.getValue();
         final CommandResponseWriter responseWriter = new CommandResponseWriter(transport.getOutput());
-        final ServiceName<LogStream> logStreamServiceName = logStreamServiceName(logStream.getLogName());
 
         final ServerTransport managementServer = managementServerInjector.getValue();
-        final CreateWorkflowResponseSender createWorkflowResponseSender = new CreateWorkflowResponseSender(managementServer);
+        final WorkflowRequestMessageHandler workflowRequestMessageHandler = workflowRequestMessageHandlerInjector.getValue();
+        final CreateWorkflowResponseSender createWorkflowResponseSender =
+                new CreateWorkflowResponseSender(managementServer, workflowRequestMessageHandler.getPendingCreateRequests());
 
-        final WorkflowInstanceStreamProcessor workflowInstanceStreamProcessor = new WorkflowInstanceStreamProcessor(
+        final PendingBatchRequests pendingBatchRequests = clientApiMessageHandlerInjector.getValue().getPendingBatchRequests();
+
+        return new WorkflowInstanceStreamProcessor(
                 responseWriter,
                 createWorkflowResponseSender,
                 workflowCfg.deploymentCacheSize,
-                workflowCfg.payloadCacheSize);
-
-        final StreamProcessorService workflowStreamProcessorService = new StreamProcessorService(
-                streamProcessorName,
-                StreamProcessorIds.WORKFLOW_INSTANCE_PROCESSOR_ID,
-                workflowInstanceStreamProcessor)
-                .eventFilter(WorkflowInstanceStreamProcessor.eventFilter());
-
-        serviceContext.createService(streamProcessorServiceName, workflowStreamProcessorService)
-                .dependency(logStreamServiceName, workflowStreamProcessorService.getLogStreamInjector())
-                .dependency(SNAPSHOT_STORAGE_SERVICE, workflowStreamProcessorService.getSnapshotStorageInjector())
-                .dependency(ACTOR_SCHEDULER_SERVICE, workflowStreamProcessorService.getActorSchedulerInjector())
-                .install();
+                workflowCfg.payloadCacheSize,
+                workflowCfg.payloadStoreSize * 1024L * 1024L,
+                StateStoreFactory.forLogStream(streamProcessorCfg, logStreamName),
+                pendingBatchRequests);
     }
 
-    private void installIncidentStreamProcessor(final LogStream logStream)
+    private void installStreamProcessorService(
+            final LogStream logStream,
+            final ServiceName<StreamProcessorController> streamProcessorServiceName,
+            final StreamProcessorService streamProcessorService)
     {
-        final ServiceName<StreamProcessorController> streamProcessorServiceName = incidentStreamProcessorServiceName(logStream.getLogName());
-        final String streamProcessorName = streamProcessorServiceName.getName();
-
         final ServiceName<LogStream> logStreamServiceName = logStreamServiceName(logStream.getLogName());
 
-        final IncidentStreamProcessor incidentStreamProcessor = new IncidentStreamProcessor();
-
-        final StreamProcessorService incidentStreamProcessorService = new StreamProcessorService(
-                streamProcessorName,
-                INCIDENT_PROCESSOR_ID,
-                incidentStreamProcessor)
-                .eventFilter(IncidentStreamProcessor.eventFilter());
-
-        serviceContext.createService(streamProcessorServiceName, incidentStreamProcessorService)
-                .dependency(logStreamServiceName, incidentStreamProcessorService.getLogStreamInjector())
-                .dependency(SNAPSHOT_STORAGE_SERVICE, incidentStreamProcessorService.getSnapshotStorageInjector())
-                .dependency(ACTOR_SCHEDULER_SERVICE, incidentStreamProcessorService.getActorSchedulerInjector())
+        serviceContext.createService(streamProcessorServiceName, streamProcessorService)
+                .dependency(logStreamServiceName, streamProcessorService.getLogStreamInjector())
+                .dependency(SNAPSHOT_STORAGE_SERVICE, streamProcessorService.getSnapshotStorageInjector())
+                .dependency(SNAPSHOT_POLICY_FACTORY_SERVICE, streamProcessorService.getSnapshotPolicyFactoryInjector())
+                .dependency(ACTOR_SCHEDULER_SERVICE, streamProcessorService.getActorSchedulerInjector())
                 .install();
     }
 
@@ -169,6 +226,16 @@ public class WorkflowQueueManagerService implements Service<WorkflowQueueManager
         return managementServerInjector;
     }
 
+    public Injector<WorkflowRequestMessageHandler> getWorkflowRequestMessageHandlerInjector()
+    {
+        return workflowRequestMessageHandlerInjector;
+    }
+
+    public Injector<ClientApiMessageHandler> getClientApiMessageHandlerInjector()
+    {
+        return clientApiMessageHandlerInjector;
+    }
+
     public void addStream(LogStream logStream, ServiceName<LogStream> logStreamServiceName)
     {
         asyncContext.runAsync((r) ->
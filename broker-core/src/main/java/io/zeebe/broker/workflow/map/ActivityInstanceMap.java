@@ -21,8 +21,9 @@ import static org.agrona.BitUtil.*;
 
 import java.nio.ByteOrder;
 
-import io.zeebe.logstreams.snapshot.ZbMapSnapshotSupport;
-import io.zeebe.map.Long2BytesZbMap;
+import io.zeebe.broker.logstreams.state.Long2BytesStore;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
 import io.zeebe.model.bpmn.impl.ZeebeConstraints;
 import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -48,21 +49,24 @@ public class ActivityInstanceMap implements AutoCloseable
     private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[INDEX_VALUE_SIZE]);
     private final UnsafeBuffer activityIdBuffer = new UnsafeBuffer(new byte[SIZE_OF_ACTIVITY_ID]);
 
-    private final Long2BytesZbMap map;
-    private final ZbMapSnapshotSupport<Long2BytesZbMap> snapshotSupport;
+    private final Long2BytesStore map;
 
     private long key;
     private boolean isRead = false;
 
     public ActivityInstanceMap()
     {
-        this.map = new Long2BytesZbMap(INDEX_VALUE_SIZE);
-        this.snapshotSupport = new ZbMapSnapshotSupport<>(map);
+        this(StateStoreFactory.inMemory());
     }
 
-    public ZbMapSnapshotSupport<Long2BytesZbMap> getSnapshotSupport()
+    public ActivityInstanceMap(StateStoreFactory stateStoreFactory)
     {
-        return snapshotSupport;
+        this.map = stateStoreFactory.createStore("activity-instances", INDEX_VALUE_SIZE);
+    }
+
+    public ComposableSnapshotSupport getSnapshotSupport()
+    {
+        return map.getSnapshotSupport();
     }
 
     public void reset()
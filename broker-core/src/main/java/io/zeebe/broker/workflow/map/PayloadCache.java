@@ -26,12 +26,15 @@ import io.zeebe.util.cache.ExpandableBufferCache;
 import org.agrona.DirectBuffer;
 
 /**
- * Cache of workflow instance payload. It contains an LRU cache of the payload
- * and an map which holds the position of the payload events.
+ * Cache of workflow instance payload. It contains an off-heap store of the
+ * current payloads, an LRU cache of the payload and an map which holds the
+ * position of the payload events.
  *
  * <p>
- * When a payload is requested then the it is returned from the cache. If it is
- * not present in the cache then the payload event is seek in the log stream.
+ * When a payload is requested then it is returned from the store. If it is
+ * not present in the store (i.e. the memory budget of the store is exhausted)
+ * then it is returned from the cache. If it is not present in the cache then
+ * the payload event is seek in the log stream.
  */
 public class PayloadCache implements AutoCloseable
 {
@@ -40,14 +43,18 @@ public class PayloadCache implements AutoCloseable
     private final Long2LongZbMap map;
     private final ZbMapSnapshotSupport<Long2LongZbMap> snapshotSupport;
 
+    private final PayloadStore store;
+
     private final ExpandableBufferCache cache;
     private final LogStreamReader logStreamReader;
 
-    public PayloadCache(int cacheSize, LogStreamReader logStreamReader)
+    public PayloadCache(int cacheSize, long storeSize, LogStreamReader logStreamReader)
     {
         this.map = new Long2LongZbMap();
         this.snapshotSupport = new ZbMapSnapshotSupport<>(map);
 
+        this.store = new PayloadStore(storeSize);
+
         this.logStreamReader = logStreamReader;
         this.cache = new ExpandableBufferCache(cacheSize, 1024, this::lookupPayload);
     }
@@ -72,11 +79,11 @@ public class PayloadCache implements AutoCloseable
 
     public DirectBuffer getPayload(long workflowInstanceKey)
     {
-        DirectBuffer payload = null;
+        DirectBuffer payload = store.get(workflowInstanceKey);
 
         final long position = map.get(workflowInstanceKey, -1L);
 
-        if (position > 0)
+        if (payload == null && position > 0)
         {
             payload = cache.get(position);
         }
@@ -86,12 +93,18 @@ public class PayloadCache implements AutoCloseable
     public void addPayload(long workflowInstanceKey, long payloadEventPosition, DirectBuffer payload)
     {
         map.put(workflowInstanceKey, payloadEventPosition);
-        cache.put(payloadEventPosition, payload);
+
+        final boolean stored = store.put(workflowInstanceKey, payload);
+        if (!stored)
+        {
+            cache.put(payloadEventPosition, payload);
+        }
     }
 
     public void remove(long workflowInstanceKey)
     {
         map.remove(workflowInstanceKey, -1L);
+        store.remove(workflowInstanceKey);
     }
 
     public ZbMapSnapshotSupport<Long2LongZbMap> getSnapshotSupport()
@@ -99,10 +112,16 @@ public class PayloadCache implements AutoCloseable
         return snapshotSupport;
     }
 
+    public PayloadStore getStoreSnapshotSupport()
+    {
+        return store;
+    }
+
     @Override
     public void close()
     {
         map.close();
+        store.close();
     }
 
 }
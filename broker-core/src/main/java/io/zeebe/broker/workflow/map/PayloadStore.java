@@ -0,0 +1,433 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.workflow.map;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+
+/**
+ * Off-heap store of the current payload of workflow instances, keyed by
+ * <b>workflow instance key</b>.
+ *
+ * <p>
+ * The memory is allocated in pages up to the given budget. Each page is
+ * divided into slots of one size class. A slot holds the length of the payload
+ * followed by the payload itself. A page is released when all of its slots are
+ * free, so that it can be reused for another size class. If a payload doesn't
+ * fit into the largest size class or the budget is exhausted then it is not
+ * stored and {@link #put(long, DirectBuffer)} returns <code>false</code>.
+ */
+public class PayloadStore implements ComposableSnapshotSupport, AutoCloseable
+{
+    private static final int[] SLOT_SIZES = {256, 1024, 4096, 16 * 1024, 64 * 1024};
+
+    static final int PAGE_SIZE = 256 * 1024;
+
+    private static final int NO_SIZE_CLASS = -1;
+    private static final long NO_ADDRESS = -1L;
+
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private final int maxPages;
+
+    private final List<Page> pages = new ArrayList<>();
+    private final IntArrayList freePages = new IntArrayList();
+
+    /**
+     * size class -> indexes of the pages of this class which have a free slot
+     */
+    private final IntArrayList[] availablePages = new IntArrayList[SLOT_SIZES.length];
+
+    /**
+     * workflow instance key -> slot address
+     */
+    private final Long2LongHashMap slotAddresses = new Long2LongHashMap(NO_ADDRESS);
+
+    private final UnsafeBuffer payloadView = new UnsafeBuffer(0, 0);
+    private final UnsafeBuffer readBuffer = new UnsafeBuffer(0, 0);
+
+    private byte[] copyBuffer = new byte[SLOT_SIZES[SLOT_SIZES.length - 1]];
+
+    private long payloadBytes = 0;
+
+    /**
+     * @param memoryBudget the maximum size of the store in bytes
+     */
+    public PayloadStore(long memoryBudget)
+    {
+        this.maxPages = (int) Math.min(Integer.MAX_VALUE / PAGE_SIZE, memoryBudget / PAGE_SIZE);
+
+        for (int i = 0; i < availablePages.length; i++)
+        {
+            availablePages[i] = new IntArrayList();
+        }
+    }
+
+    /**
+     * @return the payload or <code>null</code> if it is not stored. The
+     *         returned buffer is only valid until the store is modified.
+     */
+    public DirectBuffer get(long workflowInstanceKey)
+    {
+        final long address = slotAddresses.get(workflowInstanceKey);
+
+        if (address != NO_ADDRESS)
+        {
+            final UnsafeBuffer page = pages.get(pageIndex(address)).buffer;
+            final int offset = pageOffset(address);
+            final int length = page.getInt(offset, BYTE_ORDER);
+
+            payloadView.wrap(page, offset + SIZE_OF_INT, length);
+            return payloadView;
+        }
+        else
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the payload and replaces the previous payload of the workflow
+     * instance.
+     *
+     * @return <code>true</code> if the payload is stored, <code>false</code>
+     *         if it is too large or the memory budget is exhausted. In this
+     *         case, the previous payload is removed.
+     */
+    public boolean put(long workflowInstanceKey, DirectBuffer payload)
+    {
+        final int length = payload.capacity();
+        final int sizeClass = sizeClassOf(length + SIZE_OF_INT);
+
+        if (sizeClass != NO_SIZE_CLASS)
+        {
+            // copy the payload before the old slot is released since the
+            // given payload can be a view on it
+            payload.getBytes(0, copyBuffer, 0, length);
+        }
+
+        // release the old slot first so that a replacement doesn't need
+        // additional memory when the budget is exhausted
+        remove(workflowInstanceKey);
+
+        long address = NO_ADDRESS;
+        if (sizeClass != NO_SIZE_CLASS)
+        {
+            address = allocateSlot(sizeClass);
+        }
+
+        if (address != NO_ADDRESS)
+        {
+            final UnsafeBuffer page = pages.get(pageIndex(address)).buffer;
+            final int offset = pageOffset(address);
+
+            page.putInt(offset, length, BYTE_ORDER);
+            page.putBytes(offset + SIZE_OF_INT, copyBuffer, 0, length);
+
+            slotAddresses.put(workflowInstanceKey, address);
+            payloadBytes += length;
+        }
+
+        return address != NO_ADDRESS;
+    }
+
+    public void remove(long workflowInstanceKey)
+    {
+        final long address = slotAddresses.remove(workflowInstanceKey);
+
+        if (address != NO_ADDRESS)
+        {
+            final int pageIndex = pageIndex(address);
+            final int offset = pageOffset(address);
+            final Page page = pages.get(pageIndex);
+
+            payloadBytes -= page.buffer.getInt(offset, BYTE_ORDER);
+
+            releaseSlot(pageIndex, page, offset);
+        }
+    }
+
+    private long allocateSlot(int sizeClass)
+    {
+        final IntArrayList pagesOfClass = availablePages[sizeClass];
+
+        if (pagesOfClass.isEmpty())
+        {
+            final int pageIndex = allocatePage();
+            if (pageIndex < 0)
+            {
+                return NO_ADDRESS;
+            }
+
+            pages.get(pageIndex).init(sizeClass);
+            pagesOfClass.addInt(pageIndex);
+        }
+
+        final int pageIndex = pagesOfClass.getInt(pagesOfClass.size() - 1);
+        final Page page = pages.get(pageIndex);
+
+        final int offset = page.allocateSlot();
+
+        if (!page.hasFreeSlot())
+        {
+            pagesOfClass.fastUnorderedRemove(pagesOfClass.size() - 1);
+        }
+
+        return (long) pageIndex * PAGE_SIZE + offset;
+    }
+
+    private void releaseSlot(int pageIndex, Page page, int offset)
+    {
+        final IntArrayList pagesOfClass = availablePages[page.sizeClass];
+
+        if (!page.hasFreeSlot())
+        {
+            pagesOfClass.addInt(pageIndex);
+        }
+
+        page.releaseSlot(offset);
+
+        if (page.usedSlots == 0)
+        {
+            // release the page so that it can be used by any size class
+            pagesOfClass.removeInt(pageIndex);
+            freePages.addInt(pageIndex);
+        }
+    }
+
+    private int allocatePage()
+    {
+        int pageIndex = -1;
+
+        if (!freePages.isEmpty())
+        {
+            pageIndex = freePages.fastUnorderedRemove(freePages.size() - 1);
+        }
+        else if (pages.size() < maxPages)
+        {
+            pageIndex = pages.size();
+            pages.add(new Page(ByteBuffer.allocateDirect(PAGE_SIZE)));
+        }
+
+        return pageIndex;
+    }
+
+    /**
+     * @return the number of pages which are allocated and not free
+     */
+    int getUsedPageCount()
+    {
+        return pages.size() - freePages.size();
+    }
+
+    private static int sizeClassOf(int slotLength)
+    {
+        for (int i = 0; i < SLOT_SIZES.length; i++)
+        {
+            if (slotLength <= SLOT_SIZES[i])
+            {
+                return i;
+            }
+        }
+        return NO_SIZE_CLASS;
+    }
+
+    private static int pageIndex(long address)
+    {
+        return (int) (address / PAGE_SIZE);
+    }
+
+    private static int pageOffset(long address)
+    {
+        return (int) (address % PAGE_SIZE);
+    }
+
+    @Override
+    public long snapshotSize()
+    {
+        return SIZE_OF_INT + (long) slotAddresses.size() * (SIZE_OF_LONG + SIZE_OF_INT) + payloadBytes;
+    }
+
+    @Override
+    public void writeSnapshot(OutputStream outputStream) throws Exception
+    {
+        final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+
+        dataOutputStream.writeInt(slotAddresses.size());
+
+        final Long2LongHashMap.KeyIterator keys = slotAddresses.keySet().iterator();
+        while (keys.hasNext())
+        {
+            final long workflowInstanceKey = keys.nextValue();
+            final DirectBuffer payload = get(workflowInstanceKey);
+
+            final int length = payload.capacity();
+
+            dataOutputStream.writeLong(workflowInstanceKey);
+            dataOutputStream.writeInt(length);
+
+            payload.getBytes(0, copyBuffer, 0, length);
+            dataOutputStream.write(copyBuffer, 0, length);
+        }
+
+        dataOutputStream.flush();
+    }
+
+    @Override
+    public void recoverFromSnapshot(InputStream inputStream) throws Exception
+    {
+        reset();
+
+        final DataInputStream dataInputStream = new DataInputStream(inputStream);
+
+        final int count = dataInputStream.readInt();
+
+        for (int i = 0; i < count; i++)
+        {
+            final long workflowInstanceKey = dataInputStream.readLong();
+            final int length = dataInputStream.readInt();
+
+            if (length > copyBuffer.length)
+            {
+                copyBuffer = new byte[length];
+            }
+            dataInputStream.readFully(copyBuffer, 0, length);
+
+            readBuffer.wrap(copyBuffer, 0, length);
+            put(workflowInstanceKey, readBuffer);
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        slotAddresses.clear();
+        payloadBytes = 0;
+
+        for (int i = 0; i < availablePages.length; i++)
+        {
+            availablePages[i].clear();
+        }
+
+        freePages.clear();
+        for (int i = pages.size() - 1; i >= 0; i--)
+        {
+            freePages.addInt(i);
+        }
+    }
+
+    /**
+     * Frees the memory of the store. It must not be used afterwards.
+     */
+    @Override
+    public void close()
+    {
+        reset();
+
+        // the pages are allocated by ByteBuffer#allocateDirect which returns
+        // a MappedByteBuffer, so that the unmap invokes its cleaner and the
+        // memory is freed without waiting for a GC
+        for (int i = 0; i < pages.size(); i++)
+        {
+            IoUtil.unmap(pages.get(i).buffer.byteBuffer());
+        }
+
+        pages.clear();
+        freePages.clear();
+    }
+
+    private static class Page
+    {
+        private final UnsafeBuffer buffer;
+
+        /**
+         * offsets of released slots
+         */
+        private final IntArrayList freeOffsets = new IntArrayList();
+
+        private int sizeClass = NO_SIZE_CLASS;
+        private int slotSize;
+        private int usedSlots;
+
+        /**
+         * the offset of the first slot which was never used since the page is
+         * initialized, so that a page doesn't need to be divided up front
+         */
+        private int nextOffset;
+
+        Page(ByteBuffer byteBuffer)
+        {
+            this.buffer = new UnsafeBuffer(byteBuffer);
+        }
+
+        void init(int sizeClass)
+        {
+            this.sizeClass = sizeClass;
+            this.slotSize = SLOT_SIZES[sizeClass];
+            this.usedSlots = 0;
+            this.nextOffset = 0;
+            this.freeOffsets.clear();
+        }
+
+        boolean hasFreeSlot()
+        {
+            return !freeOffsets.isEmpty() || nextOffset + slotSize <= PAGE_SIZE;
+        }
+
+        int allocateSlot()
+        {
+            final int offset;
+
+            if (!freeOffsets.isEmpty())
+            {
+                offset = freeOffsets.fastUnorderedRemove(freeOffsets.size() - 1);
+            }
+            else
+            {
+                offset = nextOffset;
+                nextOffset += slotSize;
+            }
+
+            usedSlots += 1;
+            return offset;
+        }
+
+        void releaseSlot(int offset)
+        {
+            freeOffsets.addInt(offset);
+            usedSlots -= 1;
+        }
+    }
+
+}
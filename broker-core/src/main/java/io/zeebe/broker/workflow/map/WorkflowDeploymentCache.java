@@ -19,9 +19,11 @@ package io.zeebe.broker.workflow.map;
 
 import static org.agrona.BitUtil.*;
 
+import java.lang.ref.SoftReference;
 import java.nio.ByteOrder;
 import java.util.Iterator;
 
+import io.zeebe.broker.util.LongLruCache;
 import io.zeebe.broker.workflow.data.WorkflowEvent;
 import io.zeebe.logstreams.log.LogStreamReader;
 import io.zeebe.logstreams.log.LoggedEvent;
@@ -34,7 +36,7 @@ import io.zeebe.model.bpmn.instance.Workflow;
 import io.zeebe.model.bpmn.instance.WorkflowDefinition;
 import io.zeebe.util.buffer.BufferUtil;
 import org.agrona.DirectBuffer;
-import org.agrona.collections.LongLruCache;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
 
 /**
@@ -43,9 +45,15 @@ import org.agrona.concurrent.UnsafeBuffer;
  * process id + version to workflow key.
  *
  * <p>
- * When a workflow is requested then the parsed workflow is returned from the
- * cache. If it is not present in the cache then the deployed event is seek in
- * the log stream.
+ * A workflow is parsed when it is deployed and the parsed workflow is put into
+ * the cache directly, so that a new workflow is not read from the log stream
+ * and parsed again.
+ *
+ * <p>
+ * A workflow which is evicted from the cache is kept as soft reference. When it
+ * is requested again then it is put back into the cache. Only if the garbage
+ * collector has cleared the reference then the deployed event is seek in the
+ * log stream and the workflow is parsed again.
  */
 public class WorkflowDeploymentCache implements AutoCloseable
 {
@@ -77,6 +85,11 @@ public class WorkflowDeploymentCache implements AutoCloseable
     private final LongLruCache<DeployedWorkflow> cache;
     private final LogStreamReader logStreamReader;
 
+    /**
+     * parsed workflows which are evicted from the cache - they are released by the garbage collector on demand
+     */
+    final Long2ObjectHashMap<SoftReference<DeployedWorkflow>> evictedWorkflows = new Long2ObjectHashMap<>();
+
     private final BpmnModelApi bpmn = new BpmnModelApi();
 
     public WorkflowDeploymentCache(int cacheSize, LogStreamReader logStreamReader)
@@ -88,8 +101,7 @@ public class WorkflowDeploymentCache implements AutoCloseable
         this.keyPositionSnapshot = new ZbMapSnapshotSupport<>(keyToPositionWorkflowMap);
 
         this.logStreamReader = logStreamReader;
-        this.cache = new LongLruCache<>(cacheSize, this::lookupWorkflow, (workflow) ->
-        { });
+        this.cache = new LongLruCache<>(cacheSize, (workflowKey, workflow) -> evictedWorkflows.put(workflowKey, new SoftReference<>(workflow)));
     }
 
     public ZbMapSnapshotSupport<Bytes2LongZbMap> getIdVersionSnapshot()
@@ -112,10 +124,16 @@ public class WorkflowDeploymentCache implements AutoCloseable
 
     public void addDeployedWorkflow(long eventPosition, long workflowKey, WorkflowEvent event)
     {
+        final WorkflowDefinition workflowDefinition = bpmn.readFromXmlBuffer(event.getBpmnXml());
+        final int workflowIndex = getWorkflowIndex(workflowDefinition, event.getBpmnProcessId());
+
         positionWorkflowValueBuffer.putLong(POSITION_OFFSET, eventPosition, BYTE_ORDER);
-        positionWorkflowValueBuffer.putInt(WORKFLOW_INDEX_OFFSET, getWorkflowIndex(event), BYTE_ORDER);
+        positionWorkflowValueBuffer.putInt(WORKFLOW_INDEX_OFFSET, workflowIndex, BYTE_ORDER);
         keyToPositionWorkflowMap.put(workflowKey, positionWorkflowValueBuffer);
 
+        final Workflow workflow = getWorkflowAt(workflowDefinition, workflowIndex);
+        cache.put(workflowKey, new DeployedWorkflow(workflow, event.getVersion()));
+
         wrapIdVersionKey(event.getBpmnProcessId(), event.getVersion());
         idVersionToKeyMap.put(idVersionKeyBuffer, 0, idVersionKeyBufferLength, workflowKey);
 
@@ -124,14 +142,10 @@ public class WorkflowDeploymentCache implements AutoCloseable
         idVersionToKeyMap.put(idVersionKeyBuffer, 0, idVersionKeyBufferLength, workflowKey);
     }
 
-    private int getWorkflowIndex(WorkflowEvent event)
+    private int getWorkflowIndex(WorkflowDefinition workflowDefinition, DirectBuffer bpmnProcessId)
     {
-        final DirectBuffer bpmnProcessId = event.getBpmnProcessId();
-        final DirectBuffer bpmnXml = event.getBpmnXml();
-
         int index = 0;
 
-        final WorkflowDefinition workflowDefinition = bpmn.readFromXmlBuffer(bpmnXml);
         final Iterator<Workflow> workflows = workflowDefinition.getWorkflows().iterator();
         while (workflows.hasNext())
         {
@@ -149,6 +163,9 @@ public class WorkflowDeploymentCache implements AutoCloseable
     {
         keyToPositionWorkflowMap.remove(workflowKey);
 
+        cache.remove(workflowKey);
+        evictedWorkflows.remove(workflowKey);
+
         wrapIdVersionKey(bpmnProcessId, version);
         idVersionToKeyMap.remove(idVersionKeyBuffer, 0, idVersionKeyBufferLength, -1L);
 
@@ -178,12 +195,39 @@ public class WorkflowDeploymentCache implements AutoCloseable
         if (workflowKey >= 0)
         {
             workflow = cache.lookup(workflowKey);
+
+            if (workflow == null)
+            {
+                workflow = lookupEvictedWorkflow(workflowKey);
+
+                if (workflow == null)
+                {
+                    workflow = readWorkflow(workflowKey);
+                }
+
+                if (workflow != null)
+                {
+                    cache.put(workflowKey, workflow);
+                }
+            }
         }
 
         return workflow;
     }
 
-    private DeployedWorkflow lookupWorkflow(long key)
+    private DeployedWorkflow lookupEvictedWorkflow(long key)
+    {
+        DeployedWorkflow deployedWorkflow = null;
+
+        final SoftReference<DeployedWorkflow> reference = evictedWorkflows.remove(key);
+        if (reference != null)
+        {
+            deployedWorkflow = reference.get();
+        }
+        return deployedWorkflow;
+    }
+
+    private DeployedWorkflow readWorkflow(long key)
     {
         DeployedWorkflow deployedWorkflow = null;
 
@@ -239,6 +283,9 @@ public class WorkflowDeploymentCache implements AutoCloseable
     {
         idVersionToKeyMap.close();
         keyToPositionWorkflowMap.close();
+
+        cache.clear();
+        evictedWorkflows.clear();
     }
 
 }
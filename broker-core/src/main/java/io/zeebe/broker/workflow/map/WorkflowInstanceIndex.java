@@ -21,12 +21,12 @@ import static org.agrona.BitUtil.SIZE_OF_INT;
 import static org.agrona.BitUtil.SIZE_OF_LONG;
 
 import java.nio.ByteOrder;
-import java.util.Iterator;
 
-import io.zeebe.logstreams.snapshot.ZbMapSnapshotSupport;
-import io.zeebe.map.Long2BytesZbMap;
-import io.zeebe.map.iterator.Long2BytesZbMapEntry;
+import io.zeebe.broker.logstreams.state.Long2BytesStore;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
 import org.agrona.DirectBuffer;
+import org.agrona.collections.LongArrayList;
 import org.agrona.concurrent.UnsafeBuffer;
 
 /**
@@ -36,6 +36,11 @@ import org.agrona.concurrent.UnsafeBuffer;
  * <li>workflow key
  * <li>active token count
  * <li>activity instance key
+ *
+ * <p>
+ * The instance keys are indexed by workflow key as well (see
+ * {@link WorkflowInstancesByWorkflow}), so that the instances of a workflow
+ * can be found without iterating over all instances.
  */
 public class WorkflowInstanceIndex implements AutoCloseable
 {
@@ -49,25 +54,51 @@ public class WorkflowInstanceIndex implements AutoCloseable
     private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
 
     private final WorkflowInstance workflowInstance = new WorkflowInstance();
-    private final WorkflowInstanceIterator iterator = new WorkflowInstanceIterator();
 
-    private final Long2BytesZbMap map;
-    private final ZbMapSnapshotSupport<Long2BytesZbMap> snapshotSupport;
+    private final Long2BytesStore map;
+
+    private final WorkflowInstancesByWorkflow instancesByWorkflow = new WorkflowInstancesByWorkflow();
 
     public WorkflowInstanceIndex()
     {
-        this.map = new Long2BytesZbMap(INDEX_VALUE_SIZE);
-        this.snapshotSupport = new ZbMapSnapshotSupport<>(map);
+        this(StateStoreFactory.inMemory());
+    }
+
+    public WorkflowInstanceIndex(StateStoreFactory stateStoreFactory)
+    {
+        this.map = stateStoreFactory.createStore("workflow-instances", INDEX_VALUE_SIZE);
     }
 
-    public ZbMapSnapshotSupport<Long2BytesZbMap> getSnapshotSupport()
+    public ComposableSnapshotSupport getSnapshotSupport()
     {
-        return snapshotSupport;
+        return map.getSnapshotSupport();
+    }
+
+    public WorkflowInstancesByWorkflow getInstancesByWorkflowSnapshotSupport()
+    {
+        return instancesByWorkflow;
     }
 
     public void remove(long workflowInstanceKey)
     {
-        map.remove(workflowInstanceKey);
+        final DirectBuffer value = map.get(workflowInstanceKey);
+        if (value != null)
+        {
+            final long workflowKey = value.getLong(WORKFLOW_KEY_OFFSET, BYTE_ORDER);
+            instancesByWorkflow.remove(workflowKey, workflowInstanceKey);
+
+            map.remove(workflowInstanceKey);
+        }
+    }
+
+    /**
+     * Adds the keys of the active instances of the given workflow to the
+     * given list. The cost is proportional to the number of instances of this
+     * workflow.
+     */
+    public void collectWorkflowInstanceKeys(long workflowKey, LongArrayList target)
+    {
+        instancesByWorkflow.collectWorkflowInstanceKeys(workflowKey, target);
     }
 
     public WorkflowInstance get(long key)
@@ -90,44 +121,12 @@ public class WorkflowInstanceIndex implements AutoCloseable
         return workflowInstance;
     }
 
-    public Iterator<WorkflowInstance> iterator()
-    {
-        iterator.reset();
-        return iterator;
-    }
-
     @Override
     public void close()
     {
         map.close();
     }
 
-    public class WorkflowInstanceIterator implements Iterator<WorkflowInstance>
-    {
-        private Iterator<Long2BytesZbMapEntry> iterator;
-        private WorkflowInstance workflowInstance = new WorkflowInstance();
-
-        public void reset()
-        {
-            iterator = map.iterator();
-        }
-
-        @Override
-        public boolean hasNext()
-        {
-            return iterator.hasNext();
-        }
-
-        @Override
-        public WorkflowInstance next()
-        {
-            final Long2BytesZbMapEntry entry = iterator.next();
-            workflowInstance.wrap(entry.getKey(), entry.getValue());
-
-            return workflowInstance;
-        }
-    }
-
     public class WorkflowInstance
     {
         private long workflowInstanceKey;
@@ -197,6 +196,9 @@ public class WorkflowInstanceIndex implements AutoCloseable
         public void write()
         {
             map.put(workflowInstanceKey, currentValue);
+
+            // no-op if the instance is indexed already
+            instancesByWorkflow.add(getWorkflowKey(), workflowInstanceKey);
         }
 
         @Override
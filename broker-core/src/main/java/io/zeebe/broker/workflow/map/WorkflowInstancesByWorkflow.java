@@ -0,0 +1,188 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.workflow.map;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+import io.zeebe.logstreams.spi.ComposableSnapshotSupport;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
+
+/**
+ * Secondary index of the workflow instance index which maps <b>workflow
+ * key</b> to the keys of its active workflow instances.
+ *
+ * <p>
+ * The instance keys of a workflow are kept in an unordered list. The position
+ * of each key in its list is indexed as well, so that an instance can be
+ * removed in constant time by replacing it with the last key of the list.
+ */
+public class WorkflowInstancesByWorkflow implements ComposableSnapshotSupport
+{
+    private static final long NO_INDEX = -1L;
+
+    private final Long2ObjectHashMap<LongArrayList> instanceKeysByWorkflowKey = new Long2ObjectHashMap<>();
+
+    /**
+     * workflow instance key -> index in the list of its workflow
+     */
+    private final Long2LongHashMap instanceKeyIndices = new Long2LongHashMap(NO_INDEX);
+
+    private int instanceCount = 0;
+
+    public void add(long workflowKey, long workflowInstanceKey)
+    {
+        if (instanceKeyIndices.get(workflowInstanceKey) == NO_INDEX)
+        {
+            LongArrayList instanceKeys = instanceKeysByWorkflowKey.get(workflowKey);
+            if (instanceKeys == null)
+            {
+                instanceKeys = new LongArrayList();
+                instanceKeysByWorkflowKey.put(workflowKey, instanceKeys);
+            }
+
+            instanceKeyIndices.put(workflowInstanceKey, instanceKeys.size());
+            instanceKeys.addLong(workflowInstanceKey);
+
+            instanceCount += 1;
+        }
+    }
+
+    public void remove(long workflowKey, long workflowInstanceKey)
+    {
+        final long index = instanceKeyIndices.get(workflowInstanceKey);
+        final LongArrayList instanceKeys = instanceKeysByWorkflowKey.get(workflowKey);
+
+        // ignore the instance if it is not indexed for the given workflow
+        if (index != NO_INDEX
+                && instanceKeys != null
+                && index < instanceKeys.size()
+                && instanceKeys.getLong((int) index) == workflowInstanceKey)
+        {
+            instanceKeyIndices.remove(workflowInstanceKey);
+
+            final int lastIndex = instanceKeys.size() - 1;
+            final long lastInstanceKey = instanceKeys.getLong(lastIndex);
+
+            if (index != lastIndex)
+            {
+                instanceKeys.setLong((int) index, lastInstanceKey);
+                instanceKeyIndices.put(lastInstanceKey, index);
+            }
+            instanceKeys.fastUnorderedRemove(lastIndex);
+
+            if (instanceKeys.isEmpty())
+            {
+                instanceKeysByWorkflowKey.remove(workflowKey);
+            }
+
+            instanceCount -= 1;
+        }
+    }
+
+    /**
+     * Adds the keys of the active instances of the given workflow to the
+     * given list.
+     */
+    public void collectWorkflowInstanceKeys(long workflowKey, LongArrayList target)
+    {
+        final LongArrayList instanceKeys = instanceKeysByWorkflowKey.get(workflowKey);
+        if (instanceKeys != null)
+        {
+            for (int i = 0; i < instanceKeys.size(); i++)
+            {
+                target.addLong(instanceKeys.getLong(i));
+            }
+        }
+    }
+
+    public int getWorkflowInstanceCount(long workflowKey)
+    {
+        final LongArrayList instanceKeys = instanceKeysByWorkflowKey.get(workflowKey);
+        return instanceKeys != null ? instanceKeys.size() : 0;
+    }
+
+    @Override
+    public long snapshotSize()
+    {
+        return SIZE_OF_INT
+                + (long) instanceKeysByWorkflowKey.size() * (SIZE_OF_LONG + SIZE_OF_INT)
+                + (long) instanceCount * SIZE_OF_LONG;
+    }
+
+    @Override
+    public void writeSnapshot(OutputStream outputStream) throws Exception
+    {
+        final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+
+        dataOutputStream.writeInt(instanceKeysByWorkflowKey.size());
+
+        for (Map.Entry<Long, LongArrayList> entry : instanceKeysByWorkflowKey.entrySet())
+        {
+            final LongArrayList instanceKeys = entry.getValue();
+
+            dataOutputStream.writeLong(entry.getKey());
+            dataOutputStream.writeInt(instanceKeys.size());
+
+            for (int i = 0; i < instanceKeys.size(); i++)
+            {
+                dataOutputStream.writeLong(instanceKeys.getLong(i));
+            }
+        }
+
+        dataOutputStream.flush();
+    }
+
+    @Override
+    public void recoverFromSnapshot(InputStream inputStream) throws Exception
+    {
+        reset();
+
+        final DataInputStream dataInputStream = new DataInputStream(inputStream);
+
+        final int workflowCount = dataInputStream.readInt();
+
+        for (int i = 0; i < workflowCount; i++)
+        {
+            final long workflowKey = dataInputStream.readLong();
+            final int count = dataInputStream.readInt();
+
+            for (int j = 0; j < count; j++)
+            {
+                add(workflowKey, dataInputStream.readLong());
+            }
+        }
+    }
+
+    @Override
+    public void reset()
+    {
+        instanceKeysByWorkflowKey.clear();
+        instanceKeyIndices.clear();
+        instanceCount = 0;
+    }
+
+}
@@ -26,12 +26,19 @@ import java.util.*;
 
 import io.zeebe.broker.incident.IncidentEventWriter;
 import io.zeebe.broker.incident.data.ErrorType;
+import io.zeebe.broker.logstreams.processor.EventStateFilter;
+import io.zeebe.broker.logstreams.processor.EventValueFilter;
 import io.zeebe.broker.logstreams.processor.MetadataFilter;
+import io.zeebe.broker.logstreams.state.StateStoreFactory;
 import io.zeebe.broker.system.deployment.handler.CreateWorkflowResponseSender;
 import io.zeebe.broker.task.data.TaskEvent;
 import io.zeebe.broker.task.data.TaskHeaders;
 import io.zeebe.broker.task.data.TaskState;
+import io.zeebe.broker.transport.clientapi.BatchResponseSender;
 import io.zeebe.broker.transport.clientapi.CommandResponseWriter;
+import io.zeebe.broker.transport.clientapi.PendingBatchRequests;
+import io.zeebe.broker.util.MsgPackProjection;
+import io.zeebe.broker.util.MsgPackProjection.EnumLookup;
 import io.zeebe.broker.workflow.data.*;
 import io.zeebe.broker.workflow.map.*;
 import io.zeebe.broker.workflow.map.DeployedWorkflow;
@@ -58,6 +65,8 @@ public class WorkflowInstanceStreamProcessor implements StreamProcessor
 {
     private static final UnsafeBuffer EMPTY_TASK_TYPE = new UnsafeBuffer("".getBytes());
 
+    private static final int STATE_PROPERTY = 0;
+
     // processors ////////////////////////////////////
     protected final WorkflowCreateEventProcessor workflowCreateEventProcessor = new WorkflowCreateEventProcessor();
     protected final WorkflowDeleteEventProcessor workflowDeleteEventProcessor = new WorkflowDeleteEventProcessor();
@@ -93,10 +102,13 @@ public class WorkflowInstanceStreamProcessor implements StreamProcessor
     protected final WorkflowEvent workflowEvent = new WorkflowEvent();
     protected final WorkflowInstanceEvent workflowInstanceEvent = new WorkflowInstanceEvent();
     protected final TaskEvent taskEvent = new TaskEvent();
+    protected final MsgPackProjection taskStateProjection = new MsgPackProjection("state");
+    protected final EnumLookup<TaskState> taskStates = new EnumLookup<>(TaskState.class);
 
     // internal //////////////////////////////////////
 
     protected final CommandResponseWriter responseWriter;
+    protected final BatchResponseSender batchResponseSender;
 
     protected final WorkflowInstanceIndex workflowInstanceIndex;
     protected final ActivityInstanceMap activityInstanceMap;
@@ -125,16 +137,41 @@ public class WorkflowInstanceStreamProcessor implements StreamProcessor
             CommandResponseWriter responseWriter,
             CreateWorkflowResponseSender createWorkflowResponseSender,
             int deploymentCacheSize,
-            int payloadCacheSize)
+            int payloadCacheSize,
+            long payloadStoreSize)
+    {
+        this(responseWriter, createWorkflowResponseSender, deploymentCacheSize, payloadCacheSize, payloadStoreSize, StateStoreFactory.inMemory());
+    }
+
+    public WorkflowInstanceStreamProcessor(
+            CommandResponseWriter responseWriter,
+            CreateWorkflowResponseSender createWorkflowResponseSender,
+            int deploymentCacheSize,
+            int payloadCacheSize,
+            long payloadStoreSize,
+            StateStoreFactory stateStoreFactory)
+    {
+        this(responseWriter, createWorkflowResponseSender, deploymentCacheSize, payloadCacheSize, payloadStoreSize, stateStoreFactory, new PendingBatchRequests());
+    }
+
+    public WorkflowInstanceStreamProcessor(
+            CommandResponseWriter responseWriter,
+            CreateWorkflowResponseSender createWorkflowResponseSender,
+            int deploymentCacheSize,
+            int payloadCacheSize,
+            long payloadStoreSize,
+            StateStoreFactory stateStoreFactory,
+            PendingBatchRequests pendingBatchRequests)
     {
         this.responseWriter = responseWriter;
+        this.batchResponseSender = new BatchResponseSender(responseWriter, pendingBatchRequests);
         this.logStreamReader = new BufferedLogStreamReader();
 
         this.workflowDeploymentCache = new WorkflowDeploymentCache(deploymentCacheSize, logStreamReader);
-        this.payloadCache = new PayloadCache(payloadCacheSize, logStreamReader);
+        this.payloadCache = new PayloadCache(payloadCacheSize, payloadStoreSize, logStreamReader);
 
-        this.workflowInstanceIndex = new WorkflowInstanceIndex();
-        this.activityInstanceMap = new ActivityInstanceMap();
+        this.workflowInstanceIndex = new WorkflowInstanceIndex(stateStoreFactory);
+        this.activityInstanceMap = new ActivityInstanceMap(stateStoreFactory);
 
         this.payloadMappingProcessor = new MappingProcessor(4096);
 
@@ -142,10 +179,12 @@ public class WorkflowInstanceStreamProcessor implements StreamProcessor
 
         this.composedSnapshot = new ComposedSnapshot(
             workflowInstanceIndex.getSnapshotSupport(),
+            workflowInstanceIndex.getInstancesByWorkflowSnapshotSupport(),
             activityInstanceMap.getSnapshotSupport(),
             workflowDeploymentCache.getIdVersionSnapshot(),
             workflowDeploymentCache.getKeyPositionSnapshot(),
-            payloadCache.getSnapshotSupport());
+            payloadCache.getSnapshotSupport(),
+            payloadCache.getStoreSnapshotSupport());
 
     }
 
@@ -192,6 +231,17 @@ public class WorkflowInstanceStreamProcessor implements StreamProcessor
                 || m.getEventType() == EventType.WORKFLOW_EVENT;
     }
 
+    /**
+     * @return a filter which accepts the task and workflow events that are
+     *         handled by this processor
+     */
+    public static EventValueFilter stateFilter()
+    {
+        return new EventStateFilter()
+            .accept(EventType.TASK_EVENT, TaskState.CREATED, TaskState.COMPLETED)
+            .accept(EventType.WORKFLOW_EVENT, WorkflowState.CREATE, WorkflowState.DELETE);
+    }
+
     @Override
     public EventProcessor onEvent(LoggedEvent event)
     {
@@ -289,20 +339,38 @@ public class WorkflowInstanceStreamProcessor implements StreamProcessor
 
     protected EventProcessor onTaskEvent(LoggedEvent event)
     {
-        taskEvent.reset();
-        event.readValue(taskEvent);
+        // only created and completed tasks are handled - read the value only in this case
+        event.readValue(taskStateProjection);
 
-        switch (taskEvent.getState())
+        final TaskState state = taskStateProjection.getEnum(STATE_PROPERTY, taskStates);
+        if (state == null)
+        {
+            return null;
+        }
+
+        EventProcessor eventProcessor = null;
+
+        switch (state)
         {
             case CREATED:
-                return taskCreatedEventProcessor;
+                eventProcessor = taskCreatedEventProcessor;
+                break;
 
             case COMPLETED:
-                return taskCompletedEventProcessor;
+                eventProcessor = taskCompletedEventProcessor;
+                break;
 
             default:
-                return null;
+                break;
+        }
+
+        if (eventProcessor != null)
+        {
+            taskEvent.reset();
+            event.readValue(taskEvent);
         }
+
+        return eventProcessor;
     }
 
     protected EventProcessor onWorkflowEvent(LoggedEvent event)
@@ -387,6 +455,11 @@ public class WorkflowInstanceStreamProcessor implements StreamProcessor
 
     protected boolean sendWorkflowInstanceResponse()
     {
+        if (batchResponseSender.isBatchCommand(sourceEventMetadata))
+        {
+            return batchResponseSender.onCommandProcessed(logStreamPartitionId, sourceEventMetadata, eventPosition, eventKey, workflowInstanceEvent.getState().name());
+        }
+
         return responseWriter
                 .partitionId(logStreamPartitionId)
                 .position(eventPosition)
@@ -471,16 +544,7 @@ public class WorkflowInstanceStreamProcessor implements StreamProcessor
         {
             workflowInstanceKeys.clear();
 
-            final Iterator<WorkflowInstance> workflowInstances = workflowInstanceIndex.iterator();
-            while (workflowInstances.hasNext())
-            {
-                final WorkflowInstance workflowInstance = workflowInstances.next();
-
-                if (eventKey == workflowInstance.getWorkflowKey())
-                {
-                    workflowInstanceKeys.addLong(workflowInstance.getKey());
-                }
-            }
+            workflowInstanceIndex.collectWorkflowInstanceKeys(eventKey, workflowInstanceKeys);
         }
 
         @Override
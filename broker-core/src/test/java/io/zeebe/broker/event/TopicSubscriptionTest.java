@@ -19,14 +19,18 @@ package io.zeebe.broker.event;
 
 import static org.assertj.core.api.Assertions.*;
 import static io.zeebe.test.util.BufferAssert.*;
+import static io.zeebe.test.broker.protocol.clientapi.TestTopicClient.workflowInstanceEvents;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import io.zeebe.broker.test.EmbeddedBrokerRule;
+import io.zeebe.model.bpmn.Bpmn;
 import io.zeebe.protocol.clientapi.ControlMessageType;
 import io.zeebe.protocol.clientapi.ErrorCode;
 import io.zeebe.protocol.clientapi.EventType;
@@ -40,6 +44,7 @@ import io.zeebe.test.broker.protocol.clientapi.ExecuteCommandRequest;
 import io.zeebe.test.broker.protocol.clientapi.ExecuteCommandResponse;
 import io.zeebe.test.broker.protocol.clientapi.RawMessage;
 import io.zeebe.test.broker.protocol.clientapi.SubscribedEvent;
+import io.zeebe.test.broker.protocol.clientapi.TestTopicClient;
 import io.zeebe.test.util.TestUtil;
 import org.junit.Rule;
 import org.junit.Test;
@@ -171,6 +176,191 @@ public class TopicSubscriptionTest
         assertThat(taskEvent.event()).contains(entry("state", "CREATED"));
     }
 
+    @Test
+    public void shouldPushEventsOnceToAllSubscriptionsAtTheHead()
+    {
+        // given
+        final long fooSubscriberKey = apiRule.openTopicSubscription("foo", -1).await().key();
+        final long barSubscriberKey = apiRule.openTopicSubscription("bar", -1).await().key();
+
+        // when
+        apiRule.createCmdRequest()
+            .eventTypeTask()
+            .command()
+                .put("state", "CREATE")
+                .put("type", "foo")
+                .put("retries", 1)
+                .done()
+            .sendAndAwait();
+
+        // then
+        final List<SubscribedEvent> taskEvents = apiRule.subscribedEvents()
+            .filter((e) -> e.eventType() == EventType.TASK_EVENT)
+            .limit(4)
+            .collect(Collectors.toList());
+
+        assertThat(taskEvents)
+            .filteredOn((e) -> e.subscriberKey() == fooSubscriberKey)
+            .extracting((e) -> e.event().get("state"))
+            .containsExactly("CREATE", "CREATED");
+
+        assertThat(taskEvents)
+            .filteredOn((e) -> e.subscriberKey() == barSubscriberKey)
+            .extracting((e) -> e.event().get("state"))
+            .containsExactly("CREATE", "CREATED");
+    }
+
+    @Test
+    public void shouldPushOnlyEventsMatchingTheFilter()
+    {
+        // given
+        apiRule.createCmdRequest()
+            .eventTypeTask()
+            .command()
+                .put("state", "CREATE")
+                .put("type", "foo")
+                .put("retries", 1)
+                .done()
+            .sendAndAwait();
+
+        // when
+        final ExecuteCommandResponse subscriptionResponse = apiRule.createCmdRequest()
+            .eventTypeSubscriber()
+            .command()
+                .put("startPosition", 0)
+                .put("name", "foo")
+                .put("state", "SUBSCRIBE")
+                .put("eventTypes", 1 << EventType.TASK_EVENT.value())
+                .put("eventState", "CREATED")
+                .done()
+            .sendAndAwait();
+
+        // then
+        final SubscribedEvent event = apiRule.subscribedEvents()
+            .findFirst()
+            .get();
+
+        assertThat(event.subscriberKey()).isEqualTo(subscriptionResponse.key());
+        assertThat(event.eventType()).isEqualTo(EventType.TASK_EVENT);
+        assertThat(event.event()).contains(entry("state", "CREATED"));
+    }
+
+    @Test
+    public void shouldPushOnlyEventsOfTheFilteredWorkflow()
+    {
+        // given
+        final TestTopicClient testClient = apiRule.topic();
+
+        testClient.deploy(Bpmn.createExecutableWorkflow("process-a").startEvent().endEvent().done());
+        testClient.deploy(Bpmn.createExecutableWorkflow("process-b").startEvent().endEvent().done());
+
+        final long firstInstanceKey = testClient.createWorkflowInstance("process-a");
+        testClient.createWorkflowInstance("process-b");
+        final long lastInstanceKey = testClient.createWorkflowInstance("process-a");
+
+        final SubscribedEvent createdEvent = testClient.receiveSingleEvent(workflowInstanceEvents("WORKFLOW_INSTANCE_CREATED", firstInstanceKey));
+        final long workflowKey = ((Number) createdEvent.event().get(TestTopicClient.PROP_WORKFLOW_KEY)).longValue();
+
+        // when
+        final ExecuteCommandResponse subscriptionResponse = apiRule.createCmdRequest()
+            .eventTypeSubscriber()
+            .command()
+                .put("startPosition", 0)
+                .put("name", "filtered")
+                .put("state", "SUBSCRIBE")
+                .put("eventTypes", 1 << EventType.WORKFLOW_INSTANCE_EVENT.value())
+                .put("workflowKey", workflowKey)
+                .done()
+            .sendAndAwait();
+
+        // then
+        final Iterator<SubscribedEvent> subscribedEvents = apiRule.moveMessageStreamToHead()
+            .subscribedEvents()
+            .filter(e -> e.subscriberKey() == subscriptionResponse.key())
+            .iterator();
+
+        final List<SubscribedEvent> events = new ArrayList<>();
+        SubscribedEvent event;
+        do
+        {
+            event = subscribedEvents.next();
+            events.add(event);
+        }
+        while (!(workflowInstanceKey(event) == lastInstanceKey && "WORKFLOW_INSTANCE_COMPLETED".equals(event.event().get("state"))));
+
+        assertThat(events)
+            .extracting(e -> ((Number) e.event().get(TestTopicClient.PROP_WORKFLOW_KEY)).longValue())
+            .containsOnly(workflowKey);
+
+        assertThat(events)
+            .extracting(e -> e.event().get(TestTopicClient.PROP_WORKFLOW_BPMN_PROCESS_ID))
+            .containsOnly("process-a");
+
+        assertThat(events)
+            .extracting(e -> workflowInstanceKey(e))
+            .contains(firstInstanceKey, lastInstanceKey);
+    }
+
+    @Test
+    public void shouldAcknowledgeEventsSkippedByTheFilter()
+    {
+        // given
+        final ExecuteCommandResponse subscriptionResponse = apiRule.createCmdRequest()
+            .eventTypeSubscriber()
+            .command()
+                .put("startPosition", 0)
+                .put("name", "foo")
+                .put("state", "SUBSCRIBE")
+                .put("eventTypes", 1 << EventType.TASK_EVENT.value())
+                .put("eventState", "CREATED")
+                .done()
+            .sendAndAwait();
+
+        final ExecuteCommandResponse createTaskResponse = apiRule.createCmdRequest()
+            .eventTypeTask()
+            .command()
+                .put("state", "CREATE")
+                .put("type", "foo")
+                .put("retries", 1)
+                .done()
+            .sendAndAwait();
+
+        final long createdPosition = apiRule.subscribedEvents()
+            .filter(e -> e.subscriberKey() == subscriptionResponse.key())
+            .findFirst()
+            .get()
+            .position();
+
+        // the task is not locked, so the command and its rejection are skipped by the filter
+        final ExecuteCommandResponse completeResponse = apiRule.createCmdRequest()
+            .eventTypeTask()
+            .key(createTaskResponse.key())
+            .command()
+                .put("state", "COMPLETE")
+                .put("type", "foo")
+                .put("retries", 1)
+                .put("lockOwner", "bar")
+                .done()
+            .sendAndAwait();
+
+        assertThat(completeResponse.getEvent()).containsEntry("state", "COMPLETE_REJECTED");
+
+        // when
+        final ExecuteCommandResponse ackResponse = TestUtil.doRepeatedly(() -> apiRule.createCmdRequest()
+                .eventTypeSubscription()
+                .command()
+                    .put("name", "foo")
+                    .put("state", "ACKNOWLEDGE")
+                    .put("ackPosition", createdPosition)
+                    .done()
+                .sendAndAwait())
+            .until(r -> ((Number) r.getEvent().get("ackPosition")).longValue() >= completeResponse.position(), 50,
+                "Expected the acknowledgement to include the skipped events");
+
+        // then the acknowledged position includes the skipped events
+        assertThat(((Number) ackResponse.getEvent().get("ackPosition")).longValue()).isGreaterThan(createdPosition);
+    }
+
     @Test
     public void shouldReturnStartPositionOnOpen()
     {
@@ -510,6 +700,9 @@ public class TopicSubscriptionTest
         return response;
     }
 
-
+    private static long workflowInstanceKey(SubscribedEvent event)
+    {
+        return ((Number) event.event().get(TestTopicClient.PROP_WORKFLOW_INSTANCE_KEY)).longValue();
+    }
 
 }
@@ -0,0 +1,299 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.event.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.zeebe.broker.transport.clientapi.SubscribedEventWriter;
+import io.zeebe.logstreams.log.LogStream;
+import io.zeebe.logstreams.log.LogStreamReader;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.logstreams.processor.EventProcessor;
+import io.zeebe.logstreams.processor.StreamProcessor;
+import io.zeebe.logstreams.processor.StreamProcessorContext;
+import io.zeebe.protocol.clientapi.EventType;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+import io.zeebe.test.util.FluentAnswer;
+import io.zeebe.util.DeferredCommandContext;
+import io.zeebe.util.buffer.BufferReader;
+import io.zeebe.util.buffer.BufferUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TopicSubscriptionFanOutProcessorTest
+{
+    private static final int PREFETCH_CAPACITY = 2;
+
+    private TopicSubscriptionManagementProcessor manager;
+    private SubscribedEventWriter eventWriter;
+
+    private TopicSubscriptionFanOutProcessor fanOutProcessor;
+    private TopicSubscriptionPushProcessor pushProcessor;
+
+    private DeferredCommandContext fanOutCmdQueue;
+    private LogStreamReader pushProcessorReader;
+
+    private final List<Long> pushedPositions = new ArrayList<>();
+
+    @Before
+    public void setUp()
+    {
+        manager = mock(TopicSubscriptionManagementProcessor.class);
+
+        eventWriter = mock(SubscribedEventWriter.class, new FluentAnswer());
+        doAnswer(invocation ->
+        {
+            pushedPositions.add((Long) invocation.getArguments()[0]);
+            return invocation.getMock();
+        }).when(eventWriter).position(anyLong());
+        doReturn(true).when(eventWriter).tryWriteMessage(anyInt());
+
+        fanOutProcessor = new TopicSubscriptionFanOutProcessor(manager);
+        fanOutCmdQueue = new DeferredCommandContext(10);
+        open(fanOutProcessor, fanOutCmdQueue, mock(LogStreamReader.class));
+
+        pushProcessor = new TopicSubscriptionPushProcessor(
+                1,
+                2L,
+                0L,
+                BufferUtil.wrapString("foo"),
+                PREFETCH_CAPACITY,
+                new TopicSubscriptionFilter(TopicSubscriptionFilter.ALL_EVENT_TYPES, new UnsafeBuffer(0, 0), -1L),
+                fanOutProcessor,
+                eventWriter);
+
+        pushProcessorReader = mock(LogStreamReader.class);
+        open(pushProcessor, new DeferredCommandContext(10), pushProcessorReader);
+        pushProcessor.enable();
+    }
+
+    @Test
+    public void shouldHandOverToFanOutProcessorAtTheHead()
+    {
+        // given
+        processOnFanOutProcessor(10L);
+        processOnFanOutProcessor(20L);
+
+        processOnPushProcessor(10L);
+        processOnPushProcessor(20L);
+        pushProcessor.onAck(20L);
+
+        // when
+        final boolean suspended = pushProcessor.isSuspended();
+        fanOutCmdQueue.doWork();
+
+        // then
+        assertThat(suspended).isTrue();
+        verify(manager).onSubscriptionShared(pushProcessor);
+
+        processOnFanOutProcessor(30L);
+
+        assertThat(pushedPositions).containsExactly(10L, 20L, 30L);
+    }
+
+    @Test
+    public void shouldResumeDedicatedIfFanOutProcessorIsAhead()
+    {
+        // given
+        processOnFanOutProcessor(10L);
+        processOnPushProcessor(10L);
+
+        pushProcessor.isSuspended();
+
+        processOnFanOutProcessor(20L);
+
+        // when
+        fanOutCmdQueue.doWork();
+
+        // then
+        verify(manager, never()).onSubscriptionShared(pushProcessor);
+
+        processOnPushProcessor(20L);
+
+        assertThat(pushedPositions).containsExactly(10L, 20L);
+    }
+
+    @Test
+    public void shouldDetachSaturatedSubscription()
+    {
+        // given
+        givenSharedSubscription();
+
+        processOnFanOutProcessor(20L);
+        processOnFanOutProcessor(30L);
+
+        // when
+        processOnFanOutProcessor(40L);
+
+        // then
+        verify(manager).onSubscriptionDetached(pushProcessor);
+
+        assertThat(pushedPositions).containsExactly(10L, 20L, 30L);
+
+        // the other events are not pushed to the detached subscription
+        processOnFanOutProcessor(50L);
+
+        assertThat(pushedPositions).containsExactly(10L, 20L, 30L);
+    }
+
+    @Test
+    public void shouldDetachSubscriptionIfEventCannotBePushed()
+    {
+        // given
+        givenSharedSubscription();
+
+        doReturn(false).when(eventWriter).tryWriteMessage(anyInt());
+
+        // when
+        processOnFanOutProcessor(20L);
+
+        // then the event is not retried by the fan-out processor
+        verify(manager).onSubscriptionDetached(pushProcessor);
+
+        doReturn(true).when(eventWriter).tryWriteMessage(anyInt());
+        processOnFanOutProcessor(30L);
+
+        assertThat(pushedPositions).containsExactly(10L, 20L);
+
+        // and the dedicated push processor continues after the last pushed event
+        pushProcessor.detach();
+        open(pushProcessor, new DeferredCommandContext(10), pushProcessorReader);
+
+        verify(pushProcessorReader).seek(10L);
+    }
+
+    @Test
+    public void shouldResumeDetachedSubscriptionWithoutLossOrDuplication()
+    {
+        // given
+        givenSharedSubscription();
+
+        processOnFanOutProcessor(20L);
+        processOnFanOutProcessor(30L);
+        processOnFanOutProcessor(40L);
+
+        pushProcessor.detach();
+
+        // when
+        pushProcessor.onAck(30L);
+        open(pushProcessor, new DeferredCommandContext(10), pushProcessorReader);
+
+        // then it continues at the last pushed event
+        verify(pushProcessorReader).seek(30L);
+
+        processOnPushProcessor(30L);
+        processOnPushProcessor(40L);
+        processOnPushProcessor(50L);
+
+        assertThat(pushedPositions).containsExactly(10L, 20L, 30L, 40L, 50L);
+    }
+
+    @Test
+    public void shouldNotHandOverSaturatedSubscription()
+    {
+        // given
+        processOnFanOutProcessor(10L);
+        processOnFanOutProcessor(20L);
+
+        processOnPushProcessor(10L);
+        processOnPushProcessor(20L);
+
+        // when
+        final boolean suspended = pushProcessor.isSuspended();
+        fanOutCmdQueue.doWork();
+
+        // then
+        assertThat(suspended).isTrue();
+        verify(manager, never()).onSubscriptionShared(pushProcessor);
+    }
+
+    private void givenSharedSubscription()
+    {
+        processOnFanOutProcessor(10L);
+        processOnPushProcessor(10L);
+        pushProcessor.onAck(10L);
+
+        pushProcessor.isSuspended();
+        fanOutCmdQueue.doWork();
+
+        verify(manager).onSubscriptionShared(pushProcessor);
+    }
+
+    private void processOnFanOutProcessor(long position)
+    {
+        process(fanOutProcessor, position);
+    }
+
+    private void processOnPushProcessor(long position)
+    {
+        assertThat(pushProcessor.isSuspended()).isFalse();
+
+        process(pushProcessor, position);
+    }
+
+    private static void process(StreamProcessor processor, long position)
+    {
+        final EventProcessor eventProcessor = processor.onEvent(loggedEvent(position));
+
+        if (eventProcessor != null)
+        {
+            eventProcessor.processEvent();
+            assertThat(eventProcessor.executeSideEffects()).isTrue();
+        }
+    }
+
+    private static void open(StreamProcessor processor, DeferredCommandContext cmdQueue, LogStreamReader reader)
+    {
+        when(reader.getPosition()).thenReturn(0L);
+
+        final StreamProcessorContext context = new StreamProcessorContext();
+        context.setLogStream(mock(LogStream.class));
+        context.setLogStreamReader(reader);
+        context.setStreamProcessorCmdQueue(cmdQueue);
+
+        processor.onOpen(context);
+    }
+
+    private static LoggedEvent loggedEvent(long position)
+    {
+        final BrokerEventMetadata metadata = new BrokerEventMetadata();
+        metadata.eventType(EventType.TASK_EVENT);
+
+        final UnsafeBuffer metadataBuffer = new UnsafeBuffer(new byte[metadata.getLength()]);
+        metadata.write(metadataBuffer, 0);
+
+        final LoggedEvent event = mock(LoggedEvent.class);
+        when(event.getPosition()).thenReturn(position);
+        when(event.getKey()).thenReturn(position);
+
+        doAnswer(invocation ->
+        {
+            final BufferReader reader = (BufferReader) invocation.getArguments()[0];
+            reader.wrap(metadataBuffer, 0, metadataBuffer.capacity());
+            return null;
+        }).when(event).readMetadata(any(BufferReader.class));
+
+        return event;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.zeebe.util.time.ClockUtil;
+
+public class LogDirectoriesTest
+{
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    protected CountersManager countersManager;
+    protected LogDirectories logDirectories;
+
+    protected String[] paths;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        countersManager = new CountersManager(new UnsafeBuffer(new byte[64 * 1024]), new UnsafeBuffer(new byte[16 * 1024]));
+
+        paths = new String[] {
+            tempFolder.newFolder("disk0").getAbsolutePath(),
+            tempFolder.newFolder("disk1").getAbsolutePath(),
+            tempFolder.newFolder("disk2").getAbsolutePath()
+        };
+
+        logDirectories = new LogDirectories(paths, 0, countersManager);
+    }
+
+    @After
+    public void tearDown()
+    {
+        logDirectories.close();
+        ClockUtil.reset();
+    }
+
+    @Test
+    public void shouldPlacePartitionsOnAllDirectories()
+    {
+        // when
+        final int first = logDirectories.placePartition();
+        final int second = logDirectories.placePartition();
+        final int third = logDirectories.placePartition();
+
+        // then
+        assertThat(new int[] {first, second, third}).containsOnly(0, 1, 2);
+    }
+
+    @Test
+    public void shouldCountExistingPartitions()
+    {
+        // given
+        logDirectories.addPartition(paths[0] + File.separator + "foo.0");
+        logDirectories.addPartition(paths[1] + File.separator + "foo.1");
+
+        // when
+        final int directory = logDirectories.placePartition();
+
+        // then
+        assertThat(directory).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldPreferDirectoryWithLowerWriteRate() throws Exception
+    {
+        // given
+        logDirectories.addPartition(paths[0] + File.separator + "foo.0");
+        logDirectories.addPartition(paths[1] + File.separator + "foo.1");
+        logDirectories.addPartition(paths[2] + File.separator + "foo.2");
+
+        ClockUtil.pinCurrentTime();
+        logDirectories.sample();
+
+        writeSegment(paths[0], "foo.0", 1024 * 1024);
+        writeSegment(paths[2], "foo.2", 1024 * 1024);
+
+        ClockUtil.addTime(Duration.ofSeconds(5));
+        logDirectories.sample();
+
+        // when
+        final int directory = logDirectories.placePartition();
+
+        // then
+        assertThat(directory).isEqualTo(1);
+    }
+
+    protected void writeSegment(String directory, String logName, int length) throws Exception
+    {
+        final File logDirectory = new File(directory, logName);
+        logDirectory.mkdirs();
+
+        try (RandomAccessFile segment = new RandomAccessFile(new File(logDirectory, "00.data"), "rw"))
+        {
+            segment.setLength(length);
+        }
+    }
+
+}
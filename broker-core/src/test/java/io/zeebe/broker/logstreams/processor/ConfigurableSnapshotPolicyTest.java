@@ -0,0 +1,154 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.zeebe.broker.logstreams.cfg.SnapshotPolicyCfg;
+import io.zeebe.util.time.ClockUtil;
+
+public class ConfigurableSnapshotPolicyTest
+{
+    protected SnapshotPolicyCfg cfg;
+
+    @Before
+    public void setUp()
+    {
+        ClockUtil.pinCurrentTime();
+
+        cfg = new SnapshotPolicyCfg();
+        cfg.period = 0;
+    }
+
+    @After
+    public void tearDown()
+    {
+        ClockUtil.reset();
+    }
+
+    @Test
+    public void shouldSnapshotAfterPeriod()
+    {
+        // given
+        cfg.period = 60;
+        final ConfigurableSnapshotPolicy policy = new ConfigurableSnapshotPolicy(cfg);
+
+        assertThat(policy.apply(1L)).isFalse();
+
+        // when
+        ClockUtil.addTime(Duration.ofSeconds(60));
+
+        // then
+        assertThat(policy.apply(2L)).isTrue();
+        assertThat(policy.apply(3L)).isFalse();
+    }
+
+    @Test
+    public void shouldSnapshotAfterEventCount()
+    {
+        // given
+        cfg.eventCount = 3;
+        final ConfigurableSnapshotPolicy policy = new ConfigurableSnapshotPolicy(cfg);
+
+        // when/then
+        assertThat(policy.apply(1L)).isFalse();
+        assertThat(policy.apply(2L)).isFalse();
+        assertThat(policy.apply(3L)).isTrue();
+        assertThat(policy.apply(4L)).isFalse();
+    }
+
+    @Test
+    public void shouldSnapshotAfterLogVolume()
+    {
+        // given
+        cfg.logVolume = 1;
+        final ConfigurableSnapshotPolicy policy = new ConfigurableSnapshotPolicy(cfg);
+
+        // when/then
+        assertThat(policy.apply(0L)).isFalse();
+        assertThat(policy.apply(512 * 1024L)).isFalse();
+        assertThat(policy.apply(1024 * 1024L)).isTrue();
+        assertThat(policy.apply(1024 * 1024L + 128)).isFalse();
+    }
+
+    @Test
+    public void shouldSnapshotWhenEstimatedReplayTimeIsReached()
+    {
+        // given
+        cfg.maxReplayTime = 1;
+        final ConfigurableSnapshotPolicy policy = new ConfigurableSnapshotPolicy(cfg);
+
+        // when processing an event takes 10 ms, without time between the events
+        boolean snapshot = false;
+        int events = 0;
+
+        while (!snapshot && events < 10_000)
+        {
+            policy.onEventProcessed(TimeUnit.MILLISECONDS.toNanos(10));
+            snapshot = policy.apply(events);
+            events += 1;
+        }
+
+        // then
+        assertThat(snapshot).isTrue();
+        assertThat(events).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldNotTakeTimeBetweenEventsIntoAccount()
+    {
+        // given
+        cfg.maxReplayTime = 1;
+        final ConfigurableSnapshotPolicy policy = new ConfigurableSnapshotPolicy(cfg);
+
+        // when
+        for (int i = 0; i < 10; i++)
+        {
+            policy.onEventProcessed(TimeUnit.MICROSECONDS.toNanos(10));
+            assertThat(policy.apply(i)).isFalse();
+            ClockUtil.addTime(Duration.ofMinutes(1));
+        }
+
+        // then
+        assertThat(policy.getEstimatedReplayTimeMillis()).isEqualTo(0L);
+    }
+
+    @Test
+    public void shouldResetEstimatedReplayTimeOnSnapshot()
+    {
+        // given
+        cfg.maxReplayTime = 1;
+        final ConfigurableSnapshotPolicy policy = new ConfigurableSnapshotPolicy(cfg);
+
+        policy.onEventProcessed(TimeUnit.SECONDS.toNanos(2));
+
+        // when
+        final boolean snapshot = policy.apply(0);
+
+        // then
+        assertThat(snapshot).isTrue();
+        assertThat(policy.getEstimatedReplayTimeMillis()).isEqualTo(0L);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import io.zeebe.broker.task.data.TaskEvent;
+import io.zeebe.broker.task.data.TaskState;
+import io.zeebe.broker.test.MockStreamProcessorController;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.protocol.clientapi.EventType;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+
+public class EventStateFilterTest
+{
+    @Rule
+    public MockStreamProcessorController<TaskEvent> mockController = new MockStreamProcessorController<>(
+            TaskEvent.class,
+            event -> event.setType(wrapString("foo")),
+            EventType.TASK_EVENT,
+            0L);
+
+    private final EventStateFilter filter = new EventStateFilter()
+            .accept(EventType.TASK_EVENT, TaskState.CREATED, TaskState.COMPLETED);
+
+    @Test
+    public void shouldAcceptEventWithGivenState()
+    {
+        // given
+        final LoggedEvent event = mockController.buildLoggedEvent(1L, e -> e.setState(TaskState.COMPLETED));
+
+        // when/then
+        assertThat(filter.applies(event, metadata(EventType.TASK_EVENT))).isTrue();
+    }
+
+    @Test
+    public void shouldRejectEventWithOtherState()
+    {
+        // given
+        final LoggedEvent event = mockController.buildLoggedEvent(1L, e -> e.setState(TaskState.LOCKED));
+
+        // when/then
+        assertThat(filter.applies(event, metadata(EventType.TASK_EVENT))).isFalse();
+    }
+
+    @Test
+    public void shouldAcceptEventOfOtherType()
+    {
+        // given
+        final LoggedEvent event = mockController.buildLoggedEvent(1L, e -> e.setState(TaskState.LOCKED));
+
+        // when/then
+        assertThat(filter.applies(event, metadata(EventType.WORKFLOW_INSTANCE_EVENT))).isTrue();
+    }
+
+    private static BrokerEventMetadata metadata(EventType eventType)
+    {
+        return new BrokerEventMetadata().eventType(eventType);
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import io.zeebe.broker.logstreams.processor.StreamProcessorServiceTest.TestEvent;
+import io.zeebe.broker.test.MockStreamProcessorController;
+import io.zeebe.logstreams.log.LogStreamWriter;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.logstreams.processor.EventProcessor;
+import io.zeebe.logstreams.processor.StreamProcessor;
+import io.zeebe.logstreams.spi.SnapshotSupport;
+import io.zeebe.protocol.clientapi.EventType;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+
+public class FusedStreamProcessorTest
+{
+    @Rule
+    public MockStreamProcessorController<TestEvent> mockController = new MockStreamProcessorController<>(TestEvent.class);
+
+    private StreamProcessor taskProcessor;
+    private StreamProcessor workflowProcessor;
+
+    private EventProcessor taskEventProcessor;
+    private EventProcessor workflowEventProcessor;
+
+    private FusedStreamProcessor fusedProcessor;
+
+    @Before
+    public void setUp()
+    {
+        taskProcessor = mock(StreamProcessor.class);
+        workflowProcessor = mock(StreamProcessor.class);
+
+        taskEventProcessor = mock(EventProcessor.class);
+        workflowEventProcessor = mock(EventProcessor.class);
+
+        when(taskProcessor.onEvent(any())).thenReturn(taskEventProcessor);
+        when(workflowProcessor.onEvent(any())).thenReturn(workflowEventProcessor);
+
+        fusedProcessor = new FusedStreamProcessor()
+            .addProcessor(taskProcessor, m -> m.getEventType() == EventType.TASK_EVENT)
+            .addProcessor(workflowProcessor, m -> m.getEventType() == EventType.TASK_EVENT || m.getEventType() == EventType.WORKFLOW_INSTANCE_EVENT);
+    }
+
+    @Test
+    public void shouldDispatchEventToProcessorsWhoseFilterApplies()
+    {
+        // given
+        final LoggedEvent event = buildEvent(EventType.WORKFLOW_INSTANCE_EVENT);
+
+        // when
+        final EventProcessor eventProcessor = fusedProcessor.onEvent(event);
+        eventProcessor.processEvent();
+
+        // then
+        verify(taskProcessor, never()).onEvent(any());
+        verify(workflowProcessor).onEvent(event);
+
+        verify(taskEventProcessor, never()).processEvent();
+        verify(workflowEventProcessor).processEvent();
+    }
+
+    @Test
+    public void shouldSkipEventIfNoFilterApplies()
+    {
+        // given
+        final LoggedEvent event = buildEvent(EventType.INCIDENT_EVENT);
+
+        // when
+        final EventProcessor eventProcessor = fusedProcessor.onEvent(event);
+
+        // then
+        assertThat(eventProcessor).isNull();
+        assertThat(fusedProcessor.eventFilter().applies(metadata(EventType.INCIDENT_EVENT))).isFalse();
+        assertThat(fusedProcessor.eventFilter().applies(metadata(EventType.TASK_EVENT))).isTrue();
+
+        verify(taskProcessor, never()).onEvent(any());
+        verify(workflowProcessor, never()).onEvent(any());
+    }
+
+    @Test
+    public void shouldApplyValueFilterOfProcessor()
+    {
+        // given
+        final StreamProcessor filteredProcessor = mock(StreamProcessor.class);
+        when(filteredProcessor.onEvent(any())).thenReturn(mock(EventProcessor.class));
+
+        fusedProcessor = new FusedStreamProcessor()
+            .addProcessor(taskProcessor, m -> m.getEventType() == EventType.TASK_EVENT)
+            .addProcessor(filteredProcessor, m -> m.getEventType() == EventType.TASK_EVENT, (e, m) -> false);
+
+        final LoggedEvent event = buildEvent(EventType.TASK_EVENT);
+
+        // when
+        final EventProcessor eventProcessor = fusedProcessor.onEvent(event);
+
+        // then
+        assertThat(eventProcessor).isNotNull();
+
+        verify(taskProcessor).onEvent(event);
+        verify(filteredProcessor, never()).onEvent(any());
+    }
+
+    @Test
+    public void shouldNotRepeatSuccessfulWritesOnRetry()
+    {
+        // given
+        final LogStreamWriter writer = mock(LogStreamWriter.class);
+        when(writer.producerId(anyInt())).thenReturn(writer);
+        when(writer.sourceEvent(anyInt(), anyLong())).thenReturn(writer);
+
+        when(taskEventProcessor.writeEvent(writer)).thenReturn(5L);
+        when(workflowEventProcessor.writeEvent(writer)).thenReturn(-1L, 7L);
+
+        final EventProcessor eventProcessor = fusedProcessor.onEvent(buildEvent(EventType.TASK_EVENT));
+
+        // when
+        final long failedPosition = eventProcessor.writeEvent(writer);
+        final long position = eventProcessor.writeEvent(writer);
+
+        // then
+        assertThat(failedPosition).isLessThan(0);
+        assertThat(position).isEqualTo(7L);
+
+        verify(taskEventProcessor, times(1)).writeEvent(writer);
+        verify(workflowEventProcessor, times(2)).writeEvent(writer);
+    }
+
+    @Test
+    public void shouldNotRepeatSuccessfulSideEffectsOnRetry()
+    {
+        // given
+        when(taskEventProcessor.executeSideEffects()).thenReturn(true);
+        when(workflowEventProcessor.executeSideEffects()).thenReturn(false, true);
+
+        final EventProcessor eventProcessor = fusedProcessor.onEvent(buildEvent(EventType.TASK_EVENT));
+
+        // when
+        final boolean firstAttempt = eventProcessor.executeSideEffects();
+        final boolean secondAttempt = eventProcessor.executeSideEffects();
+
+        // then
+        assertThat(firstAttempt).isFalse();
+        assertThat(secondAttempt).isTrue();
+
+        verify(taskEventProcessor, times(1)).executeSideEffects();
+        verify(workflowEventProcessor, times(2)).executeSideEffects();
+    }
+
+    @Test
+    public void shouldRecoverSnapshotOfEachProcessor() throws Exception
+    {
+        // given
+        final IntSnapshotSupport taskState = new IntSnapshotSupport(1);
+        final IntSnapshotSupport workflowState = new IntSnapshotSupport(2);
+
+        when(taskProcessor.getStateResource()).thenReturn(taskState);
+        when(workflowProcessor.getStateResource()).thenReturn(workflowState);
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        fusedProcessor.getStateResource().writeSnapshot(snapshot);
+
+        fusedProcessor.getStateResource().reset();
+
+        // when
+        fusedProcessor.getStateResource().recoverFromSnapshot(new ByteArrayInputStream(snapshot.toByteArray()));
+
+        // then
+        assertThat(taskState.value).isEqualTo(1);
+        assertThat(workflowState.value).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldRecoverSnapshotsLargerThanOneChunk() throws Exception
+    {
+        // given
+        final int length = 2 * FusedStreamProcessor.FusedSnapshotSupport.CHUNK_SIZE + 3;
+
+        final BytesSnapshotSupport taskState = new BytesSnapshotSupport(length, (byte) 1, true);
+        final BytesSnapshotSupport workflowState = new BytesSnapshotSupport(length, (byte) 2, true);
+
+        when(taskProcessor.getStateResource()).thenReturn(taskState);
+        when(workflowProcessor.getStateResource()).thenReturn(workflowState);
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        fusedProcessor.getStateResource().writeSnapshot(snapshot);
+
+        fusedProcessor.getStateResource().reset();
+
+        // when
+        fusedProcessor.getStateResource().recoverFromSnapshot(new ByteArrayInputStream(snapshot.toByteArray()));
+
+        // then
+        assertThat(taskState.recoveredLength).isEqualTo(length);
+        assertThat(taskState.recoveredValue).isEqualTo((byte) 1);
+        assertThat(workflowState.recoveredLength).isEqualTo(length);
+        assertThat(workflowState.recoveredValue).isEqualTo((byte) 2);
+    }
+
+    @Test
+    public void shouldSkipSnapshotRemainderWhichIsNotRead() throws Exception
+    {
+        // given
+        final int length = FusedStreamProcessor.FusedSnapshotSupport.CHUNK_SIZE + 1;
+
+        final BytesSnapshotSupport taskState = new BytesSnapshotSupport(length, (byte) 1, false);
+        final IntSnapshotSupport workflowState = new IntSnapshotSupport(2);
+
+        when(taskProcessor.getStateResource()).thenReturn(taskState);
+        when(workflowProcessor.getStateResource()).thenReturn(workflowState);
+
+        final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        fusedProcessor.getStateResource().writeSnapshot(snapshot);
+
+        fusedProcessor.getStateResource().reset();
+
+        // when
+        fusedProcessor.getStateResource().recoverFromSnapshot(new ByteArrayInputStream(snapshot.toByteArray()));
+
+        // then
+        assertThat(taskState.recoveredLength).isEqualTo(1);
+        assertThat(workflowState.value).isEqualTo(2);
+    }
+
+    private LoggedEvent buildEvent(EventType eventType)
+    {
+        return mockController.buildLoggedEvent(1L, e ->
+        { }, m -> m.eventType(eventType));
+    }
+
+    private static BrokerEventMetadata metadata(EventType eventType)
+    {
+        return new BrokerEventMetadata().eventType(eventType);
+    }
+
+    /**
+     * reads the whole remaining stream on recovery, like a processor which
+     * doesn't know the length of its snapshot
+     */
+    private static class IntSnapshotSupport implements SnapshotSupport
+    {
+        private int value;
+
+        IntSnapshotSupport(int value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public void writeSnapshot(OutputStream outputStream) throws Exception
+        {
+            new DataOutputStream(outputStream).writeInt(value);
+        }
+
+        @Override
+        public void recoverFromSnapshot(InputStream inputStream) throws Exception
+        {
+            final DataInputStream dataInputStream = new DataInputStream(inputStream);
+            value = dataInputStream.readInt();
+
+            assertThat(dataInputStream.read()).isEqualTo(-1);
+        }
+
+        @Override
+        public void reset()
+        {
+            value = 0;
+        }
+    }
+
+    /**
+     * writes the given number of bytes one by one; reads either the whole
+     * snapshot in bulk or only the first byte
+     */
+    private static class BytesSnapshotSupport implements SnapshotSupport
+    {
+        private final int length;
+        private final byte value;
+        private final boolean readAll;
+
+        private int recoveredLength;
+        private byte recoveredValue;
+
+        BytesSnapshotSupport(int length, byte value, boolean readAll)
+        {
+            this.length = length;
+            this.value = value;
+            this.readAll = readAll;
+        }
+
+        @Override
+        public void writeSnapshot(OutputStream outputStream) throws Exception
+        {
+            for (int i = 0; i < length; i++)
+            {
+                outputStream.write(value);
+            }
+        }
+
+        @Override
+        public void recoverFromSnapshot(InputStream inputStream) throws Exception
+        {
+            if (readAll)
+            {
+                final byte[] buffer = new byte[1000];
+                int read;
+                while ((read = inputStream.read(buffer)) >= 0)
+                {
+                    recoveredLength += read;
+                    recoveredValue = buffer[0];
+                }
+            }
+            else
+            {
+                recoveredValue = (byte) inputStream.read();
+                recoveredLength = 1;
+            }
+        }
+
+        @Override
+        public void reset()
+        {
+            recoveredLength = 0;
+            recoveredValue = 0;
+        }
+    }
+}
@@ -174,6 +174,28 @@ public class StreamProcessorServiceTest
         assertThat(reprocessingEventFilter.applies(event)).isFalse();
     }
 
+    @Test
+    public void shouldRegisterCustomRejectingValueFilter()
+    {
+        // given
+        final StreamProcessorService streamProcessorService = new StreamProcessorService("foo", 1, mock(StreamProcessor.class));
+        injectMocks(streamProcessorService);
+        streamProcessorService.valueFilter((e, m) -> false);
+
+        streamProcessorService.start(mock(ServiceStartContext.class));
+
+        final StreamProcessorController controller = streamProcessorService.getStreamProcessorController();
+        final EventFilter eventFilter = controller.getEventFilter();
+        final EventFilter reprocessingEventFilter = controller.getReprocessingEventFilter();
+
+        final LoggedEvent event = mockController.buildLoggedEvent(1L, (e) ->
+        { });
+
+        // when/then
+        assertThat(eventFilter.applies(event)).isFalse();
+        assertThat(reprocessingEventFilter.applies(event)).isTrue();
+    }
+
     protected void injectMocks(StreamProcessorService streamProcessorService)
     {
         final ActorScheduler actorScheduler = mock(ActorScheduler.class);
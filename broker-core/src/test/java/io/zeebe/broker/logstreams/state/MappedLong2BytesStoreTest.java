@@ -0,0 +1,417 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.logstreams.state;
+
+import static io.zeebe.util.buffer.BufferUtil.bufferAsString;
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedLong2BytesStoreTest
+{
+    private static final int MAX_VALUE_LENGTH = 16;
+    // four slots per segment
+    private static final int SEGMENT_SIZE = 4 * 24;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private MappedLong2BytesStore store;
+
+    @Before
+    public void init()
+    {
+        store = newStore(SEGMENT_SIZE);
+    }
+
+    @After
+    public void close()
+    {
+        store.close();
+    }
+
+    private MappedLong2BytesStore newStore(int segmentSize)
+    {
+        return new MappedLong2BytesStore(tempFolder.getRoot(), "test", MAX_VALUE_LENGTH, segmentSize);
+    }
+
+    private byte[] writeSnapshot(MappedLong2BytesStore store) throws Exception
+    {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        store.writeSnapshot(outputStream);
+
+        assertThat((long) outputStream.size()).isEqualTo(store.snapshotSize());
+
+        return outputStream.toByteArray();
+    }
+
+    private void restartStore()
+    {
+        store.close();
+        store = newStore(SEGMENT_SIZE);
+    }
+
+    @Test
+    public void shouldPutAndGetValues()
+    {
+        // when
+        for (int i = 0; i < 10; i++)
+        {
+            store.put(i, wrapString("value-" + i));
+        }
+
+        // then
+        for (int i = 0; i < 10; i++)
+        {
+            assertThat(bufferAsString(store.get(i))).isEqualTo("value-" + i);
+        }
+        assertThat(store.get(10)).isNull();
+    }
+
+    @Test
+    public void shouldReplaceValue()
+    {
+        // given
+        store.put(1, wrapString("foo"));
+
+        // when
+        store.put(1, wrapString("barbaz"));
+
+        // then
+        assertThat(bufferAsString(store.get(1))).isEqualTo("barbaz");
+    }
+
+    @Test
+    public void shouldRemoveValue()
+    {
+        // given
+        store.put(1, wrapString("foo"));
+        store.put(2, wrapString("bar"));
+
+        // when
+        store.remove(1);
+
+        // then
+        assertThat(store.get(1)).isNull();
+        assertThat(bufferAsString(store.get(2))).isEqualTo("bar");
+    }
+
+    @Test
+    public void shouldRejectTooLongValue()
+    {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+
+        // when
+        store.put(1, wrapString("this value is too long"));
+    }
+
+    @Test
+    public void shouldRecoverFromSnapshot() throws Exception
+    {
+        // given
+        for (int i = 0; i < 10; i++)
+        {
+            store.put(i, wrapString("value-" + i));
+        }
+        store.remove(3);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        store.writeSnapshot(outputStream);
+
+        assertThat((long) outputStream.size()).isEqualTo(store.snapshotSize());
+
+        // when
+        store.put(3, wrapString("other"));
+        store.remove(5);
+
+        store.recoverFromSnapshot(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        // then
+        for (int i = 0; i < 10; i++)
+        {
+            if (i == 3)
+            {
+                assertThat(store.get(i)).isNull();
+            }
+            else
+            {
+                assertThat(bufferAsString(store.get(i))).isEqualTo("value-" + i);
+            }
+        }
+    }
+
+    @Test
+    public void shouldWriteOnlyChangedPagesAfterFirstSnapshot() throws Exception
+    {
+        // given
+        store.close();
+        store = newStore(4 * StateCheckpoint.PAGE_SIZE);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            store.put(i, wrapString("value-" + i));
+        }
+
+        final byte[] fullSnapshot = writeSnapshot(store);
+
+        // when
+        store.put(1, wrapString("changed"));
+
+        final byte[] incrementalSnapshot = writeSnapshot(store);
+
+        // then
+        final int index = 1000 * (2 * SIZE_OF_LONG);
+        final int header = 4 * SIZE_OF_LONG + SIZE_OF_INT + index + SIZE_OF_INT;
+
+        // two segments of 682 slots with four and two pages
+        final int segmentLength = 682 * 24;
+        assertThat(fullSnapshot.length).isEqualTo(header + 6 * SIZE_OF_INT + segmentLength + 2 * StateCheckpoint.PAGE_SIZE);
+        assertThat(incrementalSnapshot.length).isEqualTo(header + SIZE_OF_INT + StateCheckpoint.PAGE_SIZE);
+    }
+
+    @Test
+    public void shouldRecoverFromIncrementalSnapshotAfterRestart() throws Exception
+    {
+        // given
+        for (int i = 0; i < 10; i++)
+        {
+            store.put(i, wrapString("value-" + i));
+        }
+        writeSnapshot(store);
+
+        store.put(3, wrapString("changed"));
+        store.remove(5);
+        store.put(10, wrapString("value-10"));
+
+        final byte[] snapshot = writeSnapshot(store);
+
+        // when
+        restartStore();
+        store.recoverFromSnapshot(new ByteArrayInputStream(snapshot));
+
+        // then
+        for (int i = 0; i <= 10; i++)
+        {
+            if (i == 3)
+            {
+                assertThat(bufferAsString(store.get(i))).isEqualTo("changed");
+            }
+            else if (i == 5)
+            {
+                assertThat(store.get(i)).isNull();
+            }
+            else
+            {
+                assertThat(bufferAsString(store.get(i))).isEqualTo("value-" + i);
+            }
+        }
+
+        // and the free slot is reused
+        store.put(11, wrapString("value-11"));
+        assertThat(bufferAsString(store.get(11))).isEqualTo("value-11");
+        assertThat(bufferAsString(store.get(10))).isEqualTo("value-10");
+    }
+
+    @Test
+    public void shouldRecoverFromPreviousSnapshotIfLatestIsNotCommitted() throws Exception
+    {
+        // given
+        store.put(1, wrapString("foo"));
+        writeSnapshot(store);
+
+        store.put(1, wrapString("bar"));
+        final byte[] committedSnapshot = writeSnapshot(store);
+
+        store.put(1, wrapString("baz"));
+        writeSnapshot(store);
+
+        // when
+        restartStore();
+        store.recoverFromSnapshot(new ByteArrayInputStream(committedSnapshot));
+
+        // then
+        assertThat(bufferAsString(store.get(1))).isEqualTo("bar");
+    }
+
+    @Test
+    public void shouldRecoverFromPreviousSnapshotIfLatestSnapshotsAreNotCommitted() throws Exception
+    {
+        // given
+        store.put(1, wrapString("foo"));
+        writeSnapshot(store);
+
+        store.put(1, wrapString("bar"));
+        final byte[] committedSnapshot = writeSnapshot(store);
+
+        // the following snapshots fail or are not committed before the broker crashes
+        store.put(1, wrapString("baz"));
+        store.put(2, wrapString("baz"));
+        writeSnapshot(store);
+
+        store.put(1, wrapString("qux"));
+        writeSnapshot(store);
+
+        // when
+        restartStore();
+        store.recoverFromSnapshot(new ByteArrayInputStream(committedSnapshot));
+
+        // then
+        assertThat(bufferAsString(store.get(1))).isEqualTo("bar");
+        assertThat(store.get(2)).isNull();
+    }
+
+    @Test
+    public void shouldContainAllPagesChangedSinceCheckpoint() throws Exception
+    {
+        // given
+        store.close();
+        store = newStore(4 * StateCheckpoint.PAGE_SIZE);
+
+        for (int i = 0; i < 1000; i++)
+        {
+            store.put(i, wrapString("value-" + i));
+        }
+        writeSnapshot(store);
+
+        store.put(1, wrapString("changed"));
+        writeSnapshot(store);
+
+        // when
+        store.put(999, wrapString("changed"));
+        final byte[] incrementalSnapshot = writeSnapshot(store);
+
+        // then
+        final int index = 1000 * (2 * SIZE_OF_LONG);
+        final int header = 4 * SIZE_OF_LONG + SIZE_OF_INT + index + SIZE_OF_INT;
+
+        assertThat(incrementalSnapshot.length).isEqualTo(header + 2 * (SIZE_OF_INT + StateCheckpoint.PAGE_SIZE));
+    }
+
+    @Test
+    public void shouldContinueWithIncrementalSnapshotsAfterRecovery() throws Exception
+    {
+        // given
+        store.put(1, wrapString("foo"));
+        store.put(2, wrapString("bar"));
+        final byte[] snapshot = writeSnapshot(store);
+
+        restartStore();
+        store.recoverFromSnapshot(new ByteArrayInputStream(snapshot));
+
+        store.put(2, wrapString("baz"));
+        final byte[] incrementalSnapshot = writeSnapshot(store);
+
+        // when
+        restartStore();
+        store.recoverFromSnapshot(new ByteArrayInputStream(incrementalSnapshot));
+
+        // then
+        assertThat(bufferAsString(store.get(1))).isEqualTo("foo");
+        assertThat(bufferAsString(store.get(2))).isEqualTo("baz");
+    }
+
+    @Test
+    public void shouldNotRecoverFromSnapshotWhichDoesNotMatchCheckpoint() throws Exception
+    {
+        // given
+        store.put(1, wrapString("foo"));
+        writeSnapshot(store);
+
+        store.put(1, wrapString("bar"));
+        final byte[] outdatedSnapshot = writeSnapshot(store);
+
+        store.put(1, wrapString("baz"));
+        final byte[] snapshot = writeSnapshot(store);
+
+        // the checkpoint moves on to the recovered snapshot
+        restartStore();
+        store.recoverFromSnapshot(new ByteArrayInputStream(snapshot));
+
+        restartStore();
+
+        // then
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("the checkpoint");
+
+        // when
+        store.recoverFromSnapshot(new ByteArrayInputStream(outdatedSnapshot));
+    }
+
+    @Test
+    public void shouldNotRecoverFromSnapshotOfInMemoryStore() throws Exception
+    {
+        // given
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        final ZbMapLong2BytesStore inMemoryStore = new ZbMapLong2BytesStore(MAX_VALUE_LENGTH);
+        try
+        {
+            inMemoryStore.put(1, wrapString("foo"));
+            inMemoryStore.getSnapshotSupport().writeSnapshot(outputStream);
+        }
+        finally
+        {
+            inMemoryStore.close();
+        }
+
+        // then
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("not written by a mapped state store");
+
+        // when
+        store.recoverFromSnapshot(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+
+    @Test
+    public void shouldNotRecoverInMemoryStoreFromSnapshotOfMappedStore() throws Exception
+    {
+        // given
+        store.put(1, wrapString("foo"));
+        final byte[] snapshot = writeSnapshot(store);
+
+        final ZbMapLong2BytesStore inMemoryStore = new ZbMapLong2BytesStore(MAX_VALUE_LENGTH);
+        try
+        {
+            // then
+            thrown.expect(IllegalStateException.class);
+            thrown.expectMessage("written by a mapped state store");
+
+            // when
+            inMemoryStore.getSnapshotSupport().recoverFromSnapshot(new ByteArrayInputStream(snapshot));
+        }
+        finally
+        {
+            inMemoryStore.close();
+        }
+    }
+}
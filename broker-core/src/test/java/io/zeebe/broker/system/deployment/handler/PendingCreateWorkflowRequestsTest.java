@@ -0,0 +1,242 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.system.deployment.handler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import io.zeebe.broker.system.deployment.handler.PendingCreateWorkflowRequests.PendingRequest;
+import io.zeebe.broker.system.deployment.handler.PendingCreateWorkflowRequests.PendingWorkflow;
+import io.zeebe.util.time.ClockUtil;
+import org.agrona.collections.IntArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PendingCreateWorkflowRequestsTest
+{
+    private static final long WORKFLOW_KEY = 1L;
+
+    private static final int STREAM_ID = 5;
+    private static final long REQUEST_ID = 10L;
+
+    private PendingCreateWorkflowRequests pendingRequests;
+    private final IntArrayList createdPartitions = new IntArrayList();
+
+    @Before
+    public void setUp()
+    {
+        ClockUtil.pinCurrentTime();
+
+        pendingRequests = new PendingCreateWorkflowRequests();
+    }
+
+    @After
+    public void tearDown()
+    {
+        ClockUtil.reset();
+    }
+
+    @Test
+    public void shouldAnswerWhenCreatedOnAllPartitions()
+    {
+        // given
+        final PendingWorkflow workflow = register(REQUEST_ID, 1, 2);
+
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 1);
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 2);
+
+        // when
+        final PendingRequest request = pendingRequests.collectCreatedPartitions(workflow, createdPartitions);
+
+        // then
+        assertThat(request).isNotNull();
+        assertThat(request.getRequestStreamId()).isEqualTo(STREAM_ID);
+        assertThat(request.getRequestId()).isEqualTo(REQUEST_ID);
+
+        assertThat(createdPartitions).containsExactly(1, 2);
+    }
+
+    @Test
+    public void shouldAnswerPartialCompletion()
+    {
+        // given
+        register(REQUEST_ID, 1, 2, 3);
+
+        // when
+        final PendingWorkflow workflow = pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 2);
+        final PendingRequest request = pendingRequests.collectCreatedPartitions(workflow, createdPartitions);
+
+        // then
+        assertThat(request).isNotNull();
+        assertThat(createdPartitions).containsExactly(2);
+    }
+
+    @Test
+    public void shouldNotAnswerRequestTwice()
+    {
+        // given
+        final PendingWorkflow workflow = register(REQUEST_ID, 1, 2);
+
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 1);
+
+        final PendingRequest request = pendingRequests.collectCreatedPartitions(workflow, createdPartitions);
+        pendingRequests.markAnswered(request);
+
+        // when
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 2);
+
+        // then
+        assertThat(pendingRequests.collectCreatedPartitions(workflow, createdPartitions)).isNull();
+        assertThat(createdPartitions).isEmpty();
+    }
+
+    @Test
+    public void shouldAnswerAgainIfNotSent()
+    {
+        // given
+        final PendingWorkflow workflow = register(REQUEST_ID, 1, 2);
+
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 1);
+        pendingRequests.collectCreatedPartitions(workflow, createdPartitions);
+
+        // when
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 2);
+        final PendingRequest request = pendingRequests.collectCreatedPartitions(workflow, createdPartitions);
+
+        // then
+        assertThat(request).isNotNull();
+        assertThat(createdPartitions).containsExactly(1, 2);
+    }
+
+    @Test
+    public void shouldAnswerRepeatedRequestWithPartitionsCreatedInMeantime()
+    {
+        // given
+        final PendingWorkflow workflow = register(REQUEST_ID, 1, 2);
+        pendingRequests.markWritten(workflow, 1);
+        pendingRequests.markWritten(workflow, 2);
+
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 1);
+        pendingRequests.markAnswered(pendingRequests.collectCreatedPartitions(workflow, createdPartitions));
+
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 2);
+
+        // when
+        final PendingWorkflow repeatedWorkflow = register(REQUEST_ID + 1, 2);
+
+        // then
+        assertThat(repeatedWorkflow).isSameAs(workflow);
+        assertThat(pendingRequests.isWritten(workflow, 2)).isTrue();
+
+        final PendingRequest request = pendingRequests.collectCreatedPartitions(workflow, createdPartitions);
+        assertThat(request).isNotNull();
+        assertThat(request.getRequestId()).isEqualTo(REQUEST_ID + 1);
+        assertThat(createdPartitions).containsExactly(2);
+    }
+
+    @Test
+    public void shouldKeepStateOfRequestWhichIsHandledAgain()
+    {
+        // given
+        final PendingWorkflow workflow = register(REQUEST_ID, 1);
+
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 1);
+        pendingRequests.markAnswered(pendingRequests.collectCreatedPartitions(workflow, createdPartitions));
+
+        // when
+        pendingRequests.register(WORKFLOW_KEY, STREAM_ID, REQUEST_ID);
+
+        // then
+        assertThat(pendingRequests.hasExpectedPartitions(workflow)).isTrue();
+        assertThat(pendingRequests.collectCreatedPartitions(workflow, createdPartitions)).isNull();
+    }
+
+    @Test
+    public void shouldNotAnswerIfCreatedOnOtherPartition()
+    {
+        // given
+        final PendingWorkflow workflow = register(REQUEST_ID, 1);
+
+        // when
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 2);
+
+        // then
+        assertThat(pendingRequests.collectCreatedPartitions(workflow, createdPartitions)).isNull();
+        assertThat(createdPartitions).isEmpty();
+    }
+
+    @Test
+    public void shouldReturnNullForUnknownWorkflow()
+    {
+        // given
+        register(REQUEST_ID, 1);
+
+        // when
+        final PendingWorkflow workflow = pendingRequests.onWorkflowCreated(WORKFLOW_KEY + 1, 1);
+
+        // then
+        assertThat(workflow).isNull();
+    }
+
+    @Test
+    public void shouldRemoveTimedOutWorkflow()
+    {
+        // given
+        register(REQUEST_ID, 1);
+
+        ClockUtil.addTime(PendingCreateWorkflowRequests.REQUEST_TIMEOUT.plus(Duration.ofSeconds(1)));
+
+        // when
+        pendingRequests.register(WORKFLOW_KEY + 1, STREAM_ID, REQUEST_ID + 1);
+
+        // then
+        assertThat(pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 1)).isNull();
+    }
+
+    @Test
+    public void shouldNotRemoveUpdatedWorkflow()
+    {
+        // given
+        register(REQUEST_ID, 1, 2);
+
+        ClockUtil.addTime(PendingCreateWorkflowRequests.REQUEST_TIMEOUT.dividedBy(2));
+        pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 1);
+
+        ClockUtil.addTime(PendingCreateWorkflowRequests.REQUEST_TIMEOUT.dividedBy(2).plus(Duration.ofSeconds(1)));
+
+        // when
+        pendingRequests.register(WORKFLOW_KEY + 1, STREAM_ID, REQUEST_ID + 1);
+
+        // then
+        assertThat(pendingRequests.onWorkflowCreated(WORKFLOW_KEY, 2)).isNotNull();
+    }
+
+    private PendingWorkflow register(long requestId, int... partitionIds)
+    {
+        final PendingWorkflow workflow = pendingRequests.register(WORKFLOW_KEY, STREAM_ID, requestId);
+
+        for (int partitionId : partitionIds)
+        {
+            pendingRequests.expectPartition(workflow, partitionId);
+        }
+        return workflow;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.system.deployment.message;
+
+import static io.zeebe.util.buffer.BufferUtil.bufferAsString;
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class BpmnXmlCompressionTest
+{
+    private static final String BPMN_XML =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<definitions xmlns=\"http://www.omg.org/spec/BPMN/20100524/MODEL\">" +
+            "<process id=\"process\" isExecutable=\"true\">" +
+            "<startEvent id=\"start\"/>" +
+            "<sequenceFlow id=\"flow1\" sourceRef=\"start\" targetRef=\"task\"/>" +
+            "<serviceTask id=\"task\"/>" +
+            "<sequenceFlow id=\"flow2\" sourceRef=\"task\" targetRef=\"end\"/>" +
+            "<endEvent id=\"end\"/>" +
+            "</process>" +
+            "</definitions>";
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final BpmnXmlCompression compression = new BpmnXmlCompression();
+
+    @Test
+    public void shouldCompressAndDecompress()
+    {
+        // given
+        final DirectBuffer compressed = copy(compression.compress(wrapString(BPMN_XML)));
+
+        // when
+        final DirectBuffer decompressed = compression.decompress(compressed);
+
+        // then
+        assertThat(compressed.capacity()).isLessThan(BPMN_XML.length());
+        assertThat(bufferAsString(decompressed)).isEqualTo(BPMN_XML);
+    }
+
+    @Test
+    public void shouldDecompressXmlLargerThanChunk()
+    {
+        // given
+        final StringBuilder builder = new StringBuilder();
+        final Random random = new Random(42);
+        while (builder.length() < 64 * 1024)
+        {
+            builder.append("<task id=\"").append(random.nextInt()).append("\"/>");
+        }
+        final String xml = builder.toString();
+
+        final DirectBuffer compressed = copy(compression.compress(wrapString(xml)));
+
+        // when
+        final DirectBuffer decompressed = compression.decompress(compressed);
+
+        // then
+        assertThat(bufferAsString(decompressed)).isEqualTo(xml);
+    }
+
+    @Test
+    public void shouldDecompressEmptyXml()
+    {
+        // given
+        final DirectBuffer compressed = copy(compression.compress(new UnsafeBuffer(new byte[0])));
+
+        // when
+        final DirectBuffer decompressed = compression.decompress(compressed);
+
+        // then
+        assertThat(decompressed.capacity()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldRejectCorruptInput()
+    {
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("corrupt");
+
+        // when
+        compression.decompress(wrapString(BPMN_XML));
+    }
+
+    @Test
+    public void shouldRejectTruncatedInput()
+    {
+        // given
+        final DirectBuffer compressed = copy(compression.compress(wrapString(BPMN_XML)));
+        final DirectBuffer truncated = new UnsafeBuffer(compressed, 0, compressed.capacity() / 2);
+
+        // then
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("truncated");
+
+        // when
+        compression.decompress(truncated);
+    }
+
+    @Test
+    public void shouldDecompressAfterCorruptInput()
+    {
+        // given
+        final DirectBuffer compressed = copy(compression.compress(wrapString(BPMN_XML)));
+
+        try
+        {
+            compression.decompress(wrapString("corrupt"));
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+
+        // when
+        final DirectBuffer decompressed = compression.decompress(compressed);
+
+        // then
+        assertThat(bufferAsString(decompressed)).isEqualTo(BPMN_XML);
+    }
+
+    private static DirectBuffer copy(DirectBuffer buffer)
+    {
+        final byte[] bytes = new byte[buffer.capacity()];
+        buffer.getBytes(0, bytes);
+        return new UnsafeBuffer(bytes);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.system.deployment.message;
+
+import static io.zeebe.test.util.BufferWriterUtil.assertEqualFieldsAfterWriteAndRead;
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.zeebe.clustering.management.CreateWorkflowStatus;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+public class DeploymentMessageTest
+{
+
+    @Test
+    public void testCreateWorkflowRequest()
+    {
+        final CreateWorkflowRequest createWorkflowRequest = new CreateWorkflowRequest()
+            .partitionIds(partitionIds(1, 2, 3))
+            .workflowKey(111)
+            .deploymentKey(222)
+            .version(3)
+            .bpmnProcessId(wrapString("process"))
+            .compressedBpmnXml(new UnsafeBuffer(new byte[] {1, 2, 3, 4}));
+
+        assertEqualFieldsAfterWriteAndRead(createWorkflowRequest,
+            "partitionIds",
+            "workflowKey",
+            "deploymentKey",
+            "version",
+            "bpmnProcessId",
+            "compressedBpmnXml"
+        );
+    }
+
+    @Test
+    public void testCreateWorkflowResponse()
+    {
+        final CreateWorkflowResponse createWorkflowResponse = new CreateWorkflowResponse()
+            .partitionIds(partitionIds(1, 3))
+            .workflowKey(111)
+            .deploymentKey(222)
+            .status(CreateWorkflowStatus.CREATED);
+
+        assertEqualFieldsAfterWriteAndRead(createWorkflowResponse,
+            "partitionIds",
+            "workflowKey",
+            "deploymentKey",
+            "status"
+        );
+    }
+
+    @Test
+    public void testCreateWorkflowResponseWithoutPartitions()
+    {
+        // given
+        final CreateWorkflowResponse response = new CreateWorkflowResponse()
+            .partitionIds(new IntArrayList())
+            .workflowKey(111)
+            .deploymentKey(222)
+            .status(CreateWorkflowStatus.NOT_LEADER);
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[response.getLength()]);
+        response.write(buffer, 0);
+
+        // when
+        final CreateWorkflowResponse readResponse = new CreateWorkflowResponse();
+        readResponse.wrap(buffer, 0, buffer.capacity());
+
+        // then
+        assertThat(readResponse.getPartitionIds()).isEmpty();
+        assertThat(readResponse.getWorkflowKey()).isEqualTo(111L);
+        assertThat(readResponse.getDeploymentKey()).isEqualTo(222L);
+        assertThat(readResponse.getStatus()).isEqualTo(CreateWorkflowStatus.NOT_LEADER);
+    }
+
+    private static IntArrayList partitionIds(int... ids)
+    {
+        final IntArrayList partitionIds = new IntArrayList();
+        for (int id : ids)
+        {
+            partitionIds.addInt(id);
+        }
+        return partitionIds;
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.system.log;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.zeebe.broker.clustering.management.PartitionManager;
+import io.zeebe.broker.clustering.member.Member;
+import io.zeebe.transport.SocketAddress;
+import io.zeebe.util.collection.IntIterator;
+import io.zeebe.util.time.ClockUtil;
+
+public class LoadAwareSelectionStrategyTest
+{
+    private static final Duration ASSIGNMENT_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final SocketAddress BROKER1 = new SocketAddress("broker1", 51016);
+    private static final SocketAddress BROKER2 = new SocketAddress("broker2", 51016);
+
+    private final List<Member> members = new ArrayList<>();
+
+    private LoadAwareSelectionStrategy strategy;
+
+    @Before
+    public void setUp()
+    {
+        ClockUtil.pinCurrentTime();
+
+        final PartitionManager partitionManager = mock(PartitionManager.class);
+        when(partitionManager.getKnownMembers()).thenAnswer(i -> members.iterator());
+
+        strategy = new LoadAwareSelectionStrategy(partitionManager, ASSIGNMENT_TIMEOUT);
+    }
+
+    @After
+    public void tearDown()
+    {
+        ClockUtil.reset();
+    }
+
+    @Test
+    public void shouldSelectLeastLoadedBroker()
+    {
+        // given
+        addMember(BROKER1, 1, 1);
+        addMember(BROKER2, 0, 0);
+
+        // when
+        final SocketAddress selectedBroker = strategy.selectBrokerForNewPartition();
+
+        // then
+        assertThat(selectedBroker).isEqualTo(BROKER2);
+    }
+
+    @Test
+    public void shouldCountPendingAssignment()
+    {
+        // given
+        addMember(BROKER1, 0, 0);
+        addMember(BROKER2, 1, 1);
+
+        assertThat(strategy.selectBrokerForNewPartition()).isEqualTo(BROKER1);
+
+        // when
+        ClockUtil.addTime(ASSIGNMENT_TIMEOUT.minusSeconds(1));
+        final SocketAddress selectedBroker = strategy.selectBrokerForNewPartition();
+
+        // then the loads are equal
+        assertThat(selectedBroker).isEqualTo(BROKER2);
+    }
+
+    @Test
+    public void shouldDropPendingAssignmentWhenPartitionIsCreated()
+    {
+        // given
+        final TestMember broker1 = addMember(BROKER1, 0, 0);
+        addMember(BROKER2, 1, 1);
+
+        assertThat(strategy.selectBrokerForNewPartition()).isEqualTo(BROKER1);
+
+        // when
+        broker1.partitionCount = 1;
+        broker1.leaderCount = 1;
+        final SocketAddress selectedBroker = strategy.selectBrokerForNewPartition();
+
+        // then the loads are equal
+        assertThat(selectedBroker).isEqualTo(BROKER2);
+        assertThat(strategy.pendingAssignments).doesNotContainKey(BROKER1);
+    }
+
+    @Test
+    public void shouldDropPendingAssignmentWhenCreationExpires()
+    {
+        // given
+        addMember(BROKER1, 0, 0);
+        addMember(BROKER2, 1, 1);
+
+        assertThat(strategy.selectBrokerForNewPartition()).isEqualTo(BROKER1);
+
+        // when
+        ClockUtil.addTime(ASSIGNMENT_TIMEOUT);
+        final SocketAddress selectedBroker = strategy.selectBrokerForNewPartition();
+
+        // then the expired assignment doesn't count anymore
+        assertThat(selectedBroker).isEqualTo(BROKER1);
+        assertThat(strategy.pendingAssignments.get(BROKER1).expirationTimes.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldDropPendingAssignmentsOfDepartedBroker()
+    {
+        // given
+        addMember(BROKER1, 0, 0);
+        addMember(BROKER2, 1, 1);
+
+        assertThat(strategy.selectBrokerForNewPartition()).isEqualTo(BROKER1);
+
+        // when
+        members.remove(0);
+        final SocketAddress selectedBroker = strategy.selectBrokerForNewPartition();
+
+        // then
+        assertThat(selectedBroker).isEqualTo(BROKER2);
+        assertThat(strategy.pendingAssignments).doesNotContainKey(BROKER1);
+    }
+
+    private TestMember addMember(SocketAddress address, int partitionCount, int leaderCount)
+    {
+        final TestMember member = new TestMember(address);
+        member.partitionCount = partitionCount;
+        member.leaderCount = leaderCount;
+
+        members.add(member);
+        return member;
+    }
+
+    protected static class TestMember implements Member
+    {
+        protected final SocketAddress managementAddress;
+        protected int partitionCount;
+        protected int leaderCount;
+
+        TestMember(SocketAddress managementAddress)
+        {
+            this.managementAddress = managementAddress;
+        }
+
+        @Override
+        public SocketAddress getManagementAddress()
+        {
+            return managementAddress;
+        }
+
+        @Override
+        public IntIterator getLeadingPartitions()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getPartitionCount()
+        {
+            return partitionCount;
+        }
+
+        @Override
+        public int getLeaderCount()
+        {
+            return leaderCount;
+        }
+    }
+}
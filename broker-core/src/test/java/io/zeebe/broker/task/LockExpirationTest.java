@@ -72,7 +72,7 @@ public class LockExpirationTest
         apiRule.moveMessageStreamToTail();
 
         // when expired
-        ClockUtil.addTime(Duration.ofSeconds(TaskQueueManagerService.LOCK_EXPIRATION_INTERVAL + 1));
+        ClockUtil.addTime(Duration.ofMillis(new TaskQueueCfg().lockExpirationToleranceMillis).plusSeconds(1));
 
         // then locked again
         waitUntil(() -> apiRule.numSubscribedEventsAvailable() == 1);
@@ -108,7 +108,7 @@ public class LockExpirationTest
         apiRule.moveMessageStreamToTail();
 
         // when
-        ClockUtil.addTime(Duration.ofSeconds(TaskQueueManagerService.LOCK_EXPIRATION_INTERVAL + 1));
+        ClockUtil.addTime(Duration.ofMillis(new TaskQueueCfg().lockExpirationToleranceMillis).plusSeconds(1));
 
         // then
         waitUntil(() -> apiRule.numSubscribedEventsAvailable() == 2);
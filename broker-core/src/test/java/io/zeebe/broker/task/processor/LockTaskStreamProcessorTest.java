@@ -22,9 +22,13 @@ import static io.zeebe.util.StringUtil.getBytes;
 import static io.zeebe.util.buffer.BufferUtil.wrapString;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -38,8 +42,8 @@ import io.zeebe.broker.task.data.TaskState;
 import io.zeebe.broker.test.MockStreamProcessorController;
 import io.zeebe.broker.test.WrittenEvent;
 import io.zeebe.logstreams.log.LogStream;
+import io.zeebe.logstreams.log.LogStreamReader;
 import io.zeebe.logstreams.log.LoggedEvent;
-import io.zeebe.logstreams.processor.EventFilter;
 import io.zeebe.logstreams.processor.StreamProcessorContext;
 import io.zeebe.protocol.Protocol;
 import io.zeebe.protocol.impl.BrokerEventMetadata;
@@ -87,7 +91,7 @@ public class LockTaskStreamProcessorTest
         // fix the current time to calculate lock time
         ClockUtil.setCurrentTime(Instant.now());
 
-        streamProcessor = new LockTaskStreamProcessor(TASK_TYPE_BUFFER);
+        streamProcessor = new LockTaskStreamProcessor();
 
         subscription = new TaskSubscription(0, TASK_TYPE_BUFFER, Duration.ofMinutes(5).toMillis(), wrapString("owner-1"), 11);
         subscription.setSubscriberKey(1L);
@@ -380,8 +384,6 @@ public class LockTaskStreamProcessorTest
                     .setType(TASK_TYPE_BUFFER, 0, TASK_TYPE_BUFFER.capacity()));
         });
 
-        assertThat(streamProcessor.isSuspended()).isTrue();
-
         // when
         streamProcessor.increaseSubscriptionCreditsAsync(new CreditsRequest(subscription.getSubscriberKey(), 2));
 
@@ -461,19 +463,6 @@ public class LockTaskStreamProcessorTest
         streamProcessor.addSubscription(subscription);
     }
 
-    @Test
-    public void shouldFailToAddSubscriptionIfWrongType()
-    {
-        final TaskSubscription subscription = new TaskSubscription(0, ANOTHER_TASK_TYPE_BUFFER, Duration.ofMinutes(5).toMillis(),
-                wrapString("owner-1"), 11);
-        subscription.setCredits(5);
-
-        thrown.expect(RuntimeException.class);
-        thrown.expectMessage("Subscription task type is not equal to 'test-task'.");
-
-        streamProcessor.addSubscription(subscription);
-    }
-
     @Test
     public void shouldFailToAddSubscriptionIfZeroLockDuration()
     {
@@ -506,27 +495,255 @@ public class LockTaskStreamProcessorTest
     }
 
     @Test
-    public void shouldAcceptEventForReprocessingWithSubscribedType()
+    public void shouldLockTasksOfDifferentTypes()
+    {
+        // given
+        final TaskSubscription subscriptionForAnotherType = new TaskSubscription(0, ANOTHER_TASK_TYPE_BUFFER, Duration.ofMinutes(10).toMillis(), wrapString("owner-3"), 13);
+        subscriptionForAnotherType.setSubscriberKey(3L);
+        subscriptionForAnotherType.setCredits(1);
+
+        streamProcessor.addSubscription(subscription);
+        streamProcessor.addSubscription(subscriptionForAnotherType);
+
+        // when
+        mockController.processEvent(2L, event -> event
+                .setState(TaskState.CREATED)
+                .setType(ANOTHER_TASK_TYPE_BUFFER, 0, ANOTHER_TASK_TYPE_BUFFER.capacity()));
+
+        mockController.processEvent(3L, event -> event
+                .setState(TaskState.CREATED)
+                .setType(TASK_TYPE_BUFFER, 0, TASK_TYPE_BUFFER.capacity()));
+
+        // then
+        final List<WrittenEvent<TaskEvent>> writtenEvents = mockController.getWrittenEvents();
+        assertThat(writtenEvents).hasSize(2);
+
+        assertThat(writtenEvents.get(0).getKey()).isEqualTo(2L);
+        assertThat(writtenEvents.get(0).getValue().getLockOwner()).isEqualTo(wrapString("owner-3"));
+        assertThat(writtenEvents.get(0).getMetadata().getSubscriberKey()).isEqualTo(subscriptionForAnotherType.getSubscriberKey());
+
+        assertThat(writtenEvents.get(1).getKey()).isEqualTo(3L);
+        assertThat(writtenEvents.get(1).getValue().getLockOwner()).isEqualTo(wrapString("owner-1"));
+        assertThat(writtenEvents.get(1).getMetadata().getSubscriberKey()).isEqualTo(subscription.getSubscriberKey());
+    }
+
+    @Test
+    public void shouldLockPendingTaskWhenSubscriptionIsAdded()
+    {
+        // given
+        final TaskSubscription subscriptionForAnotherType = new TaskSubscription(0, ANOTHER_TASK_TYPE_BUFFER, Duration.ofMinutes(10).toMillis(), wrapString("owner-3"), 13);
+        subscriptionForAnotherType.setSubscriberKey(3L);
+        subscriptionForAnotherType.setCredits(1);
+
+        streamProcessor.addSubscription(subscription);
+        drainCommandQueue();
+
+        final LoggedEvent pendingEvent = mockController.buildLoggedEvent(2L, event -> event
+                .setState(TaskState.CREATED)
+                .setType(ANOTHER_TASK_TYPE_BUFFER, 0, ANOTHER_TASK_TYPE_BUFFER.capacity()));
+        givenEventsInLog(pendingEvent);
+
+        mockController.processEvent(pendingEvent);
+        assertThat(mockController.getWrittenEvents()).isEmpty();
+
+        // when
+        streamProcessor.addSubscription(subscriptionForAnotherType);
+        drainCommandQueue();
+
+        // then
+        final WrittenEvent<TaskEvent> lastWrittenEvent = mockController.getLastWrittenEvent();
+        assertThat(lastWrittenEvent.getKey()).isEqualTo(2L);
+        assertThat(lastWrittenEvent.getValue().getState()).isEqualTo(TaskState.LOCK);
+        assertThat(lastWrittenEvent.getValue().getLockOwner()).isEqualTo(wrapString("owner-3"));
+        assertThat(lastWrittenEvent.getMetadata().getSubscriberKey()).isEqualTo(subscriptionForAnotherType.getSubscriberKey());
+    }
+
+    @Test
+    public void shouldLockPendingTaskWhenCreditsAreIncreased()
+    {
+        // given
+        subscription.setCredits(1);
+        streamProcessor.addSubscription(subscription);
+
+        mockController.processEvent(2L, event -> event
+                .setState(TaskState.CREATED)
+                .setType(TASK_TYPE_BUFFER, 0, TASK_TYPE_BUFFER.capacity()));
+
+        final LoggedEvent pendingEvent = mockController.buildLoggedEvent(3L, event -> event
+                .setState(TaskState.CREATED)
+                .setType(TASK_TYPE_BUFFER, 0, TASK_TYPE_BUFFER.capacity()));
+        givenEventsInLog(pendingEvent);
+
+        mockController.processEvent(pendingEvent);
+        assertThat(mockController.getWrittenEvents()).hasSize(1);
+
+        // when
+        streamProcessor.increaseSubscriptionCreditsAsync(new CreditsRequest(subscription.getSubscriberKey(), 1));
+        streamProcessor.isSuspended();
+        drainCommandQueue();
+
+        // then
+        assertThat(mockController.getWrittenEvents()).hasSize(2);
+
+        final WrittenEvent<TaskEvent> lastWrittenEvent = mockController.getLastWrittenEvent();
+        assertThat(lastWrittenEvent.getKey()).isEqualTo(3L);
+        assertThat(lastWrittenEvent.getValue().getState()).isEqualTo(TaskState.LOCK);
+    }
+
+    @Test
+    public void shouldNotLockPendingTaskIfCanceled()
+    {
+        // given
+        final TaskSubscription subscriptionForAnotherType = new TaskSubscription(0, ANOTHER_TASK_TYPE_BUFFER, Duration.ofMinutes(10).toMillis(), wrapString("owner-3"), 13);
+        subscriptionForAnotherType.setSubscriberKey(3L);
+        subscriptionForAnotherType.setCredits(1);
+
+        streamProcessor.addSubscription(subscription);
+        drainCommandQueue();
+
+        final LoggedEvent createdEvent = mockController.buildLoggedEvent(2L, event -> event
+                .setState(TaskState.CREATED)
+                .setType(ANOTHER_TASK_TYPE_BUFFER, 0, ANOTHER_TASK_TYPE_BUFFER.capacity()));
+
+        final LoggedEvent canceledEvent = mockController.buildLoggedEvent(2L, event -> event
+                .setState(TaskState.CANCELED)
+                .setType(ANOTHER_TASK_TYPE_BUFFER, 0, ANOTHER_TASK_TYPE_BUFFER.capacity()));
+
+        givenEventsInLog(createdEvent, canceledEvent);
+
+        mockController.processEvent(createdEvent);
+        mockController.processEvent(canceledEvent);
+
+        // when
+        streamProcessor.addSubscription(subscriptionForAnotherType);
+        drainCommandQueue();
+
+        // then
+        assertThat(mockController.getWrittenEvents()).isEmpty();
+    }
+
+    @Test
+    public void shouldNotLockScannedTaskAgain()
+    {
+        // given
+        final LoggedEvent createdEvent = mockController.buildLoggedEvent(2L, event -> event
+                .setState(TaskState.CREATED)
+                .setType(TASK_TYPE_BUFFER, 0, TASK_TYPE_BUFFER.capacity()));
+        givenEventsInLog(createdEvent);
+
+        streamProcessor.addSubscription(subscription);
+        drainCommandQueue();
+
+        assertThat(mockController.getWrittenEvents()).hasSize(1);
+
+        // when the processor reads the event which is already read by the scan
+        mockController.processEvent(createdEvent);
+
+        // then
+        assertThat(mockController.getWrittenEvents()).hasSize(1);
+    }
+
+    @Test
+    public void shouldNotLockTaskWhichIsLockedBeforeSubscription()
     {
-        final LoggedEvent loggedEvent = mockController.buildLoggedEvent(2L, event -> event
+        // given
+        final LoggedEvent createdEvent = mockController.buildLoggedEvent(2L, event -> event
                 .setState(TaskState.CREATED)
-                .setType(TASK_TYPE_BUFFER));
+                .setType(TASK_TYPE_BUFFER, 0, TASK_TYPE_BUFFER.capacity()));
+        final LoggedEvent lockedEvent = mockController.buildLoggedEvent(2L, event -> event
+                .setState(TaskState.LOCKED)
+                .setType(TASK_TYPE_BUFFER, 0, TASK_TYPE_BUFFER.capacity()));
+        givenEventsInLog(createdEvent, lockedEvent);
+
+        // when
+        streamProcessor.addSubscription(subscription);
+        drainCommandQueue();
+
+        // then
+        assertThat(mockController.getWrittenEvents()).isEmpty();
+    }
+
+    @Test
+    public void shouldNotTrackTasksOfTypeWithoutSubscription()
+    {
+        // given
+        final TaskSubscription subscriptionForAnotherType = new TaskSubscription(0, ANOTHER_TASK_TYPE_BUFFER, Duration.ofMinutes(10).toMillis(), wrapString("owner-3"), 13);
+        subscriptionForAnotherType.setSubscriberKey(3L);
+        subscriptionForAnotherType.setCredits(1);
+
+        streamProcessor.addSubscription(subscription);
+        streamProcessor.addSubscription(subscriptionForAnotherType);
+        drainCommandQueue();
 
-        final EventFilter eventFilter = LockTaskStreamProcessor.reprocessingEventFilter(TASK_TYPE_BUFFER);
+        streamProcessor.removeSubscription(subscriptionForAnotherType.getSubscriberKey());
 
-        assertThat(eventFilter.applies(loggedEvent)).isTrue();
+        // when
+        mockController.processEvent(2L, event -> event
+                .setState(TaskState.CREATED)
+                .setType(ANOTHER_TASK_TYPE_BUFFER, 0, ANOTHER_TASK_TYPE_BUFFER.capacity()));
+
+        // then
+        assertThat(streamProcessor.subscriptionsByTaskType).containsOnlyKeys(TASK_TYPE_BUFFER);
+        assertThat(mockController.getWrittenEvents()).isEmpty();
     }
 
     @Test
-    public void shouldRejectEventForReprocessingWithDifferentType()
+    public void shouldSkipAllEventsOnReprocessing()
     {
-        final LoggedEvent loggedEvent = mockController.buildLoggedEvent(2L, event -> event
+        // given
+        final LoggedEvent createdEvent = mockController.buildLoggedEvent(2L, event -> event
                 .setState(TaskState.CREATED)
-                .setType(ANOTHER_TASK_TYPE_BUFFER));
+                .setType(TASK_TYPE_BUFFER, 0, TASK_TYPE_BUFFER.capacity()));
 
-        final EventFilter eventFilter = LockTaskStreamProcessor.reprocessingEventFilter(TASK_TYPE_BUFFER);
+        // then
+        assertThat(LockTaskStreamProcessor.reprocessingEventFilter().applies(createdEvent)).isFalse();
+    }
+
+    /**
+     * Runs the queued commands and the commands which are scheduled by them,
+     * e.g. the scan for pending tasks and the locking of the found tasks.
+     */
+    protected void drainCommandQueue()
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            mockController.drainCommandQueue();
+        }
+    }
+
+    /**
+     * Simulates a log which contains the given events.
+     */
+    protected void givenEventsInLog(LoggedEvent... events)
+    {
+        final LogStreamReader mockLogStreamReader = mockController.getMockLogStreamReader();
+        final AtomicInteger nextEvent = new AtomicInteger(events.length);
+
+        doAnswer(invocation ->
+        {
+            nextEvent.set(0);
+            return null;
+        }).when(mockLogStreamReader).seekToFirstEvent();
+
+        when(mockLogStreamReader.seek(anyLong())).thenAnswer(invocation ->
+        {
+            final long position = invocation.getArgument(0);
+
+            for (int i = 0; i < events.length; i++)
+            {
+                if (events[i].getPosition() == position)
+                {
+                    nextEvent.set(i);
+                    return true;
+                }
+            }
+
+            nextEvent.set(events.length);
+            return false;
+        });
 
-        assertThat(eventFilter.applies(loggedEvent)).isFalse();
+        when(mockLogStreamReader.hasNext()).thenAnswer(invocation -> nextEvent.get() < events.length);
+        when(mockLogStreamReader.next()).thenAnswer(invocation -> events[nextEvent.getAndIncrement()]);
     }
 
     protected long lockTimeOf(TaskSubscription subscription)
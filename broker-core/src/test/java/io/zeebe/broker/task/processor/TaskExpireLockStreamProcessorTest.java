@@ -270,6 +270,64 @@ public class TaskExpireLockStreamProcessorTest
         assertThat(mockController.getWrittenEvents()).hasSize(1);
     }
 
+    @Test
+    public void shouldExpireOnlyLocksWithPassedLockTime()
+    {
+        // given
+        ClockUtil.setCurrentTime(AFTER_LOCK_TIME);
+
+        final LoggedEvent laterLockedEvent = mockController.buildLoggedEvent(loggedEventKey, event -> event
+            .setState(TaskState.LOCKED)
+            .setLockTime(AFTER_LOCK_TIME.plusSeconds(60).toEpochMilli()));
+        final LoggedEvent lockedEvent = mockController.buildLoggedEvent(loggedEventKey + 1, event -> event
+            .setState(TaskState.LOCKED));
+
+        mockController.processEvent(laterLockedEvent);
+        mockController.processEvent(lockedEvent);
+
+        when(mockLogStreamReader.seek(INITIAL_POSITION + 1)).thenReturn(true);
+        when(mockLogStreamReader.hasNext()).thenReturn(true);
+        when(mockLogStreamReader.next()).thenReturn(lockedEvent);
+
+        // when
+        streamProcessor.checkLockExpirationAsync();
+
+        mockController.drainCommandQueue();
+
+        // then
+        final List<WrittenEvent<TaskEvent>> writtenEvents = mockController.getWrittenEvents();
+        assertThat(writtenEvents).hasSize(1);
+        assertThat(writtenEvents.get(0).getKey()).isEqualTo(loggedEventKey + 1);
+
+        verify(mockLogStreamReader, never()).seek(INITIAL_POSITION);
+        assertThat(streamProcessor.expirationMap.getBucketBufferArray().getBlockCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotExpireLockIfLockedAgain()
+    {
+        // given
+        ClockUtil.setCurrentTime(AFTER_LOCK_TIME);
+
+        mockController.processEvent(2L, event ->
+            event.setState(TaskState.LOCKED));
+
+        mockController.processEvent(2L, event ->
+            event.setState(TaskState.LOCK_EXPIRED));
+
+        mockController.processEvent(2L, event -> event
+            .setState(TaskState.LOCKED)
+            .setLockTime(AFTER_LOCK_TIME.plusSeconds(60).toEpochMilli()));
+
+        // when
+        streamProcessor.checkLockExpirationAsync();
+
+        mockController.drainCommandQueue();
+
+        // then
+        assertThat(mockController.getWrittenEvents()).isEmpty();
+    }
+
     @Test
     public void shouldNotExpireLockIfBeforeLockTime()
     {
@@ -127,7 +127,7 @@ public class TaskStreamProcessorIntegrationTest
             .actorScheduler(taskScheduler)
             .build();
 
-        lockTaskStreamProcessor = new LockTaskStreamProcessor(TASK_TYPE_BUFFER);
+        lockTaskStreamProcessor = new LockTaskStreamProcessor();
         taskSubscriptionStreamProcessorController = LogStreams.createStreamProcessor("task-lock", 1, lockTaskStreamProcessor)
             .logStream(logStream)
             .snapshotStorage(snapshotStorage)
@@ -26,7 +26,7 @@ import static org.mockito.Mockito.*;
 
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
+import java.util.function.Supplier;
 
 import io.zeebe.broker.task.CreditsRequest;
 import io.zeebe.broker.task.TaskSubscriptionManager;
@@ -68,7 +68,7 @@ public class TaskSubscriptionManagerTest
     private ServiceBuilder<Object> mockServiceBuilder;
 
     @Mock
-    private Function<DirectBuffer, LockTaskStreamProcessor> mockStreamProcessorBuilder;
+    private Supplier<LockTaskStreamProcessor> mockStreamProcessorBuilder;
 
     private LogStream mockLogStream;
     private LockTaskStreamProcessor mockStreamProcessor;
@@ -90,20 +90,19 @@ public class TaskSubscriptionManagerTest
         when(mockServiceContext.createService(any(), any())).thenReturn(mockServiceBuilder);
         when(mockServiceContext.removeService(any())).thenReturn(CompletableFuture.completedFuture(null));
 
-        mockStreamProcessor = createMockStreamProcessor(LOG_STREAM_TOPIC_NAME_BUFFER, LOG_STREAM_PARTITION_ID, TASK_TYPE_BUFFER);
+        mockStreamProcessor = createMockStreamProcessor(LOG_STREAM_PARTITION_ID);
+        when(mockStreamProcessorBuilder.get()).thenReturn(mockStreamProcessor);
 
         manager = new TaskSubscriptionManager(mockServiceContext, mockStreamProcessorBuilder);
 
         subscription = createTaskSubscription(LOG_STREAM_PARTITION_ID, TASK_TYPE_BUFFER);
     }
 
-    private LockTaskStreamProcessor createMockStreamProcessor(DirectBuffer logStreamTopicName, int logStreamPartitionId, DirectBuffer taskTypeBuffer)
+    private LockTaskStreamProcessor createMockStreamProcessor(int logStreamPartitionId)
     {
         final LockTaskStreamProcessor mockStreamProcessor = mock(LockTaskStreamProcessor.class);
 
-        when(mockStreamProcessorBuilder.apply(taskTypeBuffer)).thenReturn(mockStreamProcessor);
         when(mockStreamProcessor.getLogStreamPartitionId()).thenReturn(logStreamPartitionId);
-        when(mockStreamProcessor.getSubscriptedTaskType()).thenReturn(taskTypeBuffer);
 
         when(mockStreamProcessor.addSubscription(any())).thenReturn(CompletableFuture.completedFuture(null));
         when(mockStreamProcessor.increaseSubscriptionCreditsAsync(any())).thenReturn(true);
@@ -144,10 +143,10 @@ public class TaskSubscriptionManagerTest
         assertThat(future).isCompleted();
         assertThat(subscription.getSubscriberKey()).isEqualTo(0L);
 
-        verify(mockStreamProcessorBuilder).apply(TASK_TYPE_BUFFER);
+        verify(mockStreamProcessorBuilder).get();
         verify(mockStreamProcessor).addSubscription(subscription);
 
-        verify(mockServiceContext).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME, TASK_TYPE)), any());
+        verify(mockServiceContext).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME)), any());
         verify(mockServiceBuilder).install();
     }
 
@@ -168,12 +167,12 @@ public class TaskSubscriptionManagerTest
         assertThat(future).isCompleted();
         assertThat(anotherSubscription.getSubscriberKey()).isEqualTo(1L);
 
-        verify(mockStreamProcessorBuilder, times(1)).apply(TASK_TYPE_BUFFER);
+        verify(mockStreamProcessorBuilder, times(1)).get();
 
         verify(mockStreamProcessor).addSubscription(subscription);
         verify(mockStreamProcessor).addSubscription(anotherSubscription);
 
-        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME, TASK_TYPE)), any());
+        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME)), any());
         verify(mockServiceBuilder, times(1)).install();
     }
 
@@ -185,6 +184,9 @@ public class TaskSubscriptionManagerTest
 
         final LogStream anotherMockLogStream = createMockLogStream(ANOTHER_LOG_STREAM_TOPIC_NAME_BUFFER, ANOTHER_LOG_STREAM_PARTITION_ID);
 
+        final LockTaskStreamProcessor anotherMockStreamProcessor = createMockStreamProcessor(ANOTHER_LOG_STREAM_PARTITION_ID);
+        when(mockStreamProcessorBuilder.get()).thenReturn(mockStreamProcessor, anotherMockStreamProcessor);
+
         manager.addStream(mockLogStream, LOG_STREAM_SERVICE_NAME);
         manager.addStream(anotherMockLogStream, LOG_STREAM_SERVICE_NAME);
         manager.addSubscription(subscription);
@@ -197,24 +199,22 @@ public class TaskSubscriptionManagerTest
         assertThat(future).isCompleted();
         assertThat(anotherSubscription.getSubscriberKey()).isEqualTo(1L);
 
-        verify(mockStreamProcessorBuilder, times(2)).apply(TASK_TYPE_BUFFER);
+        verify(mockStreamProcessorBuilder, times(2)).get();
 
         verify(mockStreamProcessor).addSubscription(subscription);
-        verify(mockStreamProcessor).addSubscription(anotherSubscription);
+        verify(anotherMockStreamProcessor).addSubscription(anotherSubscription);
 
-        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME, TASK_TYPE)), any());
-        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(ANOTHER_LOG_STREAM_LOG_NAME, TASK_TYPE)), any());
+        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME)), any());
+        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(ANOTHER_LOG_STREAM_LOG_NAME)), any());
         verify(mockServiceBuilder, times(2)).install();
     }
 
     @Test
-    public void shouldCreateServiceForEachTaskType() throws Exception
+    public void shouldShareServiceForAllTaskTypes() throws Exception
     {
         // given
         final TaskSubscription anotherSubscription = createTaskSubscription(LOG_STREAM_PARTITION_ID, ANOTHER_TASK_TYPE_BUFFER);
 
-        final LockTaskStreamProcessor anotherMockStreamProcessor = createMockStreamProcessor(LOG_STREAM_TOPIC_NAME_BUFFER, LOG_STREAM_PARTITION_ID, ANOTHER_TASK_TYPE_BUFFER);
-
         manager.addStream(mockLogStream, LOG_STREAM_SERVICE_NAME);
         manager.addSubscription(subscription);
 
@@ -226,15 +226,43 @@ public class TaskSubscriptionManagerTest
         assertThat(future).isCompleted();
         assertThat(anotherSubscription.getSubscriberKey()).isEqualTo(1L);
 
-        verify(mockStreamProcessorBuilder, times(1)).apply(TASK_TYPE_BUFFER);
-        verify(mockStreamProcessorBuilder, times(1)).apply(ANOTHER_TASK_TYPE_BUFFER);
+        verify(mockStreamProcessorBuilder, times(1)).get();
 
         verify(mockStreamProcessor).addSubscription(subscription);
-        verify(anotherMockStreamProcessor).addSubscription(anotherSubscription);
+        verify(mockStreamProcessor).addSubscription(anotherSubscription);
 
-        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME, TASK_TYPE)), any());
-        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME, ANOTHER_TASK_TYPE)), any());
-        verify(mockServiceBuilder, times(2)).install();
+        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME)), any());
+        verify(mockServiceBuilder, times(1)).install();
+    }
+
+    @Test
+    public void shouldCreateServiceOnceForConcurrentSubscriptions() throws Exception
+    {
+        // given
+        final CompletableFuture<Void> installFuture = new CompletableFuture<>();
+        when(mockServiceBuilder.install()).thenReturn(installFuture);
+
+        final TaskSubscription anotherSubscription = createTaskSubscription(LOG_STREAM_PARTITION_ID, ANOTHER_TASK_TYPE_BUFFER);
+
+        manager.addStream(mockLogStream, LOG_STREAM_SERVICE_NAME);
+
+        // when
+        final CompletableFuture<Void> future = manager.addSubscription(subscription);
+        final CompletableFuture<Void> anotherFuture = manager.addSubscription(anotherSubscription);
+        manager.doWork();
+
+        installFuture.complete(null);
+
+        // then
+        assertThat(future).isCompleted();
+        assertThat(anotherFuture).isCompleted();
+
+        verify(mockStreamProcessorBuilder, times(1)).get();
+
+        verify(mockStreamProcessor).addSubscription(subscription);
+        verify(mockStreamProcessor).addSubscription(anotherSubscription);
+
+        verify(mockServiceContext, times(1)).createService(eq(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME)), any());
     }
 
     @Test
@@ -274,7 +302,7 @@ public class TaskSubscriptionManagerTest
 
         verify(mockStreamProcessor).removeSubscription(0L);
 
-        verify(mockServiceContext).removeService(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME, TASK_TYPE));
+        verify(mockServiceContext).removeService(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME));
     }
 
     @Test
@@ -296,7 +324,7 @@ public class TaskSubscriptionManagerTest
 
         verify(mockStreamProcessor).removeSubscription(0L);
 
-        verify(mockServiceContext, never()).removeService(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME, TASK_TYPE));
+        verify(mockServiceContext, never()).removeService(taskQueueLockStreamProcessorServiceName(LOG_STREAM_LOG_NAME));
     }
 
     @Test
@@ -169,6 +169,11 @@ public class MockStreamProcessorController<T extends UnpackedObject> extends Ext
         streamProcessor.onOpen(context);
     }
 
+    public LogStreamReader getMockLogStreamReader()
+    {
+        return mockLogStreamReader;
+    }
+
     public List<WrittenEvent<T>> getWrittenEvents()
     {
         return writtenEvents;
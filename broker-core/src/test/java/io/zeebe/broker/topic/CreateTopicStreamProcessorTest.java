@@ -459,6 +459,30 @@ public class CreateTopicStreamProcessorTest
 
     }
 
+    @Test
+    public void shouldDistributePartitionsToLeastLoadedBroker()
+    {
+        // given
+        partitionManager.addMember(SOCKET_ADDRESS1);
+        partitionManager.addMember(SOCKET_ADDRESS2);
+        partitionManager.declarePartitionLeader(SOCKET_ADDRESS1, 100);
+        partitionManager.declarePartitionLeader(SOCKET_ADDRESS1, 101);
+
+        final StreamProcessorControl processorControl = streams.runStreamProcessor(STREAM_NAME, streamProcessor);
+        processorControl.unblock();
+
+        // when
+        streams.newEvent(STREAM_NAME)
+            .event(createTopic("foo", 4))
+            .write();
+        waitUntil(() -> partitionEventsInState(PartitionState.CREATING).count() == 4);
+
+        // then
+        final List<PartitionRequest> requests = partitionManager.getPartitionRequests();
+        assertThat(requests).extracting(r -> r.endpoint).containsExactly(
+                SOCKET_ADDRESS2, SOCKET_ADDRESS2, SOCKET_ADDRESS1, SOCKET_ADDRESS2);
+    }
+
     @Test
     public void shouldCreateNewPartitionOnExpiration()
     {
@@ -791,6 +815,18 @@ public class CreateTopicStreamProcessorTest
                 {
                     return new IntListIterator(partitionsByMember.getOrDefault(socketAddress, Collections.emptyList()));
                 }
+
+                @Override
+                public int getPartitionCount()
+                {
+                    return getLeaderCount();
+                }
+
+                @Override
+                public int getLeaderCount()
+                {
+                    return partitionsByMember.getOrDefault(socketAddress, Collections.emptyList()).size();
+                }
             });
         }
 
@@ -0,0 +1,193 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.transport.clientapi;
+
+import static io.zeebe.util.buffer.BufferUtil.bufferAsString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.zeebe.util.time.ClockUtil;
+
+public class PendingBatchRequestsTest
+{
+    private static final int STREAM_ID = 1;
+    private static final long REQUEST_ID = 2L;
+
+    private final PendingBatchRequests pendingRequests = new PendingBatchRequests();
+    private final BatchCommandResponse response = new BatchCommandResponse();
+
+    @After
+    public void resetClock()
+    {
+        ClockUtil.reset();
+    }
+
+    @Test
+    public void shouldCompleteBatchWhenAllCommandsAreProcessed()
+    {
+        // given
+        pendingRequests.register(STREAM_ID, REQUEST_ID, 2);
+
+        // when
+        final boolean isCompleteAfterFirst = pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 10L, 1L, "COMPLETED", response);
+        final boolean isCompleteAfterSecond = pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 11L, 2L, "COMPLETE_REJECTED", response);
+
+        // then
+        assertThat(isCompleteAfterFirst).isFalse();
+        assertThat(isCompleteAfterSecond).isTrue();
+
+        assertThat(keys()).containsExactly(1L, 2L);
+        assertThat(states()).containsExactly("COMPLETED", "COMPLETE_REJECTED");
+    }
+
+    @Test
+    public void shouldKeepCompleteBatchUntilRemoved()
+    {
+        // given
+        pendingRequests.register(STREAM_ID, REQUEST_ID, 1);
+        pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 10L, 1L, "CREATED", response);
+
+        // when the response is retried
+        final boolean isComplete = pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 10L, 1L, "CREATED", response);
+
+        // then
+        assertThat(isComplete).isTrue();
+        assertThat(keys()).containsExactly(1L);
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID)).isTrue();
+
+        // when the response is written
+        pendingRequests.remove(STREAM_ID, REQUEST_ID);
+
+        // then
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID)).isFalse();
+    }
+
+    @Test
+    public void shouldOrderResultsByCommandPosition()
+    {
+        // given
+        pendingRequests.register(STREAM_ID, REQUEST_ID, 3);
+
+        // when
+        pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 12L, 3L, "CREATED", response);
+        pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 10L, 1L, "CREATED", response);
+        final boolean isComplete = pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 11L, 2L, "CREATED", response);
+
+        // then
+        assertThat(isComplete).isTrue();
+        assertThat(keys()).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void shouldReplaceResultOfReprocessedCommand()
+    {
+        // given
+        pendingRequests.register(STREAM_ID, REQUEST_ID, 2);
+        pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 10L, 1L, "CREATED", response);
+
+        // when
+        final boolean isComplete = pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 10L, 1L, "CREATED", response);
+
+        // then
+        assertThat(isComplete).isFalse();
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID)).isTrue();
+    }
+
+    @Test
+    public void shouldNotCompleteUnknownBatch()
+    {
+        // when
+        final boolean isComplete = pendingRequests.onCommandProcessed(STREAM_ID, REQUEST_ID, 10L, 1L, "CREATED", response);
+
+        // then
+        assertThat(isComplete).isFalse();
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID)).isFalse();
+    }
+
+    @Test
+    public void shouldDistinguishRequestsByStreamAndId()
+    {
+        // given
+        pendingRequests.register(STREAM_ID, REQUEST_ID, 1);
+
+        // then
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID)).isTrue();
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID + 1, REQUEST_ID)).isFalse();
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID + 1)).isFalse();
+    }
+
+    @Test
+    public void shouldRemoveBatch()
+    {
+        // given
+        pendingRequests.register(STREAM_ID, REQUEST_ID, 1);
+
+        // when
+        pendingRequests.remove(STREAM_ID, REQUEST_ID);
+
+        // then
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID)).isFalse();
+    }
+
+    @Test
+    public void shouldDropTimedOutBatchOnRegistration()
+    {
+        // given
+        ClockUtil.setCurrentTime(Instant.now());
+        pendingRequests.register(STREAM_ID, REQUEST_ID, 1);
+
+        // when
+        ClockUtil.addTime(PendingBatchRequests.REQUEST_TIMEOUT.plusMillis(1));
+        pendingRequests.register(STREAM_ID, REQUEST_ID + 1, 1);
+
+        // then
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID)).isFalse();
+        assertThat(pendingRequests.isBatchRequest(STREAM_ID, REQUEST_ID + 1)).isTrue();
+    }
+
+    private List<Long> keys()
+    {
+        final List<Long> keys = new ArrayList<>();
+
+        final Iterator<BatchCommandResponse.Result> iterator = response.results().iterator();
+        while (iterator.hasNext())
+        {
+            keys.add(iterator.next().getKey());
+        }
+        return keys;
+    }
+
+    private List<String> states()
+    {
+        final List<String> states = new ArrayList<>();
+
+        final Iterator<BatchCommandResponse.Result> iterator = response.results().iterator();
+        while (iterator.hasNext())
+        {
+            states.add(bufferAsString(iterator.next().getState()));
+        }
+        return states;
+    }
+}
@@ -19,10 +19,12 @@ package io.zeebe.broker.transport.controlmessage;
 
 import static io.zeebe.test.util.BufferAssert.assertThatBuffer;
 import static io.zeebe.util.StringUtil.getBytes;
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,11 +32,14 @@ import static org.mockito.Mockito.when;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.agrona.DirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -43,6 +48,9 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.stubbing.Answer;
 
+import io.zeebe.broker.task.TaskSubscriptionManager;
+import io.zeebe.broker.task.processor.TaskSubscription;
+import io.zeebe.broker.task.processor.TaskSubscriptionRequest;
 import io.zeebe.broker.transport.clientapi.BufferingServerOutput;
 import io.zeebe.dispatcher.Dispatcher;
 import io.zeebe.dispatcher.FragmentHandler;
@@ -60,6 +68,7 @@ import io.zeebe.util.time.ClockUtil;
 public class ControlMessageHandlerManagerTest
 {
     private static final ControlMessageType CONTROL_MESSAGE_TYPE = ControlMessageType.ADD_TASK_SUBSCRIPTION;
+    private static final ControlMessageType OTHER_CONTROL_MESSAGE_TYPE = ControlMessageType.REMOVE_TASK_SUBSCRIPTION;
     private static final byte[] CONTROL_MESSAGE_DATA = getBytes("foo");
     private static final Duration TIMEOUT = Duration.ofSeconds(30);
 
@@ -86,6 +95,10 @@ public class ControlMessageHandlerManagerTest
     @Mock
     private ControlMessageHandler mockControlMessageHandler;
 
+    @Mock
+    private ControlMessageHandler otherControlMessageHandler;
+
+    private ControlMessageHandlerMetrics metrics;
     private ControlMessageHandlerManager manager;
 
     @Mock
@@ -99,16 +112,15 @@ public class ControlMessageHandlerManagerTest
         when(mockControlMessageBuffer.getSubscriptionByName("control-message-handler")).thenReturn(mockSubscription);
 
         when(mockControlMessageHandler.getMessageType()).thenReturn(CONTROL_MESSAGE_TYPE);
+        when(mockControlMessageHandler.handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class))).thenReturn(CompletableFuture.completedFuture(null));
 
-        output = new BufferingServerOutput();
-        manager = new ControlMessageHandlerManager(
-                output,
-                mockControlMessageBuffer,
-                TIMEOUT.toMillis(),
-                mockTaskScheduler,
-                Collections.singletonList(mockControlMessageHandler));
+        when(otherControlMessageHandler.getMessageType()).thenReturn(OTHER_CONTROL_MESSAGE_TYPE);
+        when(otherControlMessageHandler.handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class))).thenReturn(CompletableFuture.completedFuture(null));
 
-        when(mockTaskScheduler.schedule(manager)).thenReturn(mockActorRef);
+        metrics = new ControlMessageHandlerMetrics(new CountersManager(new UnsafeBuffer(new byte[64 * 1024]), new UnsafeBuffer(new byte[16 * 1024])));
+
+        output = new BufferingServerOutput();
+        manager = createManager(mockControlMessageHandler);
 
         // fix the current time to calculate the timeout
         ClockUtil.setCurrentTime(Instant.now());
@@ -118,6 +130,22 @@ public class ControlMessageHandlerManagerTest
     public void cleanUp()
     {
         ClockUtil.reset();
+        metrics.close();
+    }
+
+    private ControlMessageHandlerManager createManager(ControlMessageHandler... handlers)
+    {
+        final ControlMessageHandlerManager manager = new ControlMessageHandlerManager(
+                output,
+                mockControlMessageBuffer,
+                TIMEOUT.toMillis(),
+                mockTaskScheduler,
+                metrics,
+                Arrays.asList(handlers));
+
+        when(mockTaskScheduler.schedule(manager)).thenReturn(mockActorRef);
+
+        return manager;
     }
 
     @Test
@@ -220,7 +248,7 @@ public class ControlMessageHandlerManagerTest
     }
 
     @Test
-    public void shouldWaitUntilPolledControlMessageIsHandled()
+    public void shouldQueueControlMessagesOfSameTypeUntilHandled()
     {
         // given a polled message
         opened();
@@ -232,23 +260,180 @@ public class ControlMessageHandlerManagerTest
 
         manager.doWork();
 
-        // when wait for completion
+        // when poll more messages of the same type
         manager.doWork();
         manager.doWork();
         manager.doWork();
 
-        verify(mockSubscription, times(1)).poll(any(FragmentHandler.class), eq(1));
+        verify(mockSubscription, times(4)).poll(any(FragmentHandler.class), eq(1));
+        verify(mockControlMessageHandler, times(1)).handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class));
 
         spyFuture.complete(null);
 
-        // and continue polling
+        // and continue
+        manager.doWork();
+
+        // then the queued messages are handled
+        assertThat(manager.isOpen()).isTrue();
+
+        verify(mockControlMessageHandler, times(5)).handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class));
+    }
+
+    @Test
+    public void shouldHandleControlMessagesOfDifferentTypesConcurrently()
+    {
+        // given
+        manager = createManager(mockControlMessageHandler, otherControlMessageHandler);
+        opened();
+
+        when(mockSubscription.poll(any(FragmentHandler.class), eq(1)))
+            .thenAnswer(pollControlMessage(CONTROL_MESSAGE_TYPE))
+            .thenAnswer(pollControlMessage(OTHER_CONTROL_MESSAGE_TYPE))
+            .thenReturn(0);
+
+        when(mockControlMessageHandler.handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class))).thenReturn(new CompletableFuture<>());
+
+        // when
         manager.doWork();
         manager.doWork();
 
         // then
+        verify(mockControlMessageHandler).handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class));
+        verify(otherControlMessageHandler).handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class));
+    }
+
+    @Test
+    public void shouldRespondToConcurrentAddSubscriptionRequestsWithTheirOwnData()
+    {
+        // given
+        final List<CompletableFuture<Void>> subscriptionFutures = new ArrayList<>();
+
+        final TaskSubscriptionManager taskSubscriptionManager = mock(TaskSubscriptionManager.class);
+        when(taskSubscriptionManager.addSubscription(any())).thenAnswer(invocation ->
+        {
+            final TaskSubscription subscription = (TaskSubscription) invocation.getArguments()[0];
+            subscription.setSubscriberKey(subscriptionFutures.size() + 1);
+
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            subscriptionFutures.add(future);
+            return future;
+        });
+
+        manager = createManager(new AddTaskSubscriptionHandler(output, taskSubscriptionManager));
+        opened();
+
+        when(mockSubscription.poll(any(FragmentHandler.class), eq(1)))
+            .thenAnswer(pollControlMessage(CONTROL_MESSAGE_TYPE, subscriptionRequest("foo")))
+            .thenAnswer(pollControlMessage(CONTROL_MESSAGE_TYPE, subscriptionRequest("bar")))
+            .thenReturn(0);
+
+        // when both requests are polled before the first one is handled
+        manager.doWork();
+        manager.doWork();
+
+        assertThat(subscriptionFutures).hasSize(1);
+
+        subscriptionFutures.get(0).complete(null);
+        manager.doWork();
+
+        assertThat(subscriptionFutures).hasSize(2);
+
+        subscriptionFutures.get(1).complete(null);
+        manager.doWork();
+
+        // then
+        assertThat(output.getSentResponses()).hasSize(2);
+
+        assertThat(output.getAsControlMessageData(0))
+            .containsEntry("taskType", "foo")
+            .containsEntry("subscriberKey", 1);
+
+        assertThat(output.getAsControlMessageData(1))
+            .containsEntry("taskType", "bar")
+            .containsEntry("subscriberKey", 2);
+    }
+
+    @Test
+    public void shouldNotQueueNonBlockingControlMessages()
+    {
+        // given
+        opened();
+
+        when(mockSubscription.poll(any(FragmentHandler.class), eq(1))).thenAnswer(pollControlMessage(CONTROL_MESSAGE_TYPE));
+
+        when(mockControlMessageHandler.isNonBlocking()).thenReturn(true);
+        when(mockControlMessageHandler.handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class))).thenReturn(new CompletableFuture<>());
+
+        // when
+        manager.doWork();
+        manager.doWork();
+        manager.doWork();
+
+        // then
+        verify(mockControlMessageHandler, times(3)).handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class));
+    }
+
+    @Test
+    public void shouldStopPollingIfPendingRequestLimitIsReached()
+    {
+        // given
+        opened();
+
+        when(mockSubscription.poll(any(FragmentHandler.class), eq(1))).thenAnswer(pollControlMessage(CONTROL_MESSAGE_TYPE));
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        when(mockControlMessageHandler.handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class))).thenReturn(future);
+
+        // when
+        for (int i = 0; i < 2 * ControlMessageHandlerManager.MAX_PENDING_REQUESTS; i++)
+        {
+            manager.doWork();
+        }
+
+        // then
+        verify(mockSubscription, times(ControlMessageHandlerManager.MAX_PENDING_REQUESTS)).poll(any(FragmentHandler.class), eq(1));
+
+        // and continue polling when the requests are handled
+        future.complete(null);
+
+        manager.doWork();
+
+        verify(mockSubscription, times(ControlMessageHandlerManager.MAX_PENDING_REQUESTS + 1)).poll(any(FragmentHandler.class), eq(1));
+    }
+
+    @Test
+    public void shouldCloseWhenInFlightRequestsAreHandled()
+    {
+        // given
+        opened();
+
+        when(mockSubscription.poll(any(FragmentHandler.class), eq(1)))
+            .thenAnswer(pollControlMessage(CONTROL_MESSAGE_TYPE))
+            .thenReturn(0);
+
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        when(mockControlMessageHandler.handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class))).thenReturn(future);
+
+        manager.doWork();
+
+        // when
+        final CompletableFuture<Void> closeFuture = manager.closeAsync();
+        manager.doWork();
+        manager.doWork();
+
+        // then
+        assertThat(closeFuture).isNotDone();
         assertThat(manager.isOpen()).isTrue();
 
-        verify(mockSubscription, times(2)).poll(any(FragmentHandler.class), eq(1));
+        future.complete(null);
+
+        manager.doWork();
+        manager.doWork();
+
+        assertThat(closeFuture).isCompleted();
+        assertThat(manager.isClosed()).isTrue();
+
+        verify(mockSubscription, times(1)).poll(any(FragmentHandler.class), eq(1));
     }
 
     @Test
@@ -257,7 +442,9 @@ public class ControlMessageHandlerManagerTest
         // given a polled message
         opened();
 
-        when(mockSubscription.poll(any(FragmentHandler.class), eq(1))).thenAnswer(pollControlMessage(CONTROL_MESSAGE_TYPE));
+        when(mockSubscription.poll(any(FragmentHandler.class), eq(1)))
+            .thenAnswer(pollControlMessage(CONTROL_MESSAGE_TYPE))
+            .thenReturn(0);
 
         final CompletableFuture<Void> spyFuture = spy(new CompletableFuture<Void>());
         when(mockControlMessageHandler.handle(anyInt(), any(DirectBuffer.class), any(BrokerEventMetadata.class))).thenReturn(spyFuture);
@@ -283,8 +470,8 @@ public class ControlMessageHandlerManagerTest
         assertThat(errorResponse.errorCode()).isEqualTo(ErrorCode.REQUEST_TIMEOUT);
         assertThat(errorResponse.errorData()).isEqualTo("Timeout while handle control message.");
 
-        verify(spyFuture, times(2)).isDone();
-        verify(mockSubscription, times(2)).poll(any(FragmentHandler.class), eq(1));
+        verify(spyFuture, times(3)).isDone();
+        verify(mockSubscription, times(4)).poll(any(FragmentHandler.class), eq(1));
     }
 
     @Test
@@ -293,13 +480,15 @@ public class ControlMessageHandlerManagerTest
         // given
         opened();
 
-        when(mockSubscription.poll(any(FragmentHandler.class), eq(1))).thenAnswer(pollControlMessage(ControlMessageType.SBE_UNKNOWN));
+        when(mockSubscription.poll(any(FragmentHandler.class), eq(1)))
+            .thenAnswer(pollControlMessage(ControlMessageType.SBE_UNKNOWN))
+            .thenReturn(0);
 
         // when handle the message
         manager.doWork();
-        manager.doWork();
         // and continue polling
         manager.doWork();
+        manager.doWork();
 
         // then
         assertThat(manager.isOpen()).isTrue();
@@ -310,7 +499,7 @@ public class ControlMessageHandlerManagerTest
 
         assertThat(errorResponse.errorCode()).isEqualTo(ErrorCode.MESSAGE_NOT_SUPPORTED);
         assertThat(errorResponse.errorData()).isEqualTo("Cannot handle control message with type 'NULL_VAL'.");
-        verify(mockSubscription, times(2)).poll(any(FragmentHandler.class), eq(1));
+        verify(mockSubscription, times(3)).poll(any(FragmentHandler.class), eq(1));
     }
 
     private void opened()
@@ -319,7 +508,26 @@ public class ControlMessageHandlerManagerTest
         manager.doWork();
     }
 
+    private static byte[] subscriptionRequest(String taskType)
+    {
+        final TaskSubscriptionRequest request = new TaskSubscriptionRequest()
+            .setTaskType(wrapString(taskType))
+            .setLockDuration(1000L)
+            .setLockOwner(wrapString("owner"))
+            .setCredits(10);
+
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[request.getLength()]);
+        request.write(buffer, 0);
+
+        return buffer.byteArray();
+    }
+
     private Answer<?> pollControlMessage(ControlMessageType type)
+    {
+        return pollControlMessage(type, CONTROL_MESSAGE_DATA);
+    }
+
+    private Answer<?> pollControlMessage(ControlMessageType type, byte[] data)
     {
         return invocation ->
         {
@@ -346,7 +554,7 @@ public class ControlMessageHandlerManagerTest
             requestEncoder
                 .wrap(requestWriteBuffer, offset)
                 .messageType(type)
-                .putData(CONTROL_MESSAGE_DATA, 0, CONTROL_MESSAGE_DATA.length);
+                .putData(data, 0, data.length);
 
             fragmentHandler.onFragment(requestWriteBuffer, 0, offset, 0, false);
 
@@ -0,0 +1,124 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LongLruCacheTest
+{
+    private final Map<Long, String> evictedEntries = new HashMap<>();
+
+    private LongLruCache<String> cache;
+
+    @Before
+    public void setup()
+    {
+        cache = new LongLruCache<>(2, evictedEntries::put);
+    }
+
+    @Test
+    public void shouldPutAndLookup()
+    {
+        // when
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        // then
+        assertThat(cache.lookup(1L)).isEqualTo("one");
+        assertThat(cache.lookup(2L)).isEqualTo("two");
+        assertThat(cache.lookup(3L)).isNull();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldReplaceValue()
+    {
+        // given
+        cache.put(1L, "one");
+
+        // when
+        cache.put(1L, "uno");
+
+        // then
+        assertThat(cache.lookup(1L)).isEqualTo("uno");
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(evictedEntries).isEmpty();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry()
+    {
+        // given
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        cache.lookup(1L);
+
+        // when
+        cache.put(3L, "three");
+
+        // then
+        assertThat(evictedEntries).containsOnly(entry(2L, "two"));
+
+        assertThat(cache.lookup(1L)).isEqualTo("one");
+        assertThat(cache.lookup(2L)).isNull();
+        assertThat(cache.lookup(3L)).isEqualTo("three");
+    }
+
+    @Test
+    public void shouldRemoveEntry()
+    {
+        // given
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        // when
+        final String removedValue = cache.remove(1L);
+
+        // then
+        assertThat(removedValue).isEqualTo("one");
+        assertThat(cache.lookup(1L)).isNull();
+        assertThat(cache.lookup(2L)).isEqualTo("two");
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(evictedEntries).isEmpty();
+    }
+
+    @Test
+    public void shouldClear()
+    {
+        // given
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+
+        // when
+        cache.clear();
+
+        // then
+        assertThat(cache.size()).isEqualTo(0);
+        assertThat(cache.lookup(1L)).isNull();
+        assertThat(evictedEntries).isEmpty();
+    }
+
+}
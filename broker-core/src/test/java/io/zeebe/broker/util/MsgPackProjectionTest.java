@@ -0,0 +1,110 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.util;
+
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import io.zeebe.broker.task.data.TaskEvent;
+import io.zeebe.broker.task.data.TaskState;
+import io.zeebe.broker.test.MsgPackUtil;
+import io.zeebe.broker.util.MsgPackProjection.EnumLookup;
+
+public class MsgPackProjectionTest
+{
+    private static final int STATE = 0;
+    private static final int LOCK_TIME = 1;
+    private static final int TYPE = 2;
+
+    private final MsgPackProjection projection = new MsgPackProjection("state", "lockTime", "type");
+    private final EnumLookup<TaskState> taskStates = new EnumLookup<>(TaskState.class);
+
+    @Test
+    public void shouldReadProjectedProperties()
+    {
+        // given
+        final TaskEvent taskEvent = new TaskEvent()
+            .setState(TaskState.LOCKED)
+            .setLockTime(123L)
+            .setType(wrapString("foo"))
+            .setPayload(new UnsafeBuffer(MsgPackUtil.MSGPACK_PAYLOAD));
+
+        // when
+        wrap(taskEvent);
+
+        // then
+        assertThat(projection.getEnum(STATE, taskStates)).isEqualTo(TaskState.LOCKED);
+        assertThat(projection.getLong(LOCK_TIME, -1L)).isEqualTo(123L);
+        assertThat(projection.getString(TYPE)).isEqualTo(wrapString("foo"));
+    }
+
+    @Test
+    public void shouldReturnDefaultIfPropertyIsNotSet()
+    {
+        // given
+        final DirectBuffer value = MsgPackUtil.encodeMsgPack((w) ->
+        {
+            w.writeMapHeader(1);
+            w.writeString(wrapString("other"));
+            w.writeInteger(1);
+        });
+
+        // when
+        projection.wrap(value, 0, value.capacity());
+
+        // then
+        assertThat(projection.hasValue(STATE)).isFalse();
+        assertThat(projection.getEnum(STATE, taskStates)).isNull();
+        assertThat(projection.getLong(LOCK_TIME, -1L)).isEqualTo(-1L);
+        assertThat(projection.getString(TYPE).capacity()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReturnDefaultIfPropertyHasOtherType()
+    {
+        // given
+        final DirectBuffer value = MsgPackUtil.encodeMsgPack((w) ->
+        {
+            w.writeMapHeader(2);
+            w.writeString(wrapString("lockTime"));
+            w.writeString(wrapString("now"));
+            w.writeString(wrapString("state"));
+            w.writeString(wrapString("UNKNOWN"));
+        });
+
+        // when
+        projection.wrap(value, 0, value.capacity());
+
+        // then
+        assertThat(projection.hasValue(LOCK_TIME)).isTrue();
+        assertThat(projection.getLong(LOCK_TIME, -1L)).isEqualTo(-1L);
+        assertThat(projection.getEnum(STATE, taskStates)).isNull();
+    }
+
+    private void wrap(TaskEvent taskEvent)
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[taskEvent.getLength()]);
+        taskEvent.write(buffer, 0);
+
+        projection.wrap(buffer, 0, buffer.capacity());
+    }
+}
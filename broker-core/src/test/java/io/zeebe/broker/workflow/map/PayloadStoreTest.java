@@ -0,0 +1,338 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.workflow.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Test;
+
+public class PayloadStoreTest
+{
+    private static final int SMALLEST_SLOTS_PER_PAGE = PayloadStore.PAGE_SIZE / 256;
+
+    private PayloadStore store;
+
+    @After
+    public void close()
+    {
+        if (store != null)
+        {
+            store.close();
+        }
+    }
+
+    @Test
+    public void shouldPutAndGetPayloadsOfAllSizeClasses()
+    {
+        // given
+        store = new PayloadStore(10 * PayloadStore.PAGE_SIZE);
+
+        final int[] lengths = {0, 100, 1000, 4000, 16000, 60000};
+
+        // when
+        for (int i = 0; i < lengths.length; i++)
+        {
+            assertThat(store.put(i, payload(lengths[i], i))).isTrue();
+        }
+
+        // then
+        for (int i = 0; i < lengths.length; i++)
+        {
+            assertThat(store.get(i)).isEqualTo(payload(lengths[i], i));
+        }
+    }
+
+    @Test
+    public void shouldNotStoreTooLargePayload()
+    {
+        // given
+        store = new PayloadStore(10 * PayloadStore.PAGE_SIZE);
+        store.put(1L, payload(10, 1));
+
+        // when
+        final boolean stored = store.put(1L, payload(64 * 1024, 2));
+
+        // then
+        assertThat(stored).isFalse();
+        assertThat(store.get(1L)).isNull();
+    }
+
+    @Test
+    public void shouldReplacePayload()
+    {
+        // given
+        store = new PayloadStore(10 * PayloadStore.PAGE_SIZE);
+        store.put(1L, payload(10, 1));
+
+        // when
+        store.put(1L, payload(2000, 2));
+
+        // then
+        assertThat(store.get(1L)).isEqualTo(payload(2000, 2));
+    }
+
+    @Test
+    public void shouldReplacePayloadWithViewOnPreviousPayload()
+    {
+        // given
+        store = new PayloadStore(10 * PayloadStore.PAGE_SIZE);
+        store.put(1L, payload(100, 1));
+
+        // when
+        store.put(1L, store.get(1L));
+
+        // then
+        assertThat(store.get(1L)).isEqualTo(payload(100, 1));
+    }
+
+    @Test
+    public void shouldRemovePayload()
+    {
+        // given
+        store = new PayloadStore(10 * PayloadStore.PAGE_SIZE);
+        store.put(1L, payload(100, 1));
+        store.put(2L, payload(100, 2));
+
+        // when
+        store.remove(1L);
+        store.remove(3L);
+
+        // then
+        assertThat(store.get(1L)).isNull();
+        assertThat(store.get(2L)).isEqualTo(payload(100, 2));
+    }
+
+    @Test
+    public void shouldNotStorePayloadIfBudgetIsExhausted()
+    {
+        // given
+        store = new PayloadStore(2 * PayloadStore.PAGE_SIZE);
+
+        for (int i = 0; i < 2 * SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            assertThat(store.put(i, payload(100, i))).isTrue();
+        }
+
+        // when
+        final boolean stored = store.put(-1L, payload(100, 0));
+
+        // then
+        assertThat(stored).isFalse();
+        assertThat(store.getUsedPageCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldReplacePayloadIfBudgetIsExhausted()
+    {
+        // given
+        store = new PayloadStore(PayloadStore.PAGE_SIZE);
+
+        for (int i = 0; i < SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            assertThat(store.put(i, payload(100, i))).isTrue();
+        }
+
+        // when
+        final boolean stored = store.put(0L, payload(200, 1));
+
+        // then
+        assertThat(stored).isTrue();
+        assertThat(store.get(0L)).isEqualTo(payload(200, 1));
+        assertThat(store.getUsedPageCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReplacePayloadWithViewOnPreviousPayloadIfBudgetIsExhausted()
+    {
+        // given
+        store = new PayloadStore(PayloadStore.PAGE_SIZE);
+
+        for (int i = 0; i < SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            assertThat(store.put(i, payload(100, i))).isTrue();
+        }
+
+        // when
+        final boolean stored = store.put(0L, store.get(0L));
+
+        // then
+        assertThat(stored).isTrue();
+        assertThat(store.get(0L)).isEqualTo(payload(100, 0));
+    }
+
+    @Test
+    public void shouldFreePagesOnClose()
+    {
+        // given
+        store = new PayloadStore(2 * PayloadStore.PAGE_SIZE);
+        store.put(1L, payload(100, 1));
+        store.put(2L, payload(2000, 2));
+
+        // when
+        store.close();
+
+        // then
+        assertThat(store.get(1L)).isNull();
+        assertThat(store.getUsedPageCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReuseFreeSlot()
+    {
+        // given
+        store = new PayloadStore(PayloadStore.PAGE_SIZE);
+
+        for (int i = 0; i < SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            store.put(i, payload(100, i));
+        }
+
+        // when
+        store.remove(5L);
+
+        // then
+        assertThat(store.put(-1L, payload(100, 5))).isTrue();
+        assertThat(store.get(-1L)).isEqualTo(payload(100, 5));
+    }
+
+    @Test
+    public void shouldReleaseEmptyPageForOtherSizeClass()
+    {
+        // given
+        store = new PayloadStore(2 * PayloadStore.PAGE_SIZE);
+
+        for (int i = 0; i < 2 * SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            store.put(i, payload(100, i));
+        }
+
+        // when
+        for (int i = 0; i < SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            store.remove(i);
+        }
+
+        // then
+        assertThat(store.getUsedPageCount()).isEqualTo(1);
+
+        assertThat(store.put(-1L, payload(60000, 1))).isTrue();
+        assertThat(store.get(-1L)).isEqualTo(payload(60000, 1));
+
+        assertThat(store.get(SMALLEST_SLOTS_PER_PAGE)).isEqualTo(payload(100, SMALLEST_SLOTS_PER_PAGE));
+    }
+
+    @Test
+    public void shouldNotReleasePageWithUsedSlots()
+    {
+        // given
+        store = new PayloadStore(2 * PayloadStore.PAGE_SIZE);
+
+        for (int i = 0; i < SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            store.put(i, payload(100, i));
+        }
+
+        // when
+        for (int i = 1; i < SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            store.remove(i);
+        }
+
+        // then
+        assertThat(store.getUsedPageCount()).isEqualTo(1);
+        assertThat(store.get(0L)).isEqualTo(payload(100, 0));
+    }
+
+    @Test
+    public void shouldReuseAllPagesAfterReset()
+    {
+        // given
+        store = new PayloadStore(2 * PayloadStore.PAGE_SIZE);
+
+        for (int i = 0; i < 2 * SMALLEST_SLOTS_PER_PAGE; i++)
+        {
+            store.put(i, payload(100, i));
+        }
+
+        // when
+        store.reset();
+
+        // then
+        assertThat(store.get(0L)).isNull();
+        assertThat(store.getUsedPageCount()).isEqualTo(0);
+
+        assertThat(store.put(1L, payload(60000, 1))).isTrue();
+        assertThat(store.put(2L, payload(60000, 2))).isTrue();
+    }
+
+    @Test
+    public void shouldRecoverFromSnapshot() throws Exception
+    {
+        // given
+        store = new PayloadStore(10 * PayloadStore.PAGE_SIZE);
+
+        store.put(1L, payload(0, 1));
+        store.put(2L, payload(100, 2));
+        store.put(3L, payload(5000, 3));
+        store.put(4L, payload(60000, 4));
+        store.remove(2L);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        store.writeSnapshot(outputStream);
+
+        final PayloadStore recoveredStore = new PayloadStore(10 * PayloadStore.PAGE_SIZE);
+        recoveredStore.put(5L, payload(100, 5));
+
+        // when
+        try
+        {
+            recoveredStore.recoverFromSnapshot(new ByteArrayInputStream(outputStream.toByteArray()));
+
+            // then
+            assertThat(outputStream.size()).isEqualTo((int) store.snapshotSize());
+            assertThat(recoveredStore.snapshotSize()).isEqualTo(store.snapshotSize());
+
+            assertThat(recoveredStore.get(1L)).isEqualTo(payload(0, 1));
+            assertThat(recoveredStore.get(2L)).isNull();
+            assertThat(recoveredStore.get(3L)).isEqualTo(payload(5000, 3));
+            assertThat(recoveredStore.get(4L)).isEqualTo(payload(60000, 4));
+            assertThat(recoveredStore.get(5L)).isNull();
+        }
+        finally
+        {
+            recoveredStore.close();
+        }
+    }
+
+    private static DirectBuffer payload(int length, long seed)
+    {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            bytes[i] = (byte) (seed + i);
+        }
+        return new UnsafeBuffer(bytes);
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.workflow.map;
+
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import io.zeebe.broker.workflow.data.WorkflowEvent;
+import io.zeebe.broker.workflow.data.WorkflowState;
+import io.zeebe.logstreams.log.LogStreamReader;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.model.bpmn.Bpmn;
+import io.zeebe.util.buffer.BufferReader;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkflowDeploymentCacheTest
+{
+    private static final long FIRST_WORKFLOW_KEY = 1L;
+    private static final long SECOND_WORKFLOW_KEY = 2L;
+
+    private LogStreamReader logStreamReader;
+    private WorkflowDeploymentCache cache;
+
+    @Before
+    public void setup()
+    {
+        logStreamReader = mock(LogStreamReader.class);
+
+        cache = new WorkflowDeploymentCache(1, logStreamReader);
+    }
+
+    @After
+    public void close()
+    {
+        cache.close();
+    }
+
+    @Test
+    public void shouldNotReadWorkflowFromLogOnCacheHit()
+    {
+        // given
+        cache.addDeployedWorkflow(10L, FIRST_WORKFLOW_KEY, workflowEvent("process", 1));
+
+        // when
+        final DeployedWorkflow workflow = cache.getWorkflow(FIRST_WORKFLOW_KEY);
+        final DeployedWorkflow workflowOnSecondRequest = cache.getWorkflow(FIRST_WORKFLOW_KEY);
+
+        // then
+        assertThat(workflow).isNotNull();
+        assertThat(workflow.getVersion()).isEqualTo(1);
+        assertThat(workflow.getWorkflow().getBpmnProcessId()).isEqualTo(wrapString("process"));
+
+        // the parsed workflow is reused
+        assertThat(workflowOnSecondRequest).isSameAs(workflow);
+
+        verifyZeroInteractions(logStreamReader);
+    }
+
+    @Test
+    public void shouldNotReadEvictedWorkflowFromLog()
+    {
+        // given
+        cache.addDeployedWorkflow(10L, FIRST_WORKFLOW_KEY, workflowEvent("process", 1));
+
+        final DeployedWorkflow workflow = cache.getWorkflow(FIRST_WORKFLOW_KEY);
+
+        // evicts the first workflow
+        cache.addDeployedWorkflow(20L, SECOND_WORKFLOW_KEY, workflowEvent("process", 2));
+
+        // when
+        final DeployedWorkflow evictedWorkflow = cache.getWorkflow(FIRST_WORKFLOW_KEY);
+
+        // then
+        assertThat(evictedWorkflow).isSameAs(workflow);
+
+        verifyZeroInteractions(logStreamReader);
+    }
+
+    @Test
+    public void shouldReadReleasedWorkflowFromLog()
+    {
+        // given
+        final WorkflowEvent firstWorkflow = workflowEvent("process", 1);
+
+        cache.addDeployedWorkflow(10L, FIRST_WORKFLOW_KEY, firstWorkflow);
+        cache.addDeployedWorkflow(20L, SECOND_WORKFLOW_KEY, workflowEvent("process", 2));
+
+        givenEventInLog(10L, firstWorkflow);
+        givenReleasedByGarbageCollector(FIRST_WORKFLOW_KEY);
+
+        // when
+        final DeployedWorkflow workflow = cache.getWorkflow(FIRST_WORKFLOW_KEY);
+
+        // then
+        assertThat(workflow).isNotNull();
+        assertThat(workflow.getVersion()).isEqualTo(1);
+
+        verify(logStreamReader).seek(10L);
+    }
+
+    @Test
+    public void shouldNotReadReloadedWorkflowFromLogAgain()
+    {
+        // given
+        final WorkflowEvent firstWorkflow = workflowEvent("process", 1);
+
+        cache.addDeployedWorkflow(10L, FIRST_WORKFLOW_KEY, firstWorkflow);
+        cache.addDeployedWorkflow(20L, SECOND_WORKFLOW_KEY, workflowEvent("process", 2));
+
+        givenEventInLog(10L, firstWorkflow);
+        givenReleasedByGarbageCollector(FIRST_WORKFLOW_KEY);
+
+        final DeployedWorkflow workflow = cache.getWorkflow(FIRST_WORKFLOW_KEY);
+
+        // when
+        final DeployedWorkflow workflowOnSecondRequest = cache.getWorkflow(FIRST_WORKFLOW_KEY);
+
+        // then
+        assertThat(workflowOnSecondRequest).isSameAs(workflow);
+
+        verify(logStreamReader, times(1)).seek(anyLong());
+    }
+
+    @Test
+    public void shouldNotReturnRemovedWorkflow()
+    {
+        // given
+        cache.addDeployedWorkflow(10L, FIRST_WORKFLOW_KEY, workflowEvent("process", 1));
+
+        // when
+        cache.removeDeployedWorkflow(FIRST_WORKFLOW_KEY, wrapString("process"), 1);
+
+        // then
+        assertThat(cache.getWorkflow(FIRST_WORKFLOW_KEY)).isNull();
+        assertThat(cache.hasWorkflow(FIRST_WORKFLOW_KEY)).isFalse();
+    }
+
+    private void givenReleasedByGarbageCollector(long workflowKey)
+    {
+        cache.evictedWorkflows.get(workflowKey).clear();
+    }
+
+    private void givenEventInLog(long position, WorkflowEvent workflowEvent)
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[workflowEvent.getLength()]);
+        workflowEvent.write(buffer, 0);
+
+        final LoggedEvent loggedEvent = mock(LoggedEvent.class);
+        doAnswer(invocation ->
+        {
+            final BufferReader reader = (BufferReader) invocation.getArguments()[0];
+            reader.wrap(buffer, 0, buffer.capacity());
+            return null;
+        }).when(loggedEvent).readValue(any(BufferReader.class));
+
+        when(logStreamReader.seek(position)).thenReturn(true);
+        when(logStreamReader.hasNext()).thenReturn(true);
+        when(logStreamReader.next()).thenReturn(loggedEvent);
+    }
+
+    private WorkflowEvent workflowEvent(String bpmnProcessId, int version)
+    {
+        final String bpmnXml = Bpmn.convertToString(Bpmn.createExecutableWorkflow(bpmnProcessId)
+                .startEvent()
+                .done());
+
+        final WorkflowEvent event = new WorkflowEvent();
+        event
+            .setState(WorkflowState.CREATED)
+            .setBpmnProcessId(wrapString(bpmnProcessId))
+            .setVersion(version)
+            .setBpmnXml(wrapString(bpmnXml));
+
+        return event;
+    }
+
+}
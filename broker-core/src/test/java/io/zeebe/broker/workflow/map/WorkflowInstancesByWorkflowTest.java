@@ -0,0 +1,205 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.workflow.map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.agrona.collections.LongArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkflowInstancesByWorkflowTest
+{
+    private static final long WORKFLOW_KEY = 1L;
+    private static final long OTHER_WORKFLOW_KEY = 2L;
+
+    private WorkflowInstancesByWorkflow index;
+
+    @Before
+    public void init()
+    {
+        index = new WorkflowInstancesByWorkflow();
+    }
+
+    @Test
+    public void shouldAddInstances()
+    {
+        // when
+        index.add(WORKFLOW_KEY, 11L);
+        index.add(WORKFLOW_KEY, 12L);
+        index.add(OTHER_WORKFLOW_KEY, 21L);
+
+        // then
+        assertThat(index.getWorkflowInstanceCount(WORKFLOW_KEY)).isEqualTo(2);
+        assertThat(index.getWorkflowInstanceCount(OTHER_WORKFLOW_KEY)).isEqualTo(1);
+
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(11L, 12L);
+        assertThat(instanceKeys(OTHER_WORKFLOW_KEY)).containsOnly(21L);
+    }
+
+    @Test
+    public void shouldNotAddInstanceTwice()
+    {
+        // when
+        index.add(WORKFLOW_KEY, 11L);
+        index.add(WORKFLOW_KEY, 11L);
+
+        // then
+        assertThat(index.getWorkflowInstanceCount(WORKFLOW_KEY)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRemoveLastInstance()
+    {
+        // given
+        index.add(WORKFLOW_KEY, 11L);
+        index.add(WORKFLOW_KEY, 12L);
+        index.add(WORKFLOW_KEY, 13L);
+
+        // when
+        index.remove(WORKFLOW_KEY, 13L);
+
+        // then
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(11L, 12L);
+    }
+
+    @Test
+    public void shouldRemoveMiddleInstance()
+    {
+        // given
+        index.add(WORKFLOW_KEY, 11L);
+        index.add(WORKFLOW_KEY, 12L);
+        index.add(WORKFLOW_KEY, 13L);
+
+        // when
+        index.remove(WORKFLOW_KEY, 12L);
+
+        // then
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(11L, 13L);
+
+        // and the moved instance can still be removed
+        index.remove(WORKFLOW_KEY, 13L);
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(11L);
+    }
+
+    @Test
+    public void shouldRemoveWorkflowWithLastInstance()
+    {
+        // given
+        index.add(WORKFLOW_KEY, 11L);
+
+        // when
+        index.remove(WORKFLOW_KEY, 11L);
+
+        // then
+        assertThat(index.getWorkflowInstanceCount(WORKFLOW_KEY)).isEqualTo(0);
+        assertThat(instanceKeys(WORKFLOW_KEY)).isEmpty();
+        assertThat(index.snapshotSize()).isEqualTo(new WorkflowInstancesByWorkflow().snapshotSize());
+    }
+
+    @Test
+    public void shouldIgnoreUnknownInstance()
+    {
+        // given
+        index.add(WORKFLOW_KEY, 11L);
+
+        // when
+        index.remove(WORKFLOW_KEY, 99L);
+        index.remove(OTHER_WORKFLOW_KEY, 99L);
+
+        // then
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(11L);
+    }
+
+    @Test
+    public void shouldIgnoreInstanceOfOtherWorkflow()
+    {
+        // given
+        index.add(WORKFLOW_KEY, 11L);
+        index.add(OTHER_WORKFLOW_KEY, 21L);
+        index.add(OTHER_WORKFLOW_KEY, 22L);
+
+        // when
+        index.remove(WORKFLOW_KEY, 21L);
+
+        // then
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(11L);
+        assertThat(instanceKeys(OTHER_WORKFLOW_KEY)).containsOnly(21L, 22L);
+
+        index.remove(OTHER_WORKFLOW_KEY, 21L);
+        assertThat(instanceKeys(OTHER_WORKFLOW_KEY)).containsOnly(22L);
+    }
+
+    @Test
+    public void shouldWriteAndRecoverSnapshot() throws Exception
+    {
+        // given
+        index.add(WORKFLOW_KEY, 11L);
+        index.add(WORKFLOW_KEY, 12L);
+        index.add(WORKFLOW_KEY, 13L);
+        index.add(OTHER_WORKFLOW_KEY, 21L);
+        index.remove(WORKFLOW_KEY, 11L);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // when
+        index.writeSnapshot(outputStream);
+
+        final WorkflowInstancesByWorkflow recoveredIndex = new WorkflowInstancesByWorkflow();
+        recoveredIndex.add(OTHER_WORKFLOW_KEY, 99L);
+        recoveredIndex.recoverFromSnapshot(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        // then
+        assertThat(outputStream.size()).isEqualTo(index.snapshotSize());
+
+        index = recoveredIndex;
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(12L, 13L);
+        assertThat(instanceKeys(OTHER_WORKFLOW_KEY)).containsOnly(21L);
+        assertThat(recoveredIndex.snapshotSize()).isEqualTo(outputStream.size());
+
+        // and the recovered index can be modified
+        recoveredIndex.remove(WORKFLOW_KEY, 12L);
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(13L);
+    }
+
+    @Test
+    public void shouldReset()
+    {
+        // given
+        index.add(WORKFLOW_KEY, 11L);
+
+        // when
+        index.reset();
+
+        // then
+        assertThat(index.getWorkflowInstanceCount(WORKFLOW_KEY)).isEqualTo(0);
+
+        index.add(WORKFLOW_KEY, 11L);
+        assertThat(instanceKeys(WORKFLOW_KEY)).containsOnly(11L);
+    }
+
+    private LongArrayList instanceKeys(long workflowKey)
+    {
+        final LongArrayList instanceKeys = new LongArrayList();
+        index.collectWorkflowInstanceKeys(workflowKey, instanceKeys);
+        return instanceKeys;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Zeebe Broker Core
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package io.zeebe.broker.workflow.processor;
+
+import static io.zeebe.util.buffer.BufferUtil.wrapString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.zeebe.broker.system.deployment.handler.CreateWorkflowResponseSender;
+import io.zeebe.broker.transport.clientapi.BufferingServerOutput;
+import io.zeebe.broker.transport.clientapi.CommandResponseWriter;
+import io.zeebe.broker.workflow.data.WorkflowEvent;
+import io.zeebe.broker.workflow.data.WorkflowInstanceEvent;
+import io.zeebe.broker.workflow.data.WorkflowInstanceState;
+import io.zeebe.broker.workflow.data.WorkflowState;
+import io.zeebe.logstreams.LogStreams;
+import io.zeebe.logstreams.log.BufferedLogStreamReader;
+import io.zeebe.logstreams.log.LogStream;
+import io.zeebe.logstreams.log.LogStreamWriter;
+import io.zeebe.logstreams.log.LogStreamWriterImpl;
+import io.zeebe.logstreams.log.LoggedEvent;
+import io.zeebe.logstreams.processor.StreamProcessorController;
+import io.zeebe.logstreams.spi.SnapshotStorage;
+import io.zeebe.model.bpmn.Bpmn;
+import io.zeebe.model.bpmn.instance.WorkflowDefinition;
+import io.zeebe.msgpack.UnpackedObject;
+import io.zeebe.protocol.clientapi.EventType;
+import io.zeebe.protocol.impl.BrokerEventMetadata;
+import io.zeebe.test.util.agent.ManualActorScheduler;
+import io.zeebe.util.buffer.BufferWriter;
+
+public class WorkflowInstanceStreamProcessorTest
+{
+    private static final WorkflowDefinition WORKFLOW = Bpmn.createExecutableWorkflow("process")
+            .startEvent()
+            .serviceTask("task", t -> t.taskType("test"))
+            .done();
+
+    private static final WorkflowDefinition OTHER_WORKFLOW = Bpmn.createExecutableWorkflow("other-process")
+            .startEvent()
+            .serviceTask("task", t -> t.taskType("test"))
+            .done();
+
+    @Rule
+    public ManualActorScheduler agentRunnerService = new ManualActorScheduler();
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private LogStream logStream;
+    private LogStreamWriter logStreamWriter;
+    private StreamProcessorController streamProcessorController;
+
+    @Before
+    public void setup() throws InterruptedException, ExecutionException
+    {
+        final String rootPath = tempFolder.getRoot().getAbsolutePath();
+        final SnapshotStorage snapshotStorage = LogStreams.createFsSnapshotStore(rootPath).build();
+
+        logStream = LogStreams
+                .createFsLogStream(wrapString("test-topic"), 0)
+                .logRootPath(rootPath)
+                .actorScheduler(agentRunnerService)
+                .deleteOnClose(true)
+                .build();
+
+        logStream.openAsync();
+
+        final BufferingServerOutput output = new BufferingServerOutput();
+
+        final WorkflowInstanceStreamProcessor workflowInstanceStreamProcessor = new WorkflowInstanceStreamProcessor(
+                new CommandResponseWriter(output),
+                new CreateWorkflowResponseSender(output),
+                16,
+                16,
+                1024 * 1024L);
+
+        streamProcessorController = LogStreams
+                .createStreamProcessor("workflow-instance", 0, workflowInstanceStreamProcessor)
+                .logStream(logStream)
+                .snapshotStorage(snapshotStorage)
+                .actorScheduler(agentRunnerService)
+                .build();
+
+        streamProcessorController.openAsync();
+
+        logStreamWriter = new LogStreamWriterImpl(logStream);
+        // all events are committed
+        logStream.setCommitPosition(Long.MAX_VALUE);
+
+        agentRunnerService.waitUntilDone();
+    }
+
+    @After
+    public void cleanUp() throws Exception
+    {
+        streamProcessorController.closeAsync();
+        logStream.closeAsync();
+    }
+
+    @Test
+    public void shouldCancelActiveInstancesOfDeletedWorkflow()
+    {
+        // given
+        writeWorkflowEvent(1L, WorkflowState.CREATE, "process", WORKFLOW);
+        writeWorkflowEvent(2L, WorkflowState.CREATE, "other-process", OTHER_WORKFLOW);
+        agentRunnerService.waitUntilDone();
+
+        createWorkflowInstance(11L, "process");
+        createWorkflowInstance(12L, "process");
+        createWorkflowInstance(13L, "process");
+        createWorkflowInstance(21L, "other-process");
+        agentRunnerService.waitUntilDone();
+
+        // the instance in the middle of the workflow's instances is removed
+        writeWorkflowInstanceEvent(12L, wf -> wf
+                .setState(WorkflowInstanceState.CANCEL_WORKFLOW_INSTANCE)
+                .setWorkflowInstanceKey(12L));
+        agentRunnerService.waitUntilDone();
+
+        final int cancelCommandsBeforeDeletion = cancelCommands().size();
+
+        // when
+        writeWorkflowEvent(1L, WorkflowState.DELETE, "process", WORKFLOW);
+        agentRunnerService.waitUntilDone();
+
+        // then
+        assertThat(readEvents(EventType.WORKFLOW_EVENT, WorkflowEvent::new))
+            .extracting("state")
+            .containsExactly(
+                    WorkflowState.CREATE,
+                    WorkflowState.CREATED,
+                    WorkflowState.CREATE,
+                    WorkflowState.CREATED,
+                    WorkflowState.DELETE,
+                    WorkflowState.DELETED);
+
+        final List<WorkflowInstanceEvent> cancelCommands = cancelCommands();
+
+        assertThat(cancelCommands.subList(cancelCommandsBeforeDeletion, cancelCommands.size()))
+            .extracting("workflowInstanceKey")
+            .containsOnly(11L, 13L)
+            .hasSize(2);
+    }
+
+    private List<WorkflowInstanceEvent> cancelCommands()
+    {
+        final List<WorkflowInstanceEvent> cancelCommands = new ArrayList<>();
+
+        for (WorkflowInstanceEvent event : readEvents(EventType.WORKFLOW_INSTANCE_EVENT, WorkflowInstanceEvent::new))
+        {
+            if (event.getState() == WorkflowInstanceState.CANCEL_WORKFLOW_INSTANCE)
+            {
+                cancelCommands.add(event);
+            }
+        }
+        return cancelCommands;
+    }
+
+    private void createWorkflowInstance(long key, String bpmnProcessId)
+    {
+        writeWorkflowInstanceEvent(key, wf -> wf
+                .setState(WorkflowInstanceState.CREATE_WORKFLOW_INSTANCE)
+                .setBpmnProcessId(wrapString(bpmnProcessId)));
+    }
+
+    private <T extends UnpackedObject> List<T> readEvents(EventType eventType, Supplier<T> eventFactory)
+    {
+        final List<T> events = new ArrayList<>();
+
+        final BrokerEventMetadata eventMetadata = new BrokerEventMetadata();
+
+        try (BufferedLogStreamReader logStreamReader = new BufferedLogStreamReader(logStream))
+        {
+            while (logStreamReader.hasNext())
+            {
+                final LoggedEvent event = logStreamReader.next();
+
+                eventMetadata.reset();
+                event.readMetadata(eventMetadata);
+
+                if (eventMetadata.getEventType() == eventType)
+                {
+                    final MutableDirectBuffer buf = new UnsafeBuffer(new byte[event.getValueLength()]);
+                    buf.putBytes(0, event.getValueBuffer(), event.getValueOffset(), event.getValueLength());
+
+                    final T value = eventFactory.get();
+                    value.wrap(buf);
+
+                    events.add(value);
+                }
+            }
+            return events;
+        }
+    }
+
+    private long writeWorkflowEvent(long key, WorkflowState state, String bpmnProcessId, WorkflowDefinition workflow)
+    {
+        final BrokerEventMetadata workflowMetadata = new BrokerEventMetadata().eventType(EventType.WORKFLOW_EVENT);
+
+        final WorkflowEvent workflowEvent = new WorkflowEvent()
+                .setState(state)
+                .setBpmnProcessId(wrapString(bpmnProcessId))
+                .setVersion(1)
+                .setBpmnXml(wrapString(Bpmn.convertToString(workflow)))
+                .setDeploymentKey(100L);
+
+        return writeEvent(key, workflowMetadata, workflowEvent);
+    }
+
+    private long writeWorkflowInstanceEvent(long key, Consumer<WorkflowInstanceEvent> c)
+    {
+        final BrokerEventMetadata workflowInstanceMetadata = new BrokerEventMetadata().eventType(EventType.WORKFLOW_INSTANCE_EVENT);
+
+        final WorkflowInstanceEvent workflowInstanceEvent = new WorkflowInstanceEvent();
+        c.accept(workflowInstanceEvent);
+
+        return writeEvent(key, workflowInstanceMetadata, workflowInstanceEvent);
+    }
+
+    private long writeEvent(long key, final BrokerEventMetadata metadata, final BufferWriter event)
+    {
+        long position;
+        do
+        {
+            position = logStreamWriter
+                    .key(key)
+                    .metadataWriter(metadata)
+                    .valueWriter(event)
+                    .tryWrite();
+        }
+        while (position < 0);
+
+        return position;
+    }
+}
@@ -15,6 +15,10 @@
  */
 package io.zeebe.client;
 
+import java.util.List;
+
+import io.zeebe.client.cmd.Request;
+import io.zeebe.client.event.BatchEvent;
 import io.zeebe.client.event.TaskEvent;
 import io.zeebe.client.task.PollableTaskSubscription;
 import io.zeebe.client.task.PollableTaskSubscriptionBuilder;
@@ -42,6 +46,20 @@ public interface TasksClient
      */
     CompleteTaskCommand complete(TaskEvent event);
 
+    /**
+     * Create multiple tasks of one topic in a single request.
+     *
+     * @param commands the create commands, see {@link #create(String, String)}
+     */
+    Request<BatchEvent> createBatch(List<CreateTaskCommand> commands);
+
+    /**
+     * Complete multiple locked tasks of one partition in a single request.
+     *
+     * @param commands the complete commands, see {@link #complete(TaskEvent)}
+     */
+    Request<BatchEvent> completeBatch(List<CompleteTaskCommand> commands);
+
     /**
      * Mark a locked task as failed.
      *
@@ -15,7 +15,10 @@
  */
 package io.zeebe.client;
 
+import java.util.List;
+
 import io.zeebe.client.cmd.Request;
+import io.zeebe.client.event.BatchEvent;
 import io.zeebe.client.event.WorkflowInstanceEvent;
 import io.zeebe.client.workflow.cmd.CreateDeploymentCommand;
 import io.zeebe.client.workflow.cmd.CreateWorkflowInstanceCommand;
@@ -41,6 +44,13 @@ public interface WorkflowsClient
      */
     CreateWorkflowInstanceCommand create(String topic);
 
+    /**
+     * Create multiple workflow instances of one topic in a single request.
+     *
+     * @param commands the create commands, see {@link #create(String)}
+     */
+    Request<BatchEvent> createInstances(List<CreateWorkflowInstanceCommand> commands);
+
     /**
      * Cancel a workflow instance.
      *
@@ -0,0 +1,38 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.event;
+
+import java.util.List;
+
+/**
+ * The outcome of a batch of commands. It is received when all commands of
+ * the batch are processed.
+ */
+public interface BatchEvent extends Event
+{
+    /**
+     * @return the keys of the commands in the order of the batch. For a create
+     *         command, it is the key of the created task or workflow instance.
+     */
+    List<Long> getCommandKeys();
+
+    /**
+     * @return the states of the events which are written as result of the
+     *         commands, in the order of the batch; e.g. <code>COMPLETED</code>
+     *         or <code>COMPLETE_REJECTED</code>
+     */
+    List<String> getCommandStates();
+}
@@ -95,6 +95,35 @@ public interface PollableTopicSubscriptionBuilder
      */
     PollableTopicSubscriptionBuilder forcedStart();
 
+    /**
+     * <p>Restricts the subscription to events of the given types. Events of other types are
+     * not sent by the broker but they are still acknowledged with the subscription's position.
+     *
+     * <p>By default, events of all types are received.
+     *
+     * @param eventTypes the types of the events to receive
+     * @return this builder
+     */
+    PollableTopicSubscriptionBuilder eventTypes(TopicEventType... eventTypes);
+
+    /**
+     * Restricts the subscription to events with the given state (e.g. <code>CREATED</code>).
+     * Events with another state are not sent by the broker.
+     *
+     * @param eventState the state of the events to receive
+     * @return this builder
+     */
+    PollableTopicSubscriptionBuilder eventState(String eventState);
+
+    /**
+     * Restricts the subscription to events which belong to the workflow with the given key.
+     * Events without workflow key (e.g. task or raft events) are not sent by the broker.
+     *
+     * @param workflowKey the key of the workflow
+     * @return this builder
+     */
+    PollableTopicSubscriptionBuilder workflowKey(long workflowKey);
+
     /**
      * Opens a new topic subscription with the defined parameters.
      *
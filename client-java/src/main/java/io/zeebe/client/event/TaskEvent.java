@@ -15,6 +15,7 @@
  */
 package io.zeebe.client.event;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.Map;
 
@@ -61,4 +62,11 @@ public interface TaskEvent extends Event
      * @return JSON-formatted payload
      */
     String getPayload();
+
+    /**
+     * @return the MsgPack-encoded payload as read-only buffer, or <code>null</code>
+     *   if the task has no payload. In contrast to {@link #getPayload()}, the payload
+     *   is not converted.
+     */
+    ByteBuffer getPayloadAsMsgPack();
 }
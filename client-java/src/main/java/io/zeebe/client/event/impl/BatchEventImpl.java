@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.event.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import io.zeebe.client.event.BatchEvent;
+import io.zeebe.client.event.TopicEventType;
+
+/**
+ * A batch of commands of one event type. It is serialized as an array of
+ * entries (key and command) and deserialized from the broker's response, which
+ * contains one result per command.
+ */
+public class BatchEventImpl extends EventImpl implements BatchEvent
+{
+    public static final String STATE_PROCESSED = "PROCESSED";
+
+    protected final List<Entry> entries = new ArrayList<>();
+    protected final List<Long> commandKeys = new ArrayList<>();
+    protected final List<String> commandStates = new ArrayList<>();
+
+    public BatchEventImpl(TopicEventType type)
+    {
+        super(type, null);
+    }
+
+    @JsonCreator
+    public BatchEventImpl(@JsonProperty("state") String state, @JsonProperty("results") List<Result> results)
+    {
+        super(TopicEventType.UNKNOWN, state);
+
+        if (results != null)
+        {
+            for (Result result : results)
+            {
+                commandKeys.add(result.getKey());
+                commandStates.add(result.getState());
+            }
+        }
+    }
+
+    public void addCommand(EventImpl command)
+    {
+        entries.add(new Entry(command));
+    }
+
+    @JsonValue
+    public List<Entry> getEntries()
+    {
+        return entries;
+    }
+
+    @Override
+    public List<Long> getCommandKeys()
+    {
+        return Collections.unmodifiableList(commandKeys);
+    }
+
+    @Override
+    public List<String> getCommandStates()
+    {
+        return Collections.unmodifiableList(commandStates);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "BatchEvent [state=" + state + ", commandKeys=" + commandKeys + ", commandStates=" + commandStates + "]";
+    }
+
+    public static class Entry
+    {
+        protected final EventImpl command;
+
+        public Entry(EventImpl command)
+        {
+            this.command = command;
+        }
+
+        public long getKey()
+        {
+            return command.getMetadata().getKey();
+        }
+
+        public EventImpl getCommand()
+        {
+            return command;
+        }
+    }
+
+    public static class Result
+    {
+        protected long key;
+        protected String state;
+
+        public long getKey()
+        {
+            return key;
+        }
+
+        public void setKey(long key)
+        {
+            this.key = key;
+        }
+
+        public String getState()
+        {
+            return state;
+        }
+
+        public void setState(String state)
+        {
+            this.state = state;
+        }
+    }
+}
@@ -53,6 +53,24 @@ public class CreateTopicSubscriptionCommandImpl extends CommandImpl<TopicSubscri
         return this;
     }
 
+    public CreateTopicSubscriptionCommandImpl eventTypes(int eventTypes)
+    {
+        this.subscription.setEventTypes(eventTypes);
+        return this;
+    }
+
+    public CreateTopicSubscriptionCommandImpl eventState(String eventState)
+    {
+        this.subscription.setEventState(eventState);
+        return this;
+    }
+
+    public CreateTopicSubscriptionCommandImpl workflowKey(long workflowKey)
+    {
+        this.subscription.setWorkflowKey(workflowKey);
+        return this;
+    }
+
     @Override
     public EventImpl getEvent()
     {
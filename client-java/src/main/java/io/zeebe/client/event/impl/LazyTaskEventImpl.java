@@ -0,0 +1,428 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.event.impl;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.msgpack.core.MessageFormat;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessageUnpacker;
+
+import io.zeebe.client.impl.data.MsgPackConverter;
+import io.zeebe.client.impl.data.MsgPackMapper;
+import io.zeebe.client.task.impl.subscription.MsgPackField;
+
+/**
+ * A task event which is backed by the MsgPack-encoded event as received from
+ * the broker. The top-level properties are located once when the event is
+ * wrapped, but their values are only decoded when they are accessed. The
+ * payload is converted to JSON only if it is requested as JSON.
+ *
+ * <p>
+ * Setting a property replaces the encoded value.
+ */
+public class LazyTaskEventImpl extends TaskEventImpl
+{
+    protected static final int STATE = 0;
+    protected static final int TYPE = 1;
+    protected static final int RETRIES = 2;
+    protected static final int LOCK_TIME = 3;
+    protected static final int LOCK_OWNER = 4;
+    protected static final int HEADERS = 5;
+    protected static final int CUSTOM_HEADERS = 6;
+    protected static final int PAYLOAD = 7;
+
+    protected static final byte[][] PROPERTY_NAMES = {
+        getBytes("state"),
+        getBytes("type"),
+        getBytes("retries"),
+        getBytes("lockTime"),
+        getBytes("lockOwner"),
+        getBytes("headers"),
+        getBytes("customHeaders"),
+        getBytes("payload")
+    };
+
+    protected static final int NO_VALUE = -1;
+
+    protected final byte[] encodedEvent;
+    protected final MsgPackMapper msgPackMapper;
+
+    /**
+     * offset and length of the encoded value per property
+     */
+    protected final int[] valueOffsets;
+    protected final int[] valueLengths;
+
+    /**
+     * bit set of the properties which are decoded into the fields
+     */
+    protected int decodedProperties = 0;
+
+    protected LazyTaskEventImpl(
+            String state,
+            byte[] encodedEvent,
+            int[] valueOffsets,
+            int[] valueLengths,
+            MsgPackMapper msgPackMapper,
+            MsgPackConverter msgPackConverter)
+    {
+        super(state, msgPackConverter);
+        this.encodedEvent = encodedEvent;
+        this.valueOffsets = valueOffsets;
+        this.valueLengths = valueLengths;
+        this.msgPackMapper = msgPackMapper;
+    }
+
+    /**
+     * Locates the properties of the given event. Only the state is decoded.
+     *
+     * @param encodedEvent the MsgPack-encoded task event; must not be modified
+     *   afterwards
+     */
+    public static LazyTaskEventImpl wrap(byte[] encodedEvent, MsgPackMapper msgPackMapper, MsgPackConverter msgPackConverter)
+    {
+        final int[] valueOffsets = new int[PROPERTY_NAMES.length];
+        final int[] valueLengths = new int[PROPERTY_NAMES.length];
+        Arrays.fill(valueOffsets, NO_VALUE);
+
+        try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(encodedEvent))
+        {
+            final int size = unpacker.unpackMapHeader();
+
+            for (int i = 0; i < size; i++)
+            {
+                final int keyLength = unpacker.unpackRawStringHeader();
+                final int keyOffset = (int) unpacker.getTotalReadBytes();
+                unpacker.readPayloadAsReference(keyLength);
+
+                final int property = propertyOf(encodedEvent, keyOffset, keyLength);
+
+                final int valueOffset = (int) unpacker.getTotalReadBytes();
+                unpacker.skipValue();
+
+                if (property != NO_VALUE)
+                {
+                    valueOffsets[property] = valueOffset;
+                    valueLengths[property] = (int) unpacker.getTotalReadBytes() - valueOffset;
+                }
+            }
+
+            final String state = readString(encodedEvent, valueOffsets[STATE]);
+
+            return new LazyTaskEventImpl(state, encodedEvent, valueOffsets, valueLengths, msgPackMapper, msgPackConverter);
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("Could not read task event", e);
+        }
+    }
+
+    @Override
+    public String getType()
+    {
+        if (decode(TYPE))
+        {
+            type = readString(TYPE);
+        }
+        return type;
+    }
+
+    @Override
+    public void setType(String type)
+    {
+        markDecoded(TYPE);
+        super.setType(type);
+    }
+
+    @Override
+    public long getLockTime()
+    {
+        if (decode(LOCK_TIME) && hasValue(LOCK_TIME))
+        {
+            lockTime = readLong(LOCK_TIME);
+        }
+        return lockTime;
+    }
+
+    @Override
+    public void setLockTime(long lockTime)
+    {
+        markDecoded(LOCK_TIME);
+        super.setLockTime(lockTime);
+    }
+
+    @Override
+    public Map<String, Object> getHeaders()
+    {
+        if (decode(HEADERS) && hasValue(HEADERS))
+        {
+            headers = readMap(HEADERS);
+        }
+        return headers;
+    }
+
+    @Override
+    public void setHeaders(Map<String, Object> headers)
+    {
+        markDecoded(HEADERS);
+        super.setHeaders(headers);
+    }
+
+    @Override
+    public Map<String, Object> getCustomHeaders()
+    {
+        if (decode(CUSTOM_HEADERS) && hasValue(CUSTOM_HEADERS))
+        {
+            customHeaders = readMap(CUSTOM_HEADERS);
+        }
+        return customHeaders;
+    }
+
+    @Override
+    public void setCustomHeaders(Map<String, Object> customHeaders)
+    {
+        markDecoded(CUSTOM_HEADERS);
+        super.setCustomHeaders(customHeaders);
+    }
+
+    @Override
+    public String getLockOwner()
+    {
+        if (decode(LOCK_OWNER))
+        {
+            lockOwner = readString(LOCK_OWNER);
+        }
+        return lockOwner;
+    }
+
+    @Override
+    public void setLockOwner(String lockOwner)
+    {
+        markDecoded(LOCK_OWNER);
+        super.setLockOwner(lockOwner);
+    }
+
+    @Override
+    public Integer getRetries()
+    {
+        if (decode(RETRIES) && hasValue(RETRIES))
+        {
+            retries = (int) readLong(RETRIES);
+        }
+        return retries;
+    }
+
+    @Override
+    public void setRetries(Integer retries)
+    {
+        markDecoded(RETRIES);
+        super.setRetries(retries);
+    }
+
+    @Override
+    public ByteBuffer getPayloadAsMsgPack()
+    {
+        if (isDecoded(PAYLOAD))
+        {
+            return super.getPayloadAsMsgPack();
+        }
+        else
+        {
+            // a view on the received event, without copying the payload
+            final int[] payloadBounds = readBinaryBounds(PAYLOAD);
+            return payloadBounds != null ? ByteBuffer.wrap(encodedEvent, payloadBounds[0], payloadBounds[1]).slice().asReadOnlyBuffer() : null;
+        }
+    }
+
+    @Override
+    protected MsgPackField getPayloadField()
+    {
+        if (decode(PAYLOAD))
+        {
+            final int[] payloadBounds = readBinaryBounds(PAYLOAD);
+            if (payloadBounds != null)
+            {
+                payload.setMsgPack(Arrays.copyOfRange(encodedEvent, payloadBounds[0], payloadBounds[0] + payloadBounds[1]));
+            }
+        }
+        return payload;
+    }
+
+    @Override
+    public void setPayload(byte[] msgPack)
+    {
+        markDecoded(PAYLOAD);
+        super.setPayload(msgPack);
+    }
+
+    @Override
+    public void setPayload(String json)
+    {
+        markDecoded(PAYLOAD);
+        super.setPayload(json);
+    }
+
+    @Override
+    public void setPayload(InputStream jsonStream)
+    {
+        markDecoded(PAYLOAD);
+        super.setPayload(jsonStream);
+    }
+
+    protected boolean isDecoded(int property)
+    {
+        return (decodedProperties & (1 << property)) != 0;
+    }
+
+    protected void markDecoded(int property)
+    {
+        decodedProperties |= 1 << property;
+    }
+
+    /**
+     * @return true if the property is not decoded yet; the property is marked as
+     *         decoded afterwards
+     */
+    protected boolean decode(int property)
+    {
+        final boolean decode = !isDecoded(property);
+        markDecoded(property);
+        return decode;
+    }
+
+    protected boolean hasValue(int property)
+    {
+        return valueOffsets[property] != NO_VALUE;
+    }
+
+    protected String readString(int property)
+    {
+        return readString(encodedEvent, valueOffsets[property]);
+    }
+
+    protected long readLong(int property)
+    {
+        try (MessageUnpacker unpacker = unpackerAt(property))
+        {
+            return unpacker.unpackLong();
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("Could not read property " + new String(PROPERTY_NAMES[property], StandardCharsets.UTF_8), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Map<String, Object> readMap(int property)
+    {
+        final Map<String, Object> map = msgPackMapper.convert(encodedEvent, valueOffsets[property], valueLengths[property], Map.class);
+        return map != null ? map : new HashMap<>();
+    }
+
+    /**
+     * @return the offset and length of the binary value or <code>null</code> if not set
+     */
+    protected int[] readBinaryBounds(int property)
+    {
+        if (!hasValue(property))
+        {
+            return null;
+        }
+
+        try (MessageUnpacker unpacker = unpackerAt(property))
+        {
+            if (unpacker.getNextFormat() == MessageFormat.NIL)
+            {
+                return null;
+            }
+
+            final int length = unpacker.unpackBinaryHeader();
+            final int offset = valueOffsets[property] + (int) unpacker.getTotalReadBytes();
+
+            return new int[] {offset, length};
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("Could not read property " + new String(PROPERTY_NAMES[property], StandardCharsets.UTF_8), e);
+        }
+    }
+
+    protected MessageUnpacker unpackerAt(int property)
+    {
+        return MessagePack.newDefaultUnpacker(encodedEvent, valueOffsets[property], valueLengths[property]);
+    }
+
+    protected static String readString(byte[] encodedEvent, int offset)
+    {
+        if (offset == NO_VALUE)
+        {
+            return null;
+        }
+
+        try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(encodedEvent, offset, encodedEvent.length - offset))
+        {
+            if (unpacker.getNextFormat() == MessageFormat.NIL)
+            {
+                return null;
+            }
+            else
+            {
+                return unpacker.unpackString();
+            }
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("Could not read string property", e);
+        }
+    }
+
+    protected static int propertyOf(byte[] encodedEvent, int keyOffset, int keyLength)
+    {
+        for (int property = 0; property < PROPERTY_NAMES.length; property++)
+        {
+            final byte[] name = PROPERTY_NAMES[property];
+
+            if (name.length == keyLength && equals(encodedEvent, keyOffset, name))
+            {
+                return property;
+            }
+        }
+        return NO_VALUE;
+    }
+
+    protected static boolean equals(byte[] buffer, int offset, byte[] name)
+    {
+        for (int i = 0; i < name.length; i++)
+        {
+            if (buffer[offset + i] != name[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected static byte[] getBytes(String name)
+    {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+}
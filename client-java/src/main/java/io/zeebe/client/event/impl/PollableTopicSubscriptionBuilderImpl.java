@@ -19,6 +19,7 @@ import io.zeebe.client.ZeebeClient;
 import io.zeebe.client.clustering.impl.ClientTopologyManager;
 import io.zeebe.client.event.PollableTopicSubscription;
 import io.zeebe.client.event.PollableTopicSubscriptionBuilder;
+import io.zeebe.client.event.TopicEventType;
 import io.zeebe.client.task.impl.subscription.EventAcquisition;
 import io.zeebe.util.EnsureUtil;
 
@@ -81,4 +82,25 @@ public class PollableTopicSubscriptionBuilderImpl implements PollableTopicSubscr
         return this;
     }
 
+    @Override
+    public PollableTopicSubscriptionBuilder eventTypes(TopicEventType... eventTypes)
+    {
+        implBuilder.eventTypes(eventTypes);
+        return this;
+    }
+
+    @Override
+    public PollableTopicSubscriptionBuilder eventState(String eventState)
+    {
+        implBuilder.eventState(eventState);
+        return this;
+    }
+
+    @Override
+    public PollableTopicSubscriptionBuilder workflowKey(long workflowKey)
+    {
+        implBuilder.workflowKey(workflowKey);
+        return this;
+    }
+
 }
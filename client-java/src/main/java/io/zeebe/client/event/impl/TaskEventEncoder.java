@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.event.impl;
+
+import static io.zeebe.client.event.impl.LazyTaskEventImpl.*;
+
+import org.agrona.MutableDirectBuffer;
+
+import io.zeebe.client.impl.data.MsgPackWriter;
+
+/**
+ * Encodes a task event as MsgPack directly into a buffer, without going
+ * through the object mapper. The encoding equals the one of the object mapper,
+ * i.e. properties which are <code>null</code> are omitted. The payload is
+ * written as the already encoded MsgPack document.
+ */
+public class TaskEventEncoder
+{
+    protected final MsgPackWriter writer = new MsgPackWriter();
+
+    /**
+     * @return the length of the encoded event
+     *
+     * @throws IllegalArgumentException if a header can not be encoded
+     */
+    public int encode(TaskEventImpl event, MutableDirectBuffer buffer, int offset)
+    {
+        final String state = event.getState();
+        final String type = event.getType();
+        final Integer retries = event.getRetries();
+        final String lockOwner = event.getLockOwner();
+        final byte[] payload = event.getPayloadMsgPack();
+
+        // lock time, headers and custom headers are always set
+        int size = 3;
+        size += state != null ? 1 : 0;
+        size += type != null ? 1 : 0;
+        size += retries != null ? 1 : 0;
+        size += lockOwner != null ? 1 : 0;
+        size += payload != null ? 1 : 0;
+
+        writer.wrap(buffer, offset);
+        writer.writeMapHeader(size);
+
+        if (state != null)
+        {
+            writer.writeString(PROPERTY_NAMES[STATE]).writeString(state);
+        }
+
+        if (type != null)
+        {
+            writer.writeString(PROPERTY_NAMES[TYPE]).writeString(type);
+        }
+
+        if (retries != null)
+        {
+            writer.writeString(PROPERTY_NAMES[RETRIES]).writeInteger(retries);
+        }
+
+        writer.writeString(PROPERTY_NAMES[LOCK_TIME]).writeInteger(event.getLockTime());
+
+        if (lockOwner != null)
+        {
+            writer.writeString(PROPERTY_NAMES[LOCK_OWNER]).writeString(lockOwner);
+        }
+
+        writer.writeString(PROPERTY_NAMES[HEADERS]).writeValue(event.getHeaders());
+        writer.writeString(PROPERTY_NAMES[CUSTOM_HEADERS]).writeValue(event.getCustomHeaders());
+
+        if (payload != null)
+        {
+            writer.writeString(PROPERTY_NAMES[PAYLOAD]).writeBinary(payload);
+        }
+
+        return writer.getOffset() - offset;
+    }
+
+}
@@ -16,6 +16,7 @@
 package io.zeebe.client.event.impl;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,13 +49,13 @@ public class TaskEventImpl extends EventImpl implements TaskEvent
     public TaskEventImpl(TaskEventImpl eventToCopy, String state)
     {
         super(eventToCopy, state);
-        this.headers = new HashMap<>(eventToCopy.headers);
-        this.customHeaders = new HashMap<>(eventToCopy.customHeaders);
-        this.lockTime = eventToCopy.lockTime;
-        this.lockOwner = eventToCopy.lockOwner;
-        this.retries = eventToCopy.retries;
-        this.type = eventToCopy.type;
-        this.payload = new MsgPackField(eventToCopy.payload);
+        this.headers = new HashMap<>(eventToCopy.getHeaders());
+        this.customHeaders = new HashMap<>(eventToCopy.getCustomHeaders());
+        this.lockTime = eventToCopy.getLockTime();
+        this.lockOwner = eventToCopy.getLockOwner();
+        this.retries = eventToCopy.getRetries();
+        this.type = eventToCopy.getType();
+        this.payload = new MsgPackField(eventToCopy.getPayloadField());
     }
 
     @Override
@@ -72,6 +73,8 @@ public class TaskEventImpl extends EventImpl implements TaskEvent
     @JsonIgnore
     public Instant getLockExpirationTime()
     {
+        final long lockTime = getLockTime();
+
         if (lockTime == Protocol.INSTANT_NULL_VALUE)
         {
             return null;
@@ -131,13 +134,26 @@ public class TaskEventImpl extends EventImpl implements TaskEvent
     @JsonIgnore
     public String getPayload()
     {
-        return payload.getAsJson();
+        return getPayloadField().getAsJson();
+    }
+
+    @Override
+    @JsonIgnore
+    public ByteBuffer getPayloadAsMsgPack()
+    {
+        final byte[] msgPack = getPayloadMsgPack();
+        return msgPack != null ? ByteBuffer.wrap(msgPack).asReadOnlyBuffer() : null;
     }
 
     @JsonProperty("payload")
     public byte[] getPayloadMsgPack()
     {
-        return payload.getMsgPack();
+        return getPayloadField().getMsgPack();
+    }
+
+    protected MsgPackField getPayloadField()
+    {
+        return payload;
     }
 
     @JsonProperty("payload")
@@ -174,19 +190,19 @@ public class TaskEventImpl extends EventImpl implements TaskEvent
         builder.append("TaskEvent [state=");
         builder.append(state);
         builder.append(", type=");
-        builder.append(type);
+        builder.append(getType());
         builder.append(", retries=");
-        builder.append(retries);
+        builder.append(getRetries());
         builder.append(", lockOwner=");
-        builder.append(lockOwner);
+        builder.append(getLockOwner());
         builder.append(", lockTime=");
-        builder.append(lockTime);
+        builder.append(getLockTime());
         builder.append(", headers=");
-        builder.append(headers);
+        builder.append(getHeaders());
         builder.append(", customHeaders=");
-        builder.append(customHeaders);
+        builder.append(getCustomHeaders());
         builder.append(", payload=");
-        builder.append(payload.getAsJson());
+        builder.append(getPayload());
         builder.append("]");
         return builder.toString();
     }
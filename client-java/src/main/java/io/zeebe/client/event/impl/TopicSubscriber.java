@@ -97,6 +97,9 @@ public class TopicSubscriber extends EventSubscriber
                 .prefetchCapacity(subscription.getPrefetchCapacity())
                 .name(subscription.getName())
                 .forceStart(subscription.isForceStart())
+                .eventTypes(subscription.getEventTypes())
+                .eventState(subscription.getEventState())
+                .workflowKey(subscription.getWorkflowKey())
                 .executeAsync();
     }
 
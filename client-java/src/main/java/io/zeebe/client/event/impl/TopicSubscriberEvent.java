@@ -31,6 +31,9 @@ public class TopicSubscriberEvent extends EventImpl implements EventSubscription
     protected String name;
     protected int prefetchCapacity = -1;
     protected boolean forceStart;
+    protected int eventTypes = TopicSubscriptionSpec.ALL_EVENT_TYPES;
+    protected String eventState;
+    protected long workflowKey = -1L;
 
     protected RemoteAddress remote;
 
@@ -80,6 +83,36 @@ public class TopicSubscriberEvent extends EventImpl implements EventSubscription
         this.forceStart = forceStart;
     }
 
+    public int getEventTypes()
+    {
+        return eventTypes;
+    }
+
+    public void setEventTypes(int eventTypes)
+    {
+        this.eventTypes = eventTypes;
+    }
+
+    public String getEventState()
+    {
+        return eventState;
+    }
+
+    public void setEventState(String eventState)
+    {
+        this.eventState = eventState;
+    }
+
+    public long getWorkflowKey()
+    {
+        return workflowKey;
+    }
+
+    public void setWorkflowKey(long workflowKey)
+    {
+        this.workflowKey = workflowKey;
+    }
+
     @Override
     public void setReceiver(RemoteAddress receiver)
     {
@@ -19,7 +19,9 @@ import org.agrona.collections.Long2LongHashMap;
 
 import io.zeebe.client.ZeebeClient;
 import io.zeebe.client.clustering.impl.ClientTopologyManager;
+import io.zeebe.client.event.TopicEventType;
 import io.zeebe.client.task.impl.subscription.EventAcquisition;
+import io.zeebe.protocol.clientapi.EventType;
 import io.zeebe.util.CheckedConsumer;
 import io.zeebe.util.EnsureUtil;
 
@@ -36,6 +38,9 @@ public class TopicSubscriberGroupBuilder
     protected boolean forceStart;
     protected long defaultStartPosition;
     protected final Long2LongHashMap startPositions = new Long2LongHashMap(-1);
+    protected int eventTypes = TopicSubscriptionSpec.ALL_EVENT_TYPES;
+    protected String eventState;
+    protected long workflowKey = -1L;
 
     public TopicSubscriberGroupBuilder(
             ZeebeClient client,
@@ -95,6 +100,39 @@ public class TopicSubscriberGroupBuilder
         return this;
     }
 
+    public TopicSubscriberGroupBuilder eventTypes(TopicEventType... eventTypes)
+    {
+        EnsureUtil.ensureNotNull("eventTypes", eventTypes);
+
+        int mask = 0;
+        for (TopicEventType eventType : eventTypes)
+        {
+            final EventType protocolType = EventTypeMapping.mapEventType(eventType);
+            if (protocolType == null)
+            {
+                throw new IllegalArgumentException("Cannot subscribe to events of type " + eventType);
+            }
+
+            mask |= 1 << protocolType.value();
+        }
+
+        this.eventTypes = mask;
+        return this;
+    }
+
+    public TopicSubscriberGroupBuilder eventState(String eventState)
+    {
+        EnsureUtil.ensureNotEmpty("eventState", eventState);
+        this.eventState = eventState;
+        return this;
+    }
+
+    public TopicSubscriberGroupBuilder workflowKey(long workflowKey)
+    {
+        this.workflowKey = workflowKey;
+        return this;
+    }
+
     public CheckedConsumer<GeneralEventImpl> getHandler()
     {
         return handler;
@@ -114,7 +152,10 @@ public class TopicSubscriberGroupBuilder
                 startPositions,
                 forceStart,
                 name,
-                prefetchCapacity);
+                prefetchCapacity,
+                eventTypes,
+                eventState,
+                workflowKey);
 
         final TopicSubscriberGroup subscriberGroup = new TopicSubscriberGroup(
                 client,
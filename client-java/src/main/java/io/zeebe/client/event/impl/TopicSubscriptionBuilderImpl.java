@@ -126,7 +126,7 @@ public class TopicSubscriptionBuilderImpl implements TopicSubscriptionBuilder
 
         if (TopicEventType.TASK == eventType && taskEventHandler != null)
         {
-            final TaskEventImpl taskEvent = msgPackMapper.convert(event.getAsMsgPack(), TaskEventImpl.class);
+            final TaskEventImpl taskEvent = msgPackMapper.wrapTaskEvent(event.getAsMsgPack());
             taskEvent.updateMetadata(event.getMetadata());
             taskEventHandler.handle(taskEvent);
         }
@@ -194,4 +194,25 @@ public class TopicSubscriptionBuilderImpl implements TopicSubscriptionBuilder
         builder.forceStart();
         return this;
     }
+
+    @Override
+    public TopicSubscriptionBuilder eventTypes(TopicEventType... eventTypes)
+    {
+        builder.eventTypes(eventTypes);
+        return this;
+    }
+
+    @Override
+    public TopicSubscriptionBuilder eventState(String eventState)
+    {
+        builder.eventState(eventState);
+        return this;
+    }
+
+    @Override
+    public TopicSubscriptionBuilder workflowKey(long workflowKey)
+    {
+        builder.workflowKey(workflowKey);
+        return this;
+    }
 }
@@ -21,6 +21,7 @@ import io.zeebe.util.CheckedConsumer;
 
 public class TopicSubscriptionSpec
 {
+    public static final int ALL_EVENT_TYPES = -1;
 
     protected final String topic;
     protected final CheckedConsumer<GeneralEventImpl> handler;
@@ -29,6 +30,9 @@ public class TopicSubscriptionSpec
     protected final int prefetchCapacity;
     protected final long defaultStartPosition;
     protected final Long2LongHashMap startPositions;
+    protected final int eventTypes;
+    protected final String eventState;
+    protected final long workflowKey;
 
     public TopicSubscriptionSpec(
             String topic,
@@ -37,7 +41,10 @@ public class TopicSubscriptionSpec
             Long2LongHashMap startPositions,
             boolean forceStart,
             String name,
-            int prefetchCapacity)
+            int prefetchCapacity,
+            int eventTypes,
+            String eventState,
+            long workflowKey)
     {
         this.topic = topic;
         this.handler = handler;
@@ -46,6 +53,9 @@ public class TopicSubscriptionSpec
         this.forceStart = forceStart;
         this.name = name;
         this.prefetchCapacity = prefetchCapacity;
+        this.eventTypes = eventTypes;
+        this.eventState = eventState;
+        this.workflowKey = workflowKey;
     }
 
     public String getTopic()
@@ -85,6 +95,18 @@ public class TopicSubscriptionSpec
     {
         return prefetchCapacity;
     }
+    public int getEventTypes()
+    {
+        return eventTypes;
+    }
+    public String getEventState()
+    {
+        return eventState;
+    }
+    public long getWorkflowKey()
+    {
+        return workflowKey;
+    }
 
     @Override
     public String toString()
@@ -104,6 +126,12 @@ public class TopicSubscriptionSpec
         builder.append(name);
         builder.append(", prefetchCapacity=");
         builder.append(prefetchCapacity);
+        builder.append(", eventTypes=");
+        builder.append(eventTypes);
+        builder.append(", eventState=");
+        builder.append(eventState);
+        builder.append(", workflowKey=");
+        builder.append(workflowKey);
         builder.append("]");
         return builder.toString();
     }
@@ -32,7 +32,10 @@ import io.zeebe.client.cmd.ClientException;
 import io.zeebe.client.event.EventMetadata;
 import io.zeebe.client.event.impl.EventImpl;
 import io.zeebe.client.event.impl.EventTypeMapping;
+import io.zeebe.client.event.impl.TaskEventEncoder;
+import io.zeebe.client.event.impl.TaskEventImpl;
 import io.zeebe.client.impl.cmd.CommandImpl;
+import io.zeebe.client.impl.data.MsgPackMapper;
 import io.zeebe.protocol.clientapi.ExecuteCommandRequestEncoder;
 import io.zeebe.protocol.clientapi.ExecuteCommandResponseDecoder;
 import io.zeebe.protocol.clientapi.MessageHeaderDecoder;
@@ -50,13 +53,17 @@ public class CommandRequestHandler implements RequestResponseHandler
     protected BiFunction<EventImpl, EventImpl, String> errorFunction;
 
     protected final ObjectMapper objectMapper;
+    protected final MsgPackMapper msgPackMapper;
+
+    protected final TaskEventEncoder taskEventEncoder = new TaskEventEncoder();
 
     protected ExpandableArrayBuffer serializedCommand = new ExpandableArrayBuffer();
     protected int serializedCommandLength = 0;
 
-    public CommandRequestHandler(ObjectMapper objectMapper)
+    public CommandRequestHandler(ObjectMapper objectMapper, MsgPackMapper msgPackMapper)
     {
         this.objectMapper = objectMapper;
+        this.msgPackMapper = msgPackMapper;
     }
 
     @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -101,7 +108,30 @@ public class CommandRequestHandler implements RequestResponseHandler
         final int commandHeaderOffset = offset;
         final int serializedCommandOffset = commandHeaderOffset + commandHeaderLength();
 
-        final ExpandableDirectBufferOutputStream out = new ExpandableDirectBufferOutputStream(serializedCommand, serializedCommandOffset);
+        final int commandLength = serializeEvent(event, serializedCommandOffset);
+
+        // can only write the header after we have written the command, as we don't know the length beforehand
+        serializedCommand.putShort(commandHeaderOffset, (short) commandLength, java.nio.ByteOrder.LITTLE_ENDIAN);
+
+        serializedCommandLength = serializedCommandOffset + commandLength;
+    }
+
+    protected int serializeEvent(EventImpl event, int offset)
+    {
+        if (event instanceof TaskEventImpl)
+        {
+            // task commands are the most frequent ones - encode them directly
+            try
+            {
+                return taskEventEncoder.encode((TaskEventImpl) event, serializedCommand, offset);
+            }
+            catch (IllegalArgumentException e)
+            {
+                // a header value which can not be encoded directly - fall back to the object mapper
+            }
+        }
+
+        final ExpandableDirectBufferOutputStream out = new ExpandableDirectBufferOutputStream(serializedCommand, offset);
         try
         {
             objectMapper.writeValue(out, event);
@@ -111,11 +141,7 @@ public class CommandRequestHandler implements RequestResponseHandler
             throw new RuntimeException("Failed to serialize command", e);
         }
 
-        // can only write the header after we have written the command, as we don't know the length beforehand
-        final short commandLength = (short) out.position();
-        serializedCommand.putShort(commandHeaderOffset, commandLength, java.nio.ByteOrder.LITTLE_ENDIAN);
-
-        serializedCommandLength = serializedCommandOffset + out.position();
+        return out.position();
     }
 
     @Override
@@ -145,21 +171,10 @@ public class CommandRequestHandler implements RequestResponseHandler
         final int partitionId = decoder.partitionId();
         final long position = decoder.position();
 
+        final int eventOffset = decoder.limit() + ExecuteCommandResponseDecoder.eventHeaderLength();
         final int eventLength = decoder.eventLength();
 
-        final DirectBufferInputStream inStream = new DirectBufferInputStream(
-                buffer,
-                decoder.limit() + ExecuteCommandResponseDecoder.eventHeaderLength(),
-                eventLength);
-        final EventImpl result;
-        try
-        {
-            result = objectMapper.readValue(inStream, event.getClass());
-        }
-        catch (Exception e)
-        {
-            throw new ClientException("Cannot deserialize event in response", e);
-        }
+        final EventImpl result = deserializeEvent(buffer, eventOffset, eventLength);
 
         result.setKey(key);
         result.setPartitionId(partitionId);
@@ -174,6 +189,30 @@ public class CommandRequestHandler implements RequestResponseHandler
         return result;
     }
 
+    protected EventImpl deserializeEvent(DirectBuffer buffer, int offset, int length)
+    {
+        try
+        {
+            if (event instanceof TaskEventImpl)
+            {
+                // wrap the task event instead of converting it, the properties are decoded on access
+                final byte[] encodedEvent = new byte[length];
+                buffer.getBytes(offset, encodedEvent);
+
+                return msgPackMapper.wrapTaskEvent(encodedEvent);
+            }
+            else
+            {
+                final DirectBufferInputStream inStream = new DirectBufferInputStream(buffer, offset, length);
+                return objectMapper.readValue(inStream, event.getClass());
+            }
+        }
+        catch (Exception e)
+        {
+            throw new ClientException("Cannot deserialize event in response", e);
+        }
+    }
+
     @Override
     public String getTargetTopic()
     {
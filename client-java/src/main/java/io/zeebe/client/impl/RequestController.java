@@ -29,6 +29,7 @@ import io.zeebe.client.cmd.ClientCommandRejectedException;
 import io.zeebe.client.cmd.ClientException;
 import io.zeebe.client.impl.cmd.CommandImpl;
 import io.zeebe.client.impl.cmd.ReceiverAwareResponseResult;
+import io.zeebe.client.impl.data.MsgPackMapper;
 import io.zeebe.client.task.impl.ControlMessageRequest;
 import io.zeebe.protocol.clientapi.ErrorCode;
 import io.zeebe.protocol.clientapi.ErrorResponseDecoder;
@@ -96,6 +97,7 @@ public class RequestController implements BufferReader
             final ClientTransport transport,
             final ClientTopologyManager topologyManager,
             final ObjectMapper objectMapper,
+            final MsgPackMapper msgPackMapper,
             RequestDispatchStrategy requestDispatchStrategy,
             Consumer<RequestController> closeConsumer,
             long requestTimeout)
@@ -103,7 +105,7 @@ public class RequestController implements BufferReader
         this.transport = transport;
         this.topologyManager = topologyManager;
         this.closeConsumer = closeConsumer;
-        this.commandRequestHandler = new CommandRequestHandler(objectMapper);
+        this.commandRequestHandler = new CommandRequestHandler(objectMapper, msgPackMapper);
         this.controlMessageHandler = new ControlMessageRequestHandler(objectMapper);
         this.requestDispatchStrategy = requestDispatchStrategy;
         this.cmdTimeout = TimeUnit.SECONDS.toMillis(requestTimeout);
@@ -15,29 +15,55 @@
  */
 package io.zeebe.client.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.zeebe.client.clustering.impl.ClientTopologyManager;
 import io.zeebe.client.cmd.ClientException;
 import io.zeebe.client.event.Event;
 import io.zeebe.client.impl.cmd.CommandImpl;
+import io.zeebe.client.impl.data.MsgPackMapper;
 import io.zeebe.client.task.impl.ControlMessageRequest;
 import io.zeebe.protocol.Protocol;
 import io.zeebe.transport.ClientTransport;
 import io.zeebe.util.actor.Actor;
-
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+
+/**
+ * Executes the requests of the client with a bounded pool of request
+ * controllers. The controllers are created on demand. Only the controllers
+ * which execute a request are active and worked on by the conductor, so the
+ * cost of an iteration depends on the number of in-flight requests and not on
+ * the size of the pool.
+ */
 public class RequestManager implements Actor
 {
-    private int capacity;
+    private final int capacity;
+    private final AtomicInteger createdControllers = new AtomicInteger();
 
-    protected final RequestController[] commandControllers;
     protected final ArrayBlockingQueue<RequestController> pooledCmds;
 
+    /*
+     * configured controllers, handed over to the conductor
+     */
+    protected final ManyToOneConcurrentArrayQueue<RequestController> activatedCmds;
+
+    /*
+     * only accessed by the conductor
+     */
+    protected final List<RequestController> activeCmds = new ArrayList<>();
+    protected boolean isCurrentCmdClosed = false;
+
     protected final ClientTransport transport;
     protected final ClientTopologyManager topologyManager;
+    protected final ObjectMapper objectMapper;
+    protected final MsgPackMapper msgPackMapper;
+    protected final long requestTimeout;
 
     protected final RequestDispatchStrategy dispatchStrategy;
 
@@ -46,29 +72,20 @@ public class RequestManager implements Actor
             final ClientTopologyManager topologyManager,
             RequestDispatchStrategy dispatchStrategy,
             ObjectMapper objectMapper,
+            MsgPackMapper msgPackMapper,
             int capacity,
             long requestTimeout)
     {
         this.transport = transport;
         this.topologyManager = topologyManager;
+        this.objectMapper = objectMapper;
+        this.msgPackMapper = msgPackMapper;
+        this.requestTimeout = requestTimeout;
         this.capacity = capacity;
 
         this.pooledCmds = new ArrayBlockingQueue<>(capacity);
-        this.commandControllers = new RequestController[capacity];
+        this.activatedCmds = new ManyToOneConcurrentArrayQueue<>(capacity);
         this.dispatchStrategy = dispatchStrategy;
-
-        for (int i = 0; i < capacity; i++)
-        {
-            final RequestController controller = new RequestController(
-                transport,
-                topologyManager,
-                objectMapper,
-                dispatchStrategy,
-                ctrl -> pooledCmds.add(ctrl),
-                requestTimeout);
-            this.commandControllers[i] = controller;
-            this.pooledCmds.add(controller);
-        }
     }
 
     public ClientTopologyManager getTopologyManager()
@@ -79,12 +96,28 @@ public class RequestManager implements Actor
     @Override
     public int doWork() throws Exception
     {
-        int wc = 0;
+        int wc = activatedCmds.drain(activeCmds::add);
 
-        for (int i = 0; i < capacity; i++)
+        int i = 0;
+        while (i < activeCmds.size())
         {
-            final RequestController controller = commandControllers[i];
+            final RequestController controller = activeCmds.get(i);
+
+            isCurrentCmdClosed = false;
             wc += controller.doWork();
+
+            if (isCurrentCmdClosed)
+            {
+                final int lastIndex = activeCmds.size() - 1;
+                activeCmds.set(i, activeCmds.get(lastIndex));
+                activeCmds.remove(lastIndex);
+
+                pooledCmds.add(controller);
+            }
+            else
+            {
+                i += 1;
+            }
         }
 
         return wc;
@@ -96,6 +129,7 @@ public class RequestManager implements Actor
 
         final RequestController ctrl = acquireRequestController();
         ctrl.configureCommandRequest(command, future);
+        activatedCmds.offer(ctrl);
 
         return future;
     }
@@ -122,20 +156,56 @@ public class RequestManager implements Actor
 
         final RequestController ctrl = acquireRequestController();
         ctrl.configureControlMessageRequest(controlMessage, future);
+        activatedCmds.offer(ctrl);
 
         return future;
     }
 
     protected RequestController acquireRequestController()
     {
-        try
+        RequestController controller = pooledCmds.poll();
+
+        if (controller == null)
         {
-            return pooledCmds.take();
+            controller = newRequestControllerIfCapacity();
         }
-        catch (InterruptedException e)
+
+        if (controller == null)
         {
-            throw new ClientException("Could not acquire request controller from pool", e);
+            try
+            {
+                controller = pooledCmds.take();
+            }
+            catch (InterruptedException e)
+            {
+                throw new ClientException("Could not acquire request controller from pool", e);
+            }
+        }
+
+        return controller;
+    }
+
+    protected RequestController newRequestControllerIfCapacity()
+    {
+        int created;
+        do
+        {
+            created = createdControllers.get();
+            if (created >= capacity)
+            {
+                return null;
+            }
         }
+        while (!createdControllers.compareAndSet(created, created + 1));
+
+        return new RequestController(
+            transport,
+            topologyManager,
+            objectMapper,
+            msgPackMapper,
+            dispatchStrategy,
+            ctrl -> isCurrentCmdClosed = true,
+            requestTimeout);
     }
 
     protected <E> E waitAndResolve(CompletableFuture<E> future)
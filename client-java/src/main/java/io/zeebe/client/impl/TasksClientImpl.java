@@ -15,9 +15,15 @@
  */
 package io.zeebe.client.impl;
 
+import java.util.List;
+
 import io.zeebe.client.TasksClient;
+import io.zeebe.client.cmd.Request;
+import io.zeebe.client.event.BatchEvent;
 import io.zeebe.client.event.TaskEvent;
 import io.zeebe.client.event.impl.TaskEventImpl;
+import io.zeebe.client.impl.cmd.BatchCommandImpl;
+import io.zeebe.client.impl.cmd.CommandImpl;
 import io.zeebe.client.task.PollableTaskSubscriptionBuilder;
 import io.zeebe.client.task.TaskSubscriptionBuilder;
 import io.zeebe.client.task.cmd.CompleteTaskCommand;
@@ -65,6 +71,24 @@ public class TasksClientImpl implements TasksClient
         return new CompleteTaskCommandImpl(client.getCommandManager(), (TaskEventImpl) baseEvent);
     }
 
+    @Override
+    public Request<BatchEvent> createBatch(List<CreateTaskCommand> commands)
+    {
+        return batch(commands);
+    }
+
+    @Override
+    public Request<BatchEvent> completeBatch(List<CompleteTaskCommand> commands)
+    {
+        return batch(commands);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Request<BatchEvent> batch(List<?> commands)
+    {
+        return new BatchCommandImpl(client.getCommandManager(), (List<? extends CommandImpl<?>>) commands);
+    }
+
     @Override
     public TaskSubscriptionBuilder newTaskSubscription(String topic)
     {
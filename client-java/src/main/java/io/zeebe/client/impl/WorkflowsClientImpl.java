@@ -15,9 +15,14 @@
  */
 package io.zeebe.client.impl;
 
+import java.util.List;
+
 import io.zeebe.client.WorkflowsClient;
 import io.zeebe.client.cmd.Request;
+import io.zeebe.client.event.BatchEvent;
 import io.zeebe.client.event.WorkflowInstanceEvent;
+import io.zeebe.client.impl.cmd.BatchCommandImpl;
+import io.zeebe.client.impl.cmd.CommandImpl;
 import io.zeebe.client.workflow.cmd.CreateDeploymentCommand;
 import io.zeebe.client.workflow.cmd.CreateWorkflowInstanceCommand;
 import io.zeebe.client.workflow.cmd.UpdatePayloadCommand;
@@ -47,6 +52,13 @@ public class WorkflowsClientImpl implements WorkflowsClient
         return new CreateWorkflowInstanceCommandImpl(client.getCommandManager(), client.getMsgPackConverter(), topic);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public Request<BatchEvent> createInstances(List<CreateWorkflowInstanceCommand> commands)
+    {
+        return new BatchCommandImpl(client.getCommandManager(), (List<? extends CommandImpl<?>>) (List<?>) commands);
+    }
+
     @Override
     public Request<WorkflowInstanceEvent> cancel(WorkflowInstanceEvent baseEvent)
     {
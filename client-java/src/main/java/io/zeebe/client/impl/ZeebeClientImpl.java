@@ -37,6 +37,7 @@ import io.zeebe.client.clustering.impl.TopologyResponse;
 import io.zeebe.client.cmd.Request;
 import io.zeebe.client.event.impl.TopicClientImpl;
 import io.zeebe.client.impl.data.MsgPackConverter;
+import io.zeebe.client.impl.data.MsgPackMapper;
 import io.zeebe.client.task.impl.subscription.SubscriptionManager;
 import io.zeebe.dispatcher.Dispatcher;
 import io.zeebe.dispatcher.Dispatchers;
@@ -156,7 +157,7 @@ public class ZeebeClientImpl implements ZeebeClient
                 prefetchCapacity);
         transport.registerChannelListener(subscriptionManager);
 
-        apiCommandManager = new RequestManager(transport, topologyManager, new RoundRobinDispatchStrategy(topologyManager), objectMapper, maxRequests, requestTimeout);
+        apiCommandManager = new RequestManager(transport, topologyManager, new RoundRobinDispatchStrategy(topologyManager), objectMapper, new MsgPackMapper(objectMapper, msgPackConverter), maxRequests, requestTimeout);
 
         commandManagerActorReference = transportActorScheduler.schedule(apiCommandManager);
         topologyManagerActorReference = transportActorScheduler.schedule(topologyManager);
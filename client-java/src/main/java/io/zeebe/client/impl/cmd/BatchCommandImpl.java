@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.impl.cmd;
+
+import java.util.List;
+import java.util.Objects;
+
+import io.zeebe.client.event.BatchEvent;
+import io.zeebe.client.event.EventMetadata;
+import io.zeebe.client.event.impl.BatchEventImpl;
+import io.zeebe.client.event.impl.EventImpl;
+import io.zeebe.client.impl.RequestManager;
+import io.zeebe.util.EnsureUtil;
+
+/**
+ * Sends multiple commands in one request. The commands must have the same
+ * event type and must target the same topic and, if they are bound to a
+ * partition, the same partition.
+ */
+public class BatchCommandImpl extends CommandImpl<BatchEvent>
+{
+    protected final BatchEventImpl batchEvent;
+
+    public BatchCommandImpl(RequestManager client, List<? extends CommandImpl<?>> commands)
+    {
+        super(client);
+        EnsureUtil.ensureNotNull("commands", commands);
+
+        if (commands.isEmpty())
+        {
+            throw new IllegalArgumentException("commands must not be empty");
+        }
+
+        final EventMetadata firstMetadata = commands.get(0).getEvent().getMetadata();
+
+        batchEvent = new BatchEventImpl(firstMetadata.getType());
+        batchEvent.setTopicName(firstMetadata.getTopicName());
+
+        for (CommandImpl<?> command : commands)
+        {
+            final EventImpl event = command.getEvent();
+            final EventMetadata metadata = event.getMetadata();
+
+            if (metadata.getType() != firstMetadata.getType() || !Objects.equals(metadata.getTopicName(), firstMetadata.getTopicName()))
+            {
+                throw new IllegalArgumentException("commands must have the same event type and topic");
+            }
+
+            if (event.hasValidPartitionId())
+            {
+                if (batchEvent.hasValidPartitionId() && batchEvent.getMetadata().getPartitionId() != metadata.getPartitionId())
+                {
+                    throw new IllegalArgumentException("commands must target the same partition");
+                }
+
+                batchEvent.setPartitionId(metadata.getPartitionId());
+            }
+
+            batchEvent.addCommand(event);
+        }
+    }
+
+    @Override
+    public EventImpl getEvent()
+    {
+        return batchEvent;
+    }
+
+    @Override
+    public String getExpectedStatus()
+    {
+        return BatchEventImpl.STATE_PROCESSED;
+    }
+
+}
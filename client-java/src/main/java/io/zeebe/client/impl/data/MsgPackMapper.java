@@ -16,15 +16,19 @@
 package io.zeebe.client.impl.data;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zeebe.client.event.impl.LazyTaskEventImpl;
+import io.zeebe.client.event.impl.TaskEventImpl;
 
 public class MsgPackMapper
 {
 
     protected final ObjectMapper objectMapper;
+    protected final MsgPackConverter msgPackConverter;
 
-    public MsgPackMapper(ObjectMapper objectMapper)
+    public MsgPackMapper(ObjectMapper objectMapper, MsgPackConverter msgPackConverter)
     {
         this.objectMapper = objectMapper;
+        this.msgPackConverter = msgPackConverter;
     }
 
     public <T> T convert(byte[] msgPack, Class<T> targetClass)
@@ -39,5 +43,25 @@ public class MsgPackMapper
         }
     }
 
+    public <T> T convert(byte[] msgPack, int offset, int length, Class<T> targetClass)
+    {
+        try
+        {
+            return objectMapper.readValue(msgPack, offset, length, targetClass);
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException("Could not convert msgpack to object of type " + targetClass.getName(), e);
+        }
+    }
+
+    /**
+     * Wraps the task event instead of converting it. The properties are decoded
+     * when they are accessed, see {@link LazyTaskEventImpl}.
+     */
+    public TaskEventImpl wrapTaskEvent(byte[] msgPack)
+    {
+        return LazyTaskEventImpl.wrap(msgPack, this, msgPackConverter);
+    }
 
 }
@@ -0,0 +1,453 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.impl.data;
+
+import java.nio.ByteOrder;
+import java.util.Collection;
+import java.util.Map;
+
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Writes MsgPack values directly into a buffer. Use an expandable buffer if
+ * the encoded length is not known beforehand.
+ */
+public class MsgPackWriter
+{
+    protected static final ByteOrder BYTE_ORDER = ByteOrder.BIG_ENDIAN;
+
+    protected static final byte NIL = (byte) 0xc0;
+    protected static final byte FALSE = (byte) 0xc2;
+    protected static final byte TRUE = (byte) 0xc3;
+    protected static final byte BIN8 = (byte) 0xc4;
+    protected static final byte BIN16 = (byte) 0xc5;
+    protected static final byte BIN32 = (byte) 0xc6;
+    protected static final byte FLOAT64 = (byte) 0xcb;
+    protected static final byte UINT8 = (byte) 0xcc;
+    protected static final byte UINT16 = (byte) 0xcd;
+    protected static final byte UINT32 = (byte) 0xce;
+    protected static final byte INT8 = (byte) 0xd0;
+    protected static final byte INT16 = (byte) 0xd1;
+    protected static final byte INT32 = (byte) 0xd2;
+    protected static final byte INT64 = (byte) 0xd3;
+    protected static final byte STR8 = (byte) 0xd9;
+    protected static final byte STR16 = (byte) 0xda;
+    protected static final byte STR32 = (byte) 0xdb;
+    protected static final byte ARRAY16 = (byte) 0xdc;
+    protected static final byte ARRAY32 = (byte) 0xdd;
+    protected static final byte MAP16 = (byte) 0xde;
+    protected static final byte MAP32 = (byte) 0xdf;
+
+    protected static final int FIXMAP_PREFIX = 0x80;
+    protected static final int FIXARRAY_PREFIX = 0x90;
+    protected static final int FIXSTR_PREFIX = 0xa0;
+
+    protected MutableDirectBuffer buffer;
+    protected int offset;
+
+    public MsgPackWriter wrap(MutableDirectBuffer buffer, int offset)
+    {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * @return the offset after the last written value
+     */
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    public MsgPackWriter writeMapHeader(int size)
+    {
+        if (size < 16)
+        {
+            writeByte(FIXMAP_PREFIX | size);
+        }
+        else if (size < (1 << 16))
+        {
+            writeByte(MAP16);
+            writeShort(size);
+        }
+        else
+        {
+            writeByte(MAP32);
+            writeInt(size);
+        }
+        return this;
+    }
+
+    public MsgPackWriter writeArrayHeader(int size)
+    {
+        if (size < 16)
+        {
+            writeByte(FIXARRAY_PREFIX | size);
+        }
+        else if (size < (1 << 16))
+        {
+            writeByte(ARRAY16);
+            writeShort(size);
+        }
+        else
+        {
+            writeByte(ARRAY32);
+            writeInt(size);
+        }
+        return this;
+    }
+
+    public MsgPackWriter writeStringHeader(int length)
+    {
+        if (length < 32)
+        {
+            writeByte(FIXSTR_PREFIX | length);
+        }
+        else if (length < (1 << 8))
+        {
+            writeByte(STR8);
+            writeByte(length);
+        }
+        else if (length < (1 << 16))
+        {
+            writeByte(STR16);
+            writeShort(length);
+        }
+        else
+        {
+            writeByte(STR32);
+            writeInt(length);
+        }
+        return this;
+    }
+
+    /**
+     * Writes an UTF-8 encoded string.
+     */
+    public MsgPackWriter writeString(byte[] utf8Bytes)
+    {
+        writeStringHeader(utf8Bytes.length);
+        writeRaw(utf8Bytes);
+        return this;
+    }
+
+    /**
+     * Writes the string UTF-8 encoded, without creating an intermediate byte
+     * array. Unpaired surrogates are replaced by '?' like {@link String#getBytes}
+     * does.
+     */
+    public MsgPackWriter writeString(CharSequence value)
+    {
+        final int length = value.length();
+
+        writeStringHeader(utf8Length(value));
+
+        for (int i = 0; i < length; i++)
+        {
+            final char c = value.charAt(i);
+
+            if (c < 0x80)
+            {
+                writeByte(c);
+            }
+            else if (c < 0x800)
+            {
+                writeByte(0xc0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3f));
+            }
+            else if (Character.isSurrogate(c))
+            {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1)))
+                {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    writeByte(0xf0 | (codePoint >> 18));
+                    writeByte(0x80 | ((codePoint >> 12) & 0x3f));
+                    writeByte(0x80 | ((codePoint >> 6) & 0x3f));
+                    writeByte(0x80 | (codePoint & 0x3f));
+                }
+                else
+                {
+                    writeByte('?');
+                }
+            }
+            else
+            {
+                writeByte(0xe0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3f));
+                writeByte(0x80 | (c & 0x3f));
+            }
+        }
+        return this;
+    }
+
+    public MsgPackWriter writeInteger(long value)
+    {
+        if (value >= 0)
+        {
+            if (value < (1 << 7))
+            {
+                writeByte((int) value);
+            }
+            else if (value < (1 << 8))
+            {
+                writeByte(UINT8);
+                writeByte((int) value);
+            }
+            else if (value < (1 << 16))
+            {
+                writeByte(UINT16);
+                writeShort((int) value);
+            }
+            else if (value < (1L << 32))
+            {
+                writeByte(UINT32);
+                writeInt((int) value);
+            }
+            else
+            {
+                writeByte(INT64);
+                writeLong(value);
+            }
+        }
+        else
+        {
+            if (value >= -(1 << 5))
+            {
+                writeByte((int) value);
+            }
+            else if (value >= Byte.MIN_VALUE)
+            {
+                writeByte(INT8);
+                writeByte((int) value);
+            }
+            else if (value >= Short.MIN_VALUE)
+            {
+                writeByte(INT16);
+                writeShort((int) value);
+            }
+            else if (value >= Integer.MIN_VALUE)
+            {
+                writeByte(INT32);
+                writeInt((int) value);
+            }
+            else
+            {
+                writeByte(INT64);
+                writeLong(value);
+            }
+        }
+        return this;
+    }
+
+    public MsgPackWriter writeFloat(double value)
+    {
+        writeByte(FLOAT64);
+        buffer.putDouble(offset, value, BYTE_ORDER);
+        offset += Double.BYTES;
+        return this;
+    }
+
+    public MsgPackWriter writeBoolean(boolean value)
+    {
+        writeByte(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public MsgPackWriter writeNil()
+    {
+        writeByte(NIL);
+        return this;
+    }
+
+    public MsgPackWriter writeBinaryHeader(int length)
+    {
+        if (length < (1 << 8))
+        {
+            writeByte(BIN8);
+            writeByte(length);
+        }
+        else if (length < (1 << 16))
+        {
+            writeByte(BIN16);
+            writeShort(length);
+        }
+        else
+        {
+            writeByte(BIN32);
+            writeInt(length);
+        }
+        return this;
+    }
+
+    public MsgPackWriter writeBinary(byte[] value)
+    {
+        writeBinaryHeader(value.length);
+        writeRaw(value);
+        return this;
+    }
+
+    /**
+     * Copies the bytes as they are, e.g. an already encoded MsgPack value.
+     */
+    public MsgPackWriter writeRaw(byte[] bytes)
+    {
+        buffer.putBytes(offset, bytes);
+        offset += bytes.length;
+        return this;
+    }
+
+    /**
+     * Writes a value of a JSON-like document, i.e. <code>null</code>, a
+     * string, a number, a boolean, a binary, a collection or array of these
+     * values or a map with string keys.
+     *
+     * @throws IllegalArgumentException if the value (or a nested value) is of
+     *             another type
+     */
+    public MsgPackWriter writeValue(Object value)
+    {
+        if (value == null)
+        {
+            writeNil();
+        }
+        else if (value instanceof CharSequence)
+        {
+            writeString((CharSequence) value);
+        }
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+        {
+            writeInteger(((Number) value).longValue());
+        }
+        else if (value instanceof Double || value instanceof Float)
+        {
+            writeFloat(((Number) value).doubleValue());
+        }
+        else if (value instanceof Boolean)
+        {
+            writeBoolean((Boolean) value);
+        }
+        else if (value instanceof byte[])
+        {
+            writeBinary((byte[]) value);
+        }
+        else if (value instanceof Map)
+        {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            writeMapHeader(map.size());
+
+            for (Map.Entry<?, ?> entry : map.entrySet())
+            {
+                final Object key = entry.getKey();
+                if (!(key instanceof CharSequence))
+                {
+                    throw new IllegalArgumentException("Cannot write map with key of type " + (key != null ? key.getClass().getName() : null));
+                }
+
+                writeString((CharSequence) key);
+                writeValue(entry.getValue());
+            }
+        }
+        else if (value instanceof Collection)
+        {
+            final Collection<?> collection = (Collection<?>) value;
+            writeArrayHeader(collection.size());
+
+            for (Object element : collection)
+            {
+                writeValue(element);
+            }
+        }
+        else if (value instanceof Object[])
+        {
+            final Object[] array = (Object[]) value;
+            writeArrayHeader(array.length);
+
+            for (Object element : array)
+            {
+                writeValue(element);
+            }
+        }
+        else
+        {
+            throw new IllegalArgumentException("Cannot write value of type " + value.getClass().getName());
+        }
+        return this;
+    }
+
+    protected void writeByte(int value)
+    {
+        buffer.putByte(offset, (byte) value);
+        offset += Byte.BYTES;
+    }
+
+    protected void writeShort(int value)
+    {
+        buffer.putShort(offset, (short) value, BYTE_ORDER);
+        offset += Short.BYTES;
+    }
+
+    protected void writeInt(int value)
+    {
+        buffer.putInt(offset, value, BYTE_ORDER);
+        offset += Integer.BYTES;
+    }
+
+    protected void writeLong(long value)
+    {
+        buffer.putLong(offset, value, BYTE_ORDER);
+        offset += Long.BYTES;
+    }
+
+    protected static int utf8Length(CharSequence value)
+    {
+        final int length = value.length();
+        int utf8Length = 0;
+
+        for (int i = 0; i < length; i++)
+        {
+            final char c = value.charAt(i);
+
+            if (c < 0x80)
+            {
+                utf8Length += 1;
+            }
+            else if (c < 0x800)
+            {
+                utf8Length += 2;
+            }
+            else if (Character.isSurrogate(c))
+            {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1)))
+                {
+                    utf8Length += 4;
+                    i++;
+                }
+                else
+                {
+                    utf8Length += 1;
+                }
+            }
+            else
+            {
+                utf8Length += 3;
+            }
+        }
+
+        return utf8Length;
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.task;
+
+import io.zeebe.client.event.TaskEvent;
+
+/**
+ * A task handler which completes its tasks asynchronously via the given
+ * {@link TaskController}, so that the handler returns before the broker has
+ * responded.
+ *
+ * Implementations MUST be thread-safe.
+ */
+@FunctionalInterface
+public interface AsyncTaskHandler
+{
+
+    /**
+     * <p>Handles a task. Implements the work to be done
+     * whenever a task of a certain type is executed.
+     */
+    void handle(TaskController controller, TaskEvent task);
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.task;
+
+import java.util.concurrent.Future;
+
+import io.zeebe.client.event.TaskEvent;
+
+/**
+ * Completes or fails tasks of a subscription without blocking the calling
+ * thread. The subscription continues to hand out new tasks while the commands
+ * are in flight, up to the limit set by
+ * {@link TaskSubscriptionBuilder#maxPendingCompletions(int)}.
+ */
+public interface TaskController
+{
+
+    /**
+     * Completes the task with its current payload.
+     *
+     * @return a future which is completed when the broker has responded
+     */
+    Future<TaskEvent> completeAsync(TaskEvent task);
+
+    /**
+     * Completes the task with the given payload.
+     *
+     * @param payload the new payload as JSON document
+     * @return a future which is completed when the broker has responded
+     */
+    Future<TaskEvent> completeAsync(TaskEvent task, String payload);
+
+    /**
+     * Marks the task as failed and decrements its retries by one.
+     *
+     * @return a future which is completed when the broker has responded
+     */
+    Future<TaskEvent> failAsync(TaskEvent task);
+
+}
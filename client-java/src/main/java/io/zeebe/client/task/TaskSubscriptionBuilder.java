@@ -16,6 +16,7 @@
 package io.zeebe.client.task;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
 
 /**
  * Builds a {@link TaskSubscription} that automatically notifies a {@link TaskHandler} whenever a task is received.
@@ -64,6 +65,43 @@ public interface TaskSubscriptionBuilder
      */
     TaskSubscriptionBuilder handler(TaskHandler handler);
 
+    /**
+     * Sets the {@link AsyncTaskHandler} that is going to receive
+     * callbacks for tasks that fulfill this subscription. Can be used
+     * instead of {@link #handler(TaskHandler)}.
+     */
+    TaskSubscriptionBuilder asyncHandler(AsyncTaskHandler handler);
+
+    /**
+     * Adapts the number of locked tasks to the speed of the handler. The task
+     * fetch size becomes the maximum. Fewer tasks are locked if the locked tasks
+     * would probably not be handled within the lock time, and more tasks are
+     * locked again if the handler waits for tasks. Disabled by default.
+     *
+     * @param adaptive true to adapt the number of locked tasks
+     */
+    TaskSubscriptionBuilder adaptiveTaskFetchSize(boolean adaptive);
+
+    /**
+     * Sets the maximum number of complete and fail commands which can be in
+     * flight at the same time. When the limit is reached, no more tasks are
+     * handed to the handler until a response is received. Defaults to the
+     * task fetch size.
+     *
+     * @param maxPendingCompletions number of pending commands
+     */
+    TaskSubscriptionBuilder maxPendingCompletions(int maxPendingCompletions);
+
+    /**
+     * Runs each handler invocation on the given executor instead of the
+     * client's task execution threads. This is useful for handlers which
+     * block on I/O. The number of concurrent invocations is limited by the
+     * task fetch size. New tasks are requested as the invocations finish.
+     *
+     * @param executor the executor to run the handler on
+     */
+    TaskSubscriptionBuilder executor(Executor executor);
+
     /**
      * Opens a new {@link PollableTaskSubscription}. Begins receiving
      * tasks from that point on.
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.task.impl.subscription;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the credits of a task subscription with additive increase and
+ * multiplicative decrease, between one and the task fetch size.
+ *
+ * <p>
+ * The limit is adapted once per window, i.e. after as many tasks are handled
+ * as the current limit. If the locked tasks which wait in the client would
+ * probably not be handled within half of the lock time (estimated by the
+ * average handling time), the limit is halved. If no task is waiting, the
+ * handlers are faster than the broker delivers tasks and the limit is
+ * increased by one.
+ *
+ * <p>
+ * Must only be used by the acquisition, except for
+ * {@link #onTaskHandled(long)} which is called by the handler threads.
+ */
+public class AdaptiveCredits
+{
+    /**
+     * weight of a new sample for the average handling time
+     */
+    protected static final double HANDLING_TIME_WEIGHT = 0.2d;
+
+    protected final int maxCredits;
+
+    protected int limit;
+
+    /**
+     * credits which are granted to the broker and not handled yet
+     * (including the tasks which are in transit or wait in the client)
+     */
+    protected int outstandingCredits;
+
+    protected int handledInWindow;
+
+    // written by the handler threads; lost updates only affect the average slightly
+    protected volatile long avgHandlingTimeNanos = 0;
+
+    public AdaptiveCredits(int maxCredits)
+    {
+        this.maxCredits = maxCredits;
+        reset();
+    }
+
+    /**
+     * Must be called when the subscription is opened with the maximum credits.
+     */
+    public void reset()
+    {
+        limit = maxCredits;
+        outstandingCredits = maxCredits;
+        handledInWindow = 0;
+    }
+
+    public void onTaskHandled(long handlingTimeNanos)
+    {
+        final long avg = avgHandlingTimeNanos;
+        avgHandlingTimeNanos = avg == 0 ? handlingTimeNanos : (long) (avg + HANDLING_TIME_WEIGHT * (handlingTimeNanos - avg));
+    }
+
+    /**
+     * @param handledTasks the number of tasks handled since the last invocation
+     * @param waitingTasks the number of tasks which wait in the client
+     * @param lockTime the lock time of the subscription in milliseconds
+     * @return the credits to grant to the broker
+     */
+    public int onTasksHandled(int handledTasks, int waitingTasks, long lockTime)
+    {
+        outstandingCredits -= handledTasks;
+        handledInWindow += handledTasks;
+
+        if (handledInWindow >= limit)
+        {
+            handledInWindow = 0;
+
+            final long expectedWaitingTime = waitingTasks * avgHandlingTimeNanos;
+
+            if (expectedWaitingTime > TimeUnit.MILLISECONDS.toNanos(lockTime) / 2)
+            {
+                limit = Math.max(1, limit / 2);
+            }
+            else if (waitingTasks == 0)
+            {
+                limit = Math.min(maxCredits, limit + 1);
+            }
+        }
+
+        // same threshold as for fixed credits, see EventSubscriber
+        if (outstandingCredits < limit * EventSubscriber.REPLENISHMENT_THRESHOLD)
+        {
+            final int credits = limit - outstandingCredits;
+            outstandingCredits = limit;
+            return credits;
+        }
+        else
+        {
+            return 0;
+        }
+    }
+
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    public long getAvgHandlingTimeNanos()
+    {
+        return avgHandlingTimeNanos;
+    }
+}
@@ -325,7 +325,15 @@ public abstract class EventSubscriber
 
     protected int pollEvents(CheckedConsumer<GeneralEventImpl> pollHandler)
     {
-        final int currentlyAvailableEvents = size();
+        return pollEvents(pollHandler, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxEvents the maximum number of events to handle in this invocation
+     */
+    protected int pollEvents(CheckedConsumer<GeneralEventImpl> pollHandler, int maxEvents)
+    {
+        final int currentlyAvailableEvents = Math.min(size(), maxEvents);
         int handledEvents = 0;
 
         GeneralEventImpl event;
@@ -41,6 +41,11 @@ public class MsgPackField
 
     public String getAsJson()
     {
+        // converted on demand since most handlers don't read the payload as JSON
+        if (json == null && msgPack != null)
+        {
+            json = msgPackConverter.convertToJson(msgPack);
+        }
         return json;
     }
 
@@ -72,14 +77,7 @@ public class MsgPackField
     public void setMsgPack(byte[] msgPack)
     {
         this.msgPack = msgPack;
-        if (msgPack != null)
-        {
-            this.json = this.msgPackConverter.convertToJson(msgPack);
-        }
-        else
-        {
-            this.json = null;
-        }
+        this.json = null;
     }
 
     public byte[] getMsgPack()
@@ -75,7 +75,7 @@ public class SubscriptionManager implements TransportListener, Actor
                 .join();
 
         this.numExecutionThreads = numExecutionThreads;
-        this.msgPackMapper = new MsgPackMapper(client.getObjectMapper());
+        this.msgPackMapper = new MsgPackMapper(client.getObjectMapper(), client.getMsgPackConverter());
 
         this.topicSubscriptionPrefetchCapacity = topicSubscriptionPrefetchCapacity;
         this.topologyManager = client.getTopologyManager();
@@ -15,16 +15,26 @@
  */
 package io.zeebe.client.task.impl.subscription;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 
+import io.zeebe.client.cmd.Request;
+import io.zeebe.client.event.TaskEvent;
+import io.zeebe.client.event.impl.GeneralEventImpl;
 import io.zeebe.client.event.impl.TaskEventImpl;
 import io.zeebe.client.impl.Loggers;
 import io.zeebe.client.impl.TasksClientImpl;
 import io.zeebe.client.impl.data.MsgPackMapper;
+import io.zeebe.client.task.AsyncTaskHandler;
+import io.zeebe.client.task.TaskController;
 import io.zeebe.client.task.TaskHandler;
 import io.zeebe.client.task.impl.CreateTaskSubscriptionCommandImpl;
+import io.zeebe.util.CheckedConsumer;
 
 public class TaskSubscriber extends EventSubscriber
 {
@@ -35,6 +45,11 @@ public class TaskSubscriber extends EventSubscriber
 
     protected MsgPackMapper msgPackMapper;
 
+    protected final TaskController taskController = new SubscriberTaskController();
+    protected final AtomicInteger pendingCompletions = new AtomicInteger(0);
+
+    protected final AdaptiveCredits adaptiveCredits;
+
     public TaskSubscriber(
             TasksClientImpl client,
             TaskSubscriptionSpec subscription,
@@ -46,38 +61,178 @@ public class TaskSubscriber extends EventSubscriber
         this.taskClient = client;
         this.subscription = subscription;
         this.msgPackMapper = msgPackMapper;
+        this.adaptiveCredits = subscription.isAdaptiveCapacity() ? new AdaptiveCredits(capacity) : null;
     }
 
     public int pollEvents(TaskHandler taskHandler)
     {
-        int polledEvents = pollEvents((e) ->
+        return handleTasks((taskEvent) -> taskHandler.handle(taskClient, taskEvent));
+    }
+
+    public int pollEvents(AsyncTaskHandler taskHandler)
+    {
+        return handleTasks((taskEvent) -> taskHandler.handle(taskController, taskEvent));
+    }
+
+    protected int handleTasks(CheckedConsumer<TaskEventImpl> handler)
+    {
+        // don't hand out more tasks while too many commands are in flight
+        final int maxEvents = subscription.getMaxPendingCompletions() - pendingCompletions.get();
+        if (maxEvents <= 0)
         {
-            final TaskEventImpl taskEvent = msgPackMapper.convert(e.getAsMsgPack(), TaskEventImpl.class);
-            taskEvent.updateMetadata(e.getMetadata());
+            return 0;
+        }
 
-            try
+        final Executor executor = subscription.getExecutor();
+
+        if (executor != null)
+        {
+            return dispatchTasks(handler, executor, maxEvents);
+        }
+        else
+        {
+            return pollEvents((e) -> handleTask(handler, e), maxEvents);
+        }
+    }
+
+    /**
+     * Hands the tasks over to the executor. A task is in processing until the
+     * handler returns, so that the credits are replenished when the handlers
+     * finish and not when the tasks are dispatched. The number of concurrent
+     * invocations is limited by the credits of the subscription.
+     */
+    protected int dispatchTasks(CheckedConsumer<TaskEventImpl> handler, Executor executor, int maxEvents)
+    {
+        final int currentlyAvailableEvents = Math.min(size(), maxEvents);
+        int dispatchedEvents = 0;
+
+        while (dispatchedEvents < currentlyAvailableEvents && isOpen() && !isCloseIssued.get())
+        {
+            final GeneralEventImpl event = pendingEvents.poll();
+            if (event == null)
+            {
+                break;
+            }
+
+            // see pollEvents for why this must be incremented before checking the state
+            eventsInProcessing.incrementAndGet();
+            if (!isOpen())
             {
-                taskHandler.handle(taskClient, taskEvent);
+                onTaskHandled();
+                break;
             }
-            catch (Exception handlingException)
+
+            dispatchedEvents++;
+            logHandling(event);
+
+            try
             {
-                LOGGER.info("An error occurred when handling task " + taskEvent.getMetadata().getKey() +
-                        ". Reporting failure to broker.", handlingException);
-                try
+                executor.execute(() ->
                 {
-                    taskClient.fail(taskEvent)
-                        .retries(taskEvent.getRetries() - 1)
-                        .execute();
-                }
-                catch (Exception failureException)
+                    try
+                    {
+                        handleTask(handler, event);
+                    }
+                    finally
+                    {
+                        onTaskHandled();
+                    }
+                });
+            }
+            catch (RejectedExecutionException e)
+            {
+                LOGGER.warn("Could not dispatch task " + event.getMetadata().getKey() + " to executor.", e);
+                onTaskHandled();
+            }
+        }
+
+        return dispatchedEvents;
+    }
+
+    protected void onTaskHandled()
+    {
+        eventsInProcessing.decrementAndGet();
+        eventsProcessedSinceLastReplenishment.incrementAndGet();
+    }
+
+    protected void handleTask(CheckedConsumer<TaskEventImpl> handler, GeneralEventImpl event)
+    {
+        final TaskEventImpl taskEvent = msgPackMapper.wrapTaskEvent(event.getAsMsgPack());
+        taskEvent.updateMetadata(event.getMetadata());
+
+        final long startTime = adaptiveCredits != null ? System.nanoTime() : 0L;
+
+        try
+        {
+            handler.accept(taskEvent);
+
+            if (adaptiveCredits != null)
+            {
+                adaptiveCredits.onTaskHandled(System.nanoTime() - startTime);
+            }
+        }
+        catch (Exception handlingException)
+        {
+            LOGGER.info("An error occurred when handling task " + taskEvent.getMetadata().getKey() +
+                    ". Reporting failure to broker.", handlingException);
+
+            reportFailure(taskEvent);
+        }
+    }
+
+    protected void reportFailure(TaskEventImpl taskEvent)
+    {
+        try
+        {
+            final CompletableFuture<TaskEvent> future = (CompletableFuture<TaskEvent>) taskController.failAsync(taskEvent);
+
+            future.whenComplete((result, failureException) ->
+            {
+                if (failureException != null)
                 {
                     LOGGER.info("Could not report failure of task " + taskEvent.getMetadata().getKey() +
-                        " to broker. Continuing with next task", failureException);
+                        " to broker.", failureException);
                 }
-            }
-        });
+            });
+        }
+        catch (Exception failureException)
+        {
+            LOGGER.info("Could not report failure of task " + taskEvent.getMetadata().getKey() +
+                " to broker. Continuing with next task", failureException);
+        }
+    }
 
-        return polledEvents;
+    @Override
+    protected boolean replenishEventSource()
+    {
+        if (adaptiveCredits == null)
+        {
+            return super.replenishEventSource();
+        }
+
+        final int eventsProcessed = eventsProcessedSinceLastReplenishment.get();
+        eventsProcessedSinceLastReplenishment.addAndGet(-eventsProcessed);
+
+        final int credits = adaptiveCredits.onTasksHandled(eventsProcessed, size(), subscription.getLockTime());
+
+        if (credits > 0)
+        {
+            requestEventSourceReplenishment(credits);
+        }
+
+        return credits > 0;
+    }
+
+    @Override
+    protected void resetProcessingState()
+    {
+        super.resetProcessingState();
+
+        if (adaptiveCredits != null)
+        {
+            // the subscription is opened with the maximum credits
+            adaptiveCredits.reset();
+        }
     }
 
     @Override
@@ -127,4 +282,49 @@ public class TaskSubscriber extends EventSubscriber
     {
         return subscription.getTopic();
     }
+
+    /**
+     * Sends the commands of the task handler and tracks them as pending until
+     * the response is received.
+     */
+    protected class SubscriberTaskController implements TaskController
+    {
+        @Override
+        public Future<TaskEvent> completeAsync(TaskEvent task)
+        {
+            return track(taskClient.complete(task));
+        }
+
+        @Override
+        public Future<TaskEvent> completeAsync(TaskEvent task, String payload)
+        {
+            return track(taskClient.complete(task).payload(payload));
+        }
+
+        @Override
+        public Future<TaskEvent> failAsync(TaskEvent task)
+        {
+            return track(taskClient.fail(task).retries(task.getRetries() - 1));
+        }
+
+        protected Future<TaskEvent> track(Request<TaskEvent> command)
+        {
+            pendingCompletions.incrementAndGet();
+
+            final CompletableFuture<TaskEvent> future;
+            try
+            {
+                future = (CompletableFuture<TaskEvent>) command.executeAsync();
+            }
+            catch (RuntimeException e)
+            {
+                pendingCompletions.decrementAndGet();
+                throw e;
+            }
+
+            future.whenComplete((result, failure) -> pendingCompletions.decrementAndGet());
+
+            return future;
+        }
+    }
 }
@@ -18,6 +18,7 @@ package io.zeebe.client.task.impl.subscription;
 import io.zeebe.client.ZeebeClient;
 import io.zeebe.client.impl.TasksClientImpl;
 import io.zeebe.client.impl.data.MsgPackMapper;
+import io.zeebe.client.task.AsyncTaskHandler;
 import io.zeebe.client.task.PollableTaskSubscription;
 import io.zeebe.client.task.TaskHandler;
 import io.zeebe.client.task.TaskSubscription;
@@ -43,7 +44,22 @@ public class TaskSubscriberGroup extends EventSubscriberGroup<TaskSubscriber> im
     @Override
     public int poll()
     {
-        return poll(subscription.getTaskHandler());
+        final AsyncTaskHandler asyncTaskHandler = subscription.getAsyncTaskHandler();
+
+        if (asyncTaskHandler != null)
+        {
+            int workCount = 0;
+            for (TaskSubscriber subscriber : subscribers)
+            {
+                workCount += subscriber.pollEvents(asyncTaskHandler);
+            }
+
+            return workCount;
+        }
+        else
+        {
+            return poll(subscription.getTaskHandler());
+        }
     }
 
     @Override
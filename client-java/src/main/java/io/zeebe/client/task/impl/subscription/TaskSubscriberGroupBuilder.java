@@ -15,9 +15,12 @@
  */
 package io.zeebe.client.task.impl.subscription;
 
+import java.util.concurrent.Executor;
+
 import io.zeebe.client.ZeebeClient;
 import io.zeebe.client.clustering.impl.ClientTopologyManager;
 import io.zeebe.client.impl.data.MsgPackMapper;
+import io.zeebe.client.task.AsyncTaskHandler;
 import io.zeebe.client.task.TaskHandler;
 import io.zeebe.util.EnsureUtil;
 
@@ -29,7 +32,11 @@ public class TaskSubscriberGroupBuilder
     protected long lockTime = -1L;
     protected String lockOwner;
     protected TaskHandler taskHandler;
+    protected AsyncTaskHandler asyncTaskHandler;
     protected int taskFetchSize = DEFAULT_TASK_FETCH_SIZE;
+    protected boolean adaptiveTaskFetchSize = false;
+    protected int maxPendingCompletions = -1;
+    protected Executor executor;
 
     protected final ZeebeClient client;
     protected final EventAcquisition taskAcquisition;
@@ -75,6 +82,30 @@ public class TaskSubscriberGroupBuilder
         return this;
     }
 
+    public TaskSubscriberGroupBuilder asyncTaskHandler(AsyncTaskHandler asyncTaskHandler)
+    {
+        this.asyncTaskHandler = asyncTaskHandler;
+        return this;
+    }
+
+    public TaskSubscriberGroupBuilder adaptiveTaskFetchSize(boolean adaptiveTaskFetchSize)
+    {
+        this.adaptiveTaskFetchSize = adaptiveTaskFetchSize;
+        return this;
+    }
+
+    public TaskSubscriberGroupBuilder maxPendingCompletions(int maxPendingCompletions)
+    {
+        this.maxPendingCompletions = maxPendingCompletions;
+        return this;
+    }
+
+    public TaskSubscriberGroupBuilder executor(Executor executor)
+    {
+        this.executor = executor;
+        return this;
+    }
+
     public TaskSubscriberGroupBuilder taskFetchSize(int taskFetchSize)
     {
         this.taskFetchSize = taskFetchSize;
@@ -88,8 +119,23 @@ public class TaskSubscriberGroupBuilder
         EnsureUtil.ensureNotNullOrEmpty("lockOwner", lockOwner);
         EnsureUtil.ensureGreaterThan("taskFetchSize", taskFetchSize, 0);
 
-        final TaskSubscriptionSpec subscription =
-                new TaskSubscriptionSpec(topic, taskHandler, taskType, lockTime, lockOwner, taskFetchSize);
+        if (maxPendingCompletions < 0)
+        {
+            maxPendingCompletions = taskFetchSize;
+        }
+        EnsureUtil.ensureGreaterThan("maxPendingCompletions", maxPendingCompletions, 0);
+
+        final TaskSubscriptionSpec subscription = new TaskSubscriptionSpec(
+                topic,
+                taskHandler,
+                asyncTaskHandler,
+                taskType,
+                lockTime,
+                lockOwner,
+                taskFetchSize,
+                adaptiveTaskFetchSize,
+                maxPendingCompletions,
+                executor);
 
         final TaskSubscriberGroup subscriberGroup = new TaskSubscriberGroup(
                 client,
@@ -16,10 +16,12 @@
 package io.zeebe.client.task.impl.subscription;
 
 import java.time.Duration;
+import java.util.concurrent.Executor;
 
 import io.zeebe.client.ZeebeClient;
 import io.zeebe.client.clustering.impl.ClientTopologyManager;
 import io.zeebe.client.impl.data.MsgPackMapper;
+import io.zeebe.client.task.AsyncTaskHandler;
 import io.zeebe.client.task.TaskHandler;
 import io.zeebe.client.task.TaskSubscription;
 import io.zeebe.client.task.TaskSubscriptionBuilder;
@@ -28,6 +30,7 @@ import io.zeebe.util.EnsureUtil;
 public class TaskSubscriptionBuilderImpl implements TaskSubscriptionBuilder
 {
     protected TaskHandler taskHandler;
+    protected AsyncTaskHandler asyncTaskHandler;
 
     protected final TaskSubscriberGroupBuilder subscriberBuilder;
 
@@ -68,6 +71,34 @@ public class TaskSubscriptionBuilderImpl implements TaskSubscriptionBuilder
         return this;
     }
 
+    @Override
+    public TaskSubscriptionBuilder asyncHandler(AsyncTaskHandler handler)
+    {
+        this.asyncTaskHandler = handler;
+        return this;
+    }
+
+    @Override
+    public TaskSubscriptionBuilder adaptiveTaskFetchSize(boolean adaptive)
+    {
+        subscriberBuilder.adaptiveTaskFetchSize(adaptive);
+        return this;
+    }
+
+    @Override
+    public TaskSubscriptionBuilder maxPendingCompletions(int maxPendingCompletions)
+    {
+        subscriberBuilder.maxPendingCompletions(maxPendingCompletions);
+        return this;
+    }
+
+    @Override
+    public TaskSubscriptionBuilder executor(Executor executor)
+    {
+        subscriberBuilder.executor(executor);
+        return this;
+    }
+
     @Override
     public TaskSubscriptionBuilder taskFetchSize(int numTasks)
     {
@@ -85,8 +116,15 @@ public class TaskSubscriptionBuilderImpl implements TaskSubscriptionBuilder
     @Override
     public TaskSubscription open()
     {
-        EnsureUtil.ensureNotNull("taskHandler", taskHandler);
-        subscriberBuilder.taskHandler(taskHandler);
+        if (asyncTaskHandler != null)
+        {
+            subscriberBuilder.asyncTaskHandler(asyncTaskHandler);
+        }
+        else
+        {
+            EnsureUtil.ensureNotNull("taskHandler", taskHandler);
+            subscriberBuilder.taskHandler(taskHandler);
+        }
 
         final TaskSubscriberGroup subscriberGroup = subscriberBuilder.build();
         subscriberGroup.open();
@@ -15,6 +15,9 @@
  */
 package io.zeebe.client.task.impl.subscription;
 
+import java.util.concurrent.Executor;
+
+import io.zeebe.client.task.AsyncTaskHandler;
 import io.zeebe.client.task.TaskHandler;
 
 public class TaskSubscriptionSpec
@@ -22,25 +25,37 @@ public class TaskSubscriptionSpec
 
     protected final String topic;
     protected final TaskHandler taskHandler;
+    protected final AsyncTaskHandler asyncTaskHandler;
     protected final String taskType;
     protected final long lockTime;
     protected final String lockOwner;
     protected final int capacity;
+    protected final boolean adaptiveCapacity;
+    protected final int maxPendingCompletions;
+    protected final Executor executor;
 
     public TaskSubscriptionSpec(
             String topic,
             TaskHandler taskHandler,
+            AsyncTaskHandler asyncTaskHandler,
             String taskType,
             long lockTime,
             String lockOwner,
-            int capacity)
+            int capacity,
+            boolean adaptiveCapacity,
+            int maxPendingCompletions,
+            Executor executor)
     {
         this.topic = topic;
         this.taskHandler = taskHandler;
+        this.asyncTaskHandler = asyncTaskHandler;
         this.taskType = taskType;
         this.lockTime = lockTime;
         this.lockOwner = lockOwner;
         this.capacity = capacity;
+        this.adaptiveCapacity = adaptiveCapacity;
+        this.maxPendingCompletions = maxPendingCompletions;
+        this.executor = executor;
     }
 
     public String getTopic()
@@ -53,6 +68,11 @@ public class TaskSubscriptionSpec
         return taskHandler;
     }
 
+    public AsyncTaskHandler getAsyncTaskHandler()
+    {
+        return asyncTaskHandler;
+    }
+
     public String getTaskType()
     {
         return taskType;
@@ -73,9 +93,32 @@ public class TaskSubscriptionSpec
         return capacity;
     }
 
+    /**
+     * @return true if the credits are adapted to the handling time; the
+     *         capacity is the maximum then
+     */
+    public boolean isAdaptiveCapacity()
+    {
+        return adaptiveCapacity;
+    }
+
+    public int getMaxPendingCompletions()
+    {
+        return maxPendingCompletions;
+    }
+
+    /**
+     * @return the executor to run the handler on or <code>null</code> if the
+     *         handler runs on the client's task execution threads
+     */
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
     public boolean isManaged()
     {
-        return taskHandler != null;
+        return taskHandler != null || asyncTaskHandler != null;
     }
 
     @Override
@@ -86,6 +129,8 @@ public class TaskSubscriptionSpec
         builder.append(topic);
         builder.append(", taskHandler=");
         builder.append(taskHandler);
+        builder.append(", asyncTaskHandler=");
+        builder.append(asyncTaskHandler);
         builder.append(", taskType=");
         builder.append(taskType);
         builder.append(", lockTime=");
@@ -94,6 +139,12 @@ public class TaskSubscriptionSpec
         builder.append(lockOwner);
         builder.append(", capacity=");
         builder.append(capacity);
+        builder.append(", adaptiveCapacity=");
+        builder.append(adaptiveCapacity);
+        builder.append(", maxPendingCompletions=");
+        builder.append(maxPendingCompletions);
+        builder.append(", executor=");
+        builder.append(executor);
         builder.append("]");
         return builder.toString();
     }
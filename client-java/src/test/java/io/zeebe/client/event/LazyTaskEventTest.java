@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessagePacker;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.zeebe.client.event.impl.TaskEventImpl;
+import io.zeebe.client.impl.data.MsgPackConverter;
+import io.zeebe.client.impl.data.MsgPackMapper;
+
+public class LazyTaskEventTest
+{
+    protected static final String PAYLOAD = "{\"foo\":\"bar\"}";
+
+    protected final MsgPackConverter msgPackConverter = new MsgPackConverter();
+
+    protected MsgPackMapper msgPackMapper;
+    protected byte[] encodedEvent;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        msgPackMapper = new MsgPackMapper(new ObjectMapper(new MessagePackFactory()), msgPackConverter);
+
+        final byte[] payload = msgPackConverter.convertToMsgPack(PAYLOAD);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final MessagePacker packer = MessagePack.newDefaultPacker(outputStream);
+
+        packer.packMapHeader(9);
+        packer.packString("state").packString("LOCKED");
+        packer.packString("unknown").packArrayHeader(1).packInt(1);
+        packer.packString("type").packString("test");
+        packer.packString("retries").packInt(3);
+        packer.packString("lockTime").packLong(123L);
+        packer.packString("lockOwner").packString("owner");
+        packer.packString("headers").packMapHeader(1).packString("activityId").packString("task");
+        packer.packString("customHeaders").packMapHeader(0);
+        packer.packString("payload").packBinaryHeader(payload.length).writePayload(payload);
+        packer.close();
+
+        encodedEvent = outputStream.toByteArray();
+    }
+
+    @Test
+    public void shouldReadProperties()
+    {
+        // when
+        final TaskEventImpl taskEvent = msgPackMapper.wrapTaskEvent(encodedEvent);
+
+        // then
+        assertThat(taskEvent.getState()).isEqualTo("LOCKED");
+        assertThat(taskEvent.getType()).isEqualTo("test");
+        assertThat(taskEvent.getRetries()).isEqualTo(3);
+        assertThat(taskEvent.getLockTime()).isEqualTo(123L);
+        assertThat(taskEvent.getLockOwner()).isEqualTo("owner");
+        assertThat(taskEvent.getHeaders()).containsExactly(entry("activityId", "task"));
+        assertThat(taskEvent.getCustomHeaders()).isEmpty();
+        assertThat(taskEvent.getPayload()).isEqualTo(PAYLOAD);
+    }
+
+    @Test
+    public void shouldReadPayloadAsMsgPack()
+    {
+        // given
+        final TaskEventImpl taskEvent = msgPackMapper.wrapTaskEvent(encodedEvent);
+
+        // when
+        final ByteBuffer payload = taskEvent.getPayloadAsMsgPack();
+
+        // then
+        final byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+
+        assertThat(bytes).isEqualTo(msgPackConverter.convertToMsgPack(PAYLOAD));
+        assertThat(payload.isReadOnly()).isTrue();
+    }
+
+    @Test
+    public void shouldOverrideEncodedProperties()
+    {
+        // given
+        final TaskEventImpl taskEvent = msgPackMapper.wrapTaskEvent(encodedEvent);
+
+        // when
+        taskEvent.setRetries(2);
+        taskEvent.setPayload("{\"foo\":\"baz\"}");
+
+        // then
+        assertThat(taskEvent.getRetries()).isEqualTo(2);
+        assertThat(taskEvent.getPayload()).isEqualTo("{\"foo\":\"baz\"}");
+        assertThat(taskEvent.getPayloadAsMsgPack()).isEqualTo(ByteBuffer.wrap(msgPackConverter.convertToMsgPack("{\"foo\":\"baz\"}")));
+    }
+
+    @Test
+    public void shouldCopyProperties()
+    {
+        // given
+        final TaskEventImpl taskEvent = msgPackMapper.wrapTaskEvent(encodedEvent);
+
+        // when
+        final TaskEventImpl copy = new TaskEventImpl(taskEvent, "COMPLETE");
+
+        // then
+        assertThat(copy.getState()).isEqualTo("COMPLETE");
+        assertThat(copy.getType()).isEqualTo("test");
+        assertThat(copy.getRetries()).isEqualTo(3);
+        assertThat(copy.getLockTime()).isEqualTo(123L);
+        assertThat(copy.getLockOwner()).isEqualTo("owner");
+        assertThat(copy.getHeaders()).containsExactly(entry("activityId", "task"));
+        assertThat(copy.getPayloadMsgPack()).isEqualTo(msgPackConverter.convertToMsgPack(PAYLOAD));
+    }
+
+}
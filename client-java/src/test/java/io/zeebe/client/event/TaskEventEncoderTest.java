@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.zeebe.client.event.impl.TaskEventEncoder;
+import io.zeebe.client.event.impl.TaskEventImpl;
+import io.zeebe.client.impl.data.MsgPackConverter;
+
+public class TaskEventEncoderTest
+{
+    protected final MsgPackConverter msgPackConverter = new MsgPackConverter();
+    protected final TaskEventEncoder encoder = new TaskEventEncoder();
+    protected final ExpandableArrayBuffer buffer = new ExpandableArrayBuffer(16);
+
+    protected ObjectMapper objectMapper;
+
+    @Before
+    public void setUp()
+    {
+        objectMapper = new ObjectMapper(new MessagePackFactory());
+        objectMapper.setSerializationInclusion(Include.NON_NULL);
+        objectMapper.setInjectableValues(new InjectableValues.Std().addValue(MsgPackConverter.class, msgPackConverter));
+    }
+
+    @Test
+    public void shouldEncodeLikeObjectMapper() throws Exception
+    {
+        // given
+        final Map<String, Object> headers = new HashMap<>();
+        headers.put("activityId", "task");
+        headers.put("workflowInstanceKey", 4294967296L);
+        headers.put("nested", Arrays.asList(-1, 2.5, true, null, "ä€😀"));
+
+        final TaskEventImpl event = new TaskEventImpl("COMPLETE", msgPackConverter);
+        event.setType("test");
+        event.setRetries(3);
+        event.setLockTime(123L);
+        event.setLockOwner("owner");
+        event.setHeaders(headers);
+        event.setCustomHeaders(Collections.singletonMap("foo", "bar"));
+        event.setPayload("{\"foo\":\"bar\"}");
+
+        // when
+        final int length = encoder.encode(event, buffer, 4);
+
+        // then
+        final byte[] encoded = new byte[length];
+        buffer.getBytes(4, encoded);
+
+        assertThat(objectMapper.readValue(encoded, Map.class))
+            .isEqualTo(objectMapper.readValue(objectMapper.writeValueAsBytes(event), Map.class));
+    }
+
+    @Test
+    public void shouldOmitNullProperties() throws Exception
+    {
+        // given
+        final TaskEventImpl event = new TaskEventImpl("CREATE", msgPackConverter);
+        event.setType("test");
+
+        // when
+        final int length = encoder.encode(event, buffer, 0);
+
+        // then
+        final byte[] encoded = new byte[length];
+        buffer.getBytes(0, encoded);
+
+        assertThat(objectMapper.readValue(encoded, Map.class))
+            .containsOnlyKeys("state", "type", "lockTime", "headers", "customHeaders");
+    }
+
+    @Test
+    public void shouldDecodeEncodedEvent() throws Exception
+    {
+        // given
+        final TaskEventImpl event = new TaskEventImpl("CREATE", msgPackConverter);
+        event.setType("test");
+        event.setRetries(5);
+        event.setPayload("{\"foo\":\"bar\"}");
+
+        final int length = encoder.encode(event, buffer, 0);
+        final byte[] encoded = new byte[length];
+        buffer.getBytes(0, encoded);
+
+        // when
+        final TaskEventImpl decodedEvent = objectMapper.readValue(encoded, TaskEventImpl.class);
+
+        // then
+        assertThat(decodedEvent.getState()).isEqualTo("CREATE");
+        assertThat(decodedEvent.getType()).isEqualTo("test");
+        assertThat(decodedEvent.getRetries()).isEqualTo(5);
+        assertThat(decodedEvent.getPayload()).isEqualTo("{\"foo\":\"bar\"}");
+    }
+
+}
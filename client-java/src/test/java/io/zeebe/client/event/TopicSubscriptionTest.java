@@ -143,6 +143,37 @@ public class TopicSubscriptionTest
         assertThat(subscribeRequest.getCommand()).containsEntry("forceStart", true);
     }
 
+    @Test
+    public void shouldOpenSubscriptionWithFilter()
+    {
+        // given
+        broker.stubTopicSubscriptionApi(123L);
+
+        // when
+        clientRule.topics().newSubscription(clientRule.getDefaultTopicName())
+            .startAtHeadOfTopic()
+            .eventTypes(TopicEventType.TASK, TopicEventType.INCIDENT)
+            .eventState("CREATED")
+            .workflowKey(456L)
+            .handler(DO_NOTHING)
+            .name(SUBSCRIPTION_NAME)
+            .open();
+
+        // then
+        final ExecuteCommandRequest subscribeRequest = broker.getReceivedCommandRequests()
+            .stream()
+            .filter((e) -> e.eventType() == EventType.SUBSCRIBER_EVENT)
+            .findFirst()
+            .get();
+
+        final int expectedEventTypes = (1 << EventType.TASK_EVENT.value()) | (1 << EventType.INCIDENT_EVENT.value());
+
+        assertThat(subscribeRequest.getCommand())
+            .containsEntry("eventTypes", expectedEventTypes)
+            .containsEntry("eventState", "CREATED")
+            .containsEntry("workflowKey", 456);
+    }
+
     @Test
     public void shouldOpenSubscriptionAtTailOfTopic()
     {
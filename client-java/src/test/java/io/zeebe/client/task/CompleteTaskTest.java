@@ -20,6 +20,10 @@ import static org.assertj.core.api.Assertions.entry;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -29,6 +33,7 @@ import org.junit.rules.RuleChain;
 
 import io.zeebe.client.TasksClient;
 import io.zeebe.client.cmd.ClientCommandRejectedException;
+import io.zeebe.client.event.BatchEvent;
 import io.zeebe.client.event.TaskEvent;
 import io.zeebe.client.event.impl.TaskEventImpl;
 import io.zeebe.client.impl.data.MsgPackConverter;
@@ -217,4 +222,59 @@ public class CompleteTaskTest
                 entry("payload", converter.convertToMsgPack(updatedPayload)));
     }
 
+    @Test
+    public void shouldCompleteTasksInBatch()
+    {
+        // given
+        final TaskEventImpl firstEvent = Events.exampleTask();
+        final TaskEventImpl secondEvent = Events.exampleTask();
+        secondEvent.setKey(80);
+
+        brokerRule.onExecuteCommandRequest(r -> r.isBatch())
+            .respondWith()
+            .event()
+              .put("state", "PROCESSED")
+              .put("results", Arrays.asList(
+                      result(79L, "COMPLETED"),
+                      result(80L, "COMPLETE_REJECTED")))
+              .done()
+            .register();
+
+        // when
+        final BatchEvent batchEvent = clientRule.tasks()
+            .completeBatch(Arrays.asList(
+                    client.complete(firstEvent),
+                    client.complete(secondEvent).withoutPayload()))
+            .execute();
+
+        // then
+        assertThat(brokerRule.getReceivedCommandRequests()).hasSize(1);
+
+        final ExecuteCommandRequest request = brokerRule.getReceivedCommandRequests().get(0);
+        assertThat(request.eventType()).isEqualTo(EventType.TASK_EVENT);
+        assertThat(request.partitionId()).isEqualTo(StubBrokerRule.TEST_PARTITION_ID);
+
+        final List<Map<String, Object>> batch = request.getBatch();
+        assertThat(batch).hasSize(2);
+        assertThat(batch.get(0)).contains(entry("key", 79));
+        assertThat(batch.get(1)).contains(entry("key", 80));
+
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> secondCommand = (Map<String, Object>) batch.get(1).get("command");
+        assertThat(secondCommand).contains(entry("state", "COMPLETE"));
+        assertThat(secondCommand).doesNotContainKey("payload");
+
+        assertThat(batchEvent.getState()).isEqualTo("PROCESSED");
+        assertThat(batchEvent.getCommandKeys()).containsExactly(79L, 80L);
+        assertThat(batchEvent.getCommandStates()).containsExactly("COMPLETED", "COMPLETE_REJECTED");
+    }
+
+    private static Map<String, Object> result(long key, String state)
+    {
+        final Map<String, Object> result = new HashMap<>();
+        result.put("key", key);
+        result.put("state", state);
+        return result;
+    }
+
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2017 camunda services GmbH (info@camunda.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.zeebe.client.task.subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.zeebe.client.task.impl.subscription.AdaptiveCredits;
+
+public class AdaptiveCreditsTest
+{
+    protected static final long LOCK_TIME = 10_000L;
+
+    @Test
+    public void shouldReplenishHandledTasks()
+    {
+        // given
+        final AdaptiveCredits credits = new AdaptiveCredits(10);
+
+        // when
+        final int grantedCredits = credits.onTasksHandled(8, 2, LOCK_TIME);
+
+        // then
+        assertThat(grantedCredits).isEqualTo(8);
+        assertThat(credits.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void shouldNotReplenishBelowThreshold()
+    {
+        // given
+        final AdaptiveCredits credits = new AdaptiveCredits(10);
+
+        // when
+        final int grantedCredits = credits.onTasksHandled(2, 8, LOCK_TIME);
+
+        // then
+        assertThat(grantedCredits).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldDecreaseLimitIfTasksWaitTooLong()
+    {
+        // given
+        final AdaptiveCredits credits = new AdaptiveCredits(10);
+        credits.onTaskHandled(TimeUnit.SECONDS.toNanos(2));
+
+        // when
+        credits.onTasksHandled(10, 5, LOCK_TIME);
+
+        // then
+        assertThat(credits.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void shouldIncreaseLimitIfNoTasksWait()
+    {
+        // given
+        final AdaptiveCredits credits = new AdaptiveCredits(10);
+        credits.onTaskHandled(TimeUnit.SECONDS.toNanos(2));
+        credits.onTasksHandled(10, 5, LOCK_TIME);
+
+        credits.onTaskHandled(TimeUnit.MILLISECONDS.toNanos(1));
+
+        // when
+        final int grantedCredits = credits.onTasksHandled(5, 0, LOCK_TIME);
+
+        // then
+        assertThat(credits.getLimit()).isEqualTo(6);
+        assertThat(grantedCredits).isEqualTo(6);
+    }
+
+    @Test
+    public void shouldNotExceedMaxCredits()
+    {
+        // given
+        final AdaptiveCredits credits = new AdaptiveCredits(10);
+
+        // when
+        credits.onTasksHandled(10, 0, LOCK_TIME);
+
+        // then
+        assertThat(credits.getLimit()).isEqualTo(10);
+    }
+
+}
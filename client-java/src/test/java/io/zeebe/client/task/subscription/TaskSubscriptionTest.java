@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
@@ -614,6 +615,110 @@ public class TaskSubscriptionTest
             .doesNotContainKey("payload");
     }
 
+    @Test
+    public void shouldCompleteTaskAsync()
+    {
+        // given
+        broker.stubTaskSubscriptionApi(123L);
+        stubTaskCompleteRequest();
+
+        clientRule.tasks().newTaskSubscription(clientRule.getDefaultTopicName())
+                .asyncHandler((c, t) -> c.completeAsync(t, "{\"a\": 1}"))
+                .lockOwner("foo")
+                .lockTime(10000L)
+                .taskType("bar")
+                .open();
+
+        final RemoteAddress eventSource = getSubscribeRequests().findFirst().get().getSource();
+
+        // when
+        broker.pushLockedTask(eventSource, 123L, 4L, 5L, "foo", "bar");
+
+        // then
+        final ExecuteCommandRequest taskRequest = TestUtil.doRepeatedly(() -> broker.getReceivedCommandRequests().stream()
+                .filter(r -> r.eventType() == EventType.TASK_EVENT)
+                .findFirst())
+            .until(r -> r.isPresent())
+            .get();
+
+        assertThat(taskRequest.key()).isEqualTo(4L);
+        assertThat(taskRequest.getCommand())
+            .containsEntry("state", "COMPLETE")
+            .containsEntry("payload", msgPackConverter.convertToMsgPack("{\"a\": 1}"));
+    }
+
+    @Test
+    public void shouldNotHandleMoreTasksThanMaxPendingCompletions() throws InterruptedException
+    {
+        // given
+        broker.stubTaskSubscriptionApi(123L);
+        broker.onExecuteCommandRequest(isTaskCompleteCommand()).doNotRespond();
+
+        final AtomicInteger handledTasks = new AtomicInteger(0);
+
+        clientRule.tasks().newTaskSubscription(clientRule.getDefaultTopicName())
+                .asyncHandler((c, t) ->
+                {
+                    handledTasks.incrementAndGet();
+                    c.completeAsync(t);
+                })
+                .maxPendingCompletions(2)
+                .lockOwner("foo")
+                .lockTime(10000L)
+                .taskType("bar")
+                .open();
+
+        final RemoteAddress eventSource = getSubscribeRequests().findFirst().get().getSource();
+
+        // when
+        for (int i = 0; i < 4; i++)
+        {
+            broker.pushLockedTask(eventSource, 123L, i, i, "foo", "bar");
+        }
+
+        // then
+        TestUtil.waitUntil(() -> handledTasks.get() == 2);
+
+        // the remaining tasks are not handled while the completions are pending
+        Thread.sleep(500L);
+        assertThat(handledTasks.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldInvokeTaskHandlerOnExecutor()
+    {
+        // given
+        broker.stubTaskSubscriptionApi(123L);
+        stubTaskCompleteRequest();
+
+        final AtomicInteger dispatchedTasks = new AtomicInteger(0);
+        final Executor executor = (r) ->
+        {
+            dispatchedTasks.incrementAndGet();
+            new Thread(r).start();
+        };
+
+        final RecordingTaskHandler handler = new RecordingTaskHandler();
+        clientRule.tasks().newTaskSubscription(clientRule.getDefaultTopicName())
+                .handler(handler)
+                .executor(executor)
+                .lockOwner("foo")
+                .lockTime(10000L)
+                .taskType("bar")
+                .open();
+
+        final RemoteAddress eventSource = getSubscribeRequests().findFirst().get().getSource();
+
+        // when
+        broker.pushLockedTask(eventSource, 123L, 4L, 5L, "foo", "bar");
+
+        // then
+        TestUtil.waitUntil(() -> !handler.getHandledTasks().isEmpty());
+
+        assertThat(dispatchedTasks.get()).isEqualTo(1);
+        assertThat(handler.getHandledTasks().get(0).getMetadata().getKey()).isEqualTo(4L);
+    }
+
     @Test
     public void shouldMarkTaskAsFailedOnExpcetion()
     {
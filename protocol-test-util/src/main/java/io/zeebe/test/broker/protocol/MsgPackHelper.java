@@ -17,6 +17,7 @@ package io.zeebe.test.broker.protocol;
 
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 import org.msgpack.jackson.dataformat.MessagePackFactory;
@@ -45,6 +46,19 @@ public class MsgPackHelper
         }
     }
 
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> readMsgPackList(InputStream is)
+    {
+        try
+        {
+            return objectMapper.readValue(is, List.class);
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
     public byte[] encodeAsMsgPack(Object command)
     {
         final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
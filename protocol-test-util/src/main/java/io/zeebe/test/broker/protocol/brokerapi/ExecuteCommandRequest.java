@@ -17,6 +17,7 @@ package io.zeebe.test.broker.protocol.brokerapi;
 
 import static io.zeebe.protocol.clientapi.ExecuteCommandRequestDecoder.commandHeaderLength;
 
+import java.util.List;
 import java.util.Map;
 
 import org.agrona.DirectBuffer;
@@ -38,6 +39,7 @@ public class ExecuteCommandRequest implements BufferReader
     protected final MsgPackHelper msgPackHelper;
 
     protected Map<String, Object> command;
+    protected List<Map<String, Object>> batch;
     protected RemoteAddress source;
 
     public ExecuteCommandRequest(RemoteAddress source, MsgPackHelper msgPackHelper)
@@ -71,6 +73,20 @@ public class ExecuteCommandRequest implements BufferReader
         return command;
     }
 
+    public boolean isBatch()
+    {
+        return batch != null;
+    }
+
+    /**
+     * @return the entries (key and command) if the request is a batch,
+     *         otherwise <code>null</code>
+     */
+    public List<Map<String, Object>> getBatch()
+    {
+        return batch;
+    }
+
     public RemoteAddress getSource()
     {
         return source;
@@ -86,10 +102,27 @@ public class ExecuteCommandRequest implements BufferReader
         final int commandLength = bodyDecoder.commandLength();
         final int commandOffset = bodyDecoder.limit() + commandHeaderLength();
 
-        command = msgPackHelper.readMsgPack(new DirectBufferInputStream(
+        final DirectBufferInputStream commandStream = new DirectBufferInputStream(
                 buffer,
                 commandOffset,
-                commandLength));
+                commandLength);
+
+        if (commandLength > 0 && isArrayFormat(buffer.getByte(commandOffset)))
+        {
+            command = null;
+            batch = msgPackHelper.readMsgPackList(commandStream);
+        }
+        else
+        {
+            command = msgPackHelper.readMsgPack(commandStream);
+            batch = null;
+        }
+    }
+
+    protected static boolean isArrayFormat(byte b)
+    {
+        // fixarray, array 16 or array 32
+        return (b & 0xf0) == 0x90 || b == (byte) 0xdc || b == (byte) 0xdd;
     }
 
 }